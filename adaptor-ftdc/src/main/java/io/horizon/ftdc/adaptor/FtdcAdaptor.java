@@ -1,32 +1,50 @@
 package io.horizon.ftdc.adaptor;
 
-import static io.mercury.common.thread.Threads.sleep;
-import static io.mercury.common.thread.Threads.startNewThread;
-
+import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntSupplier;
 
 import javax.annotation.Nonnull;
 
-import org.eclipse.collections.api.set.MutableSet;
 import org.slf4j.Logger;
 
-import ctp.thostapi.CThostFtdcInputOrderActionField;
-import ctp.thostapi.CThostFtdcInputOrderField;
+import io.horizon.ftdc.adaptor.FtdcLatencyRecorder.Stage;
+import io.horizon.ftdc.adaptor.converter.FromCThostFtdcDepthMarketData;
 import io.horizon.ftdc.adaptor.converter.FromFtdcDepthMarketData;
+import io.horizon.ftdc.adaptor.converter.FromFtdcInputOrder;
+import io.horizon.ftdc.adaptor.converter.FromFtdcInputOrderAction;
 import io.horizon.ftdc.adaptor.converter.FromFtdcOrder;
+import io.horizon.ftdc.adaptor.converter.FromFtdcOrderAction;
 import io.horizon.ftdc.adaptor.converter.FromFtdcTrade;
-import io.horizon.ftdc.adaptor.converter.ToCThostFtdcInputOrder;
-import io.horizon.ftdc.adaptor.converter.ToCThostFtdcInputOrderAction;
 import io.horizon.ftdc.exception.OrderRefNotFoundException;
+import io.horizon.ftdc.gateway.AbstractFtdcGateway;
 import io.horizon.ftdc.gateway.FtdcConfig;
 import io.horizon.ftdc.gateway.FtdcGateway;
+import io.horizon.ftdc.gateway.FtdcRspPublisher;
+import io.horizon.ftdc.gateway.eventlog.FtdcEventLog;
+import io.horizon.ftdc.gateway.journal.FtdcJournalPublisher;
+import io.horizon.ftdc.gateway.journal.FtdcJournalReplayer;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcInputOrder;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcInputOrderAction;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInvestorPosition;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcMdConnect;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcOrder;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcOrderAction;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcTrade;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcTraderConnect;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTradingAccount;
+import io.horizon.ftdc.gateway.queue.FtdcPriorityLanes;
+import io.horizon.ftdc.gateway.queue.FtdcRspQueue;
+import io.horizon.ftdc.gateway.sim.FtdcSimulatedGateway;
 import io.horizon.market.data.impl.BasicMarketData;
 import io.horizon.market.handler.MarketDataHandler;
 import io.horizon.market.instrument.Instrument;
@@ -34,16 +52,21 @@ import io.horizon.trader.account.Account;
 import io.horizon.trader.adaptor.AbstractAdaptor;
 import io.horizon.trader.adaptor.AdaptorEvent;
 import io.horizon.trader.adaptor.AdaptorEvent.AdaptorStatus;
+import io.horizon.trader.adaptor.bean.BalanceReport;
 import io.horizon.trader.handler.AdaptorEventHandler;
+import io.horizon.trader.handler.BalanceReportHandler;
 import io.horizon.trader.handler.InboundScheduler;
 import io.horizon.trader.handler.OrderReportHandler;
+import io.horizon.trader.handler.PositionsReportHandler;
 import io.horizon.trader.order.ChildOrder;
 import io.horizon.trader.order.OrderReport;
-import io.mercury.common.collections.MutableSets;
+import io.horizon.trader.order.attr.OrdStatus;
 import io.mercury.common.concurrent.queue.jct.JctSingleConsumerQueue;
+import io.mercury.common.datetime.EpochTime;
 import io.mercury.common.log.CommonLoggerFactory;
 import io.mercury.common.param.Params;
 import io.mercury.common.util.ArrayUtil;
+import io.mercury.common.util.StringUtil;
 import io.mercury.serialization.json.JsonWrapper;
 
 public class FtdcAdaptor extends AbstractAdaptor<BasicMarketData> {
@@ -59,10 +82,43 @@ public class FtdcAdaptor extends AbstractAdaptor<BasicMarketData> {
 	// 转换成交回报
 	private final FromFtdcTrade fromFtdcTrade = new FromFtdcTrade();
 
+	// 转换报单错误
+	private final FromFtdcInputOrder fromFtdcInputOrder = new FromFtdcInputOrder();
+
+	// 转换撤单错误
+	private final FromFtdcInputOrderAction fromFtdcInputOrderAction = new FromFtdcInputOrderAction();
+
+	private final FromFtdcOrderAction fromFtdcOrderAction = new FromFtdcOrderAction();
+
+	// 最大保留的撤单拒绝数量
+	private static final int CancelRejectCapacity = 1024;
+
+	// 已转换的撤单拒绝, 同一撤单请求的OnRspOrderAction与OnErrRtnOrderAction只转换一次, 只在回调消息处理线程中访问
+	private final Map<String, Boolean> cancelRejects = new LinkedHashMap<String, Boolean>() {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+			// 只收到OnErrRtnOrderAction的拒绝不会被第二次回调移除
+			return size() > CancelRejectCapacity;
+		}
+
+	};
+
 	// FtdcConfig
 	private final FtdcConfig ftdcConfig;
-	// FtdcGateway
-	private final FtdcGateway ftdcGateway;
+	// FtdcGateway, 配置模拟前置时为FtdcSimulatedGateway
+	private final AbstractFtdcGateway ftdcGateway;
+
+	// 查询调度器, 限速发送查询并合并相同查询
+	private final FtdcQueryScheduler queryScheduler;
+
+	// 查询结果组装器, 只在回调消息处理线程中访问
+	private final FtdcQueryAssembler queryAssembler;
+
+	// 资金查询结果处理器, 为null时只记录日志
+	private volatile BalanceReportHandler balanceReportHandler;
 
 	// TODO 两个INT类型可以合并
 	private volatile int frontId;
@@ -71,22 +127,49 @@ public class FtdcAdaptor extends AbstractAdaptor<BasicMarketData> {
 	private volatile boolean isMdAvailable;
 	private volatile boolean isTraderAvailable;
 
-	// 订单转换为FTDC报单录入请求
-	private final ToCThostFtdcInputOrder toCThostFtdcInputOrder;
+	// 行情与交易都可用, 可以订阅行情和报单时完成
+	private final CompletableFuture<Void> readiness = new CompletableFuture<>();
 
-	// 订单转换为FTDC报单操作请求
-	private final ToCThostFtdcInputOrderAction toCThostFtdcInputOrderAction;
+	private volatile long startupNanos;
 
 	public FtdcAdaptor(@Nonnull Account account, @Nonnull Params<FtdcAdaptorParamKey> params,
 			@Nonnull MarketDataHandler<BasicMarketData> marketDataHandler,
 			@Nonnull OrderReportHandler orderReportHandler, @Nonnull AdaptorEventHandler adaptorEventHandler) {
+		this(account, newFtdcConfig(params), marketDataHandler, orderReportHandler, adaptorEventHandler);
+	}
+
+	/**
+	 * 使用调用方调整过的FtdcConfig创建Adaptor
+	 * 
+	 * @param account
+	 * @param ftdcConfig
+	 * @param marketDataHandler
+	 * @param orderReportHandler
+	 * @param adaptorEventHandler
+	 */
+	public FtdcAdaptor(@Nonnull Account account, @Nonnull FtdcConfig ftdcConfig,
+			@Nonnull MarketDataHandler<BasicMarketData> marketDataHandler,
+			@Nonnull OrderReportHandler orderReportHandler, @Nonnull AdaptorEventHandler adaptorEventHandler) {
 		super("FTDC", marketDataHandler, orderReportHandler, adaptorEventHandler, account);
-		// 创建配置信息
-		this.ftdcConfig = createFtdcConfig(params);
+		// 配置信息
+		this.ftdcConfig = ftdcConfig;
+		// 启动时订阅的合约在行情重连后同样重新订阅
+		if (ftdcConfig.getBootstrapInstruments() != null)
+			subscribedInstrumentCodes.addAll(Arrays.asList(ftdcConfig.getBootstrapInstruments()));
+		// 挂载报单链路事件日志
+		if (StringUtil.nonEmpty(ftdcConfig.getEventLogFile()))
+			attachEventLog(ftdcConfig);
+		// 查询结果组装器
+		this.queryAssembler = new FtdcQueryAssembler(account.getAccountId(), fromFtdcOrder, orderReportHandler, null);
+		// 报单流控
+		if (ftdcConfig.getOrderPerSecond() > 0)
+			this.orderThrottle = new FtdcOrderThrottle("ftdc-" + ftdcConfig.getUserId() + "-throttle",
+					ftdcConfig.getOrderPerSecond(), ftdcConfig.getExchangeOrderPerSecond());
+		// 查询调度器
+		this.queryScheduler = new FtdcQueryScheduler("ftdc-" + ftdcConfig.getUserId() + "-query",
+				ftdcConfig.getQueryPerSecond(), ftdcConfig.getQueryTimeoutMillis());
 		// 创建Gateway
 		this.ftdcGateway = createFtdcGateway();
-		this.toCThostFtdcInputOrder = new ToCThostFtdcInputOrder(params);
-		this.toCThostFtdcInputOrderAction = new ToCThostFtdcInputOrderAction(params);
 	}
 
 	public FtdcAdaptor(@Nonnull final Account account, @Nonnull final Params<FtdcAdaptorParamKey> params,
@@ -99,7 +182,7 @@ public class FtdcAdaptor extends AbstractAdaptor<BasicMarketData> {
 	 * @param params
 	 * @return
 	 */
-	private FtdcConfig createFtdcConfig(Params<FtdcAdaptorParamKey> params) {
+	public static FtdcConfig newFtdcConfig(Params<FtdcAdaptorParamKey> params) {
 		return new FtdcConfig()
 				// 交易服务器地址
 				.setTraderAddr(params.getString(FtdcAdaptorParamKey.TraderAddr))
@@ -129,99 +212,441 @@ public class FtdcAdaptor extends AbstractAdaptor<BasicMarketData> {
 
 	private String gatewayId;
 
+	/**
+	 * 
+	 * @param tradingDay 交易登录返回的交易日
+	 * @return 无法解析时返回0
+	 */
+	private static int parseTradingDay(String tradingDay) {
+		if (StringUtil.nonEmpty(tradingDay)) {
+			try {
+				return Integer.parseInt(tradingDay.trim());
+			} catch (NumberFormatException e) {
+				log.error("TradingDay==[{}] is not yyyyMMdd", tradingDay);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * 挂载OrderRef映射文件, 恢复同一交易日重启前的映射<br>
+	 * 交易日无效时不挂载, 映射只保存在堆内存
+	 * 
+	 * @param ftdcConfig
+	 * @param tradingDay
+	 */
+	private static void attachOrderRefFile(FtdcConfig ftdcConfig, int tradingDay) {
+		try {
+			OrderRefKeeper.attach(new File(ftdcConfig.getOrderRefFile()), tradingDay,
+					ftdcConfig.getOrderRefFileCapacity());
+		} catch (IOException | IllegalArgumentException e) {
+			log.error("OrderRefKeeper attach file -> {} exception -> {}", ftdcConfig.getOrderRefFile(),
+					e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 
+	 * @param ftdcConfig
+	 */
+	private void attachEventLog(FtdcConfig ftdcConfig) {
+		try {
+			this.eventLog = FtdcEventLog.attach(new File(ftdcConfig.getEventLogFile()),
+					ftdcConfig.getEventLogSlotCount());
+		} catch (IOException e) {
+			log.error("FtdcEventLog attach file -> {} exception -> {}", ftdcConfig.getEventLogFile(), e.getMessage(),
+					e);
+		}
+	}
+
+	// 报单流控, 未启用时为null
+	private FtdcOrderThrottle orderThrottle;
+
+	// 报单链路事件日志, 未启用时为null
+	private FtdcEventLog eventLog;
+
+	// 优先级通道, 未启用时为null
+	private FtdcPriorityLanes priorityLanes;
+
+	// 设置等待策略或绑核的单一队列, 未使用时为null
+	private FtdcRspQueue rspQueue;
+
+	// 回调消息日志, 未启用时为null
+	private FtdcJournalPublisher journalPublisher;
+
+	// 延迟统计, 未启用时为null
+	private FtdcLatencyRecorder latencyRecorder;
+
 	/**
 	 * 
 	 * @param ftdcConfig
 	 * @return
 	 */
-	private FtdcGateway createFtdcGateway() {
+	private AbstractFtdcGateway createFtdcGateway() {
 		this.gatewayId = "ftdc-" + ftdcConfig.getBrokerId() + "-" + ftdcConfig.getUserId();
 		log.info("Create ftdc gateway, gatewayId -> {}", gatewayId);
-		final String queueName = gatewayId + "-queue";
-		return new FtdcGateway(gatewayId, ftdcConfig,
-				// 创建队列缓冲区
-				JctSingleConsumerQueue.multiProducer(queueName).setCapacity(64).buildWithProcessor(ftdcRspMsg -> {
-					switch (ftdcRspMsg.getRspType()) {
-					case FtdcMdConnect:
-						FtdcMdConnect mdConnect = ftdcRspMsg.getFtdcMdConnect();
-						this.isMdAvailable = mdConnect.isAvailable();
-						log.info("Swap Queue processed FtdcMdConnect, isMdAvailable==[{}]", isMdAvailable);
-						final AdaptorEvent mdEvent;
-						if (isMdAvailable)
-							mdEvent = new AdaptorEvent(getAdaptorId(), AdaptorStatus.MdEnable);
-						else
-							mdEvent = new AdaptorEvent(getAdaptorId(), AdaptorStatus.MdDisable);
-						adaptorEventHandler.onAdaptorEvent(mdEvent);
-						break;
-					case FtdcTraderConnect:
-						FtdcTraderConnect traderConnect = ftdcRspMsg.getFtdcTraderConnect();
-						this.isTraderAvailable = traderConnect.isAvailable();
-						this.frontId = traderConnect.getFrontID();
-						this.sessionId = traderConnect.getSessionID();
-						log.info(
-								"Swap Queue processed FtdcTraderConnect, "
-										+ "isTraderAvailable==[{}], frontId==[{}], sessionId==[{}]",
-								isTraderAvailable, frontId, sessionId);
-						final AdaptorEvent traderEvent;
-						if (isTraderAvailable) {
-							traderEvent = new AdaptorEvent(getAdaptorId(), AdaptorStatus.TraderEnable);
-						} else {
-							traderEvent = new AdaptorEvent(getAdaptorId(), AdaptorStatus.TraderDisable);
-						}
-						adaptorEventHandler.onAdaptorEvent(traderEvent);
-						break;
-					case FtdcDepthMarketData:
-						// 行情处理
-						BasicMarketData marketData = fromFtdcDepthMarketData.apply(ftdcRspMsg.getFtdcDepthMarketData());
-						marketDataHandler.onMarketData(marketData);
-						break;
-					case FtdcOrder:
-						// 报单回报处理
-						FtdcOrder ftdcOrder = ftdcRspMsg.getFtdcOrder();
-						log.info("Buffer Queue in FtdcOrder, InstrumentID==[{}], InvestorID==[{}], "
-								+ "OrderRef==[{}], LimitPrice==[{}], VolumeTotalOriginal==[{}], OrderStatus==[{}]",
-								ftdcOrder.getInstrumentID(), ftdcOrder.getInvestorID(), ftdcOrder.getOrderRef(),
-								ftdcOrder.getLimitPrice(), ftdcOrder.getVolumeTotalOriginal(),
-								ftdcOrder.getOrderStatus());
-						OrderReport report0 = fromFtdcOrder.apply(ftdcOrder);
-						orderReportHandler.onOrderReport(report0);
-						break;
-					case FtdcTrade:
-						// 成交回报处理
-						FtdcTrade ftdcTrade = ftdcRspMsg.getFtdcTrade();
-						log.info("Buffer Queue in FtdcTrade, InstrumentID==[{}], InvestorID==[{}], OrderRef==[{}]",
-								ftdcTrade.getInstrumentID(), ftdcTrade.getInvestorID(), ftdcTrade.getOrderRef());
-						OrderReport report1 = fromFtdcTrade.apply(ftdcTrade);
-						orderReportHandler.onOrderReport(report1);
-						break;
-					case FtdcInputOrder:
-						// TODO 报单错误处理
-						FtdcInputOrder ftdcInputOrder = ftdcRspMsg.getFtdcInputOrder();
-						log.info("Buffer Queue in [FtdcInputOrder] -> {}", JsonWrapper.toJson(ftdcInputOrder));
-						break;
-					case FtdcInputOrderAction:
-						// TODO 撤单错误处理1
-						FtdcInputOrderAction ftdcInputOrderAction = ftdcRspMsg.getFtdcInputOrderAction();
-						log.info("Buffer Queue in [FtdcInputOrderAction] -> {}",
-								JsonWrapper.toJson(ftdcInputOrderAction));
-						break;
-					case FtdcOrderAction:
-						// TODO 撤单错误处理2
-						FtdcOrderAction ftdcOrderAction = ftdcRspMsg.getFtdcOrderAction();
-						log.info("Buffer Queue in [FtdcOrderAction] -> {}", JsonWrapper.toJson(ftdcOrderAction));
-						break;
-					default:
-						log.warn("Buffer Queue unprocessed [FtdcRspMsg] -> {}", JsonWrapper.toJson(ftdcRspMsg));
-						break;
-					}
-				}));
+		FtdcRspPublisher publisher;
+		if (!ftdcConfig.isPriorityLanes() && ftdcConfig.isConflateMarketData())
+			log.warn("Ftdc gateway -> {} conflateMarketData requires priorityLanes, ignored", gatewayId);
+		if (ftdcConfig.isPriorityLanes()) {
+			// 交易通道与行情通道分离, 优先处理交易消息, 行情通道写满时丢弃行情
+			this.priorityLanes = new FtdcPriorityLanes(gatewayId + "-lanes", ftdcConfig.getTradeLaneCapacity(),
+					ftdcConfig.getRspQueueCapacity(), ftdcConfig.isConflateMarketData(),
+					StringUtil.isNullOrEmpty(ftdcConfig.getSpillFile()) ? null : new File(ftdcConfig.getSpillFile()),
+					ftdcConfig.getSpillFileSize(), this::processFtdcRspMsg);
+			if (ftdcConfig.getWaitStrategy() != null)
+				priorityLanes.setWaitStrategy(ftdcConfig.getWaitStrategy());
+			priorityLanes.setConsumerCpu(ftdcConfig.getConsumerCpu()).start();
+			publisher = priorityLanes;
+		} else if (ftdcConfig.getWaitStrategy() != null || ftdcConfig.getConsumerCpu() >= 0) {
+			// 单一队列不丢弃消息, 消费线程使用指定的等待策略与绑核
+			this.rspQueue = new FtdcRspQueue(gatewayId + "-queue", ftdcConfig.getRspQueueCapacity(),
+					this::processFtdcRspMsg);
+			if (ftdcConfig.getWaitStrategy() != null)
+				rspQueue.setWaitStrategy(ftdcConfig.getWaitStrategy());
+			rspQueue.setConsumerCpu(ftdcConfig.getConsumerCpu()).start();
+			publisher = rspQueue;
+		} else {
+			final String queueName = gatewayId + "-queue";
+			// 创建队列缓冲区
+			final JctSingleConsumerQueue<FtdcRspMsg> jctQueue = JctSingleConsumerQueue.multiProducer(queueName)
+					.setCapacity(ftdcConfig.getRspQueueCapacity()).buildWithProcessor(this::processFtdcRspMsg);
+			publisher = jctQueue::enqueue;
+		}
+		if (ftdcConfig.isLatencyStats()) {
+			this.latencyRecorder = new FtdcLatencyRecorder(ftdcConfig.getLatencyDumpIntervalSeconds());
+		}
+		if (StringUtil.nonEmpty(ftdcConfig.getJournalDir())) {
+			// 在回调线程中记录全部回调消息
+			this.journalPublisher = new FtdcJournalPublisher(new File(ftdcConfig.getJournalDir()), publisher);
+			publisher = journalPublisher;
+		}
+		if (latencyRecorder != null)
+			// 最外层写入回调线程时间戳
+			publisher = FtdcLatencyRecorder.stamping(publisher);
+		if (ftdcConfig.getSimulatedConfig() != null) {
+			// 进程内模拟前置, 不加载CTP动态库
+			log.info("Use simulated ftdc gateway, gatewayId -> {}", gatewayId);
+			return new FtdcSimulatedGateway(gatewayId, ftdcConfig, publisher);
+		}
+		final FtdcGateway gateway = new FtdcGateway(gatewayId, ftdcConfig, publisher);
+		if (ftdcConfig.isFusedMarketDataConverter())
+			gateway.setMarketDataConverter(FromCThostFtdcDepthMarketData::new);
+		return gateway;
+	}
+
+	/**
+	 * 处理回调消息, 在队列或优先级通道的消费线程中执行
+	 * 
+	 * @param ftdcRspMsg
+	 */
+	private void processFtdcRspMsg(FtdcRspMsg ftdcRspMsg) {
+		if (latencyRecorder != null)
+			latencyRecorder.recordSince(Stage.SpiToDequeue, ftdcRspMsg.getSpiNanos());
+		// 订单与持仓的查询结果由组装器按批次分发
+		if (!queryAssembler.assemble(ftdcRspMsg) && !ftdcRspMsg.isEmpty())
+			dispatchFtdcRspMsg(ftdcRspMsg);
+		if (ftdcRspMsg.isLast() && ftdcRspMsg.getRequestId() > 0)
+			// 查询的最后一条回报, 释放在途查询
+			queryScheduler.onLastResponse(ftdcRspMsg.getRequestId());
+	}
+
+	/**
+	 * 撤单拒绝是否转换为回报<br>
+	 * CTP拒绝撤单时同时回调OnRspOrderAction和OnErrRtnOrderAction, 交易所拒绝撤单时只回调OnErrRtnOrderAction,
+	 * 按FrontID + SessionID + OrderRef + OrderActionRef只转换先到达的一次<br>
+	 * OnErrRtnOrderAction同时推送给同一账户的其他会话, 不属于本系统报单会话的订单不转换
+	 * 
+	 * @param frontId
+	 * @param sessionId
+	 * @param orderRef
+	 * @param orderActionRef
+	 * @return
+	 */
+	private boolean acceptCancelReject(int frontId, int sessionId, String orderRef, int orderActionRef) {
+		if (!OrderRefKeeper.isOwnOrder(orderRef, frontId, sessionId)) {
+			log.warn("Cancel reject of other session ignored -> FrontID==[{}], SessionID==[{}], OrderRef==[{}]",
+					frontId, sessionId, orderRef);
+			return false;
+		}
+		String key = frontId + ":" + sessionId + ":" + OrderRefKeeper.parseOrderRef(orderRef) + ":" + orderActionRef;
+		// 第二次回调时移除
+		if (cancelRejects.remove(key) != null)
+			return false;
+		cancelRejects.put(key, Boolean.TRUE);
+		return true;
+	}
+
+	private void onMarketData(BasicMarketData marketData, long spiNanos) {
+		mdRecoveryTracker.onTick(marketData.getInstrumentCode(), marketData.getVolume());
+		if (latencyRecorder == null) {
+			marketDataHandler.onMarketData(marketData);
+			return;
+		}
+		long handlerStart = System.nanoTime();
+		latencyRecorder.beginTick(spiNanos);
+		try {
+			marketDataHandler.onMarketData(marketData);
+		} finally {
+			latencyRecorder.endTick();
+			latencyRecorder.recordSince(Stage.Handler, handlerStart);
+		}
+	}
+
+	private void dispatchFtdcRspMsg(FtdcRspMsg ftdcRspMsg) {
+		switch (ftdcRspMsg.getRspType()) {
+		case FtdcMdConnect:
+			FtdcMdConnect mdConnect = ftdcRspMsg.getFtdcMdConnect();
+			this.isMdAvailable = mdConnect.isAvailable();
+			log.info("Swap Queue processed FtdcMdConnect, isMdAvailable==[{}]", isMdAvailable);
+			final AdaptorEvent mdEvent;
+			if (isMdAvailable) {
+				// 首次登录时Gateway已订阅启动时配置的合约, 此时没有其他已订阅合约, 不再重复订阅;
+				// 重新登录后由Adaptor重新订阅已订阅的全部合约, 不依赖AdaptorEventHandler
+				if (isMdLoggedBefore)
+					resubscribeMarketData();
+				this.isMdLoggedBefore = true;
+				mdRecoveryTracker.onReconnected();
+				mdEvent = new AdaptorEvent(getAdaptorId(), AdaptorStatus.MdEnable);
+			} else {
+				mdRecoveryTracker.onDisconnected();
+				mdEvent = new AdaptorEvent(getAdaptorId(), AdaptorStatus.MdDisable);
+			}
+			adaptorEventHandler.onAdaptorEvent(mdEvent);
+			checkReadiness();
+			break;
+		case FtdcTraderConnect:
+			FtdcTraderConnect traderConnect = ftdcRspMsg.getFtdcTraderConnect();
+			if (traderConnect.isAvailable()) {
+				// 在允许报单之前切换交易日, 恢复当日映射并设定OrderRef序列起点
+				int tradingDay = parseTradingDay(traderConnect.getTradingDay());
+				OrderRefKeeper.onTraderLogin(tradingDay, traderConnect.getFrontID(), traderConnect.getSessionID());
+				if (StringUtil.nonEmpty(ftdcConfig.getOrderRefFile()))
+					attachOrderRefFile(ftdcConfig, tradingDay);
+				OrderRefGenerator.reseed(Math.max(OrderRefGenerator.parseMaxOrderRef(traderConnect.getMaxOrderRef()),
+						OrderRefKeeper.getMaxOrderRef()));
+			}
+			this.isTraderAvailable = traderConnect.isAvailable();
+			this.frontId = traderConnect.getFrontID();
+			this.sessionId = traderConnect.getSessionID();
+			log.info(
+					"Swap Queue processed FtdcTraderConnect, "
+							+ "isTraderAvailable==[{}], frontId==[{}], sessionId==[{}]",
+					isTraderAvailable, frontId, sessionId);
+			final AdaptorEvent traderEvent;
+			if (isTraderAvailable) {
+				traderEvent = new AdaptorEvent(getAdaptorId(), AdaptorStatus.TraderEnable);
+			} else {
+				traderEvent = new AdaptorEvent(getAdaptorId(), AdaptorStatus.TraderDisable);
+			}
+			adaptorEventHandler.onAdaptorEvent(traderEvent);
+			checkReadiness();
+			break;
+		case MarketData:
+			// 回调线程中已完成转换的行情
+			onMarketData(ftdcRspMsg.getMarketData(), ftdcRspMsg.getSpiNanos());
+			break;
+		case FtdcDepthMarketData:
+			// 行情处理, 复用模式下传递享元对象
+			long convertStart = latencyRecorder == null ? 0L : System.nanoTime();
+			BasicMarketData marketData = ftdcConfig.isReuseMarketData()
+					? fromFtdcDepthMarketData.applyToFlyweight(ftdcRspMsg.getFtdcDepthMarketData())
+					: fromFtdcDepthMarketData.apply(ftdcRspMsg.getFtdcDepthMarketData());
+			if (latencyRecorder != null)
+				latencyRecorder.recordSince(Stage.Convert, convertStart);
+			onMarketData(marketData, ftdcRspMsg.getSpiNanos());
+			break;
+		case FtdcOrder:
+			// 报单回报处理
+			FtdcOrder ftdcOrder = ftdcRspMsg.getFtdcOrder();
+			FtdcEventLog.rtnOrder(ftdcOrder);
+			OrderReport report0 = fromFtdcOrder.apply(ftdcOrder);
+			orderReportHandler.onOrderReport(report0);
+			break;
+		case FtdcTrade:
+			// 成交回报处理
+			FtdcTrade ftdcTrade = ftdcRspMsg.getFtdcTrade();
+			FtdcEventLog.rtnTrade(ftdcTrade);
+			OrderReport report1 = fromFtdcTrade.apply(ftdcTrade);
+			orderReportHandler.onOrderReport(report1);
+			break;
+		case FtdcInputOrder:
+			// 报单错误处理, 转换为NewRejected回报
+			FtdcInputOrder ftdcInputOrder = ftdcRspMsg.getFtdcInputOrder();
+			log.error("Buffer Queue in [FtdcInputOrder] -> OrderRef==[{}], ErrorID==[{}], ErrorMsg==[{}], "
+					+ "requestId==[{}]", ftdcInputOrder.getOrderRef(), ftdcInputOrder.getErrorID(),
+					ftdcInputOrder.getErrorMsg(), ftdcRspMsg.getRequestId());
+			// CTP拒绝报单时同时回调OnRspOrderInsert和OnErrRtnOrderInsert,
+			// OnErrRtnOrderInsert不携带会话并推送给同一账户的全部会话, 只转换携带请求ID的OnRspOrderInsert
+			if (ftdcRspMsg.getRequestId() > 0) {
+				OrderReport report2 = fromFtdcInputOrder.apply(ftdcInputOrder);
+				orderReportHandler.onOrderReport(report2);
+			}
+			break;
+		case FtdcInputOrderAction:
+			// 撤单错误处理1, 转换为CancelRejected回报
+			FtdcInputOrderAction ftdcInputOrderAction = ftdcRspMsg.getFtdcInputOrderAction();
+			log.error("Buffer Queue in [FtdcInputOrderAction] -> OrderRef==[{}], ErrorID==[{}], ErrorMsg==[{}]",
+					ftdcInputOrderAction.getOrderRef(), ftdcInputOrderAction.getErrorID(),
+					ftdcInputOrderAction.getErrorMsg());
+			if (acceptCancelReject(ftdcInputOrderAction.getFrontID(), ftdcInputOrderAction.getSessionID(),
+					ftdcInputOrderAction.getOrderRef(), ftdcInputOrderAction.getOrderActionRef())) {
+				OrderReport report3 = fromFtdcInputOrderAction.apply(ftdcInputOrderAction);
+				orderReportHandler.onOrderReport(report3);
+			}
+			break;
+		case FtdcOrderAction:
+			// 撤单错误处理2, 转换为CancelRejected回报
+			FtdcOrderAction ftdcOrderAction = ftdcRspMsg.getFtdcOrderAction();
+			log.error("Buffer Queue in [FtdcOrderAction] -> OrderRef==[{}], ErrorID==[{}], ErrorMsg==[{}]",
+					ftdcOrderAction.getOrderRef(), ftdcOrderAction.getErrorID(), ftdcOrderAction.getErrorMsg());
+			if (acceptCancelReject(ftdcOrderAction.getFrontID(), ftdcOrderAction.getSessionID(),
+					ftdcOrderAction.getOrderRef(), ftdcOrderAction.getOrderActionRef())) {
+				OrderReport report4 = fromFtdcOrderAction.apply(ftdcOrderAction);
+				orderReportHandler.onOrderReport(report4);
+			}
+			break;
+		case FtdcInvestorPosition:
+			// 查询结果已由组装器处理, 此处只处理不携带请求ID的持仓
+			FtdcInvestorPosition ftdcInvestorPosition = ftdcRspMsg.getFtdcInvestorPosition();
+			log.info("Buffer Queue in [FtdcInvestorPosition] -> {}", JsonWrapper.toJson(ftdcInvestorPosition));
+			break;
+		case FtdcTradingAccount:
+			// 资金查询结果处理, 权益按元四舍五入
+			FtdcTradingAccount ftdcTradingAccount = ftdcRspMsg.getFtdcTradingAccount();
+			log.info("Buffer Queue in [FtdcTradingAccount] -> AccountID==[{}], Balance==[{}], Available==[{}]",
+					ftdcTradingAccount.getAccountID(), ftdcTradingAccount.getBalance(),
+					ftdcTradingAccount.getAvailable());
+			if (balanceReportHandler != null)
+				balanceReportHandler.onBalanceReport(
+						new BalanceReport(getAccount().getAccountId(), Math.round(ftdcTradingAccount.getBalance())));
+			break;
+		default:
+			log.warn("Buffer Queue unprocessed [FtdcRspMsg] -> {}", JsonWrapper.toJson(ftdcRspMsg));
+			break;
+		}
+	}
+
+	/**
+	 * 回放回调消息日志, 消息直接交给回调消息处理函数, 不经过队列<br>
+	 * 用于事后分析和压力测试, 回放期间不应连接CTP
+	 * 
+	 * @param journalDir 日志目录
+	 * @param speed      回放倍速, 小于等于0时以最快速度回放
+	 * @return 回放的消息数量
+	 */
+	public long replayJournal(@Nonnull File journalDir, double speed) {
+		try (FtdcJournalReplayer replayer = new FtdcJournalReplayer(journalDir)) {
+			return replayer.replay(this::processFtdcRspMsg, speed);
+		}
+	}
+
+	/**
+	 * 立即输出各阶段延迟统计
+	 */
+	public void dumpLatency() {
+		if (latencyRecorder != null)
+			latencyRecorder.dump();
+		else
+			log.warn("Latency stats is disabled");
+	}
+
+	/**
+	 * 设置持仓查询结果处理器, 每次持仓查询完成后收到按合约合并的净持仓
+	 * 
+	 * @param positionsReportHandler
+	 * @return
+	 */
+	public FtdcAdaptor setPositionsReportHandler(PositionsReportHandler positionsReportHandler) {
+		queryAssembler.setPositionsReportHandler(positionsReportHandler);
+		return this;
+	}
+
+	/**
+	 * 设置资金查询结果处理器, 每次资金查询完成后收到账户权益
+	 * 
+	 * @param balanceReportHandler
+	 * @return
+	 */
+	public FtdcAdaptor setBalanceReportHandler(BalanceReportHandler balanceReportHandler) {
+		this.balanceReportHandler = balanceReportHandler;
+		return this;
+	}
+
+	/**
+	 * 交易通道深度, 未启用优先级通道时返回-1
+	 * 
+	 * @return
+	 */
+	public int getTradeLaneDepth() {
+		return priorityLanes == null ? -1 : priorityLanes.getTradeLaneDepth();
+	}
+
+	/**
+	 * 行情通道深度, 未启用优先级通道时返回-1
+	 * 
+	 * @return
+	 */
+	public int getMdLaneDepth() {
+		return priorityLanes == null ? -1 : priorityLanes.getMdLaneDepth();
+	}
+
+	/**
+	 * 被合并的行情数量, 未启用行情合并时返回0
+	 * 
+	 * @return
+	 */
+	public long getConflatedCount() {
+		return priorityLanes == null ? 0L : priorityLanes.getConflatedCount();
+	}
+
+	/**
+	 * 交易通道进入溢出段的消息数量, 未启用优先级通道时返回0
+	 * 
+	 * @return
+	 */
+	public long getSpillCount() {
+		return priorityLanes == null ? 0L : priorityLanes.getSpillCount();
+	}
+
+	/**
+	 * 行情通道已满时丢弃的行情数量, 未启用优先级通道时返回0
+	 * 
+	 * @return
+	 */
+	public long getDroppedMdCount() {
+		return priorityLanes == null ? 0L : priorityLanes.getDroppedMdCount();
+	}
+
+	/**
+	 * 在回调消息处理线程中调用, 行情与交易的连接事件都已交给AdaptorEventHandler后完成readiness
+	 */
+	private void checkReadiness() {
+		if (isMdAvailable && isTraderAvailable && readiness.complete(null))
+			log.info("Adaptor -> {} ready, elapsed since startup {}ms", getAdaptorId(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startupNanos));
 	}
 
 	@Override
 	protected boolean startup0() {
 		try {
-			ftdcGateway.bootstrap();
+			this.startupNanos = System.nanoTime();
+			CompletableFuture<Void> gatewayReadiness = ftdcGateway.bootstrapAsync();
 			log.info("gateway -> {} bootstrap finish", gatewayId);
+			long timeoutMillis = ftdcConfig.getBootstrapTimeoutMillis();
+			if (timeoutMillis > 0) {
+				try {
+					// 等待启动时配置的合约订阅完成和Adaptor可用
+					CompletableFuture.allOf(gatewayReadiness, readiness).get(timeoutMillis, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					log.error(
+							"Adaptor -> {} not ready in {}ms, isMdAvailable==[{}], isTraderAvailable==[{}], "
+									+ "pendingSubscriptions==[{}]",
+							getAdaptorId(), timeoutMillis, isMdAvailable, isTraderAvailable,
+							ftdcGateway.getBootstrapTracker().getPendingSubscriptions().size());
+					return false;
+				}
+			}
 			return true;
 		} catch (Exception e) {
 			log.error("Gateway exception -> {}", e.getMessage(), e);
@@ -229,8 +654,68 @@ public class FtdcAdaptor extends AbstractAdaptor<BasicMarketData> {
 		}
 	}
 
-	// 存储已订阅合约
-	private MutableSet<String> subscribedInstrumentCodes = MutableSets.newUnifiedSet();
+	/**
+	 * 启动Adaptor, 返回的Future在Gateway交易登录与行情订阅完成,
+	 * 并且Adaptor已处理行情与交易可用事件后完成
+	 * 
+	 * @return
+	 */
+	public CompletableFuture<Void> startupAsync() {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		try {
+			this.startupNanos = System.nanoTime();
+			CompletableFuture.allOf(ftdcGateway.bootstrapAsync(), readiness).whenComplete((v, e) -> {
+				if (e != null)
+					future.completeExceptionally(e);
+				else
+					future.complete(null);
+			});
+		} catch (Exception e) {
+			log.error("Gateway exception -> {}", e.getMessage(), e);
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public CompletableFuture<Void> getReadiness() {
+		return readiness;
+	}
+
+	// 存储已订阅合约, 策略线程与回调消息处理线程都会访问
+	private final Set<String> subscribedInstrumentCodes = ConcurrentHashMap.newKeySet();
+
+	// 行情断线恢复统计
+	private final FtdcMdRecoveryTracker mdRecoveryTracker = new FtdcMdRecoveryTracker();
+
+	// 行情是否曾经可用, 仅在回调消息处理线程中访问
+	private boolean isMdLoggedBefore;
+
+	/**
+	 * 行情重新登录后重新订阅, Gateway按subscribeChunkSize分批发送
+	 */
+	private void resubscribeMarketData() {
+		if (subscribedInstrumentCodes.isEmpty())
+			return;
+		String[] instrumentCodes = subscribedInstrumentCodes.toArray(new String[0]);
+		log.info("Resubscribe instruments after md login -> Count==[{}]", instrumentCodes.length);
+		try {
+			ftdcGateway.SubscribeMarketData(instrumentCodes);
+		} catch (Exception e) {
+			log.error("ftdcGateway#SubscribeMarketData exception -> {}", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public FtdcMdRecoveryTracker getMdRecoveryTracker() {
+		return mdRecoveryTracker;
+	}
 
 	/**
 	 * 订阅行情实现
@@ -248,9 +733,8 @@ public class FtdcAdaptor extends AbstractAdaptor<BasicMarketData> {
 						return false;
 					} else {
 						// 使用已经订阅过的Instrument
-						String[] instrumentCodes = new String[subscribedInstrumentCodes.size()];
-						log.info("Add subscribe instrument code -> Count==[{}]", subscribedInstrumentCodes.size());
-						subscribedInstrumentCodes.toArray(instrumentCodes);
+						String[] instrumentCodes = subscribedInstrumentCodes.toArray(new String[0]);
+						log.info("Add subscribe instrument code -> Count==[{}]", instrumentCodes.length);
 						ftdcGateway.SubscribeMarketData(instrumentCodes);
 						return true;
 					}
@@ -277,12 +761,19 @@ public class FtdcAdaptor extends AbstractAdaptor<BasicMarketData> {
 	@Override
 	public boolean newOredr(Account account, ChildOrder order) {
 		try {
-			CThostFtdcInputOrderField ftdcInputOrder = toCThostFtdcInputOrder.apply(order);
-			String orderRef = Integer.toString(OrderRefGenerator.next(order.getStrategyId()));
-			// 设置OrderRef
-			ftdcInputOrder.setOrderRef(orderRef);
-			OrderRefKeeper.put(orderRef, order.getOrdSysId());
-			ftdcGateway.ReqOrderInsert(ftdcInputOrder);
+			long insertStart = 0L;
+			if (latencyRecorder != null) {
+				latencyRecorder.onNewOrder();
+				insertStart = System.nanoTime();
+			}
+			if (orderThrottle != null)
+				// OrderRef在实际发送时分配, 保证发送顺序与OrderRef递增顺序一致
+				orderThrottle.submitInsert(order.getOrdSysId(), order.getInstrument().getExchangeCode(),
+						() -> sendOrderInsert(order));
+			else
+				sendOrderInsert(order);
+			if (latencyRecorder != null)
+				latencyRecorder.recordSince(Stage.OrderInsert, insertStart);
 			return true;
 		} catch (Exception e) {
 			log.error("ftdc gateway -> {} new order func [ReqOrderInsert] exception -> {}", gatewayId, e.getMessage(),
@@ -291,14 +782,46 @@ public class FtdcAdaptor extends AbstractAdaptor<BasicMarketData> {
 		}
 	}
 
+	private void sendOrderInsert(ChildOrder order) {
+		// OrderRef由Gateway在报单发送锁内分配, 分配顺序即发送顺序
+		ftdcGateway.ReqOrderInsert(order, () -> {
+			int orderRef = OrderRefGenerator.next(order.getStrategyId());
+			OrderRefKeeper.put(orderRef, order.getOrdSysId());
+			return orderRef;
+		});
+	}
+
 	@Override
 	public boolean cancelOrder(Account account, ChildOrder order) {
+		if (orderThrottle == null)
+			return sendOrderAction(order);
 		try {
-			CThostFtdcInputOrderActionField ftdcInputOrderAction = toCThostFtdcInputOrderAction.apply(order);
-			String orderRef = OrderRefKeeper.getOrderRef(order.getOrdSysId());
-			ftdcInputOrderAction.setOrderRef(orderRef);
-			ftdcInputOrderAction.setOrderActionRef(OrderRefGenerator.next(order.getStrategyId()));
-			ftdcGateway.ReqOrderAction(ftdcInputOrderAction);
+			if (orderThrottle.cancelQueuedInsert(order.getOrdSysId())) {
+				// 报单仍在流控队列中, 直接撤销
+				orderReportHandler.onOrderReport(new OrderReport(order.getOrdSysId())
+						.setInvestorId(ftdcConfig.getInvestorId()).setEpochMillis(EpochTime.millis())
+						.setInstrument(order.getInstrument()).setOrdStatus(OrdStatus.Canceled)
+						.setDirection(order.getDirection()).setAction(order.getAction())
+						.setOfferQty(order.getQty().getOfferQty()).setOfferPrice(order.getPrice().getOfferPrice()));
+				return true;
+			}
+			orderThrottle.submitCancel(order.getOrdSysId(), order.getInstrument().getExchangeCode(),
+					() -> sendOrderAction(order));
+			return true;
+		} catch (Exception e) {
+			log.error("ftdc gateway -> {} cancel order func [ReqOrderAction] exception -> {}", gatewayId,
+					e.getMessage(), e);
+			return false;
+		}
+	}
+
+	private boolean sendOrderAction(ChildOrder order) {
+		try {
+			int orderRef = OrderRefKeeper.getOrderRefAsInt(order.getOrdSysId());
+			// 使用报单时的会话, 重启前报出的订单也可以撤单
+			long session = OrderRefKeeper.getSession(order.getOrdSysId());
+			ftdcGateway.ReqOrderAction(order, OrderRefKeeper.frontIdOf(session), OrderRefKeeper.sessionIdOf(session),
+					orderRef, OrderRefGenerator.next(order.getStrategyId()));
 			return true;
 		} catch (OrderRefNotFoundException e) {
 			log.error(e.getMessage(), e);
@@ -310,82 +833,108 @@ public class FtdcAdaptor extends AbstractAdaptor<BasicMarketData> {
 		}
 	}
 
-	// 查询互斥锁, 保证同时只进行一次查询, 满足监管要求
-	private final Object mutex = new Object();
+	/**
+	 * 前置报单流控利用率, 未启用流控时返回0
+	 * 
+	 * @return
+	 */
+	public double getOrderThrottleUtilisation() {
+		return orderThrottle == null ? 0.0D : orderThrottle.getFrontUtilisation();
+	}
+
+	/**
+	 * 交易所报单流控利用率, 未启用流控时返回0
+	 * 
+	 * @param exchangeCode
+	 * @return
+	 */
+	public double getOrderThrottleUtilisation(String exchangeCode) {
+		return orderThrottle == null ? 0.0D : orderThrottle.getExchangeUtilisation(exchangeCode);
+	}
 
 	@Override
 	public boolean queryOrder(Account account, @Nonnull Instrument instrument) {
-		try {
-			if (isTraderAvailable) {
-				startNewThread("QueryOrder-SubThread", () -> {
-					synchronized (mutex) {
-						log.info("FtdcAdaptor :: Ready to sent ReqQryInvestorPosition, Waiting...");
-						sleep(1250);
-						ftdcGateway.ReqQryOrder(instrument.getExchangeCode());
-						log.info("FtdcAdaptor :: Has been sent ReqQryInvestorPosition");
-					}
-				});
-				return true;
-			} else {
+		return isSubmitted(queryOrderAsync(instrument));
+	}
 
-				return false;
-			}
-		} catch (Exception e) {
-			log.error("ftdcGateway.ReqQryOrder exception -> {}", e.getMessage(), e);
-			return false;
-		}
+	/**
+	 * 异步查询订单, 收到最后一条回报时完成
+	 * 
+	 * @param instrument
+	 * @return
+	 */
+	public CompletableFuture<Void> queryOrderAsync(@Nonnull Instrument instrument) {
+		final String exchangeCode = instrument.getExchangeCode();
+		return submitQuery("Order:" + exchangeCode, () -> ftdcGateway.ReqQryOrder(exchangeCode));
 	}
 
 	@Override
 	public boolean queryPositions(Account account, @Nonnull Instrument instrument) {
-		try {
-			if (isTraderAvailable) {
-				startNewThread("QueryPositions-SubThread", () -> {
-					synchronized (mutex) {
-						log.info("FtdcAdaptor :: Ready to sent ReqQryInvestorPosition, Waiting...");
-						sleep(1250);
-						ftdcGateway.ReqQryInvestorPosition(instrument.getExchangeCode(),
-								instrument.getInstrumentCode());
-						log.info("FtdcAdaptor :: Has been sent ReqQryInvestorPosition");
-					}
-				});
-				return true;
-			} else {
+		return isSubmitted(queryPositionsAsync(instrument));
+	}
 
-				return false;
-			}
-		} catch (Exception e) {
-			log.error("ftdcGateway.ReqQryInvestorPosition exception -> {}", e.getMessage(), e);
-			return false;
-		}
+	/**
+	 * 异步查询持仓, 收到最后一条回报时完成
+	 * 
+	 * @param instrument
+	 * @return
+	 */
+	public CompletableFuture<Void> queryPositionsAsync(@Nonnull Instrument instrument) {
+		final String exchangeCode = instrument.getExchangeCode();
+		final String instrumentCode = instrument.getInstrumentCode();
+		return submitQuery("Position:" + exchangeCode + ":" + instrumentCode,
+				() -> ftdcGateway.ReqQryInvestorPosition(exchangeCode, instrumentCode));
 	}
 
 	@Override
 	public boolean queryBalance(final Account account) {
-		try {
-			if (isTraderAvailable) {
-				startNewThread("QueryBalance-SubThread", () -> {
-					synchronized (mutex) {
-						log.info("FtdcAdaptor :: Ready to sent ReqQryTradingAccount, Waiting...");
-						sleep(1250);
-						ftdcGateway.ReqQryTradingAccount();
-						log.info("FtdcAdaptor :: Has been sent ReqQryTradingAccount");
-					}
-				});
-				return true;
-			} else {
-				return false;
-			}
-		} catch (Exception e) {
-			log.error("ftdcGateway.ReqQryTradingAccount exception -> {}", e.getMessage(), e);
-			return false;
+		return isSubmitted(queryBalanceAsync());
+	}
+
+	/**
+	 * 异步查询账户, 收到最后一条回报时完成
+	 * 
+	 * @return
+	 */
+	public CompletableFuture<Void> queryBalanceAsync() {
+		return submitQuery("Account", ftdcGateway::ReqQryTradingAccount);
+	}
+
+	private CompletableFuture<Void> submitQuery(String key, IntSupplier sender) {
+		if (!isTraderAvailable) {
+			CompletableFuture<Void> future = new CompletableFuture<>();
+			future.completeExceptionally(new IllegalStateException("Trader is not available"));
+			return future;
 		}
+		CompletableFuture<Void> future = queryScheduler.submit(key, sender);
+		future.whenComplete((v, e) -> {
+			if (e != null)
+				log.error("FtdcAdaptor :: query -> {} failure, message -> {}", key, e.getMessage());
+		});
+		return future;
+	}
+
+	private boolean isSubmitted(CompletableFuture<Void> future) {
+		return !future.isCompletedExceptionally();
 	}
 
 	@Override
 	public void close() throws IOException {
 		try {
+			queryScheduler.close();
+			if (orderThrottle != null)
+				orderThrottle.close();
 			ftdcGateway.close();
+			if (priorityLanes != null)
+				priorityLanes.close();
+			if (rspQueue != null)
+				rspQueue.close();
+			if (journalPublisher != null)
+				journalPublisher.close();
+			if (latencyRecorder != null)
+				latencyRecorder.close();
+			if (eventLog != null)
+				eventLog.close();
 		} catch (Exception e) {
 			log.error("ftdcGateway.close() catch Exception, message -> {}", e.getMessage(), e);
 			throw new IOException(e);
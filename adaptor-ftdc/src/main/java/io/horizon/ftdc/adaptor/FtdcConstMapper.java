@@ -1,5 +1,7 @@
 package io.horizon.ftdc.adaptor;
 
+import java.util.Arrays;
+
 import javax.annotation.Nonnull;
 
 import io.horizon.ftdc.adaptor.consts.FtdcDirection;
@@ -9,77 +11,145 @@ import io.horizon.trader.order.attr.OrdStatus;
 import io.horizon.trader.order.attr.TrdAction;
 import io.horizon.trader.order.attr.TrdDirection;
 
+/**
+ * FTDC字符常量与系统枚举的相互映射<br>
+ * FTDC常量均为ASCII字符, 使用128个元素的数组按字符查表, 反向映射使用按枚举ordinal索引的数组<br>
+ * 未定义的字符映射为Invalid, 未定义的枚举映射为0
+ *
+ * @author yellow013
+ */
 public final class FtdcConstMapper {
 
+	private FtdcConstMapper() {
+	}
+
+	private static final int TableSize = 128;
+
+	// FTDC订单状态 -> 系统订单状态
+	private static final OrdStatus[] OrdStatusTable = new OrdStatus[TableSize];
+
+	// FTDC开平标志 -> 系统开平类型
+	private static final TrdAction[] TrdActionTable = new TrdAction[TableSize];
+
+	// FTDC买卖方向 -> 系统买卖方向
+	private static final TrdDirection[] TrdDirectionTable = new TrdDirection[TableSize];
+
+	// 系统开平类型 -> FTDC开平标志
+	private static final char[] OffsetFlagTable = new char[TrdAction.values().length];
+
+	// 系统开平类型 -> FTDC组合开平标志
+	private static final String[] CombOffsetFlagTable = new String[TrdAction.values().length];
+
+	// 系统买卖方向 -> FTDC买卖方向
+	private static final char[] DirectionTable = new char[TrdDirection.values().length];
+
+	static {
+		Arrays.fill(OrdStatusTable, OrdStatus.Invalid);
+		// 未成交不在队列中 or 未成交还在队列中
+		OrdStatusTable[FtdcOrderStatusType.NoTradeNotQueueing] = OrdStatus.New;
+		OrdStatusTable[FtdcOrderStatusType.NoTradeQueueing] = OrdStatus.New;
+		// 部分成交不在队列中 or 部分成交还在队列中
+		OrdStatusTable[FtdcOrderStatusType.PartTradedNotQueueing] = OrdStatus.PartiallyFilled;
+		OrdStatusTable[FtdcOrderStatusType.PartTradedQueueing] = OrdStatus.PartiallyFilled;
+		// 全部成交
+		OrdStatusTable[FtdcOrderStatusType.AllTraded] = OrdStatus.Filled;
+		// 撤单
+		OrdStatusTable[FtdcOrderStatusType.Canceled] = OrdStatus.Canceled;
+
+		Arrays.fill(TrdActionTable, TrdAction.Invalid);
+		putOffsetFlag(FtdcOffsetFlag.Open, FtdcOffsetFlag.OpenString, TrdAction.Open);
+		putOffsetFlag(FtdcOffsetFlag.Close, FtdcOffsetFlag.CloseString, TrdAction.Close);
+		putOffsetFlag(FtdcOffsetFlag.CloseToday, FtdcOffsetFlag.CloseTodayString, TrdAction.CloseToday);
+		putOffsetFlag(FtdcOffsetFlag.CloseYesterday, FtdcOffsetFlag.CloseYesterdayString, TrdAction.CloseYesterday);
+
+		Arrays.fill(TrdDirectionTable, TrdDirection.Invalid);
+		putDirection(FtdcDirection.Buy, TrdDirection.Long);
+		putDirection(FtdcDirection.Sell, TrdDirection.Short);
+	}
+
+	private static void putOffsetFlag(char offsetFlag, String combOffsetFlag, TrdAction action) {
+		TrdActionTable[offsetFlag] = action;
+		OffsetFlagTable[action.ordinal()] = offsetFlag;
+		CombOffsetFlagTable[action.ordinal()] = combOffsetFlag;
+	}
+
+	private static void putDirection(char direction, TrdDirection trdDirection) {
+		TrdDirectionTable[direction] = trdDirection;
+		DirectionTable[trdDirection.ordinal()] = direction;
+	}
+
 	/**
 	 * 根据<b> [FTDC返回] </b>订单状态, 映射<b> [系统自定义] </b>订单状态
-	 * 
+	 *
 	 * @param orderStatus
 	 * @return
 	 */
 	@Nonnull
 	public static final OrdStatus fromOrderStatus(char orderStatus) {
-		return
-		// 未成交不在队列中 or 未成交还在队列中 return [OrdStatus.New]
-		FtdcOrderStatusType.NoTradeNotQueueing == orderStatus || FtdcOrderStatusType.NoTradeQueueing == orderStatus
-				? OrdStatus.New
-				// 部分成交不在队列中 or 部分成交还在队列中 return [OrdStatus.PartiallyFilled]
-				: FtdcOrderStatusType.PartTradedNotQueueing == orderStatus
-						|| FtdcOrderStatusType.PartTradedQueueing == orderStatus ? OrdStatus.PartiallyFilled
-								// 全部成交 return [OrdStatus.Filled]
-								: FtdcOrderStatusType.AllTraded == orderStatus ? OrdStatus.Filled
-										// 撤单 return [OrdStatus.Canceled]
-										: FtdcOrderStatusType.Canceled == orderStatus ? OrdStatus.Canceled
-												// return [OrdStatus.Invalid]
-												: OrdStatus.Invalid;
+		return orderStatus < TableSize ? OrdStatusTable[orderStatus] : OrdStatus.Invalid;
 	}
 
 	/**
 	 * 根据<b>[FTDC返回]</b>开平仓类型, 映射<b>[系统自定义]</b>开平仓类型
-	 * 
+	 *
 	 * @param combOffsetFlag
 	 * @return
 	 */
 	@Nonnull
 	public static final TrdAction fromOffsetFlag(@Nonnull String combOffsetFlag) {
-		return fromOffsetFlag(combOffsetFlag.charAt(0));
+		return combOffsetFlag.isEmpty() ? TrdAction.Invalid : fromOffsetFlag(combOffsetFlag.charAt(0));
 	}
 
 	/**
 	 * 根据<b>[FTDC返回]</b>开平仓类型, 映射<b>[系统自定义]</b>开平仓类型
-	 * 
+	 *
 	 * @param offsetFlag
 	 * @return
 	 */
 	@Nonnull
 	public static final TrdAction fromOffsetFlag(char offsetFlag) {
-		return
-		// 开仓
-		FtdcOffsetFlag.Open == offsetFlag ? TrdAction.Open
-				// 平仓
-				: FtdcOffsetFlag.Close == offsetFlag ? TrdAction.Close
-						// 平今
-						: FtdcOffsetFlag.CloseToday == offsetFlag ? TrdAction.CloseToday
-								// 平昨
-								: FtdcOffsetFlag.CloseYesterday == offsetFlag ? TrdAction.CloseYesterday
-										// 未知
-										: TrdAction.Invalid;
+		return offsetFlag < TableSize ? TrdActionTable[offsetFlag] : TrdAction.Invalid;
 	}
 
 	/**
 	 * 根据<b>[FTDC返回]</b>买卖方向类型, 映射<b>[系统自定义]</b>买卖方向类型类型
-	 * 
+	 *
 	 * @param direction
 	 * @return
 	 */
+	@Nonnull
 	public static final TrdDirection fromDirection(char direction) {
-		return
-		// 买
-		FtdcDirection.Buy == direction ? TrdDirection.Long
-				// 卖
-				: FtdcDirection.Sell == direction ? TrdDirection.Short
-						// 未知
-						: TrdDirection.Invalid;
+		return direction < TableSize ? TrdDirectionTable[direction] : TrdDirection.Invalid;
+	}
+
+	/**
+	 * 根据<b>[系统自定义]</b>开平仓类型, 映射<b>[FTDC]</b>开平标志
+	 *
+	 * @param action
+	 * @return Invalid时返回0
+	 */
+	public static final char toOffsetFlag(@Nonnull TrdAction action) {
+		return OffsetFlagTable[action.ordinal()];
+	}
+
+	/**
+	 * 根据<b>[系统自定义]</b>开平仓类型, 映射<b>[FTDC]</b>组合开平标志
+	 *
+	 * @param action
+	 * @return Invalid时返回null
+	 */
+	public static final String toCombOffsetFlag(@Nonnull TrdAction action) {
+		return CombOffsetFlagTable[action.ordinal()];
+	}
+
+	/**
+	 * 根据<b>[系统自定义]</b>买卖方向类型, 映射<b>[FTDC]</b>买卖方向
+	 *
+	 * @param direction
+	 * @return Invalid时返回0
+	 */
+	public static final char toDirection(@Nonnull TrdDirection direction) {
+		return DirectionTable[direction.ordinal()];
 	}
 
 }
@@ -0,0 +1,175 @@
+package io.horizon.ftdc.adaptor;
+
+import java.io.Closeable;
+import java.util.EnumMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+
+import io.horizon.ftdc.gateway.FtdcRspPublisher;
+import io.mercury.common.log.CommonLoggerFactory;
+
+/**
+ * FTDC链路各阶段延迟统计<br>
+ * 回调线程发布消息时写入System.nanoTime(), 随FtdcRspMsg传递到消费线程, 各阶段耗时记录到独立的HdrHistogram Recorder<br>
+ * Recorder的记录操作为wait-free, 不阻塞回调线程和消费线程<br>
+ * 定期或按需输出区间统计, 同时累计到总体统计
+ *
+ * @author yellow013
+ */
+public final class FtdcLatencyRecorder implements Closeable {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcLatencyRecorder.class);
+
+	/**
+	 * 统计阶段
+	 */
+	public static enum Stage {
+
+		// 回调线程发布到消费线程取出
+		SpiToDequeue,
+
+		// 行情转换为BasicMarketData
+		Convert,
+
+		// MarketDataHandler.onMarketData
+		Handler,
+
+		// 回调线程收到行情到策略在处理该行情时报单
+		TickToOrder,
+
+		// Adaptor.newOredr到ReqOrderInsert返回
+		OrderInsert,
+
+	}
+
+	private final EnumMap<Stage, Recorder> recorders = new EnumMap<>(Stage.class);
+
+	// 区间统计, 只在dump中访问
+	private final EnumMap<Stage, Histogram> intervals = new EnumMap<>(Stage.class);
+
+	// 累计统计, 只在dump中访问
+	private final EnumMap<Stage, Histogram> totals = new EnumMap<>(Stage.class);
+
+	// 当前正在处理的行情在回调线程中的时间戳, 不在处理行情时为0
+	private volatile long currentTickNanos;
+
+	private final ScheduledExecutorService dumpExecutor;
+
+	/**
+	 *
+	 * @param dumpIntervalSeconds 定期输出间隔, 小于等于0时只按需输出
+	 */
+	public FtdcLatencyRecorder(long dumpIntervalSeconds) {
+		for (Stage stage : Stage.values()) {
+			recorders.put(stage, new Recorder(3));
+			totals.put(stage, new Histogram(3));
+		}
+		if (dumpIntervalSeconds > 0) {
+			this.dumpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "FtdcLatencyRecorder-Dump");
+				thread.setDaemon(true);
+				return thread;
+			});
+			dumpExecutor.scheduleAtFixedRate(this::dump, dumpIntervalSeconds, dumpIntervalSeconds, TimeUnit.SECONDS);
+		} else {
+			this.dumpExecutor = null;
+		}
+	}
+
+	/**
+	 * 在发布消息时写入回调线程时间戳
+	 *
+	 * @param delegate
+	 * @return
+	 */
+	public static FtdcRspPublisher stamping(FtdcRspPublisher delegate) {
+		return msg -> delegate.publish(msg.setSpiNanos(System.nanoTime()));
+	}
+
+	/**
+	 * 记录从startNanos到当前的耗时
+	 *
+	 * @param stage
+	 * @param startNanos
+	 * @return 当前时间
+	 */
+	public long recordSince(Stage stage, long startNanos) {
+		long now = System.nanoTime();
+		if (startNanos > 0L && now > startNanos)
+			recorders.get(stage).recordValue(now - startNanos);
+		return now;
+	}
+
+	/**
+	 * 开始处理行情
+	 *
+	 * @param spiNanos
+	 */
+	public void beginTick(long spiNanos) {
+		this.currentTickNanos = spiNanos;
+	}
+
+	/**
+	 * 行情处理结束
+	 */
+	public void endTick() {
+		this.currentTickNanos = 0L;
+	}
+
+	/**
+	 * 报单时记录从收到行情到报单的耗时, 不在处理行情期间的报单不记录
+	 */
+	public void onNewOrder() {
+		long tickNanos = currentTickNanos;
+		if (tickNanos > 0L)
+			recordSince(Stage.TickToOrder, tickNanos);
+	}
+
+	/**
+	 * 输出区间统计并累计到总体统计, 单位为微秒
+	 */
+	public synchronized void dump() {
+		for (Stage stage : Stage.values()) {
+			Histogram interval = recorders.get(stage).getIntervalHistogram(intervals.get(stage));
+			intervals.put(stage, interval);
+			Histogram total = totals.get(stage);
+			total.add(interval);
+			if (interval.getTotalCount() == 0)
+				continue;
+			log.info(
+					"Latency [{}] interval count==[{}], p50==[{}us], p99==[{}us], p99.9==[{}us], max==[{}us], "
+							+ "total count==[{}], total p99==[{}us]",
+					stage, interval.getTotalCount(), toMicros(interval.getValueAtPercentile(50.0)),
+					toMicros(interval.getValueAtPercentile(99.0)), toMicros(interval.getValueAtPercentile(99.9)),
+					toMicros(interval.getMaxValue()), total.getTotalCount(),
+					toMicros(total.getValueAtPercentile(99.0)));
+		}
+	}
+
+	/**
+	 * 获取阶段的累计统计副本, 单位为纳秒, 不包括最近一次dump之后的记录
+	 *
+	 * @param stage
+	 * @return
+	 */
+	public synchronized Histogram getTotalHistogram(Stage stage) {
+		return totals.get(stage).copy();
+	}
+
+	private static double toMicros(long nanos) {
+		return nanos / 1000.0D;
+	}
+
+	@Override
+	public void close() {
+		if (dumpExecutor != null)
+			dumpExecutor.shutdownNow();
+		dump();
+	}
+
+}
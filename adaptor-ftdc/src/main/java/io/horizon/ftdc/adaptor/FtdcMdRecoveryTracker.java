@@ -0,0 +1,173 @@
+package io.horizon.ftdc.adaptor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+
+import io.mercury.common.log.CommonLoggerFactory;
+
+/**
+ * 行情断线恢复统计<br>
+ * 记录每个合约断线前最后一笔行情, 重连后第一笔行情到达时计算该合约的中断时间和期间的成交量缺口<br>
+ * 所有断线前有过行情的合约都恢复后, 输出从重连到全部恢复的耗时<br>
+ *
+ * onTick/onDisconnected/onReconnected只在回调消息处理线程中调用, 查询方法可以在任意线程调用
+ *
+ * @author yellow013
+ */
+public final class FtdcMdRecoveryTracker {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcMdRecoveryTracker.class);
+
+	private final ConcurrentHashMap<String, InstrumentState> states = new ConcurrentHashMap<>();
+
+	// 以下字段只在回调消息处理线程中写入
+	private boolean isDisconnected;
+
+	private long disconnectNanos;
+
+	private long reconnectNanos;
+
+	// 等待恢复的合约数量
+	private int pendingCount;
+
+	private long maxDarkNanos;
+
+	private long totalVolumeGap;
+
+	// 最近一次从重连到全部合约恢复的耗时, 未完成恢复时为-1
+	private volatile long lastRecoveryMillis = -1L;
+
+	// 断线次数
+	private volatile int disconnectCount;
+
+	/**
+	 * 行情到达
+	 *
+	 * @param instrumentCode
+	 * @param volume         累计成交量
+	 */
+	public void onTick(@Nonnull String instrumentCode, int volume) {
+		long now = System.nanoTime();
+		InstrumentState state = states.get(instrumentCode);
+		if (state == null) {
+			state = new InstrumentState();
+			states.put(instrumentCode, state);
+		} else if (state.isPending) {
+			state.isPending = false;
+			long darkNanos = now - state.lastNanos;
+			// 成交量变小说明已进入新的交易日
+			int volumeGap = volume >= state.lastVolume ? volume - state.lastVolume : volume;
+			state.lastDarkMillis = TimeUnit.NANOSECONDS.toMillis(darkNanos);
+			state.lastVolumeGap = volumeGap;
+			maxDarkNanos = Math.max(maxDarkNanos, darkNanos);
+			totalVolumeGap += volumeGap;
+			log.info("Md recovered -> instrumentCode==[{}], dark==[{}ms], volumeGap==[{}]", instrumentCode,
+					state.lastDarkMillis, volumeGap);
+			if (--pendingCount == 0 && !isDisconnected)
+				onRecoveryFinished(now);
+		}
+		state.lastNanos = now;
+		state.lastVolume = volume;
+	}
+
+	/**
+	 * 全部行情前置断开
+	 */
+	public void onDisconnected() {
+		if (isDisconnected)
+			return;
+		this.isDisconnected = true;
+		this.disconnectNanos = System.nanoTime();
+		this.disconnectCount++;
+		this.lastRecoveryMillis = -1L;
+		this.maxDarkNanos = 0L;
+		this.totalVolumeGap = 0L;
+		int count = 0;
+		for (InstrumentState state : states.values()) {
+			if (!state.isPending) {
+				state.isPending = true;
+				count++;
+			}
+		}
+		// 上一次恢复未完成的合约继续等待
+		this.pendingCount += count;
+		log.warn("Md disconnected, pending instruments==[{}]", pendingCount);
+	}
+
+	/**
+	 * 行情重新登录并已重新订阅
+	 */
+	public void onReconnected() {
+		if (!isDisconnected)
+			return;
+		this.isDisconnected = false;
+		this.reconnectNanos = System.nanoTime();
+		log.info("Md reconnected in {}ms, pending instruments==[{}]",
+				TimeUnit.NANOSECONDS.toMillis(reconnectNanos - disconnectNanos), pendingCount);
+		if (pendingCount == 0)
+			onRecoveryFinished(reconnectNanos);
+	}
+
+	private void onRecoveryFinished(long now) {
+		this.lastRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(now - reconnectNanos);
+		log.info(
+				"Md recovery finished -> disconnected==[{}ms], recovery==[{}ms], maxDark==[{}ms], "
+						+ "totalVolumeGap==[{}]",
+				TimeUnit.NANOSECONDS.toMillis(reconnectNanos - disconnectNanos), lastRecoveryMillis,
+				TimeUnit.NANOSECONDS.toMillis(maxDarkNanos), totalVolumeGap);
+	}
+
+	/**
+	 * 合约最近一次断线的中断时间
+	 *
+	 * @param instrumentCode
+	 * @return 毫秒, 未经历断线或尚未恢复时返回-1
+	 */
+	public long getLastDarkMillis(@Nonnull String instrumentCode) {
+		InstrumentState state = states.get(instrumentCode);
+		return state == null ? -1L : state.lastDarkMillis;
+	}
+
+	/**
+	 * 合约最近一次断线期间的成交量缺口
+	 *
+	 * @param instrumentCode
+	 * @return 未经历断线或尚未恢复时返回-1
+	 */
+	public int getLastVolumeGap(@Nonnull String instrumentCode) {
+		InstrumentState state = states.get(instrumentCode);
+		return state == null ? -1 : state.lastVolumeGap;
+	}
+
+	/**
+	 * 最近一次从重连到全部合约恢复的耗时
+	 *
+	 * @return 毫秒, 未完成恢复时返回-1
+	 */
+	public long getLastRecoveryMillis() {
+		return lastRecoveryMillis;
+	}
+
+	public int getDisconnectCount() {
+		return disconnectCount;
+	}
+
+	private static final class InstrumentState {
+
+		private long lastNanos;
+
+		private int lastVolume;
+
+		private boolean isPending;
+
+		private volatile long lastDarkMillis = -1L;
+
+		private volatile int lastVolumeGap = -1;
+
+	}
+
+}
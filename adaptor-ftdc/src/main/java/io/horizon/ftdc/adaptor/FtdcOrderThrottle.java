@@ -0,0 +1,307 @@
+package io.horizon.ftdc.adaptor;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+
+import io.mercury.common.log.CommonLoggerFactory;
+import io.mercury.common.util.Assertor;
+
+/**
+ * 报单与撤单流控<br>
+ * 前置和各交易所分别使用令牌桶限速, 每个请求需要同时取得前置和所属交易所的令牌<br>
+ * 没有排队请求且令牌足够时在调用线程中直接发送, 否则进入队列由流控线程按令牌补充时间发送<br>
+ * 撤单队列优先于报单队列, 每个队列内按提交顺序发送<br>
+ *
+ * 令牌桶容量为一秒的请求数量, 利用率为已消耗令牌占容量的比例, 策略可在接近1时主动降低报单频率
+ *
+ * @author yellow013
+ */
+@ThreadSafe
+public final class FtdcOrderThrottle implements Closeable {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcOrderThrottle.class);
+
+	// 前置令牌桶
+	private final Bucket frontBucket;
+
+	// 交易所令牌桶, 未配置的交易所只受前置限制
+	private final Map<String, Bucket> exchangeBuckets = new HashMap<>();
+
+	// 以下字段在this上同步访问
+	private final ArrayDeque<Request> cancelQueue = new ArrayDeque<>();
+
+	private final ArrayDeque<Request> insertQueue = new ArrayDeque<>();
+
+	private boolean isWakeupScheduled;
+
+	private final ScheduledExecutorService executor;
+
+	private volatile boolean isClosed;
+
+	/**
+	 *
+	 * @param name              流控线程名称
+	 * @param frontPerSecond    前置每秒允许的报单与撤单数量
+	 * @param exchangePerSecond 各交易所每秒允许的报单与撤单数量, 可以为空
+	 */
+	public FtdcOrderThrottle(String name, double frontPerSecond, Map<String, Double> exchangePerSecond) {
+		if (frontPerSecond <= 0)
+			throw new IllegalArgumentException("frontPerSecond must be greater than 0");
+		this.frontBucket = new Bucket(frontPerSecond);
+		if (exchangePerSecond != null) {
+			exchangePerSecond.forEach((exchangeCode, perSecond) -> {
+				if (perSecond != null && perSecond > 0)
+					exchangeBuckets.put(exchangeCode, new Bucket(perSecond));
+			});
+		}
+		this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+		log.info("FtdcOrderThrottle initialized, frontPerSecond==[{}], exchangePerSecond==[{}]", frontPerSecond,
+				exchangePerSecond);
+	}
+
+	/**
+	 * 提交报单
+	 *
+	 * @param ordSysId     用于取消排队中的报单
+	 * @param exchangeCode
+	 * @param sender       发送函数, 在调用线程或流控线程中执行
+	 * @return 是否已在调用线程中直接发送
+	 */
+	public boolean submitInsert(long ordSysId, @Nonnull String exchangeCode, @Nonnull Runnable sender) {
+		return submit(insertQueue, new Request(ordSysId, exchangeCode, sender));
+	}
+
+	/**
+	 * 提交撤单, 优先于排队中的报单
+	 *
+	 * @param ordSysId
+	 * @param exchangeCode
+	 * @param sender       发送函数, 在调用线程或流控线程中执行
+	 * @return 是否已在调用线程中直接发送
+	 */
+	public boolean submitCancel(long ordSysId, @Nonnull String exchangeCode, @Nonnull Runnable sender) {
+		return submit(cancelQueue, new Request(ordSysId, exchangeCode, sender));
+	}
+
+	private boolean submit(ArrayDeque<Request> queue, Request request) {
+		Assertor.nonNull(request.exchangeCode, "exchangeCode");
+		Assertor.nonNull(request.sender, "sender");
+		if (isClosed)
+			throw new IllegalStateException("FtdcOrderThrottle is closed");
+		synchronized (this) {
+			// 有排队请求时不能插队
+			if (cancelQueue.isEmpty() && (queue == cancelQueue || insertQueue.isEmpty())
+					&& tryAcquire(request.exchangeCode, System.nanoTime())) {
+				send(request);
+				return true;
+			}
+			queue.offer(request);
+			log.warn("FtdcOrderThrottle queued {} -> ordSysId==[{}], exchangeCode==[{}], queued==[{}]",
+					queue == cancelQueue ? "cancel" : "insert", request.ordSysId, request.exchangeCode,
+					queue.size());
+			scheduleWakeup(0L);
+			return false;
+		}
+	}
+
+	/**
+	 * 取消尚未发送的报单
+	 *
+	 * @param ordSysId
+	 * @return 报单仍在排队并已移除时返回true
+	 */
+	public synchronized boolean cancelQueuedInsert(long ordSysId) {
+		Iterator<Request> iterator = insertQueue.iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().ordSysId == ordSysId) {
+				iterator.remove();
+				log.info("FtdcOrderThrottle removed queued insert -> ordSysId==[{}]", ordSysId);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 在this上同步调用
+	 */
+	private boolean tryAcquire(String exchangeCode, long now) {
+		Bucket exchangeBucket = exchangeBuckets.get(exchangeCode);
+		frontBucket.refill(now);
+		if (exchangeBucket != null)
+			exchangeBucket.refill(now);
+		if (frontBucket.tokens < 1.0D || (exchangeBucket != null && exchangeBucket.tokens < 1.0D))
+			return false;
+		frontBucket.tokens -= 1.0D;
+		if (exchangeBucket != null)
+			exchangeBucket.tokens -= 1.0D;
+		return true;
+	}
+
+	/**
+	 * 在this上同步调用, 保证请求按取得令牌的顺序发送
+	 */
+	private void send(Request request) {
+		try {
+			request.sender.run();
+		} catch (Exception e) {
+			log.error("FtdcOrderThrottle send request exception -> ordSysId==[{}], message -> {}", request.ordSysId,
+					e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 在this上同步调用
+	 */
+	private void scheduleWakeup(long delayNanos) {
+		if (isWakeupScheduled || isClosed)
+			return;
+		this.isWakeupScheduled = true;
+		executor.schedule(this::drain, delayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	private synchronized void drain() {
+		this.isWakeupScheduled = false;
+		long now = System.nanoTime();
+		if (!drainQueue(cancelQueue, now))
+			return;
+		drainQueue(insertQueue, now);
+	}
+
+	/**
+	 * 在this上同步调用
+	 *
+	 * @return 队列是否已清空
+	 */
+	private boolean drainQueue(ArrayDeque<Request> queue, long now) {
+		Request request;
+		while ((request = queue.peek()) != null) {
+			if (!tryAcquire(request.exchangeCode, now)) {
+				scheduleWakeup(nanosUntilPermit(request.exchangeCode));
+				return false;
+			}
+			queue.poll();
+			send(request);
+		}
+		return true;
+	}
+
+	private long nanosUntilPermit(String exchangeCode) {
+		long wait = frontBucket.nanosUntilPermit();
+		Bucket exchangeBucket = exchangeBuckets.get(exchangeCode);
+		if (exchangeBucket != null)
+			wait = Math.max(wait, exchangeBucket.nanosUntilPermit());
+		return Math.max(wait, TimeUnit.MICROSECONDS.toNanos(100));
+	}
+
+	/**
+	 * 前置利用率, 0表示空闲, 1表示已用完一秒的令牌
+	 *
+	 * @return
+	 */
+	public synchronized double getFrontUtilisation() {
+		return frontBucket.utilisation(System.nanoTime());
+	}
+
+	/**
+	 * 交易所利用率, 未配置的交易所返回前置利用率
+	 *
+	 * @param exchangeCode
+	 * @return
+	 */
+	public synchronized double getExchangeUtilisation(String exchangeCode) {
+		Bucket exchangeBucket = exchangeBuckets.get(exchangeCode);
+		return exchangeBucket == null ? frontBucket.utilisation(System.nanoTime())
+				: exchangeBucket.utilisation(System.nanoTime());
+	}
+
+	public synchronized int getQueuedInsertCount() {
+		return insertQueue.size();
+	}
+
+	public synchronized int getQueuedCancelCount() {
+		return cancelQueue.size();
+	}
+
+	@Override
+	public void close() {
+		this.isClosed = true;
+		executor.shutdownNow();
+		synchronized (this) {
+			if (!insertQueue.isEmpty() || !cancelQueue.isEmpty())
+				log.warn("FtdcOrderThrottle closed, discard queued insert==[{}], cancel==[{}]", insertQueue.size(),
+						cancelQueue.size());
+			insertQueue.clear();
+			cancelQueue.clear();
+		}
+	}
+
+	/**
+	 * 令牌桶, 容量为一秒的请求数量
+	 */
+	private static final class Bucket {
+
+		private final double permitsPerNanos;
+
+		private final double capacity;
+
+		private double tokens;
+
+		private long lastRefillNanos;
+
+		private Bucket(double permitsPerSecond) {
+			this.permitsPerNanos = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+			// 每秒少于1次时容量仍为1
+			this.capacity = Math.max(1.0D, permitsPerSecond);
+			this.tokens = capacity;
+			this.lastRefillNanos = System.nanoTime();
+		}
+
+		private void refill(long now) {
+			if (now > lastRefillNanos) {
+				tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerNanos);
+				lastRefillNanos = now;
+			}
+		}
+
+		private long nanosUntilPermit() {
+			return tokens >= 1.0D ? 0L : (long) Math.ceil((1.0D - tokens) / permitsPerNanos);
+		}
+
+		private double utilisation(long now) {
+			refill(now);
+			return 1.0D - tokens / capacity;
+		}
+
+	}
+
+	private static final class Request {
+
+		private final long ordSysId;
+		private final String exchangeCode;
+		private final Runnable sender;
+
+		private Request(long ordSysId, String exchangeCode, Runnable sender) {
+			this.ordSysId = ordSysId;
+			this.exchangeCode = exchangeCode;
+			this.sender = sender;
+		}
+
+	}
+
+}
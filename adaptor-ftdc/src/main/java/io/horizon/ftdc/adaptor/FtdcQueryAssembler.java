@@ -0,0 +1,183 @@
+package io.horizon.ftdc.adaptor;
+
+import static io.mercury.common.collections.MutableMaps.newIntObjectHashMap;
+import static io.mercury.common.collections.MutableMaps.newObjectLongHashMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableObjectLongMap;
+import org.slf4j.Logger;
+
+import io.horizon.ftdc.adaptor.consts.FtdcPosiDirection;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInvestorPosition;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcOrder;
+import io.horizon.trader.adaptor.bean.PositionsReport;
+import io.horizon.trader.handler.OrderReportHandler;
+import io.horizon.trader.handler.PositionsReportHandler;
+import io.horizon.trader.order.OrderReport;
+import io.mercury.common.collections.Capacity;
+import io.mercury.common.log.CommonLoggerFactory;
+
+/**
+ * 查询结果组装器<br>
+ * 按nRequestID收集订单查询与持仓查询的多条回报, 收到isLast时一次性分发<br>
+ * 订单查询分发为OrderReportHandler.onOrderReports, 持仓查询按合约合并为净持仓后分发为PositionsReportHandler<br>
+ * 缓冲区在分发后清空并复用, 分发的列表只在回调期间有效<br>
+ * 只在回调消息处理线程中使用
+ *
+ * @author yellow013
+ */
+@NotThreadSafe
+public final class FtdcQueryAssembler {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcQueryAssembler.class);
+
+	private final int investorId;
+
+	private final Function<FtdcOrder, OrderReport> orderConverter;
+
+	private final OrderReportHandler orderReportHandler;
+
+	private PositionsReportHandler positionsReportHandler;
+
+	// 正在组装的查询
+	private final MutableIntObjectMap<Buffer> buffers = newIntObjectHashMap();
+
+	// 空闲缓冲区
+	private final ArrayDeque<Buffer> freeBuffers = new ArrayDeque<>();
+
+	// 按合约合并净持仓
+	private final MutableObjectLongMap<String> netPositions = newObjectLongHashMap(Capacity.L10_SIZE);
+
+	// 分发的持仓列表
+	private final List<PositionsReport> positionsReports = new ArrayList<>();
+
+	/**
+	 *
+	 * @param investorId             PositionsReport中的投资者ID
+	 * @param orderConverter         FtdcOrder转换函数
+	 * @param orderReportHandler     订单快照处理器
+	 * @param positionsReportHandler 持仓处理器, 为null时只记录日志
+	 */
+	public FtdcQueryAssembler(int investorId, @Nonnull Function<FtdcOrder, OrderReport> orderConverter,
+			@Nonnull OrderReportHandler orderReportHandler, PositionsReportHandler positionsReportHandler) {
+		this.investorId = investorId;
+		this.orderConverter = orderConverter;
+		this.orderReportHandler = orderReportHandler;
+		this.positionsReportHandler = positionsReportHandler;
+	}
+
+	/**
+	 *
+	 * @param positionsReportHandler
+	 */
+	public void setPositionsReportHandler(PositionsReportHandler positionsReportHandler) {
+		this.positionsReportHandler = positionsReportHandler;
+	}
+
+	/**
+	 * 组装查询回报
+	 *
+	 * @param ftdcRspMsg
+	 * @return 消息是否为订单或持仓的查询结果并已被处理
+	 */
+	public boolean assemble(@Nonnull FtdcRspMsg ftdcRspMsg) {
+		final int requestId = ftdcRspMsg.getRequestId();
+		if (requestId <= 0)
+			return false;
+		switch (ftdcRspMsg.getRspType()) {
+		case FtdcOrder:
+			Buffer orderBuffer = bufferOf(requestId);
+			if (!ftdcRspMsg.isEmpty())
+				orderBuffer.orderReports.add(orderConverter.apply(ftdcRspMsg.getFtdcOrder()));
+			if (ftdcRspMsg.isLast())
+				dispatchOrders(requestId, orderBuffer);
+			return true;
+		case FtdcInvestorPosition:
+			Buffer positionBuffer = bufferOf(requestId);
+			if (!ftdcRspMsg.isEmpty())
+				positionBuffer.positions.add(ftdcRspMsg.getFtdcInvestorPosition());
+			if (ftdcRspMsg.isLast())
+				dispatchPositions(requestId, positionBuffer);
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private Buffer bufferOf(int requestId) {
+		Buffer buffer = buffers.get(requestId);
+		if (buffer == null) {
+			buffer = freeBuffers.poll();
+			if (buffer == null)
+				buffer = new Buffer();
+			buffers.put(requestId, buffer);
+		}
+		return buffer;
+	}
+
+	private void dispatchOrders(int requestId, Buffer buffer) {
+		log.info("FtdcQueryAssembler dispatch order snapshot, requestId==[{}], size==[{}]", requestId,
+				buffer.orderReports.size());
+		try {
+			orderReportHandler.onOrderReports(buffer.orderReports);
+		} finally {
+			release(requestId, buffer);
+		}
+	}
+
+	private void dispatchPositions(int requestId, Buffer buffer) {
+		// CTP按合约, 方向, 持仓日期分别返回, 合并为每个合约的净持仓
+		for (int i = 0; i < buffer.positions.size(); i++) {
+			FtdcInvestorPosition position = buffer.positions.get(i);
+			long qty = position.getPosiDirection() == FtdcPosiDirection.Short ? -position.getPosition()
+					: position.getPosition();
+			netPositions.addToValue(position.getInstrumentID(), qty);
+		}
+		netPositions.forEachKeyValue((instrumentCode, qty) -> positionsReports
+				.add(new PositionsReport(investorId, instrumentCode, (int) qty)));
+		log.info("FtdcQueryAssembler dispatch positions, requestId==[{}], rows==[{}], instruments==[{}]", requestId,
+				buffer.positions.size(), positionsReports.size());
+		try {
+			if (positionsReportHandler != null)
+				positionsReportHandler.onPositionsReports(positionsReports);
+		} finally {
+			netPositions.clear();
+			positionsReports.clear();
+			release(requestId, buffer);
+		}
+	}
+
+	private void release(int requestId, Buffer buffer) {
+		buffers.remove(requestId);
+		buffer.orderReports.clear();
+		buffer.positions.clear();
+		freeBuffers.offer(buffer);
+	}
+
+	/**
+	 * 正在组装的查询数量
+	 *
+	 * @return
+	 */
+	public int getAssemblingCount() {
+		return buffers.size();
+	}
+
+	private static final class Buffer {
+
+		private final List<OrderReport> orderReports = new ArrayList<>();
+
+		private final List<FtdcInvestorPosition> positions = new ArrayList<>();
+
+	}
+
+}
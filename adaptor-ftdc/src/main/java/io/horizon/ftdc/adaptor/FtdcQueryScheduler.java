@@ -0,0 +1,255 @@
+package io.horizon.ftdc.adaptor;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntSupplier;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+
+import io.mercury.common.log.CommonLoggerFactory;
+import io.mercury.common.util.Assertor;
+
+/**
+ * 查询请求调度器<br>
+ * 替代每次查询新建线程并休眠的方式, 由单一调度线程按令牌桶限速发送查询<br>
+ * 同一时间只有一个查询在途, 收到最后一条回报(isLast)或超时后再发送下一个查询<br>
+ * 尚未发送的相同查询会被合并, 返回同一个CompletableFuture<br>
+ *
+ * 发送函数返回值约定与FtdcGateway查询方法一致: 成功返回nRequestID(大于0), 失败返回CTP返回码<br>
+ * -2/-3(未处理请求超限/每秒请求超限)稍后重试, 其他失败直接结束查询
+ *
+ * @author yellow013
+ */
+public final class FtdcQueryScheduler implements Closeable {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcQueryScheduler.class);
+
+	// 调度线程
+	private final ScheduledExecutorService executor;
+
+	// 令牌间隔
+	private final long permitIntervalNanos;
+
+	// 在途查询超时时间
+	private final long timeoutMillis;
+
+	// 尚未发送的查询, 用于合并相同查询
+	private final ConcurrentHashMap<String, Query> pendingByKey = new ConcurrentHashMap<>();
+
+	// 在途查询, 由调度线程修改, 关闭时在调用线程中读取
+	private volatile Query inFlight;
+
+	// 以下字段仅在调度线程中访问
+	private final ArrayDeque<Query> pendingQueue = new ArrayDeque<>();
+
+	private int inFlightRequestId;
+
+	private ScheduledFuture<?> inFlightTimeout;
+
+	// 下一个令牌可用的时间
+	private long nextPermitNanos;
+
+	// 是否已安排等待令牌的唤醒
+	private boolean isWakeupScheduled;
+
+	private volatile boolean isClosed;
+
+	/**
+	 *
+	 * @param name           调度线程名称
+	 * @param queryPerSecond 每秒允许发送的查询数量
+	 * @param timeoutMillis  在途查询超时时间
+	 */
+	public FtdcQueryScheduler(String name, double queryPerSecond, long timeoutMillis) {
+		if (queryPerSecond <= 0)
+			throw new IllegalArgumentException("queryPerSecond must be greater than 0");
+		if (timeoutMillis <= 0)
+			throw new IllegalArgumentException("timeoutMillis must be greater than 0");
+		this.permitIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / queryPerSecond);
+		this.timeoutMillis = timeoutMillis;
+		this.nextPermitNanos = System.nanoTime();
+		this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * 提交查询, 与尚未发送的相同查询合并
+	 *
+	 * @param key    查询键, 例如 Order:SHFE, Position:SHFE:rb2110, Account
+	 * @param sender 发送函数
+	 * @return 收到最后一条回报时完成
+	 */
+	public CompletableFuture<Void> submit(@Nonnull String key, @Nonnull IntSupplier sender) {
+		Assertor.nonNull(key, "key");
+		Assertor.nonNull(sender, "sender");
+		if (isClosed) {
+			CompletableFuture<Void> future = new CompletableFuture<>();
+			future.completeExceptionally(new IllegalStateException("FtdcQueryScheduler is closed"));
+			return future;
+		}
+		Query newQuery = new Query(key, sender);
+		Query query = pendingByKey.putIfAbsent(key, newQuery);
+		if (query != null) {
+			log.info("FtdcQueryScheduler merged query -> {}", key);
+			return query.future;
+		}
+		try {
+			executor.execute(() -> {
+				pendingQueue.offer(newQuery);
+				trySend();
+			});
+		} catch (RejectedExecutionException e) {
+			pendingByKey.remove(key, newQuery);
+			newQuery.future.completeExceptionally(e);
+		}
+		return newQuery.future;
+	}
+
+	/**
+	 * 收到查询的最后一条回报, 在回调消息处理线程中调用
+	 *
+	 * @param requestId
+	 */
+	public void onLastResponse(int requestId) {
+		if (isClosed)
+			return;
+		try {
+			executor.execute(() -> {
+				Query finished = inFlight;
+				if (finished != null && inFlightRequestId == requestId) {
+					if (inFlightTimeout != null)
+						inFlightTimeout.cancel(false);
+					log.info("FtdcQueryScheduler query finished -> {}, requestId==[{}]", finished.key, requestId);
+					inFlight = null;
+					finished.future.complete(null);
+					trySend();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// 检查isClosed之后调度器被关闭, 在途查询已由close结束
+			log.warn("FtdcQueryScheduler closed, ignore last response -> requestId==[{}]", requestId);
+		}
+	}
+
+	/**
+	 * 仅在调度线程中调用
+	 */
+	private void trySend() {
+		if (isClosed || inFlight != null || pendingQueue.isEmpty())
+			return;
+		long now = System.nanoTime();
+		if (now < nextPermitNanos) {
+			scheduleWakeup(nextPermitNanos - now);
+			return;
+		}
+		Query query = pendingQueue.peek();
+		int ret;
+		try {
+			ret = query.sender.getAsInt();
+		} catch (Exception e) {
+			log.error("FtdcQueryScheduler send query -> {} exception -> {}", query.key, e.getMessage(), e);
+			removePending(query);
+			query.future.completeExceptionally(e);
+			trySend();
+			return;
+		}
+		this.nextPermitNanos = now + permitIntervalNanos;
+		if (ret > 0) {
+			removePending(query);
+			this.inFlight = query;
+			this.inFlightRequestId = ret;
+			this.inFlightTimeout = executor.schedule(() -> onTimeout(ret), timeoutMillis, TimeUnit.MILLISECONDS);
+			log.info("FtdcQueryScheduler query sent -> {}, requestId==[{}]", query.key, ret);
+		} else if (ret == -2 || ret == -3) {
+			// 请求超限, 保留在队首稍后重试
+			log.warn("FtdcQueryScheduler query -> {} throttled by CTP, ret==[{}], retry later", query.key, ret);
+			scheduleWakeup(permitIntervalNanos);
+		} else {
+			removePending(query);
+			query.future.completeExceptionally(
+					new IllegalStateException("Query [" + query.key + "] send failure, ret==[" + ret + "]"));
+			trySend();
+		}
+	}
+
+	private void removePending(Query query) {
+		pendingQueue.poll();
+		pendingByKey.remove(query.key, query);
+	}
+
+	private void scheduleWakeup(long delayNanos) {
+		if (isWakeupScheduled)
+			return;
+		this.isWakeupScheduled = true;
+		executor.schedule(() -> {
+			this.isWakeupScheduled = false;
+			trySend();
+		}, delayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	private void onTimeout(int requestId) {
+		Query timeout = inFlight;
+		if (timeout != null && inFlightRequestId == requestId) {
+			log.error("FtdcQueryScheduler query -> {} timeout, requestId==[{}]", timeout.key, requestId);
+			inFlight = null;
+			timeout.future.completeExceptionally(new TimeoutException(
+					"Query [" + timeout.key + "] timeout, requestId==[" + requestId + "]"));
+			trySend();
+		}
+	}
+
+	/**
+	 * 等待发送的查询数量, 不包括在途查询
+	 *
+	 * @return
+	 */
+	public int getPendingCount() {
+		return pendingByKey.size();
+	}
+
+	@Override
+	public void close() {
+		this.isClosed = true;
+		executor.shutdownNow();
+		try {
+			// 等待正在执行的发送结束, 之后在途查询不再变化
+			executor.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		IllegalStateException closed = new IllegalStateException("FtdcQueryScheduler is closed");
+		// 在途查询不会再收到回报, 与尚未发送的查询一起结束
+		Query query = inFlight;
+		if (query != null)
+			query.future.completeExceptionally(closed);
+		pendingByKey.values().forEach(pending -> pending.future.completeExceptionally(closed));
+		pendingByKey.clear();
+	}
+
+	private static final class Query {
+
+		private final String key;
+		private final IntSupplier sender;
+		private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+		private Query(String key, IntSupplier sender) {
+			this.key = key;
+			this.sender = sender;
+		}
+
+	}
+
+}
@@ -1,35 +1,32 @@
 package io.horizon.ftdc.adaptor;
 
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.LocalTime;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
 
-import io.mercury.common.datetime.EpochTime;
-import io.mercury.common.datetime.TimeZone;
+import org.slf4j.Logger;
+
+import io.mercury.common.log.CommonLoggerFactory;
+import io.mercury.common.util.StringUtil;
 
 /**
- * 生成<b> CTP </b>报单<b> OrderRef </b>
+ * 生成<b> CTP </b>报单<b> OrderRef </b><br>
  * 
- * @author yellow013
+ * CTP要求同一会话(FrontID + SessionID)内的OrderRef唯一且递增,
+ * 因此所有策略共享同一个原子序列, 各线程通过CAS获取下一个OrderRef, 不使用锁<br>
+ * 每次交易登录成功后使用CTP返回的MaxOrderRef重新设定序列起点, 保证不会与本会话已使用的OrderRef冲突
  * 
- *         TODO 优化OrderRef生成逻辑, 直接将系统内的OrderSysId转换为高位进制的OrderRef
- *
+ * @author yellow013
  */
-@NotThreadSafe
+@ThreadSafe
 public final class OrderRefGenerator {
 
-	private static final int MaxLimitOwnerId = 213;
-
-	private static final long EpochSecondsBenchmarkPoint = ZonedDateTime
-			.of(LocalDate.now().minusDays(1), LocalTime.of(19, 00), TimeZone.CST).toEpochSecond();
+	private static final Logger log = CommonLoggerFactory.getLogger(OrderRefGenerator.class);
 
-	private static long lastEpochSecondsDiff;
+	private static final AtomicInteger Sequence = new AtomicInteger(0);
 
-	private static int increment;
+	private OrderRefGenerator() {
+	}
 
 	/**
 	 * 
@@ -37,52 +34,47 @@ public final class OrderRefGenerator {
 	 * @return
 	 */
 	public static int next(int ownerId) {
-		if (ownerId < 1 || ownerId > MaxLimitOwnerId)
+		if (ownerId < 1)
 			throw new IllegalArgumentException("ownerId is illegal.");
-		long nowEpochSecondsDifference = EpochTime.seconds() - EpochSecondsBenchmarkPoint;
-		if (nowEpochSecondsDifference != lastEpochSecondsDiff) {
-			lastEpochSecondsDiff = nowEpochSecondsDifference;
-			increment = 0;
-		}
-		return ownerId * 100_000_000 + (int) lastEpochSecondsDiff * 1_000 + ++increment;
+		return Sequence.incrementAndGet();
 	}
 
-	public static void main(String[] args) throws InterruptedException {
-
-		LocalDate nowDate = LocalDate.now();
-		LocalDate baseDate = nowDate.minusDays(1);
-
-		System.out.println(nowDate);
-		System.out.println(baseDate);
-
-		ZonedDateTime nowDateTime = ZonedDateTime.of(nowDate, LocalTime.of(15, 00, 00), TimeZone.SYS_DEFAULT);
-		ZonedDateTime baseDateTime = ZonedDateTime.of(baseDate, LocalTime.of(19, 00), TimeZone.SYS_DEFAULT);
-
-		System.out.println(nowDateTime);
-		System.out.println(baseDateTime);
-
-		Instant nowInstant = nowDateTime.toInstant();
-		Instant baseInstant = baseDateTime.toInstant();
-
-		long diff = nowInstant.getEpochSecond() - baseInstant.getEpochSecond();
-
-		System.out.println(Integer.MAX_VALUE);
-		System.out.println(diff);
+	/**
+	 * 使用登录返回的MaxOrderRef设定序列起点, 只会向前推进
+	 * 
+	 * @param maxOrderRef
+	 * @return 设定后的当前值
+	 */
+	public static int reseed(int maxOrderRef) {
+		int current = Sequence.accumulateAndGet(maxOrderRef, Math::max);
+		log.info("OrderRefGenerator reseed, MaxOrderRef==[{}], current==[{}]", maxOrderRef, current);
+		return current;
+	}
 
-		for (int i = 0; i < 10240; i++) {
-			System.out.println(OrderRefGenerator.next(5));
+	/**
+	 * 解析CTP返回的MaxOrderRef, 无法解析时返回0
+	 * 
+	 * @param maxOrderRef
+	 * @return
+	 */
+	public static int parseMaxOrderRef(String maxOrderRef) {
+		if (StringUtil.isNullOrEmpty(maxOrderRef))
+			return 0;
+		try {
+			return Integer.parseInt(maxOrderRef.trim());
+		} catch (NumberFormatException e) {
+			log.error("OrderRefGenerator parse MaxOrderRef==[{}] failure", maxOrderRef);
+			return 0;
 		}
+	}
 
-		System.out.println(Instant.now().toEpochMilli());
-		System.out.println(System.currentTimeMillis());
-		System.out.println(EpochTime.seconds());
-
-		ZonedDateTime of = ZonedDateTime.of(LocalDate.now(), LocalTime.now(), ZoneId.systemDefault());
-
-		System.out.println(of.toEpochSecond());
-
-		System.out.println(Long.toString(Long.MAX_VALUE, 36));
-
+	/**
+	 * 最近一次生成的OrderRef
+	 * 
+	 * @return
+	 */
+	public static int current() {
+		return Sequence.get();
 	}
 
 }
@@ -1,45 +1,226 @@
 package io.horizon.ftdc.adaptor;
 
-import static io.mercury.common.collections.MutableMaps.newLongObjectHashMap;
-import static io.mercury.common.collections.MutableMaps.newObjectLongHashMap;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 
-import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
-import org.eclipse.collections.api.map.primitive.MutableObjectLongMap;
+import org.eclipse.collections.api.map.primitive.MutableIntLongMap;
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntLongHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
 import org.slf4j.Logger;
 
 import io.horizon.ftdc.exception.OrderRefNotFoundException;
 import io.horizon.trader.order.OrdSysIdAllocator;
-import io.mercury.common.collections.Capacity;
 import io.mercury.common.log.CommonLoggerFactory;
 
 /**
- * 
- * @author yellow013
+ * 维护CTP OrderRef与系统ordSysId的映射<br>
+ *
+ * OrderRef由OrderRefGenerator生成, 均为整数, 映射使用int作为键,
+ * 回报中的OrderRef逐字符解析为int, 不再对字符串计算hash<br>
+ *
+ * 每条映射同时记录报单时的FrontID和SessionID, 撤单时使用原会话的三元组定位订单,
+ * 重启后恢复的订单可以在新会话中撤单<br>
+ *
+ * 交易日以交易登录返回的TradingDay为准, 交易日变化时清空全部映射<br>
+ * 调用attach后映射同时写入内存映射文件, 每条记录20字节(int orderRef, long ordSysId, int frontId, int sessionId),
+ * 进程重启后重新attach即可恢复当日的映射<br>
+ * 文件头记录格式版本和交易日, 任一不同时清空文件重新开始
  *
- * @TODO - Add Persistence
+ * @author yellow013
  */
-
 public class OrderRefKeeper {
 
 	private static final Logger log = CommonLoggerFactory.getLogger(OrderRefKeeper.class);
 
-	private final MutableObjectLongMap<String> mapOfOrdId = newObjectLongHashMap(Capacity.L10_SIZE);
+	// 文件格式版本
+	private static final int Version = 2;
+
+	// 文件头: int version, int tradingDay, int count
+	private static final int HeaderSize = 12;
+
+	// 记录: int orderRef, long ordSysId, int frontId, int sessionId
+	private static final int RecordSize = 20;
+
+	private final MutableIntLongMap mapOfOrdSysId = new IntLongHashMap(1024);
+
+	private final MutableLongIntMap mapOfOrderRef = new LongIntHashMap(1024);
+
+	// ordSysId -> 报单时的会话, 高32位为FrontID, 低32位为SessionID
+	private final MutableLongLongMap mapOfSession = new LongLongHashMap(1024);
+
+	// 当前交易日, 格式yyyyMMdd, 未登录时为0
+	private int tradingDay;
+
+	// 当日映射中最大的OrderRef
+	private int maxOrderRef;
+
+	// 当前会话
+	private int frontId;
+
+	private int sessionId;
 
-	private final MutableLongObjectMap<String> mapOfOrderRef = newLongObjectHashMap(Capacity.L10_SIZE);
+	// 持久化文件, 未attach时为null
+	private MappedByteBuffer mappedBuffer;
+
+	// 文件对应的交易日
+	private int attachedTradingDay;
+
+	private int capacity;
+
+	private int count;
 
 	private final static OrderRefKeeper StaticInstance = new OrderRefKeeper();
 
 	private OrderRefKeeper() {
 	}
 
+	/**
+	 * 交易登录后, 允许报单之前调用<br>
+	 * 交易日变化时清空映射, 之后写入的映射记录当前会话
+	 *
+	 * @param tradingDay 交易登录返回的交易日, 格式yyyyMMdd
+	 * @param frontId
+	 * @param sessionId
+	 */
+	public static void onTraderLogin(int tradingDay, int frontId, int sessionId) {
+		synchronized (StaticInstance) {
+			StaticInstance.switchTradingDay(tradingDay);
+			StaticInstance.frontId = frontId;
+			StaticInstance.sessionId = sessionId;
+		}
+		log.info("OrderRefKeeper on trader login, tradingDay==[{}], frontId==[{}], sessionId==[{}]", tradingDay,
+				frontId, sessionId);
+	}
+
+	private void switchTradingDay(int tradingDay) {
+		if (this.tradingDay == tradingDay)
+			return;
+		if (this.tradingDay != 0)
+			log.info("OrderRefKeeper tradingDay changed [{}] -> [{}], clear [{}] mappings", this.tradingDay,
+					tradingDay, mapOfOrdSysId.size());
+		mapOfOrdSysId.clear();
+		mapOfOrderRef.clear();
+		mapOfSession.clear();
+		this.maxOrderRef = 0;
+		this.tradingDay = tradingDay;
+	}
+
+	/**
+	 * 挂载持久化文件并恢复文件中当日的映射<br>
+	 * 同一交易日已挂载时不重复读取
+	 *
+	 * @param file       映射文件
+	 * @param tradingDay 交易登录返回的交易日, 格式yyyyMMdd, 与文件中的交易日不同时清空文件
+	 * @param capacity   最大记录数量
+	 * @return 文件中当日的记录数量
+	 * @throws IOException
+	 */
+	public static int attach(File file, int tradingDay, int capacity) throws IOException {
+		if (tradingDay < 19700101)
+			throw new IllegalArgumentException("tradingDay [" + tradingDay + "] is not yyyyMMdd");
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity must be greater than 0");
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists() && !parent.mkdirs())
+			throw new IOException("Cannot create directory -> " + parent);
+		synchronized (StaticInstance) {
+			if (StaticInstance.mappedBuffer != null && StaticInstance.attachedTradingDay == tradingDay)
+				return StaticInstance.count;
+			StaticInstance.switchTradingDay(tradingDay);
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+				MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0,
+						HeaderSize + (long) capacity * RecordSize);
+				int fileVersion = buffer.getInt(0);
+				int fileTradingDay = buffer.getInt(4);
+				int fileCount = buffer.getInt(8);
+				int restored = 0;
+				if (fileVersion == Version && fileTradingDay == tradingDay && fileCount > 0) {
+					restored = Math.min(fileCount, capacity);
+					for (int i = 0; i < restored; i++) {
+						int offset = HeaderSize + i * RecordSize;
+						StaticInstance.putMapping(buffer.getInt(offset), buffer.getLong(offset + 4),
+								buffer.getInt(offset + 12), buffer.getInt(offset + 16));
+					}
+				} else {
+					buffer.putInt(0, Version);
+					buffer.putInt(4, tradingDay);
+					buffer.putInt(8, 0);
+				}
+				StaticInstance.mappedBuffer = buffer;
+				StaticInstance.attachedTradingDay = tradingDay;
+				StaticInstance.capacity = capacity;
+				StaticInstance.count = restored;
+				log.info("OrderRefKeeper attach file -> {}, tradingDay==[{}], restored==[{}]", file, tradingDay,
+						restored);
+				return restored;
+			}
+		}
+	}
+
 	public static void put(String orderRef, long ordId) {
+		int ref = parseOrderRef(orderRef);
+		if (ref < 0)
+			throw new IllegalArgumentException("orderRef [" + orderRef + "] is not a number");
+		put(ref, ordId);
+	}
+
+	public static void put(int orderRef, long ordId) {
 		log.info("CTP orderRef==[{}] mapping to System ordId==[{}]", orderRef, ordId);
-		StaticInstance.mapOfOrdId.put(orderRef, ordId);
-		StaticInstance.mapOfOrderRef.put(ordId, orderRef);
+		synchronized (StaticInstance) {
+			StaticInstance.putMapping(orderRef, ordId, StaticInstance.frontId, StaticInstance.sessionId);
+			StaticInstance.writeThrough(orderRef, ordId);
+		}
+	}
+
+	private void putMapping(int orderRef, long ordSysId, int frontId, int sessionId) {
+		mapOfOrdSysId.put(orderRef, ordSysId);
+		mapOfOrderRef.put(ordSysId, orderRef);
+		mapOfSession.put(ordSysId, ((long) frontId << 32) | (sessionId & 0xFFFFFFFFL));
+		if (orderRef > maxOrderRef)
+			this.maxOrderRef = orderRef;
+	}
+
+	/**
+	 * 当日映射中最大的OrderRef, 用于重启后避免新报单与恢复的OrderRef重复
+	 *
+	 * @return
+	 */
+	public static int getMaxOrderRef() {
+		synchronized (StaticInstance) {
+			return StaticInstance.maxOrderRef;
+		}
+	}
+
+	private void writeThrough(int orderRef, long ordSysId) {
+		if (mappedBuffer == null)
+			return;
+		if (count == capacity) {
+			log.error("OrderRefKeeper file is full, capacity==[{}], orderRef==[{}] not persisted", capacity,
+					orderRef);
+			return;
+		}
+		int offset = HeaderSize + count * RecordSize;
+		mappedBuffer.putInt(offset, orderRef);
+		mappedBuffer.putLong(offset + 4, ordSysId);
+		mappedBuffer.putInt(offset + 12, frontId);
+		mappedBuffer.putInt(offset + 16, sessionId);
+		// 记录写入后再更新数量, 进程中断时不会读到不完整的记录
+		mappedBuffer.putInt(8, ++count);
 	}
 
 	public static long getOrdSysId(String orderRef) {
-		long ordSysId = StaticInstance.mapOfOrdId.get(orderRef);
+		int ref = parseOrderRef(orderRef);
+		long ordSysId;
+		synchronized (StaticInstance) {
+			ordSysId = ref < 0 ? 0L : StaticInstance.mapOfOrdSysId.get(ref);
+		}
 		if (ordSysId == 0L) {
 			// 处理其他来源的订单
 			ordSysId = OrdSysIdAllocator.ExternalOrderAllocator.getOrdSysId();
@@ -50,10 +231,89 @@ public class OrderRefKeeper {
 	}
 
 	public static String getOrderRef(long ordId) throws OrderRefNotFoundException {
-		String orderRef = StaticInstance.mapOfOrderRef.get(ordId);
-		if (orderRef == null)
+		return Integer.toString(getOrderRefAsInt(ordId));
+	}
+
+	public static int getOrderRefAsInt(long ordId) throws OrderRefNotFoundException {
+		int orderRef;
+		synchronized (StaticInstance) {
+			orderRef = StaticInstance.mapOfOrderRef.getIfAbsent(ordId, -1);
+		}
+		if (orderRef < 0)
 			throw new OrderRefNotFoundException(ordId);
 		return orderRef;
 	}
 
+	/**
+	 * 报单时的会话
+	 *
+	 * @param ordId
+	 * @return 高32位为FrontID, 低32位为SessionID, 可使用frontIdOf和sessionIdOf拆分
+	 * @throws OrderRefNotFoundException
+	 */
+	public static long getSession(long ordId) throws OrderRefNotFoundException {
+		synchronized (StaticInstance) {
+			if (StaticInstance.mapOfSession.containsKey(ordId))
+				return StaticInstance.mapOfSession.get(ordId);
+		}
+		throw new OrderRefNotFoundException(ordId);
+	}
+
+	/**
+	 * OrderRef是否为指定会话中的本系统报单, 用于排除同一账户其他会话的推送
+	 *
+	 * @param orderRef
+	 * @param frontId
+	 * @param sessionId
+	 * @return
+	 */
+	public static boolean isOwnOrder(CharSequence orderRef, int frontId, int sessionId) {
+		int ref = parseOrderRef(orderRef);
+		if (ref < 0)
+			return false;
+		synchronized (StaticInstance) {
+			long ordSysId = StaticInstance.mapOfOrdSysId.get(ref);
+			if (ordSysId == 0L || !StaticInstance.mapOfSession.containsKey(ordSysId))
+				return false;
+			return StaticInstance.mapOfSession.get(ordSysId) == (((long) frontId << 32) | (sessionId & 0xFFFFFFFFL));
+		}
+	}
+
+	public static int frontIdOf(long session) {
+		return (int) (session >>> 32);
+	}
+
+	public static int sessionIdOf(long session) {
+		return (int) session;
+	}
+
+	/**
+	 * 逐字符解析OrderRef, 忽略首尾空格, 不产生新对象
+	 *
+	 * @param orderRef
+	 * @return 无法解析时返回-1
+	 */
+	public static int parseOrderRef(CharSequence orderRef) {
+		if (orderRef == null)
+			return -1;
+		int start = 0;
+		int end = orderRef.length();
+		while (start < end && orderRef.charAt(start) == ' ')
+			start++;
+		while (end > start && orderRef.charAt(end - 1) == ' ')
+			end--;
+		if (start == end)
+			return -1;
+		long value = 0L;
+		for (int i = start; i < end; i++) {
+			char c = orderRef.charAt(i);
+			if (c < '0' || c > '9')
+				return -1;
+			value = value * 10 + (c - '0');
+			if (value > Integer.MAX_VALUE)
+				return -1;
+		}
+		return (int) value;
+	}
+
 }
@@ -0,0 +1,36 @@
+package io.horizon.ftdc.adaptor.consts;
+
+import static ctp.thostapi.thosttraderapiConstants.THOST_FTDC_PD_Long;
+import static ctp.thostapi.thosttraderapiConstants.THOST_FTDC_PD_Net;
+import static ctp.thostapi.thosttraderapiConstants.THOST_FTDC_PD_Short;
+
+/**
+ * TFtdcPosiDirectionType是一个持仓多空方向类型 <br>
+ * <br>
+ * ///净<br>
+ * #define THOST_FTDC_PD_Net '1'<br>
+ * <br>
+ * ///多头<br>
+ * #define THOST_FTDC_PD_Long '2'<br>
+ * <br>
+ * ///空头<br>
+ * #define THOST_FTDC_PD_Short '3'<br>
+ */
+public interface FtdcPosiDirection {
+
+	/**
+	 * 净
+	 */
+	char Net = THOST_FTDC_PD_Net;
+
+	/**
+	 * 多头
+	 */
+	char Long = THOST_FTDC_PD_Long;
+
+	/**
+	 * 空头
+	 */
+	char Short = THOST_FTDC_PD_Short;
+
+}
@@ -0,0 +1,75 @@
+package io.horizon.ftdc.adaptor.converter;
+
+import java.util.function.Function;
+
+import ctp.thostapi.CThostFtdcDepthMarketDataField;
+import io.horizon.market.data.impl.BasicMarketData;
+import io.horizon.market.instrument.Exchange;
+import io.horizon.market.instrument.Instrument;
+import io.horizon.market.instrument.InstrumentKeeper;
+import io.horizon.market.instrument.PriceMultiplier;
+
+/**
+ * 融合转换器, 直接从JNI行情对象读取BasicMarketData需要的字段<br>
+ * 跳过FtdcDepthMarketData中间对象, 在行情回调线程中执行, 每笔行情只查找一次Instrument和价格乘数<br>
+ * 内部的TickTimeDecoder不是线程安全的, 多个行情前置时每个回调线程使用独立实例
+ * 
+ * @author yellow013
+ */
+public final class FromCThostFtdcDepthMarketData implements Function<CThostFtdcDepthMarketDataField, BasicMarketData> {
+
+	// 行情时间解码
+	private final TickTimeDecoder tickTimeDecoder = new TickTimeDecoder();
+
+	@Override
+	public BasicMarketData apply(CThostFtdcDepthMarketDataField field) {
+
+		Instrument instrument = InstrumentKeeper.getInstrument(field.getInstrumentID());
+		PriceMultiplier multiplier = instrument.getPriceMultiplier();
+
+		return new BasicMarketData(
+				// 交易标的
+				instrument,
+				// 时间
+				tickTimeDecoder.toEpochMillis(field.getActionDay(), field.getTradingDay(), field.getUpdateTime(),
+						field.getUpdateMillisec(), instrument.getZoneOffset(),
+						instrument.getSymbol().getExchange() == Exchange.DCE),
+				// 最新价
+				multiplier.toLong(field.getLastPrice()),
+				// 成交量
+				field.getVolume(),
+				// 成交额
+				multiplier.toLong(field.getTurnover()))
+						// 买一价和买一量
+						.setBidPrice1(multiplier.toLong(field.getBidPrice1()))
+						.setBidVolume1(field.getBidVolume1())
+						// 买二价和买二量
+						.setBidPrice2(multiplier.toLong(field.getBidPrice2()))
+						.setBidVolume2(field.getBidVolume2())
+						// 买三价和买三量
+						.setBidPrice3(multiplier.toLong(field.getBidPrice3()))
+						.setBidVolume3(field.getBidVolume3())
+						// 买四价和买四量
+						.setBidPrice4(multiplier.toLong(field.getBidPrice4()))
+						.setBidVolume4(field.getBidVolume4())
+						// 买五价和买五量
+						.setBidPrice5(multiplier.toLong(field.getBidPrice5()))
+						.setBidVolume5(field.getBidVolume5())
+						// 卖一价和卖一量
+						.setAskPrice1(multiplier.toLong(field.getAskPrice1()))
+						.setAskVolume1(field.getAskVolume1())
+						// 卖二价和卖二量
+						.setAskPrice2(multiplier.toLong(field.getAskPrice2()))
+						.setAskVolume2(field.getAskVolume2())
+						// 卖三价和卖三量
+						.setAskPrice3(multiplier.toLong(field.getAskPrice3()))
+						.setAskVolume3(field.getAskVolume3())
+						// 卖四价和卖四量
+						.setAskPrice4(multiplier.toLong(field.getAskPrice4()))
+						.setAskVolume4(field.getAskVolume4())
+						// 卖五价和卖五量
+						.setAskPrice5(multiplier.toLong(field.getAskPrice5()))
+						.setAskVolume5(field.getAskVolume5());
+	}
+
+}
@@ -1,85 +1,116 @@
 package io.horizon.ftdc.adaptor.converter;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.function.Function;
 
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
 import org.slf4j.Logger;
 
 import io.horizon.ftdc.gateway.msg.rsp.FtdcDepthMarketData;
 import io.horizon.market.data.impl.BasicMarketData;
+import io.horizon.market.data.impl.ReusableMarketData;
+import io.horizon.market.instrument.Exchange;
 import io.horizon.market.instrument.Instrument;
 import io.horizon.market.instrument.InstrumentKeeper;
 import io.horizon.market.instrument.PriceMultiplier;
-import io.mercury.common.datetime.TimeConst;
-import io.mercury.common.datetime.pattern.spec.DatePattern;
-import io.mercury.common.datetime.pattern.spec.TimePattern;
+import io.mercury.common.collections.MutableMaps;
 import io.mercury.common.log.CommonLoggerFactory;
 
 public final class FromFtdcDepthMarketData implements Function<FtdcDepthMarketData, BasicMarketData> {
 
 	private static final Logger log = CommonLoggerFactory.getLogger(FromFtdcDepthMarketData.class);
 
-	private final DateTimeFormatter updateTimeformatter = TimePattern.HH_MM_SS.newDateTimeFormatter();
-
-	private final DateTimeFormatter actionDayformatter = DatePattern.YYYYMMDD.newDateTimeFormatter();
+	// 行情时间解码
+	private final TickTimeDecoder tickTimeDecoder = new TickTimeDecoder();
 
 	@Override
 	public BasicMarketData apply(FtdcDepthMarketData depthMarketData) {
 
-		LocalDate actionDay = LocalDate.parse(depthMarketData.getActionDay(), actionDayformatter);
-		LocalTime updateTime = LocalTime.parse(depthMarketData.getUpdateTime(), updateTimeformatter)
-				.plusNanos(depthMarketData.getUpdateMillisec() * TimeConst.NANOS_PER_MILLIS);
-
 		Instrument instrument = InstrumentKeeper.getInstrument(depthMarketData.getInstrumentID());
 		log.info("Convert depthMarketData apply -> InstrumentCode==[{}], actionDay==[{}], updateTime==[{}]",
-				instrument.getInstrumentCode(), actionDay, updateTime);
+				instrument.getInstrumentCode(), depthMarketData.getActionDay(), depthMarketData.getUpdateTime());
 
 		PriceMultiplier multiplier = instrument.getPriceMultiplier();
 
-		return new BasicMarketData(
+		return setLevels(new BasicMarketData(
 				// 交易标的
 				instrument,
 				// 时间
-				LocalDateTime.of(actionDay, updateTime),
+				epochMillis(depthMarketData, instrument),
+				// 最新价
+				multiplier.toLong(depthMarketData.getLastPrice()),
+				// 成交量
+				depthMarketData.getVolume(),
+				// 成交额
+				multiplier.toLong(depthMarketData.getTurnover())), multiplier, depthMarketData);
+	}
+
+	// 每个Instrument对应的可复用行情对象
+	private final MutableIntObjectMap<ReusableMarketData> flyweights = MutableMaps.newIntObjectHashMap();
+
+	/**
+	 * 将行情写入当前Instrument的可复用对象并返回, 不记录日志<br>
+	 * 返回的对象会被下一笔同合约行情覆盖, 仅在MarketDataHandler回调期间有效
+	 * 
+	 * @param depthMarketData
+	 * @return
+	 */
+	public BasicMarketData applyToFlyweight(FtdcDepthMarketData depthMarketData) {
+		Instrument instrument = InstrumentKeeper.getInstrument(depthMarketData.getInstrumentID());
+		ReusableMarketData marketData = flyweights.get(instrument.getInstrumentId());
+		if (marketData == null) {
+			marketData = new ReusableMarketData(instrument);
+			flyweights.put(instrument.getInstrumentId(), marketData);
+		}
+		PriceMultiplier multiplier = instrument.getPriceMultiplier();
+		marketData.reuse(epochMillis(depthMarketData, instrument),
 				// 最新价
 				multiplier.toLong(depthMarketData.getLastPrice()),
 				// 成交量
 				depthMarketData.getVolume(),
 				// 成交额
-				multiplier.toLong(depthMarketData.getTurnover()))
-						// 买一价和买一量
-						.setBidPrice1(multiplier.toLong(depthMarketData.getBidPrice1()))
-						.setBidVolume1(depthMarketData.getBidVolume1())
-						// 买二价和买二量
-						.setBidPrice2(multiplier.toLong(depthMarketData.getBidPrice2()))
-						.setBidVolume2(depthMarketData.getBidVolume2())
-						// 买三价和买三量
-						.setBidPrice3(multiplier.toLong(depthMarketData.getBidPrice3()))
-						.setBidVolume3(depthMarketData.getBidVolume3())
-						// 买四价和买四量
-						.setBidPrice4(multiplier.toLong(depthMarketData.getBidPrice4()))
-						.setBidVolume4(depthMarketData.getBidVolume4())
-						// 买五价和买五量
-						.setBidPrice5(multiplier.toLong(depthMarketData.getBidPrice5()))
-						.setBidVolume5(depthMarketData.getBidVolume5())
-						// 卖一价和卖一量
-						.setAskPrice1(multiplier.toLong(depthMarketData.getAskPrice1()))
-						.setAskVolume1(depthMarketData.getAskVolume1())
-						// 卖二价和卖二量
-						.setAskPrice2(multiplier.toLong(depthMarketData.getAskPrice2()))
-						.setAskVolume2(depthMarketData.getAskVolume2())
-						// 卖三价和卖三量
-						.setAskPrice3(multiplier.toLong(depthMarketData.getAskPrice3()))
-						.setAskVolume3(depthMarketData.getAskVolume3())
-						// 卖四价和卖四量
-						.setAskPrice4(multiplier.toLong(depthMarketData.getAskPrice4()))
-						.setAskVolume4(depthMarketData.getAskVolume4())
-						// 卖五价和卖五量
-						.setAskPrice5(multiplier.toLong(depthMarketData.getAskPrice5()))
-						.setAskVolume5(depthMarketData.getAskVolume5());
+				multiplier.toLong(depthMarketData.getTurnover()));
+		return setLevels(marketData, multiplier, depthMarketData);
+	}
+
+	private long epochMillis(FtdcDepthMarketData depthMarketData, Instrument instrument) {
+		return tickTimeDecoder.toEpochMillis(depthMarketData.getActionDay(), depthMarketData.getTradingDay(),
+				depthMarketData.getUpdateTime(), depthMarketData.getUpdateMillisec(), instrument.getZoneOffset(),
+				instrument.getSymbol().getExchange() == Exchange.DCE);
+	}
+
+	private BasicMarketData setLevels(BasicMarketData marketData, PriceMultiplier multiplier,
+			FtdcDepthMarketData depthMarketData) {
+		return marketData
+				// 买一价和买一量
+				.setBidPrice1(multiplier.toLong(depthMarketData.getBidPrice1()))
+				.setBidVolume1(depthMarketData.getBidVolume1())
+				// 买二价和买二量
+				.setBidPrice2(multiplier.toLong(depthMarketData.getBidPrice2()))
+				.setBidVolume2(depthMarketData.getBidVolume2())
+				// 买三价和买三量
+				.setBidPrice3(multiplier.toLong(depthMarketData.getBidPrice3()))
+				.setBidVolume3(depthMarketData.getBidVolume3())
+				// 买四价和买四量
+				.setBidPrice4(multiplier.toLong(depthMarketData.getBidPrice4()))
+				.setBidVolume4(depthMarketData.getBidVolume4())
+				// 买五价和买五量
+				.setBidPrice5(multiplier.toLong(depthMarketData.getBidPrice5()))
+				.setBidVolume5(depthMarketData.getBidVolume5())
+				// 卖一价和卖一量
+				.setAskPrice1(multiplier.toLong(depthMarketData.getAskPrice1()))
+				.setAskVolume1(depthMarketData.getAskVolume1())
+				// 卖二价和卖二量
+				.setAskPrice2(multiplier.toLong(depthMarketData.getAskPrice2()))
+				.setAskVolume2(depthMarketData.getAskVolume2())
+				// 卖三价和卖三量
+				.setAskPrice3(multiplier.toLong(depthMarketData.getAskPrice3()))
+				.setAskVolume3(depthMarketData.getAskVolume3())
+				// 卖四价和卖四量
+				.setAskPrice4(multiplier.toLong(depthMarketData.getAskPrice4()))
+				.setAskVolume4(depthMarketData.getAskVolume4())
+				// 卖五价和卖五量
+				.setAskPrice5(multiplier.toLong(depthMarketData.getAskPrice5()))
+				.setAskVolume5(depthMarketData.getAskVolume5());
 	}
 
 }
@@ -0,0 +1,64 @@
+package io.horizon.ftdc.adaptor.converter;
+
+import java.util.function.Function;
+
+import io.horizon.ftdc.adaptor.FtdcConstMapper;
+import io.horizon.ftdc.adaptor.OrderRefKeeper;
+import io.horizon.ftdc.gateway.eventlog.FtdcEventLog;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInputOrder;
+import io.horizon.market.instrument.Instrument;
+import io.horizon.market.instrument.InstrumentKeeper;
+import io.horizon.trader.order.OrderReport;
+import io.horizon.trader.order.attr.OrdStatus;
+import io.mercury.common.datetime.EpochTime;
+
+/**
+ * 报单错误转换为NewRejected回报, 携带CTP错误代码和错误信息
+ *
+ * @author yellow013
+ */
+public final class FromFtdcInputOrder implements Function<FtdcInputOrder, OrderReport> {
+
+	@Override
+	public OrderReport apply(FtdcInputOrder ftdcInputOrder) {
+		String orderRef = ftdcInputOrder.getOrderRef();
+		long ordSysId = OrderRefKeeper.getOrdSysId(orderRef);
+		OrderReport report = new OrderReport(ordSysId);
+
+		// 投资者ID
+		report.setInvestorId(ftdcInputOrder.getInvestorID());
+
+		// 报单引用
+		report.setOrderRef(orderRef);
+
+		// 时间戳
+		report.setEpochMillis(EpochTime.millis());
+
+		// 合约代码
+		Instrument instrument = InstrumentKeeper.getInstrument(ftdcInputOrder.getInstrumentID());
+		report.setInstrument(instrument);
+
+		// 报单被拒绝
+		report.setOrdStatus(OrdStatus.NewRejected);
+
+		// 买卖方向
+		report.setDirection(FtdcConstMapper.fromDirection(ftdcInputOrder.getDirection()));
+
+		// 组合开平标志
+		report.setAction(FtdcConstMapper.fromOffsetFlag(ftdcInputOrder.getCombOffsetFlag()));
+
+		// 委托数量
+		report.setOfferQty(ftdcInputOrder.getVolumeTotalOriginal());
+
+		// 委托价格
+		report.setOfferPrice(instrument.getPriceMultiplier().toLong(ftdcInputOrder.getLimitPrice()));
+
+		// 错误代码和错误信息
+		report.setErrorId(ftdcInputOrder.getErrorID());
+		report.setErrorMsg(ftdcInputOrder.getErrorMsg());
+
+		FtdcEventLog.orderReport(report);
+		return report;
+	}
+
+}
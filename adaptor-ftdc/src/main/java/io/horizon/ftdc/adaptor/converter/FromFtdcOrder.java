@@ -1,14 +1,14 @@
 package io.horizon.ftdc.adaptor.converter;
 
-import static io.mercury.common.util.StringUtil.removeNonDigits;
-
 import java.util.function.Function;
 
 import org.slf4j.Logger;
 
 import io.horizon.ftdc.adaptor.FtdcConstMapper;
 import io.horizon.ftdc.adaptor.OrderRefKeeper;
+import io.horizon.ftdc.gateway.eventlog.FtdcEventLog;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcOrder;
+import io.horizon.market.instrument.Exchange;
 import io.horizon.market.instrument.Instrument;
 import io.horizon.market.instrument.InstrumentKeeper;
 import io.horizon.market.instrument.PriceMultiplier;
@@ -67,13 +67,16 @@ public final class FromFtdcOrder implements Function<FtdcOrder, OrderReport> {
 		PriceMultiplier multiplier = instrument.getPriceMultiplier();
 		report.setOfferPrice(multiplier.toLong(ftdcOrder.getLimitPrice()));
 
-		// 报单日期 + 委托时间
-		report.setOfferTime(removeNonDigits(ftdcOrder.getInsertDate()) + removeNonDigits(ftdcOrder.getInsertTime()));
+		// 报单日期 + 委托时间, 大商所夜盘的报单日期为TradingDay, 还原为自然日
+		String insertDate = FtdcTimeParser.toNaturalDate(ftdcOrder.getInsertDate(), ftdcOrder.getInsertTime(),
+				ftdcOrder.getTradingDay(), instrument.getSymbol().getExchange() == Exchange.DCE);
+		report.setOfferTime(FtdcTimeParser.toDigits(insertDate, ftdcOrder.getInsertTime()));
+		report.setOfferEpochMillis(FtdcTimeParser.toEpochMillis(insertDate, ftdcOrder.getInsertTime()));
 
 		// 最后修改时间
 		report.setLastUpdateTime(ftdcOrder.getUpdateTime());
 
-		log.info("FtdcTrade conversion function return OrderReport -> {}", report);
+		FtdcEventLog.orderReport(report);
 		return report;
 	}
 
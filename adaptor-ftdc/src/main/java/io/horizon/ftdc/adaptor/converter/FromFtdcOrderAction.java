@@ -0,0 +1,55 @@
+package io.horizon.ftdc.adaptor.converter;
+
+import java.util.function.Function;
+
+import io.horizon.ftdc.adaptor.OrderRefKeeper;
+import io.horizon.ftdc.gateway.eventlog.FtdcEventLog;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcOrderAction;
+import io.horizon.market.instrument.InstrumentKeeper;
+import io.horizon.trader.order.OrderReport;
+import io.horizon.trader.order.attr.OrdStatus;
+import io.mercury.common.datetime.EpochTime;
+
+/**
+ * 撤单错误(OnErrRtnOrderAction)转换为CancelRejected回报, 携带CTP错误代码和错误信息
+ *
+ * @author yellow013
+ */
+public final class FromFtdcOrderAction implements Function<FtdcOrderAction, OrderReport> {
+
+	@Override
+	public OrderReport apply(FtdcOrderAction ftdcOrderAction) {
+		String orderRef = ftdcOrderAction.getOrderRef();
+		long ordSysId = OrderRefKeeper.getOrdSysId(orderRef);
+		OrderReport report = new OrderReport(ordSysId);
+
+		// 投资者ID
+		report.setInvestorId(ftdcOrderAction.getInvestorID());
+
+		// 报单引用
+		report.setOrderRef(orderRef);
+
+		// 时间戳
+		report.setEpochMillis(EpochTime.millis());
+
+		// 报单编号
+		report.setBrokerUniqueId(ftdcOrderAction.getOrderSysID());
+
+		// 合约代码, 撤单请求未填写时为空
+		String instrumentId = ftdcOrderAction.getInstrumentID();
+		if (instrumentId != null && !instrumentId.isEmpty())
+			report.setInstrument(InstrumentKeeper.getInstrument(instrumentId));
+
+		// 撤单被拒绝
+		report.setOrdStatus(OrdStatus.CancelRejected);
+
+		// 错误代码和错误信息
+		report.setErrorId(ftdcOrderAction.getErrorID());
+		report.setErrorMsg(ftdcOrderAction.getErrorMsg() == null ? ftdcOrderAction.getStatusMsg()
+				: ftdcOrderAction.getErrorMsg());
+
+		FtdcEventLog.orderReport(report);
+		return report;
+	}
+
+}
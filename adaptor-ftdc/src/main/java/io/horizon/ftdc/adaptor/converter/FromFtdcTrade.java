@@ -1,14 +1,14 @@
 package io.horizon.ftdc.adaptor.converter;
 
-import static io.mercury.common.util.StringUtil.removeNonDigits;
-
 import java.util.function.Function;
 
 import org.slf4j.Logger;
 
 import io.horizon.ftdc.adaptor.FtdcConstMapper;
 import io.horizon.ftdc.adaptor.OrderRefKeeper;
+import io.horizon.ftdc.gateway.eventlog.FtdcEventLog;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcTrade;
+import io.horizon.market.instrument.Exchange;
 import io.horizon.market.instrument.Instrument;
 import io.horizon.market.instrument.InstrumentKeeper;
 import io.horizon.market.instrument.PriceMultiplier;
@@ -62,10 +62,13 @@ public final class FromFtdcTrade implements Function<FtdcTrade, OrderReport> {
 		PriceMultiplier multiplier = instrument.getPriceMultiplier();
 		report.setTradePrice(multiplier.toLong(ftdcTrade.getPrice()));
 		
-		// 最后修改时间
-		report.setLastUpdateTime(removeNonDigits(ftdcTrade.getTradeDate()) + removeNonDigits(ftdcTrade.getTradeTime()));
+		// 最后修改时间, 大商所夜盘的成交日期为TradingDay, 还原为自然日
+		String tradeDate = FtdcTimeParser.toNaturalDate(ftdcTrade.getTradeDate(), ftdcTrade.getTradeTime(),
+				ftdcTrade.getTradingDay(), instrument.getSymbol().getExchange() == Exchange.DCE);
+		report.setLastUpdateTime(FtdcTimeParser.toDigits(tradeDate, ftdcTrade.getTradeTime()));
+		report.setLastUpdateEpochMillis(FtdcTimeParser.toEpochMillis(tradeDate, ftdcTrade.getTradeTime()));
 		
-		log.info("FtdcTrade conversion function return OrderReport -> {}", report);
+		FtdcEventLog.orderReport(report);
 		return report;
 	}
 
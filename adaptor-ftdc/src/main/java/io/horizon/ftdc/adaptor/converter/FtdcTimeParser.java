@@ -0,0 +1,168 @@
+package io.horizon.ftdc.adaptor.converter;
+
+import java.time.LocalDate;
+
+import javax.annotation.Nonnull;
+
+/**
+ * FTDC日期[yyyyMMdd]与时间[HH:mm:ss]解析<br>
+ * 直接按字符计算, 不经过DateTimeFormatter和中间字符串<br>
+ * 时区固定为UTC+8, 最近一次解析的日期被缓存, 同一日期只计算一次<br>
+ * 
+ * 大商所夜盘的报单日期和成交日期填写为TradingDay, 由toNaturalDate按TickTimeDecoder的规则还原为自然日
+ *
+ * @author yellow013
+ */
+public final class FtdcTimeParser {
+
+	private FtdcTimeParser() {
+	}
+
+	// UTC+8
+	private static final long OffsetMillis = 8 * 3600 * 1000L;
+
+	private static final long MillisPerDay = 86400 * 1000L;
+
+	// 夜盘开始, 与TickTimeDecoder一致
+	private static final int NightBeginHour = 16;
+
+	// 夜盘跨零点后的结束
+	private static final int NightEndHour = 6;
+
+	private static volatile DateCache dateCache = new DateCache("", 0L);
+
+	/**
+	 * 
+	 * @param date [yyyyMMdd]
+	 * @param time [HH:mm:ss]
+	 * @return 格式不正确时返回0
+	 */
+	public static long toEpochMillis(String date, String time) {
+		long dateMillis = toEpochMillis(date);
+		if (dateMillis == 0L || time == null || time.length() != 8 || time.charAt(2) != ':' || time.charAt(5) != ':')
+			return 0L;
+		int hour = digits2(time, 0);
+		int minute = digits2(time, 3);
+		int second = digits2(time, 6);
+		if (hour < 0 || minute < 0 || second < 0)
+			return 0L;
+		return dateMillis + ((hour * 60 + minute) * 60 + second) * 1000L;
+	}
+
+	/**
+	 * 
+	 * @param date [yyyyMMdd]
+	 * @return 当日零点的epoch毫秒数, 格式不正确时返回0
+	 */
+	public static long toEpochMillis(String date) {
+		if (date == null || date.length() != 8)
+			return 0L;
+		DateCache cache = dateCache;
+		if (cache.date.equals(date))
+			return cache.epochMillis;
+		int century = digits2(date, 0);
+		int yearOfCentury = digits2(date, 2);
+		int month = digits2(date, 4);
+		int day = digits2(date, 6);
+		if (century < 0 || yearOfCentury < 0 || month < 1 || month > 12 || day < 1 || day > 31)
+			return 0L;
+		long epochMillis = toEpochDay(century * 100 + yearOfCentury, month, day) * MillisPerDay - OffsetMillis;
+		dateCache = new DateCache(date, epochMillis);
+		return epochMillis;
+	}
+
+	/**
+	 * 日期填写为TradingDay的夜盘记录还原为自然日<br>
+	 * 16点之后: 日期为周一时减三天, 否则减一天<br>
+	 * 零点之后: 日期为周一时减两天(周六凌晨)
+	 * 
+	 * @param date             [yyyyMMdd]
+	 * @param time             [HH:mm:ss]
+	 * @param tradingDay       [yyyyMMdd]
+	 * @param dateIsTradingDay 夜盘日期是否填写为TradingDay(大商所)
+	 * @return 不需要还原或格式不正确时返回原日期
+	 */
+	public static String toNaturalDate(String date, String time, String tradingDay, boolean dateIsTradingDay) {
+		if (!dateIsTradingDay || date == null || !date.equals(tradingDay) || time == null || time.length() != 8)
+			return date;
+		int hour = digits2(time, 0);
+		if (hour < 0 || (hour >= NightEndHour && hour < NightBeginHour))
+			return date;
+		long dateMillis = toEpochMillis(date);
+		if (dateMillis == 0L)
+			return date;
+		long epochDay = (dateMillis + OffsetMillis) / MillisPerDay;
+		// 0 == Monday
+		boolean isMonday = Math.floorMod(epochDay + 3, 7L) == 0;
+		int days;
+		if (hour >= NightBeginHour)
+			days = isMonday ? 3 : 1;
+		else if (isMonday)
+			days = 2;
+		else
+			return date;
+		LocalDate naturalDate = LocalDate.ofEpochDay(epochDay - days);
+		return Integer.toString(naturalDate.getYear() * 10000 + naturalDate.getMonthValue() * 100
+				+ naturalDate.getDayOfMonth());
+	}
+
+	/**
+	 * 去掉日期和时间中的分隔符, 合并为[yyyyMMddHHmmss]
+	 * 
+	 * @param date
+	 * @param time
+	 * @return
+	 */
+	public static String toDigits(@Nonnull String date, @Nonnull String time) {
+		char[] chars = new char[date.length() + time.length()];
+		int len = 0;
+		for (int i = 0; i < date.length(); i++) {
+			char c = date.charAt(i);
+			if (c >= '0' && c <= '9')
+				chars[len++] = c;
+		}
+		for (int i = 0; i < time.length(); i++) {
+			char c = time.charAt(i);
+			if (c >= '0' && c <= '9')
+				chars[len++] = c;
+		}
+		return new String(chars, 0, len);
+	}
+
+	/**
+	 * 公历日期转换为epoch day
+	 */
+	static long toEpochDay(int year, int month, int day) {
+		// 以3月为一年的开始, 闰日位于年末
+		int y = month <= 2 ? year - 1 : year;
+		int era = Math.floorDiv(y, 400);
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097L + dayOfEra - 719468L;
+	}
+
+	/**
+	 * @return 非数字时返回负数
+	 */
+	private static int digits2(String str, int offset) {
+		int d0 = str.charAt(offset) - '0';
+		int d1 = str.charAt(offset + 1) - '0';
+		if (d0 < 0 || d0 > 9 || d1 < 0 || d1 > 9)
+			return -1;
+		return d0 * 10 + d1;
+	}
+
+	private static final class DateCache {
+
+		private final String date;
+		private final long epochMillis;
+
+		private DateCache(String date, long epochMillis) {
+			this.date = date;
+			this.epochMillis = epochMillis;
+		}
+
+	}
+
+}
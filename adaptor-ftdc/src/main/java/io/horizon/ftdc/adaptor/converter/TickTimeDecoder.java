@@ -0,0 +1,123 @@
+package io.horizon.ftdc.adaptor.converter;
+
+import java.time.ZoneOffset;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * 将ActionDay + UpdateTime + UpdateMillisec直接计算为epochMillis<br>
+ * 使用字符运算解析, 并按日期和时区缓存当日零点的epochMillis, 不创建java.time对象<br>
+ * 
+ * 夜盘处理与ChinaFuturesSupporter.analyzeTradingDay一致, 即16点之后的行情属于下一交易日<br>
+ * 大商所夜盘的ActionDay填写为TradingDay, 需要还原为自然日:<br>
+ * 16点之后: TradingDay为周一时减三天, 否则减一天<br>
+ * 零点之后: TradingDay为周一时减两天(周六凌晨)
+ * 
+ * @author yellow013
+ */
+@NotThreadSafe
+public final class TickTimeDecoder {
+
+	private static final long MILLIS_PER_SECOND = 1000L;
+
+	private static final int SECONDS_PER_DAY = 86400;
+
+	// 夜盘开始, 与ChinaFuturesSupporter.TradingDayDividingLine一致
+	private static final int NIGHT_BEGIN_HOUR = 16;
+
+	// 夜盘跨零点后的结束
+	private static final int NIGHT_END_HOUR = 6;
+
+	// 缓存的日期[yyyyMMdd]
+	private int cachedDate = -1;
+	// 缓存的时区秒数
+	private int cachedOffsetSeconds;
+	// 缓存的日期对应的epochDay
+	private long cachedEpochDay;
+	// 缓存的零点epochMillis
+	private long cachedMidnightMillis;
+
+	/**
+	 * 
+	 * @param actionDay      [yyyyMMdd], 为空时使用tradingDay
+	 * @param tradingDay     [yyyyMMdd]
+	 * @param updateTime     [HH:mm:ss]
+	 * @param updateMillisec
+	 * @param zoneOffset
+	 * @param actionDayIsTradingDay 夜盘ActionDay是否填写为TradingDay(大商所)
+	 * @return
+	 */
+	public long toEpochMillis(String actionDay, @Nonnull String tradingDay, @Nonnull String updateTime,
+			int updateMillisec, @Nonnull ZoneOffset zoneOffset, boolean actionDayIsTradingDay) {
+		int hour = parse2(updateTime, 0);
+		int secondOfDay = hour * 3600 + parse2(updateTime, 3) * 60 + parse2(updateTime, 6);
+		if (actionDay == null || actionDay.length() != 8)
+			actionDay = tradingDay;
+		long midnightMillis = midnightMillis(parse8(actionDay), zoneOffset.getTotalSeconds());
+		if (actionDayIsTradingDay && (hour >= NIGHT_BEGIN_HOUR || hour < NIGHT_END_HOUR)
+				&& actionDay.equals(tradingDay)) {
+			// TradingDay为周一
+			if (dayOfWeek(cachedEpochDay) == 0) {
+				midnightMillis -= (hour >= NIGHT_BEGIN_HOUR ? 3 : 2) * SECONDS_PER_DAY * MILLIS_PER_SECOND;
+			} else if (hour >= NIGHT_BEGIN_HOUR) {
+				midnightMillis -= SECONDS_PER_DAY * MILLIS_PER_SECOND;
+			}
+		}
+		return midnightMillis + secondOfDay * MILLIS_PER_SECOND + updateMillisec;
+	}
+
+	/**
+	 * 
+	 * @param date          [yyyyMMdd]
+	 * @param offsetSeconds
+	 * @return
+	 */
+	private long midnightMillis(int date, int offsetSeconds) {
+		if (date != cachedDate || offsetSeconds != cachedOffsetSeconds) {
+			this.cachedEpochDay = epochDay(date / 10000, date / 100 % 100, date % 100);
+			this.cachedMidnightMillis = (cachedEpochDay * SECONDS_PER_DAY - offsetSeconds) * MILLIS_PER_SECOND;
+			this.cachedDate = date;
+			this.cachedOffsetSeconds = offsetSeconds;
+		}
+		return cachedMidnightMillis;
+	}
+
+	/**
+	 * 公历日期转换为1970-01-01起的天数
+	 * 
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @return
+	 */
+	static long epochDay(int year, int month, int day) {
+		int y = month <= 2 ? year - 1 : year;
+		int era = (y >= 0 ? y : y - 399) / 400;
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097L + dayOfEra - 719468L;
+	}
+
+	/**
+	 * 
+	 * @param epochDay
+	 * @return 0 == Monday ... 6 == Sunday
+	 */
+	static int dayOfWeek(long epochDay) {
+		return (int) Math.floorMod(epochDay + 3, 7L);
+	}
+
+	private static int parse2(String str, int offset) {
+		return (str.charAt(offset) - '0') * 10 + (str.charAt(offset + 1) - '0');
+	}
+
+	private static int parse8(String str) {
+		int value = 0;
+		for (int i = 0; i < 8; i++)
+			value = value * 10 + (str.charAt(i) - '0');
+		return value;
+	}
+
+}
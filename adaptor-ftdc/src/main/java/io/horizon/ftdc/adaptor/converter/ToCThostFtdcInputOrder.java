@@ -1,22 +1,27 @@
 package io.horizon.ftdc.adaptor.converter;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import org.slf4j.Logger;
 
 import ctp.thostapi.CThostFtdcInputOrderField;
 import io.horizon.ftdc.adaptor.FtdcAdaptorParamKey;
+import io.horizon.ftdc.adaptor.FtdcConstMapper;
+import io.horizon.ftdc.gateway.FtdcConfig;
+import io.horizon.ftdc.gateway.eventlog.FtdcEventLog;
 import io.horizon.ftdc.adaptor.consts.FtdcContingentCondition;
-import io.horizon.ftdc.adaptor.consts.FtdcDirection;
 import io.horizon.ftdc.adaptor.consts.FtdcForceCloseReason;
 import io.horizon.ftdc.adaptor.consts.FtdcHedgeFlag;
-import io.horizon.ftdc.adaptor.consts.FtdcOffsetFlag;
 import io.horizon.ftdc.adaptor.consts.FtdcOrderPriceType;
 import io.horizon.ftdc.adaptor.consts.FtdcTimeCondition;
 import io.horizon.ftdc.adaptor.consts.FtdcVolumeCondition;
 import io.horizon.market.instrument.Instrument;
 import io.horizon.trader.order.ChildOrder;
 import io.horizon.trader.order.Order;
+import io.horizon.trader.order.attr.TrdAction;
 import io.mercury.common.log.CommonLoggerFactory;
 import io.mercury.common.param.Params;
 
@@ -107,6 +112,19 @@ public final class ToCThostFtdcInputOrder implements Function<Order, CThostFtdcI
 	// MAC地址
 	private final String macAddress;
 
+	// 按交易动作和合约代码缓存的报单模板
+	private final EnumMap<TrdAction, Map<String, CThostFtdcInputOrderField>> templates = newTemplates();
+
+	private static EnumMap<TrdAction, Map<String, CThostFtdcInputOrderField>> newTemplates() {
+		EnumMap<TrdAction, Map<String, CThostFtdcInputOrderField>> templates = new EnumMap<>(TrdAction.class);
+		// 无效订单动作不创建模板
+		templates.put(TrdAction.Open, new ConcurrentHashMap<>());
+		templates.put(TrdAction.Close, new ConcurrentHashMap<>());
+		templates.put(TrdAction.CloseToday, new ConcurrentHashMap<>());
+		templates.put(TrdAction.CloseYesterday, new ConcurrentHashMap<>());
+		return templates;
+	}
+
 	public ToCThostFtdcInputOrder(Params<FtdcAdaptorParamKey> params) {
 		this.brokerId = params.getString(FtdcAdaptorParamKey.BrokerId);
 		this.investorId = params.getString(FtdcAdaptorParamKey.InvestorId);
@@ -118,9 +136,72 @@ public final class ToCThostFtdcInputOrder implements Function<Order, CThostFtdcI
 				investorId, userId);
 	}
 
+	public ToCThostFtdcInputOrder(FtdcConfig ftdcConfig) {
+		this.brokerId = ftdcConfig.getBrokerId();
+		this.investorId = ftdcConfig.getInvestorId();
+		this.accountId = ftdcConfig.getAccountId();
+		this.userId = ftdcConfig.getUserId();
+		this.ipAddress = ftdcConfig.getIpAddr();
+		this.macAddress = ftdcConfig.getMacAddr();
+		log.info("Function -> ToCThostFtdcInputOrder initialized, brokerId=={}, investorId=={}, userId=={}", brokerId,
+				investorId, userId);
+	}
+
+	/**
+	 * 创建新的CThostFtdcInputOrderField, 每次调用都分配新对象
+	 */
 	@Override
 	public CThostFtdcInputOrderField apply(Order order) {
+		CThostFtdcInputOrderField field = newTemplate(order.getInstrument(), ((ChildOrder) order).getAction(),
+				order.getOrdSysId());
+		setVariableFields(field, order);
+		return field;
+	}
+
+	/**
+	 * 获取合约与交易动作对应的报单模板, 首次使用时创建<br>
+	 * 模板中已设置除价格, 数量, 买卖方向和OrderRef之外的全部字段<br>
+	 * 同一模板可能被多个报单线程使用, 调用方需要在模板对象上同步直到请求发送完成,
+	 * CTP在ReqOrderInsert中复制请求结构, 返回后即可复用
+	 * 
+	 * @param order
+	 * @return
+	 */
+	public CThostFtdcInputOrderField getTemplate(Order order) {
 		Instrument instrument = order.getInstrument();
+		TrdAction action = ((ChildOrder) order).getAction();
+		Map<String, CThostFtdcInputOrderField> actionTemplates = templates.get(action);
+		if (actionTemplates == null) {
+			// 无效订单动作
+			log.error("order action is invalid, ordSysId==[{}]", order.getOrdSysId());
+			throw new IllegalStateException("order action is invalid -> ordSysId == " + order.getOrdSysId());
+		}
+		CThostFtdcInputOrderField template = actionTemplates.get(instrument.getInstrumentCode());
+		if (template == null)
+			template = actionTemplates.computeIfAbsent(instrument.getInstrumentCode(),
+					instrumentCode -> newTemplate(instrument, action, order.getOrdSysId()));
+		return template;
+	}
+
+	/**
+	 * 在模板上设置每笔报单变化的字段
+	 * 
+	 * @param template getTemplate返回的模板
+	 * @param order
+	 * @param orderRef
+	 * @return
+	 */
+	public CThostFtdcInputOrderField fillTemplate(CThostFtdcInputOrderField template, Order order, int orderRef) {
+		setVariableFields(template, order);
+		// 设置OrderRef
+		template.setOrderRef(Integer.toString(orderRef));
+		return template;
+	}
+
+	/**
+	 * 设置不随报单变化的字段
+	 */
+	private CThostFtdcInputOrderField newTemplate(Instrument instrument, TrdAction action, long ordSysId) {
 		CThostFtdcInputOrderField field = new CThostFtdcInputOrderField();
 
 		// 经纪公司代码
@@ -143,107 +224,75 @@ public final class ToCThostFtdcInputOrder implements Function<Order, CThostFtdcI
 
 		// 设置交易所ID
 		field.setExchangeID(instrument.getExchangeCode());
-		log.info("Set CThostFtdcInputOrderField -> ExchangeID == {}", instrument.getExchangeCode());
 
 		// 设置交易标的
 		field.setInstrumentID(instrument.getInstrumentCode());
-		log.info("Set CThostFtdcInputOrderField -> InstrumentID == {}", instrument.getInstrumentCode());
 
 		// 设置报单价格
 		field.setOrderPriceType(FtdcOrderPriceType.LimitPrice);
-		log.info("Set CThostFtdcInputOrderField -> OrderPriceType == LimitPrice");
 
 		// 设置开平标识
-		switch (((ChildOrder) order).getAction()) {
-		case Open:
-			// 设置为开仓
-			field.setCombOffsetFlag(FtdcOffsetFlag.OpenString);
-			log.info("Set CThostFtdcInputOrderField -> CombOffsetFlag == Open");
-			break;
-		case Close:
-			// 设置为平仓
-			field.setCombOffsetFlag(FtdcOffsetFlag.CloseString);
-			log.info("Set CThostFtdcInputOrderField -> CombOffsetFlag == Close");
-			break;
-		case CloseToday:
-			// 设置为平今仓
-			field.setCombOffsetFlag(FtdcOffsetFlag.CloseTodayString);
-			log.info("Set CThostFtdcInputOrderField -> CombOffsetFlag == CloseToday");
-			break;
-		case CloseYesterday:
-			// 设置为平昨仓
-			field.setCombOffsetFlag(FtdcOffsetFlag.CloseYesterdayString);
-			log.info("Set CThostFtdcInputOrderField -> CombOffsetFlag == CloseYesterday");
-			break;
-		case Invalid:
+		String combOffsetFlag = FtdcConstMapper.toCombOffsetFlag(action);
+		if (combOffsetFlag == null) {
 			// 无效订单动作
-			log.error("order action is invalid, ordSysId==[{}]", order.getOrdSysId());
-			throw new IllegalStateException("order action is invalid -> ordSysId == " + order.getOrdSysId());
+			log.error("order action is invalid, ordSysId==[{}]", ordSysId);
+			throw new IllegalStateException("order action is invalid -> ordSysId == " + ordSysId);
 		}
+		field.setCombOffsetFlag(combOffsetFlag);
 
 		// 设置投机标识
 		field.setCombHedgeFlag(FtdcHedgeFlag.SpeculationString);
-		log.info("Set CThostFtdcInputOrderField -> CombHedgeFlag == Speculation");
-
-		// 设置买卖方向
-		switch (order.getDirection()) {
-		case Long:
-			// 设置为买单
-			field.setDirection(FtdcDirection.Buy);
-			log.info("Set CThostFtdcInputOrderField -> Direction == Buy");
-			break;
-		case Short:
-			// 设置为卖单
-			field.setDirection(FtdcDirection.Sell);
-			log.info("Set CThostFtdcInputOrderField -> Direction == Sell");
-			break;
-		case Invalid:
-			// 无效订单方向
-			log.error("order direction is invalid, ordSysId==[{}]", order.getOrdSysId());
-			throw new IllegalStateException("order direction is invalid -> ordSysId == " + order.getOrdSysId());
-		}
-
-		// 设置价格
-		double limitPrice = instrument.getPriceMultiplier().toDouble(order.getPrice().getOfferPrice());
-		field.setLimitPrice(limitPrice);
-		log.info("Set CThostFtdcInputOrderField -> LimitPrice == {}", limitPrice);
-
-		// 设置数量
-		int volumeTotalOriginal = order.getQty().getOfferQty();
-		field.setVolumeTotalOriginal(volumeTotalOriginal);
-		log.info("Set CThostFtdcInputOrderField -> VolumeTotalOriginal == {}", volumeTotalOriginal);
 
 		// 设置有效期类型
 		field.setTimeCondition(FtdcTimeCondition.GFD);
-		log.info("Set CThostFtdcInputOrderField -> TimeCondition == GFD");
 
 		// 设置成交量类型
 		field.setVolumeCondition(FtdcVolumeCondition.AV);
-		log.info("Set CThostFtdcInputOrderField -> VolumeCondition == AV");
 
 		// 设置最小成交数量, 默认为1
 		field.setMinVolume(1);
-		log.info("Set CThostFtdcInputOrderField -> MinVolume == 1");
 
 		// 设置触发条件
 		field.setContingentCondition(FtdcContingentCondition.Immediately);
-		log.info("Set CThostFtdcInputOrderField -> ContingentCondition == Immediately");
 
 		// 设置止损价格
 		field.setStopPrice(0.0D);
-		log.info("Set CThostFtdcInputOrderField -> StopPrice == 0.0D");
 
 		// 设置强平原因: 此处固定为非强平
 		field.setForceCloseReason(FtdcForceCloseReason.NotForceClose);
-		log.info("Set CThostFtdcInputOrderField -> ForceCloseReason == NotForceClose");
 
 		// 设置自动挂起标识
 		field.setIsAutoSuspend(0);
-		log.info("Set CThostFtdcInputOrderField -> IsAutoSuspend == 0");
-
-		// 返回FTDC新订单对象
-		log.info("Set CThostFtdcInputOrderField finished");
 		return field;
 	}
 
+	/**
+	 * 设置价格, 数量, 买卖方向
+	 */
+	private void setVariableFields(CThostFtdcInputOrderField field, Order order) {
+		Instrument instrument = order.getInstrument();
+
+		// 设置买卖方向
+		char direction = FtdcConstMapper.toDirection(order.getDirection());
+		if (direction == 0) {
+			// 无效订单方向
+			log.error("order direction is invalid, ordSysId==[{}]", order.getOrdSysId());
+			throw new IllegalStateException("order direction is invalid -> ordSysId == " + order.getOrdSysId());
+		}
+		field.setDirection(direction);
+
+		// 设置价格
+		double limitPrice = instrument.getPriceMultiplier().toDouble(order.getPrice().getOfferPrice());
+		field.setLimitPrice(limitPrice);
+
+		// 设置数量
+		int volumeTotalOriginal = order.getQty().getOfferQty();
+		field.setVolumeTotalOriginal(volumeTotalOriginal);
+
+		// 写入事件日志, 不在报单线程中格式化字符串
+		FtdcEventLog.inputOrder(order.getOrdSysId(), instrument.getExchangeCode(), instrument.getInstrumentCode(),
+				FtdcConstMapper.toCombOffsetFlag(((ChildOrder) order).getAction()), direction, limitPrice,
+				volumeTotalOriginal);
+	}
+
 }
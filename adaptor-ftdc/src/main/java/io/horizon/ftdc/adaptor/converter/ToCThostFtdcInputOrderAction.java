@@ -1,11 +1,14 @@
 package io.horizon.ftdc.adaptor.converter;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import org.slf4j.Logger;
 
 import ctp.thostapi.CThostFtdcInputOrderActionField;
 import io.horizon.ftdc.adaptor.FtdcAdaptorParamKey;
+import io.horizon.ftdc.gateway.FtdcConfig;
 import io.horizon.ftdc.adaptor.consts.FtdcActionFlag;
 import io.horizon.market.instrument.Instrument;
 import io.horizon.trader.order.Order;
@@ -72,6 +75,9 @@ public final class ToCThostFtdcInputOrderAction implements Function<Order, CThos
 	// MAC地址
 	private final String macAddress;
 
+	// 按合约代码缓存的撤单模板
+	private final Map<String, CThostFtdcInputOrderActionField> templates = new ConcurrentHashMap<>();
+
 	public ToCThostFtdcInputOrderAction(Params<FtdcAdaptorParamKey> params) {
 		this.brokerId = params.getString(FtdcAdaptorParamKey.BrokerId);
 		this.investorId = params.getString(FtdcAdaptorParamKey.InvestorId);
@@ -82,10 +88,68 @@ public final class ToCThostFtdcInputOrderAction implements Function<Order, CThos
 				brokerId, investorId, userId);
 	}
 
+	public ToCThostFtdcInputOrderAction(FtdcConfig ftdcConfig) {
+		this.brokerId = ftdcConfig.getBrokerId();
+		this.investorId = ftdcConfig.getInvestorId();
+		this.userId = ftdcConfig.getUserId();
+		this.ipAddress = ftdcConfig.getIpAddr();
+		this.macAddress = ftdcConfig.getMacAddr();
+		log.info("Function -> ToCThostFtdcInputOrderAction initialized, brokerId=={}, investorId=={}, userId=={}", brokerId,
+				investorId, userId);
+	}
+
+	/**
+	 * 创建新的CThostFtdcInputOrderActionField, 每次调用都分配新对象
+	 */
 	@Override
 	public CThostFtdcInputOrderActionField apply(Order order) {
+		CThostFtdcInputOrderActionField field = newTemplate(order.getInstrument());
+		setVariableFields(field, order);
+		return field;
+	}
+
+	/**
+	 * 获取合约对应的撤单模板, 首次使用时创建<br>
+	 * 模板中已设置除价格, 数量变化, FrontID, SessionID, OrderRef和OrderActionRef之外的全部字段<br>
+	 * 调用方需要在模板对象上同步直到请求发送完成
+	 * 
+	 * @param order
+	 * @return
+	 */
+	public CThostFtdcInputOrderActionField getTemplate(Order order) {
 		Instrument instrument = order.getInstrument();
+		CThostFtdcInputOrderActionField template = templates.get(instrument.getInstrumentCode());
+		if (template == null)
+			template = templates.computeIfAbsent(instrument.getInstrumentCode(),
+					instrumentCode -> newTemplate(instrument));
+		return template;
+	}
 
+	/**
+	 * 在模板上设置每笔撤单变化的字段
+	 * 
+	 * @param template       getTemplate返回的模板
+	 * @param order
+	 * @param frontId        被撤订单报单时的FrontID
+	 * @param sessionId      被撤订单报单时的SessionID
+	 * @param orderRef       被撤订单的OrderRef
+	 * @param orderActionRef
+	 * @return
+	 */
+	public CThostFtdcInputOrderActionField fillTemplate(CThostFtdcInputOrderActionField template, Order order,
+			int frontId, int sessionId, int orderRef, int orderActionRef) {
+		setVariableFields(template, order);
+		template.setFrontID(frontId);
+		template.setSessionID(sessionId);
+		template.setOrderRef(Integer.toString(orderRef));
+		template.setOrderActionRef(orderActionRef);
+		return template;
+	}
+
+	/**
+	 * 设置不随撤单变化的字段
+	 */
+	private CThostFtdcInputOrderActionField newTemplate(Instrument instrument) {
 		// 创建FTDC撤单类型
 		CThostFtdcInputOrderActionField field = new CThostFtdcInputOrderActionField();
 
@@ -112,16 +176,18 @@ public final class ToCThostFtdcInputOrderAction implements Function<Order, CThos
 
 		// 合约代码
 		field.setInstrumentID(instrument.getInstrumentCode());
+		return field;
+	}
 
+	/**
+	 * 设置价格和数量变化
+	 */
+	private void setVariableFields(CThostFtdcInputOrderActionField field, Order order) {
 		// 价格
-		field.setLimitPrice(instrument.getPriceMultiplier().toDouble(order.getPrice().getOfferPrice()));
+		field.setLimitPrice(order.getInstrument().getPriceMultiplier().toDouble(order.getPrice().getOfferPrice()));
 
 		// 数量变化
 		field.setVolumeChange(order.getQty().getLeavesQty());
-
-		// 返回FTDC撤单对象
-		log.info("Create CThostFtdcInputOrderActionField finished");
-		return field;
 	}
 
 }
@@ -0,0 +1,352 @@
+package io.horizon.ftdc.avro;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+
+import io.horizon.market.data.impl.BasicMarketData;
+import io.horizon.market.instrument.Instrument;
+import io.horizon.market.instrument.InstrumentKeeper;
+import io.horizon.trader.adaptor.AdaptorEvent;
+import io.horizon.trader.adaptor.AdaptorEvent.AdaptorStatus;
+import io.horizon.trader.order.OrderReport;
+import io.horizon.trader.order.attr.OrdStatus;
+import io.horizon.trader.order.attr.OrdType;
+import io.horizon.trader.order.attr.TrdAction;
+import io.horizon.trader.order.attr.TrdDirection;
+
+/**
+ * BasicMarketData, OrderReport, AdaptorEvent的Avro二进制编解码<br>
+ * 按classpath中avro/*.avsc的字段顺序直接读写BinaryEncoder/BinaryDecoder, 不经过反射和中间对象<br>
+ * 每个线程复用一组输出缓冲区, BinaryEncoder和BinaryDecoder<br>
+ * 枚举按声明顺序编码, 加载时校验schema中的symbols与Java枚举一致
+ *
+ * @author yellow013
+ */
+public final class FtdcAvroCodec {
+
+	private FtdcAvroCodec() {
+	}
+
+	public static final Schema MarketDataSchema = loadSchema("BasicMarketData");
+
+	public static final Schema OrderReportSchema = loadSchema("OrderReport");
+
+	public static final Schema AdaptorEventSchema = loadSchema("AdaptorEvent");
+
+	// 行情深度档数
+	private static final int Levels = 5;
+
+	static {
+		checkSymbols(OrderReportSchema, "ordType", OrdType.values());
+		checkSymbols(OrderReportSchema, "ordStatus", OrdStatus.values());
+		checkSymbols(OrderReportSchema, "direction", TrdDirection.values());
+		checkSymbols(OrderReportSchema, "action", TrdAction.values());
+		checkSymbols(AdaptorEventSchema, "status", AdaptorStatus.values());
+	}
+
+	private static final ThreadLocal<ThreadCodec> ThreadCodecs = ThreadLocal.withInitial(ThreadCodec::new);
+
+	private static Schema loadSchema(String name) {
+		try (InputStream in = FtdcAvroCodec.class.getResourceAsStream("/avro/" + name + ".avsc")) {
+			if (in == null)
+				throw new IllegalStateException("avro/" + name + ".avsc not found in classpath");
+			return new Schema.Parser().parse(in);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void checkSymbols(Schema recordSchema, String field, Enum<?>[] values) {
+		Schema schema = recordSchema.getField(field).schema();
+		if (schema.getType() == Schema.Type.UNION)
+			schema = schema.getTypes().get(1);
+		List<String> names = new ArrayList<>(values.length);
+		for (Enum<?> value : values)
+			names.add(value.name());
+		if (!names.equals(schema.getEnumSymbols()))
+			throw new IllegalStateException(recordSchema.getName() + "." + field + " symbols " + schema.getEnumSymbols()
+					+ " not match " + names);
+	}
+
+	/**
+	 * 
+	 * @param marketData
+	 * @return
+	 */
+	public static byte[] encode(@Nonnull BasicMarketData marketData) {
+		ThreadCodec codec = ThreadCodecs.get();
+		BinaryEncoder encoder = codec.begin();
+		try {
+			encoder.writeInt(marketData.getInstrumentId());
+			encoder.writeString(marketData.getInstrumentCode());
+			encoder.writeLong(marketData.getEpochMillis());
+			encoder.writeLong(marketData.getLastPrice());
+			encoder.writeInt(marketData.getVolume());
+			encoder.writeLong(marketData.getTurnover());
+			writeLongs(encoder, marketData.getBidPrice1(), marketData.getBidPrice2(), marketData.getBidPrice3(),
+					marketData.getBidPrice4(), marketData.getBidPrice5());
+			writeInts(encoder, marketData.getBidVolume1(), marketData.getBidVolume2(), marketData.getBidVolume3(),
+					marketData.getBidVolume4(), marketData.getBidVolume5());
+			writeLongs(encoder, marketData.getAskPrice1(), marketData.getAskPrice2(), marketData.getAskPrice3(),
+					marketData.getAskPrice4(), marketData.getAskPrice5());
+			writeInts(encoder, marketData.getAskVolume1(), marketData.getAskVolume2(), marketData.getAskVolume3(),
+					marketData.getAskVolume4(), marketData.getAskVolume5());
+			return codec.end();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 合约需要已在InstrumentKeeper中初始化
+	 * 
+	 * @param bytes
+	 * @return
+	 */
+	public static BasicMarketData decodeMarketData(@Nonnull byte[] bytes) {
+		BinaryDecoder decoder = ThreadCodecs.get().decoder(bytes);
+		try {
+			Instrument instrument = InstrumentKeeper.getInstrument(decoder.readInt());
+			// instrumentCode由instrumentId确定
+			decoder.skipString();
+			BasicMarketData marketData = new BasicMarketData(instrument, decoder.readLong())
+					.setLastPrice(decoder.readLong()).setVolume(decoder.readInt()).setTurnover(decoder.readLong());
+			long[] prices = new long[Levels];
+			int[] volumes = new int[Levels];
+			readLongs(decoder, prices);
+			readInts(decoder, volumes);
+			marketData.setBidPrice1(prices[0]).setBidVolume1(volumes[0]).setBidPrice2(prices[1])
+					.setBidVolume2(volumes[1]).setBidPrice3(prices[2]).setBidVolume3(volumes[2])
+					.setBidPrice4(prices[3]).setBidVolume4(volumes[3]).setBidPrice5(prices[4])
+					.setBidVolume5(volumes[4]);
+			readLongs(decoder, prices);
+			readInts(decoder, volumes);
+			marketData.setAskPrice1(prices[0]).setAskVolume1(volumes[0]).setAskPrice2(prices[1])
+					.setAskVolume2(volumes[1]).setAskPrice3(prices[2]).setAskVolume3(volumes[2])
+					.setAskPrice4(prices[3]).setAskVolume4(volumes[3]).setAskPrice5(prices[4])
+					.setAskVolume5(volumes[4]);
+			return marketData;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 
+	 * @param report
+	 * @return
+	 */
+	public static byte[] encode(@Nonnull OrderReport report) {
+		ThreadCodec codec = ThreadCodecs.get();
+		BinaryEncoder encoder = codec.begin();
+		try {
+			encoder.writeLong(report.getOrdSysId());
+			encoder.writeLong(report.getEpochMillis());
+			writeNullableString(encoder, report.getInvestorId());
+			writeNullableEnum(encoder, report.getOrdType());
+			writeNullableEnum(encoder, report.getOrdStatus());
+			writeNullableString(encoder, report.getOrderRef());
+			writeNullableString(encoder, report.getBrokerUniqueId());
+			Instrument instrument = report.getInstrument();
+			encoder.writeInt(instrument == null ? -1 : instrument.getInstrumentId());
+			writeNullableString(encoder, instrument == null ? null : instrument.getInstrumentCode());
+			writeNullableEnum(encoder, report.getDirection());
+			writeNullableEnum(encoder, report.getAction());
+			encoder.writeInt(report.getOfferQty());
+			encoder.writeInt(report.getFilledQty());
+			encoder.writeLong(report.getOfferPrice());
+			encoder.writeLong(report.getTradePrice());
+			writeNullableString(encoder, report.getOfferTime());
+			writeNullableString(encoder, report.getLastUpdateTime());
+			encoder.writeLong(report.getOfferEpochMillis());
+			encoder.writeLong(report.getLastUpdateEpochMillis());
+			encoder.writeInt(report.getErrorId());
+			writeNullableString(encoder, report.getErrorMsg());
+			return codec.end();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 合约需要已在InstrumentKeeper中初始化
+	 * 
+	 * @param bytes
+	 * @return
+	 */
+	public static OrderReport decodeOrderReport(@Nonnull byte[] bytes) {
+		BinaryDecoder decoder = ThreadCodecs.get().decoder(bytes);
+		try {
+			OrderReport report = new OrderReport(decoder.readLong()).setEpochMillis(decoder.readLong())
+					.setInvestorId(readNullableString(decoder))
+					.setOrdType(readNullableEnum(decoder, OrdType.values()))
+					.setOrdStatus(readNullableEnum(decoder, OrdStatus.values()))
+					.setOrderRef(readNullableString(decoder)).setBrokerUniqueId(readNullableString(decoder));
+			int instrumentId = decoder.readInt();
+			readNullableString(decoder);
+			return report.setInstrument(instrumentId < 0 ? null : InstrumentKeeper.getInstrument(instrumentId))
+					.setDirection(readNullableEnum(decoder, TrdDirection.values()))
+					.setAction(readNullableEnum(decoder, TrdAction.values())).setOfferQty(decoder.readInt())
+					.setFilledQty(decoder.readInt()).setOfferPrice(decoder.readLong())
+					.setTradePrice(decoder.readLong()).setOfferTime(readNullableString(decoder))
+					.setLastUpdateTime(readNullableString(decoder)).setOfferEpochMillis(decoder.readLong())
+					.setLastUpdateEpochMillis(decoder.readLong()).setErrorId(decoder.readInt())
+					.setErrorMsg(readNullableString(decoder));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 
+	 * @param event
+	 * @return
+	 */
+	public static byte[] encode(@Nonnull AdaptorEvent event) {
+		ThreadCodec codec = ThreadCodecs.get();
+		BinaryEncoder encoder = codec.begin();
+		try {
+			encoder.writeString(event.getAdaptorId());
+			encoder.writeEnum(event.getStatus().ordinal());
+			return codec.end();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 
+	 * @param bytes
+	 * @return
+	 */
+	public static AdaptorEvent decodeAdaptorEvent(@Nonnull byte[] bytes) {
+		BinaryDecoder decoder = ThreadCodecs.get().decoder(bytes);
+		try {
+			return new AdaptorEvent(decoder.readString(), AdaptorStatus.values()[decoder.readEnum()]);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void writeLongs(BinaryEncoder encoder, long... values) throws IOException {
+		encoder.writeArrayStart();
+		encoder.setItemCount(values.length);
+		for (long value : values) {
+			encoder.startItem();
+			encoder.writeLong(value);
+		}
+		encoder.writeArrayEnd();
+	}
+
+	private static void writeInts(BinaryEncoder encoder, int... values) throws IOException {
+		encoder.writeArrayStart();
+		encoder.setItemCount(values.length);
+		for (int value : values) {
+			encoder.startItem();
+			encoder.writeInt(value);
+		}
+		encoder.writeArrayEnd();
+	}
+
+	/**
+	 * 超出数组长度的元素被丢弃
+	 */
+	private static void readLongs(BinaryDecoder decoder, long[] values) throws IOException {
+		int i = 0;
+		for (long n = decoder.readArrayStart(); n != 0; n = decoder.arrayNext()) {
+			for (long j = 0; j < n; j++, i++) {
+				long value = decoder.readLong();
+				if (i < values.length)
+					values[i] = value;
+			}
+		}
+	}
+
+	private static void readInts(BinaryDecoder decoder, int[] values) throws IOException {
+		int i = 0;
+		for (long n = decoder.readArrayStart(); n != 0; n = decoder.arrayNext()) {
+			for (long j = 0; j < n; j++, i++) {
+				int value = decoder.readInt();
+				if (i < values.length)
+					values[i] = value;
+			}
+		}
+	}
+
+	private static void writeNullableString(BinaryEncoder encoder, String value) throws IOException {
+		if (value == null) {
+			encoder.writeIndex(0);
+			encoder.writeNull();
+		} else {
+			encoder.writeIndex(1);
+			encoder.writeString(value);
+		}
+	}
+
+	private static String readNullableString(BinaryDecoder decoder) throws IOException {
+		if (decoder.readIndex() == 0) {
+			decoder.readNull();
+			return null;
+		}
+		return decoder.readString();
+	}
+
+	private static void writeNullableEnum(BinaryEncoder encoder, Enum<?> value) throws IOException {
+		if (value == null) {
+			encoder.writeIndex(0);
+			encoder.writeNull();
+		} else {
+			encoder.writeIndex(1);
+			encoder.writeEnum(value.ordinal());
+		}
+	}
+
+	private static <E extends Enum<E>> E readNullableEnum(BinaryDecoder decoder, E[] values) throws IOException {
+		if (decoder.readIndex() == 0) {
+			decoder.readNull();
+			return null;
+		}
+		return values[decoder.readEnum()];
+	}
+
+	/**
+	 * 线程内复用的编解码状态
+	 */
+	private static final class ThreadCodec {
+
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+
+		private final BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+
+		private BinaryDecoder decoder;
+
+		private BinaryEncoder begin() {
+			out.reset();
+			return encoder;
+		}
+
+		private byte[] end() throws IOException {
+			encoder.flush();
+			return out.toByteArray();
+		}
+
+		private BinaryDecoder decoder(byte[] bytes) {
+			this.decoder = DecoderFactory.get().binaryDecoder(bytes, decoder);
+			return decoder;
+		}
+
+	}
+
+}
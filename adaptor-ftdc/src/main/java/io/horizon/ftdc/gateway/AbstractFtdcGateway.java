@@ -0,0 +1,129 @@
+package io.horizon.ftdc.gateway;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntSupplier;
+
+import javax.annotation.Nonnull;
+
+import io.horizon.trader.order.Order;
+import io.mercury.common.util.Assertor;
+
+/**
+ * FTDC Gateway抽象<br>
+ * FtdcGateway通过JNI连接CTP前置, FtdcSimulatedGateway在进程内模拟前置,
+ * 两者都将回调消息以FtdcRspMsg发布给FtdcRspPublisher<br>
+ *
+ * 报单与撤单使用系统订单和OrderRef, 由具体实现转换为各自的请求结构<br>
+ * 查询方法成功时返回nRequestID, 失败时返回CTP的负数返回码
+ *
+ * @author yellow013
+ */
+public abstract class AbstractFtdcGateway implements Closeable {
+
+	// gatewayId
+	protected final String gatewayId;
+
+	// 基础配置信息
+	protected final FtdcConfig ftdcConfig;
+
+	// 回调消息发布
+	protected final FtdcRspPublisher rspPublisher;
+
+	// 启动过程跟踪
+	protected final FtdcBootstrapTracker bootstrapTracker;
+
+	// 报单发送锁, 所有报单路径在锁内分配OrderRef并发送
+	protected final Object insertLock = new Object();
+
+	protected AbstractFtdcGateway(@Nonnull String gatewayId, @Nonnull FtdcConfig ftdcConfig,
+			@Nonnull FtdcRspPublisher rspPublisher) {
+		Assertor.nonEmpty(gatewayId, "gatewayId");
+		Assertor.nonNull(ftdcConfig, "ftdcConfig");
+		Assertor.nonNull(rspPublisher, "rspPublisher");
+		this.gatewayId = gatewayId;
+		this.ftdcConfig = ftdcConfig;
+		this.rspPublisher = rspPublisher;
+		this.bootstrapTracker = new FtdcBootstrapTracker(gatewayId);
+		// 启动时订阅的合约全部应答后才完成readiness
+		if (ftdcConfig.getBootstrapInstruments() != null)
+			bootstrapTracker.expectSubscription(ftdcConfig.getBootstrapInstruments());
+	}
+
+	public String getGatewayId() {
+		return gatewayId;
+	}
+
+	/**
+	 * 启动Gateway, 连接结果以FtdcMdConnect和FtdcTraderConnect发布
+	 */
+	public abstract void bootstrap();
+
+	/**
+	 * 启动Gateway, 并返回交易登录和行情订阅都完成时完成的Future
+	 * 
+	 * @return
+	 */
+	public CompletableFuture<Void> bootstrapAsync() {
+		bootstrap();
+		return bootstrapTracker.getReadiness();
+	}
+
+	public FtdcBootstrapTracker getBootstrapTracker() {
+		return bootstrapTracker;
+	}
+
+	/**
+	 * 订阅行情
+	 *
+	 * @param instruements
+	 */
+	public abstract void SubscribeMarketData(@Nonnull String... instruements);
+
+	/**
+	 * 报单<br>
+	 * OrderRef在报单发送锁内分配, 保证到达CTP的OrderRef严格递增
+	 *
+	 * @param order
+	 * @param orderRefSupplier OrderRef分配函数, 在报单发送锁内调用
+	 * @return 本次报单使用的OrderRef
+	 */
+	public abstract int ReqOrderInsert(@Nonnull Order order, @Nonnull IntSupplier orderRefSupplier);
+
+	/**
+	 * 撤单
+	 *
+	 * @param order
+	 * @param frontId        被撤订单报单时的FrontID
+	 * @param sessionId      被撤订单报单时的SessionID
+	 * @param orderRef       被撤订单的OrderRef
+	 * @param orderActionRef
+	 */
+	public abstract void ReqOrderAction(@Nonnull Order order, int frontId, int sessionId, int orderRef,
+			int orderActionRef);
+
+	/**
+	 * 查询订单
+	 *
+	 * @param exchangeId
+	 * @return nRequestID, 发送失败时返回CTP的负数返回码
+	 */
+	public abstract int ReqQryOrder(String exchangeId);
+
+	/**
+	 * 查询账户
+	 *
+	 * @return nRequestID, 发送失败时返回CTP的负数返回码
+	 */
+	public abstract int ReqQryTradingAccount();
+
+	/**
+	 * 查询持仓
+	 *
+	 * @param exchangeId
+	 * @param instrumentId
+	 * @return nRequestID, 发送失败时返回CTP的负数返回码
+	 */
+	public abstract int ReqQryInvestorPosition(String exchangeId, String instrumentId);
+
+}
@@ -0,0 +1,42 @@
+package io.horizon.ftdc.gateway;
+
+import org.slf4j.Logger;
+
+import io.mercury.common.log.CommonLoggerFactory;
+import net.openhft.affinity.Affinity;
+
+/**
+ * 线程绑定CPU核心<br>
+ * 使用OpenHFT Affinity, 绑定失败(例如非Linux平台)时只记录日志
+ *
+ * @author yellow013
+ */
+public final class FtdcAffinity {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcAffinity.class);
+
+	private FtdcAffinity() {
+	}
+
+	/**
+	 * 将当前线程绑定到指定核心
+	 *
+	 * @param cpu  核心编号, 小于0时不绑定
+	 * @param desc 线程说明
+	 * @return 是否绑定成功
+	 */
+	public static boolean bindCurrentThread(int cpu, String desc) {
+		if (cpu < 0)
+			return false;
+		try {
+			Affinity.setAffinity(cpu);
+			log.info("Thread -> {} [{}] bind to cpu==[{}]", Thread.currentThread().getName(), desc, cpu);
+			return true;
+		} catch (Throwable t) {
+			log.warn("Thread -> {} [{}] bind to cpu==[{}] failure -> {}", Thread.currentThread().getName(), desc, cpu,
+					t.getMessage());
+			return false;
+		}
+	}
+
+}
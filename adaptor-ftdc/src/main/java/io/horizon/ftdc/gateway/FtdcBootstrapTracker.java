@@ -0,0 +1,163 @@
+package io.horizon.ftdc.gateway;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+
+import io.mercury.common.log.CommonLoggerFactory;
+
+/**
+ * 启动过程跟踪<br>
+ * 记录每个阶段从bootstrap开始到首次完成的耗时, 交易登录和行情订阅都完成后readiness完成<br>
+ * 行情订阅以启动时请求的合约全部收到OnRspSubMarketData为准, 没有请求合约时行情登录后即完成<br>
+ * 断线重连时阶段不会重复记录
+ *
+ * @author yellow013
+ */
+@ThreadSafe
+public final class FtdcBootstrapTracker {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcBootstrapTracker.class);
+
+	/**
+	 * 启动阶段
+	 */
+	public static enum Phase {
+
+		// 交易前置已连接
+		TraderConnected,
+
+		// 交易认证完成
+		TraderAuthenticated,
+
+		// 交易登录完成
+		TraderLogin,
+
+		// 行情前置已连接
+		MdConnected,
+
+		// 行情登录完成, 可以订阅行情
+		MdLogin,
+
+		// 启动时请求的合约全部订阅成功
+		MdSubscribed,
+
+	}
+
+	private final String gatewayId;
+
+	// 各阶段耗时, 单位为纳秒
+	private final EnumMap<Phase, Long> elapsed = new EnumMap<>(Phase.class);
+
+	// 启动时请求订阅, 尚未收到订阅应答的合约
+	private final Set<String> pendingSubscriptions = new HashSet<>();
+
+	private final CompletableFuture<Void> readiness = new CompletableFuture<>();
+
+	private long startNanos;
+
+	public FtdcBootstrapTracker(@Nonnull String gatewayId) {
+		this.gatewayId = gatewayId;
+	}
+
+	/**
+	 * 开始计时
+	 */
+	public synchronized void start() {
+		if (startNanos == 0L)
+			this.startNanos = System.nanoTime();
+	}
+
+	/**
+	 * 设置启动时请求订阅的合约, 需要在start之前调用
+	 *
+	 * @param instruments
+	 */
+	public synchronized void expectSubscription(@Nonnull String... instruments) {
+		for (String instrument : instruments)
+			pendingSubscriptions.add(instrument);
+	}
+
+	/**
+	 * 收到合约的订阅应答
+	 *
+	 * @param instrument
+	 */
+	public void onSubscribed(@Nonnull String instrument) {
+		boolean isAllSubscribed;
+		synchronized (this) {
+			isAllSubscribed = pendingSubscriptions.remove(instrument) && pendingSubscriptions.isEmpty()
+					&& elapsed.containsKey(Phase.MdLogin);
+		}
+		if (isAllSubscribed)
+			mark(Phase.MdSubscribed);
+	}
+
+	/**
+	 * 阶段完成
+	 *
+	 * @param phase
+	 */
+	public void mark(@Nonnull Phase phase) {
+		boolean isReady;
+		synchronized (this) {
+			if (startNanos == 0L || elapsed.containsKey(phase))
+				return;
+			long nanos = System.nanoTime() - startNanos;
+			elapsed.put(phase, nanos);
+			log.info("Gateway -> {} bootstrap phase [{}] finished in {}ms", gatewayId, phase,
+					TimeUnit.NANOSECONDS.toMillis(nanos));
+			// 没有需要等待的订阅时, 行情登录即完成订阅阶段
+			if (phase == Phase.MdLogin && pendingSubscriptions.isEmpty() && !elapsed.containsKey(Phase.MdSubscribed))
+				elapsed.put(Phase.MdSubscribed, nanos);
+			isReady = elapsed.containsKey(Phase.TraderLogin) && elapsed.containsKey(Phase.MdSubscribed);
+		}
+		if (isReady && readiness.complete(null))
+			log.info("Gateway -> {} bootstrap ready, phases -> {}", gatewayId, toMillis());
+	}
+
+	/**
+	 * 尚未收到订阅应答的合约
+	 *
+	 * @return
+	 */
+	public synchronized Set<String> getPendingSubscriptions() {
+		return new HashSet<>(pendingSubscriptions);
+	}
+
+	private EnumMap<Phase, Long> toMillis() {
+		EnumMap<Phase, Long> millis = new EnumMap<>(Phase.class);
+		synchronized (this) {
+			elapsed.forEach((phase, nanos) -> millis.put(phase, TimeUnit.NANOSECONDS.toMillis(nanos)));
+		}
+		return millis;
+	}
+
+	/**
+	 * 阶段耗时
+	 *
+	 * @param phase
+	 * @return 毫秒, 未完成时返回-1
+	 */
+	public synchronized long getElapsedMillis(@Nonnull Phase phase) {
+		Long nanos = elapsed.get(phase);
+		return nanos == null ? -1L : TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
+	/**
+	 * 交易登录和行情订阅都完成时完成
+	 *
+	 * @return
+	 */
+	public CompletableFuture<Void> getReadiness() {
+		return readiness;
+	}
+
+}
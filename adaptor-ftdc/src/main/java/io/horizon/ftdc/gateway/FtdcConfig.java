@@ -1,5 +1,9 @@
 package io.horizon.ftdc.gateway;
 
+import java.util.Map;
+
+import io.horizon.ftdc.gateway.queue.FtdcWaitStrategy;
+import io.horizon.ftdc.gateway.sim.FtdcSimulatedConfig;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -11,6 +15,8 @@ public final class FtdcConfig {
 
 	private String traderAddr;
 	private String mdAddr;
+	// 多个行情前置地址, 不为空时替代mdAddr, 同时连接并按首次到达合并行情
+	private String[] mdAddrs;
 
 	private String appId;
 	private String brokerId;
@@ -27,4 +33,85 @@ public final class FtdcConfig {
 	private String tradingDay;
 	private String currencyId;
 
+	// 回调消息队列容量
+	private int rspQueueCapacity = 64;
+
+	// 是否分离交易通道与行情通道, 行情通道写满时丢弃行情; 关闭时使用不丢弃消息的单一队列
+	private boolean priorityLanes = false;
+
+	// 交易通道容量
+	private int tradeLaneCapacity = 1024;
+
+	// 交易通道溢出文件, 为空时溢出段只使用堆内存
+	private String spillFile;
+
+	// 交易通道溢出文件大小
+	private int spillFileSize = 64 * 1024 * 1024;
+
+	// 是否按合约合并行情, 只保留每个合约的最新行情, 需要启用优先级通道
+	private boolean conflateMarketData = false;
+
+	// 是否复用行情对象, 开启后行情以享元方式传递给MarketDataHandler, 仅在回调期间有效
+	private boolean reuseMarketData = false;
+
+	// 是否在行情回调线程中直接转换为BasicMarketData, 开启后优先于复用行情对象
+	private boolean fusedMarketDataConverter = false;
+
+	// 启动时订阅的合约, 全部收到订阅应答后readiness完成, 为空时行情登录后即完成
+	private String[] bootstrapInstruments;
+
+	// 每次订阅请求包含的合约数量上限, 重连后按此数量分批重新订阅
+	private int subscribeChunkSize = 500;
+
+	// startup等待交易登录, 行情登录和Adaptor可用的超时时间, 小于等于0时不等待
+	private long bootstrapTimeoutMillis = 0L;
+
+	// 每秒允许发送的查询请求数量, CTP默认限制为每秒1次
+	private double queryPerSecond = 1.0D;
+
+	// 查询请求等待最后一条回报的超时时间
+	private long queryTimeoutMillis = 10000L;
+
+	// 前置每秒允许的报单与撤单数量, 小于等于0时不启用报单流控
+	private double orderPerSecond = 0.0D;
+
+	// 各交易所每秒允许的报单与撤单数量, 启用报单流控时生效
+	private Map<String, Double> exchangeOrderPerSecond;
+
+	// 行情回调线程绑定的核心, 小于0时不绑定
+	private int mdCallbackCpu = -1;
+
+	// 交易回调线程绑定的核心, 小于0时不绑定
+	private int traderCallbackCpu = -1;
+
+	// 回调消息消费线程绑定的核心, 小于0时不绑定
+	private int consumerCpu = -1;
+
+	// 回调消息消费线程空闲等待策略, 对优先级通道和单一队列都生效
+	private FtdcWaitStrategy waitStrategy;
+
+	// 模拟前置配置, 不为null时使用进程内模拟前置, 不加载CTP动态库
+	private FtdcSimulatedConfig simulatedConfig;
+
+	// 是否统计链路各阶段延迟
+	private boolean latencyStats = false;
+
+	// 延迟统计定期输出间隔, 小于等于0时只按需输出
+	private long latencyDumpIntervalSeconds = 60L;
+
+	// 回调消息日志目录(Chronicle Queue), 为空时不记录
+	private String journalDir;
+
+	// OrderRef映射文件, 为空时映射只保存在堆内存, 使用交易登录返回的TradingDay区分交易日
+	private String orderRefFile;
+
+	// OrderRef映射文件最大记录数量
+	private int orderRefFileCapacity = 256 * 1024;
+
+	// 报单链路事件日志文件, 为空时事件同步输出为INFO日志
+	private String eventLogFile;
+
+	// 事件日志环形缓冲区记录数量, 必须为2的幂
+	private int eventLogSlotCount = 64 * 1024;
+
 }
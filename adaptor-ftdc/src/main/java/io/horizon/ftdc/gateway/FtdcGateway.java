@@ -1,13 +1,18 @@
 package io.horizon.ftdc.gateway;
 
-import static io.mercury.common.thread.Threads.sleep;
 import static io.mercury.common.thread.Threads.startNewMaxPriorityThread;
 
-import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.lang.annotation.Native;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -38,7 +43,10 @@ import ctp.thostapi.CThostFtdcTraderApi;
 import ctp.thostapi.CThostFtdcTraderSpi;
 import ctp.thostapi.CThostFtdcTradingAccountField;
 import ctp.thostapi.THOST_TE_RESUME_TYPE;
+import io.horizon.ftdc.adaptor.converter.ToCThostFtdcInputOrder;
+import io.horizon.ftdc.adaptor.converter.ToCThostFtdcInputOrderAction;
 import io.horizon.ftdc.exception.NativeLibraryLoadException;
+import io.horizon.ftdc.gateway.FtdcBootstrapTracker.Phase;
 import io.horizon.ftdc.gateway.converter.CThostFtdcDepthMarketDataConverter;
 import io.horizon.ftdc.gateway.converter.CThostFtdcInputOrderActionConverter;
 import io.horizon.ftdc.gateway.converter.CThostFtdcInputOrderConverter;
@@ -46,9 +54,18 @@ import io.horizon.ftdc.gateway.converter.CThostFtdcInvestorPositionConverter;
 import io.horizon.ftdc.gateway.converter.CThostFtdcOrderActionConverter;
 import io.horizon.ftdc.gateway.converter.CThostFtdcOrderConverter;
 import io.horizon.ftdc.gateway.converter.CThostFtdcTradeConverter;
+import io.horizon.ftdc.gateway.converter.CThostFtdcTradingAccountConverter;
+import io.horizon.ftdc.gateway.eventlog.FtdcEventLog;
+import io.horizon.ftdc.gateway.msg.FtdcDepthMarketDataRing;
 import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg.RspType;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInputOrder;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInputOrderAction;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcMdConnect;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcOrderAction;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcTraderConnect;
+import io.horizon.market.data.impl.BasicMarketData;
+import io.horizon.trader.order.Order;
 import io.mercury.common.concurrent.queue.Queue;
 import io.mercury.common.datetime.DateTimeUtil;
 import io.mercury.common.file.FileUtil;
@@ -58,7 +75,7 @@ import io.mercury.common.util.Assertor;
 import io.mercury.common.util.StringUtil;
 
 @NotThreadSafe
-public final class FtdcGateway implements Closeable {
+public final class FtdcGateway extends AbstractFtdcGateway {
 
 	private static final Logger log = CommonLoggerFactory.getLogger(FtdcGateway.class);
 
@@ -72,22 +89,25 @@ public final class FtdcGateway implements Closeable {
 		}
 	}
 
-	// gatewayId
-	private final String gatewayId;
-
-	// 基础配置信息
-	private final FtdcConfig ftdcConfig;
+	// 行情前置地址, 配置多个时同时连接
+	private final String[] mdAddrs;
 
 	@Native
-	private CThostFtdcMdApi ftdcMdApi;
+	private final CThostFtdcMdApi[] ftdcMdApis;
 	@Native
 	private CThostFtdcTraderApi ftdcTraderApi;
 
 	// 是否已初始化
 	private AtomicBoolean isInitialize = new AtomicBoolean(false);
 
-	// 是否登陆行情接口
+	// 是否登陆行情接口, 任一行情前置登录即为true
 	private volatile boolean isMdLogin;
+	// 各行情前置是否登录
+	private final boolean[] mdFrontLogin;
+	// 多行情前置去重, 只有一个前置时为null
+	private final FtdcMdDeduplicator mdDeduplicator;
+	// 已订阅的合约, 用于后登录的行情前置补充订阅
+	private final Set<String> subscribedInstruments = ConcurrentHashMap.newKeySet();
 	// 是否登陆交易接口
 	private volatile boolean isTraderLogin;
 	// 是否已认证
@@ -98,21 +118,64 @@ public final class FtdcGateway implements Closeable {
 	// 交易会话号
 	private int sessionID;
 
-	// 行情请求ID
-	private volatile int mdRequestId = -1;
-	// 交易请求ID
-	private volatile int traderRequestId = -1;
+	// 行情请求ID, 多个行情前置的回调线程同时使用
+	private final AtomicInteger mdRequestId = new AtomicInteger(-1);
+	// 交易请求ID, 报单, 撤单, 查询可能来自不同线程
+	private final AtomicInteger traderRequestId = new AtomicInteger(-1);
+
+	// 系统订单转换为CTP报单
+	private final ToCThostFtdcInputOrder toCThostFtdcInputOrder;
 
-	// 回调消息队列
-	private final Queue<FtdcRspMsg> rspQueue;
+	// 系统订单转换为CTP撤单
+	private final ToCThostFtdcInputOrderAction toCThostFtdcInputOrderAction;
+
+	// 已绑定核心的回调线程, 重连时回调线程不变则不再重复绑定
+	private final Set<Thread> boundCallbackThreads = ConcurrentHashMap.newKeySet();
 
 	public FtdcGateway(@Nonnull String gatewayId, @Nonnull FtdcConfig ftdcConfig, @Nonnull Queue<FtdcRspMsg> rspQueue) {
-		Assertor.nonEmpty(gatewayId, "gatewayId");
-		Assertor.nonNull(ftdcConfig, "ftdcConfig");
-		Assertor.nonNull(rspQueue, "rspQueue");
-		this.gatewayId = gatewayId;
-		this.ftdcConfig = ftdcConfig;
-		this.rspQueue = rspQueue;
+		this(gatewayId, ftdcConfig, (FtdcRspPublisher) rspQueue::enqueue);
+	}
+
+	public FtdcGateway(@Nonnull String gatewayId, @Nonnull FtdcConfig ftdcConfig,
+			@Nonnull FtdcRspPublisher rspPublisher) {
+		super(gatewayId, ftdcConfig, rspPublisher);
+		this.toCThostFtdcInputOrder = new ToCThostFtdcInputOrder(ftdcConfig);
+		this.toCThostFtdcInputOrderAction = new ToCThostFtdcInputOrderAction(ftdcConfig);
+		this.mdAddrs = ftdcConfig.getMdAddrs() != null && ftdcConfig.getMdAddrs().length > 0
+				? ftdcConfig.getMdAddrs().clone()
+				: new String[] { ftdcConfig.getMdAddr() };
+		this.ftdcMdApis = new CThostFtdcMdApi[mdAddrs.length];
+		this.mdFrontLogin = new boolean[mdAddrs.length];
+		this.mdDeduplicator = mdAddrs.length > 1 ? new FtdcMdDeduplicator(mdAddrs.length) : null;
+		// 启动时订阅的合约在首个行情前置登录后发送, 后登录的前置补充订阅
+		if (ftdcConfig.getBootstrapInstruments() != null)
+			subscribedInstruments.addAll(Arrays.asList(ftdcConfig.getBootstrapInstruments()));
+	}
+
+	/**
+	 * 多行情前置去重统计, 只有一个行情前置时返回null
+	 * 
+	 * @return
+	 */
+	public FtdcMdDeduplicator getMdDeduplicator() {
+		return mdDeduplicator;
+	}
+
+	// 行情融合转换器的创建函数, 设置后在回调线程中直接转换为BasicMarketData
+	private Supplier<Function<CThostFtdcDepthMarketDataField, BasicMarketData>> marketDataConverterSupplier;
+
+	/**
+	 * 设置行情融合转换器, 需要在bootstrap之前调用<br>
+	 * 转换器不是线程安全的, 每个行情前置的回调线程通过supplier创建独立的转换器
+	 * 
+	 * @param marketDataConverterSupplier
+	 * @return
+	 */
+	public FtdcGateway setMarketDataConverter(
+			@Nonnull Supplier<Function<CThostFtdcDepthMarketDataField, BasicMarketData>> marketDataConverterSupplier) {
+		Assertor.nonNull(marketDataConverterSupplier, "marketDataConverterSupplier");
+		this.marketDataConverterSupplier = marketDataConverterSupplier;
+		return this;
 	}
 
 	/**
@@ -130,16 +193,22 @@ public final class FtdcGateway implements Closeable {
 	/**
 	 * 启动并挂起线程
 	 */
+	@Override
 	public final void bootstrap() {
 		if (isInitialize.compareAndSet(false, true)) {
+			bootstrapTracker.start();
 			// 获取临时文件目录
 			File tempDir = generateTempDir();
 			log.info("CThostFtdcTraderApi.version() -> {}", CThostFtdcTraderApi.GetApiVersion());
 			log.info("CThostFtdcMdApi.version() -> {}", CThostFtdcMdApi.GetApiVersion());
 			try {
+				// 交易与行情同时初始化, 由回调驱动后续步骤
 				startNewMaxPriorityThread("FtdcTrader-Thread", () -> traderInitAndJoin(tempDir));
-				sleep(2000);
-				startNewMaxPriorityThread("FtdcMd-Thread", () -> mdInitAndJoin(tempDir));
+				for (int i = 0; i < mdAddrs.length; i++) {
+					final int frontIndex = i;
+					startNewMaxPriorityThread(mdAddrs.length == 1 ? "FtdcMd-Thread" : "FtdcMd-Thread-" + frontIndex,
+							() -> mdInitAndJoin(tempDir, frontIndex));
+				}
 			} catch (Exception e) {
 				log.error("Method initAndJoin throw Exception -> {}", e.getMessage(), e);
 				isInitialize.set(false);
@@ -152,18 +221,20 @@ public final class FtdcGateway implements Closeable {
 	 * 
 	 * @param tempDir
 	 */
-	private void mdInitAndJoin(File tempDir) {
-		// 指定md临时文件地址
-		String mdTempFilePath = new File(tempDir, "md").getAbsolutePath();
+	private void mdInitAndJoin(File tempDir, int frontIndex) {
+		// 指定md临时文件地址, 每个前置使用独立的目录
+		String mdTempFilePath = new File(tempDir, frontIndex == 0 ? "md" : "md-" + frontIndex).getAbsolutePath();
 		log.info("Gateway -> {} md api use temp file path : {}", gatewayId, mdTempFilePath);
 		// 创建mdApi
-		this.ftdcMdApi = CThostFtdcMdApi.CreateFtdcMdApi(mdTempFilePath);
+		CThostFtdcMdApi ftdcMdApi = CThostFtdcMdApi.CreateFtdcMdApi(mdTempFilePath);
+		ftdcMdApis[frontIndex] = ftdcMdApi;
 		// 创建mdSpi
-		CThostFtdcMdSpi ftdcMdSpi = new FtdcMdSpiImpl(new FtdcMdHook());
+		CThostFtdcMdSpi ftdcMdSpi = new FtdcMdSpiImpl(new FtdcMdHook(frontIndex));
 		// 将mdSpi注册到mdApi
 		ftdcMdApi.RegisterSpi(ftdcMdSpi);
 		// 注册到md前置机
-		ftdcMdApi.RegisterFront(ftdcConfig.getMdAddr());
+		log.info("Md front [{}] register -> {}", frontIndex, mdAddrs[frontIndex]);
+		ftdcMdApi.RegisterFront(mdAddrs[frontIndex]);
 		// 初始化mdApi
 		log.info("Call native function mdApi.Init()...");
 		ftdcMdApi.Init();
@@ -207,54 +278,150 @@ public final class FtdcGateway implements Closeable {
 	 * 
 	 * @param instruements
 	 */
+	@Override
 	public final void SubscribeMarketData(@Nonnull String... instruements) {
 		if (isMdLogin) {
-			ftdcMdApi.SubscribeMarketData(instruements, instruements.length);
-			log.info("Send SubscribeMarketData -> count==[{}]", instruements.length);
+			synchronized (mdFrontLogin) {
+				for (String instruement : instruements)
+					subscribedInstruments.add(instruement);
+				for (int i = 0; i < ftdcMdApis.length; i++) {
+					if (mdFrontLogin[i])
+						subscribeInChunks(i, instruements);
+				}
+			}
 		} else {
 			log.warn("Cannot SubscribeMarketData -> isMdLogin == [false]");
 		}
 	}
 
+	/**
+	 * 按subscribeChunkSize分批发送订阅请求, 在mdFrontLogin上同步调用
+	 * 
+	 * @param frontIndex
+	 * @param instruments
+	 */
+	private void subscribeInChunks(int frontIndex, String[] instruments) {
+		int chunkSize = ftdcConfig.getSubscribeChunkSize() > 0 ? ftdcConfig.getSubscribeChunkSize()
+				: instruments.length;
+		for (int from = 0; from < instruments.length; from += chunkSize) {
+			String[] chunk = from == 0 && chunkSize >= instruments.length ? instruments
+					: Arrays.copyOfRange(instruments, from, Math.min(from + chunkSize, instruments.length));
+			int rtn = ftdcMdApis[frontIndex].SubscribeMarketData(chunk, chunk.length);
+			if (rtn == 0)
+				log.info("Send SubscribeMarketData -> front==[{}], from==[{}], count==[{}]", frontIndex, from,
+						chunk.length);
+			else
+				log.error("Send SubscribeMarketData error -> front==[{}], from==[{}], count==[{}], rtn==[{}]",
+						frontIndex, from, chunk.length, rtn);
+		}
+	}
+
+	/**
+	 * 报单接口
+	 * 
+	 * @param order
+	 * @param orderRefSupplier
+	 * @return 本次报单使用的OrderRef
+	 */
+	@Override
+	public final int ReqOrderInsert(@Nonnull Order order, @Nonnull IntSupplier orderRefSupplier) {
+		// 使用合约与交易动作对应的模板, 只设置每笔报单变化的字段
+		CThostFtdcInputOrderField inputOrderField = toCThostFtdcInputOrder.getTemplate(order);
+		int orderRef;
+		int nRequestID;
+		// OrderRef的分配与发送在同一临界区内, 保证到达CTP的OrderRef递增;
+		// CTP在ReqOrderInsert中复制请求结构, 发送完成前模板也不会被其他线程修改
+		synchronized (insertLock) {
+			orderRef = orderRefSupplier.getAsInt();
+			nRequestID = sendOrderInsert(toCThostFtdcInputOrder.fillTemplate(inputOrderField, order, orderRef));
+		}
+		// 使用Java侧的订单数据记录, 不再读取JNI字段
+		if (nRequestID > 0)
+			FtdcEventLog.reqOrderInsert(nRequestID, orderRef, order.getOrdSysId(),
+					order.getInstrument().getInstrumentCode(), order.getQty().getOfferQty(),
+					order.getPrice().getOfferPrice());
+		return orderRef;
+	}
+
 	/**
 	 * 报单接口
 	 * 
 	 * @param inputOrderField
 	 */
 	public final void ReqOrderInsert(CThostFtdcInputOrderField inputOrderField) {
-		if (isTraderLogin) {
-			// 设置账号信息
+		int nRequestID;
+		synchronized (insertLock) {
+			nRequestID = sendOrderInsert(inputOrderField);
+		}
+		if (nRequestID > 0)
+			log.info("Send ReqOrderInsert OK -> nRequestID==[{}]", nRequestID);
+	}
 
-			int nRequestID = ++traderRequestId;
+	/**
+	 * 
+	 * @param inputOrderField
+	 * @return nRequestID, 未登录时返回-1
+	 */
+	private int sendOrderInsert(CThostFtdcInputOrderField inputOrderField) {
+		if (isTraderLogin) {
+			int nRequestID = traderRequestId.incrementAndGet();
 			ftdcTraderApi.ReqOrderInsert(inputOrderField, nRequestID);
-			log.info(
-					"Send ReqOrderInsert OK ->  nRequestID==[{}], OrderRef==[{}], InstrumentID==[{}], "
-							+ "CombOffsetFlag==[{}], Direction==[{}], VolumeTotalOriginal==[{}], LimitPrice==[{}]",
-					nRequestID, inputOrderField.getOrderRef(), inputOrderField.getInstrumentID(),
-					inputOrderField.getCombOffsetFlag(), inputOrderField.getDirection(),
-					inputOrderField.getVolumeTotalOriginal(), inputOrderField.getLimitPrice());
+			return nRequestID;
 		} else {
 			log.error("Trader error :: TraderApi is not login");
+			return -1;
 		}
 	}
 
+	/**
+	 * 撤单请求
+	 * 
+	 * @param order
+	 * @param frontId
+	 * @param sessionId
+	 * @param orderRef
+	 * @param orderActionRef
+	 */
+	@Override
+	public final void ReqOrderAction(@Nonnull Order order, int frontId, int sessionId, int orderRef,
+			int orderActionRef) {
+		// 使用合约对应的撤单模板
+		CThostFtdcInputOrderActionField inputOrderActionField = toCThostFtdcInputOrderAction.getTemplate(order);
+		int nRequestID;
+		synchronized (inputOrderActionField) {
+			nRequestID = sendOrderAction(toCThostFtdcInputOrderAction.fillTemplate(inputOrderActionField, order,
+					frontId, sessionId, orderRef, orderActionRef));
+		}
+		// 使用Java侧的订单数据记录, 不再读取JNI字段
+		if (nRequestID > 0)
+			FtdcEventLog.reqOrderAction(nRequestID, orderRef, orderActionRef, order.getOrdSysId(),
+					order.getInstrument().getInstrumentCode());
+	}
+
 	/**
 	 * 撤单请求
 	 * 
 	 * @param inputOrderActionField
 	 */
 	public final void ReqOrderAction(CThostFtdcInputOrderActionField inputOrderActionField) {
+		int nRequestID = sendOrderAction(inputOrderActionField);
+		if (nRequestID > 0)
+			log.info("Send ReqOrderAction OK -> nRequestID==[{}]", nRequestID);
+	}
+
+	/**
+	 * 
+	 * @param inputOrderActionField
+	 * @return nRequestID, 未登录时返回-1
+	 */
+	private int sendOrderAction(CThostFtdcInputOrderActionField inputOrderActionField) {
 		if (isTraderLogin) {
-			int nRequestID = ++traderRequestId;
+			int nRequestID = traderRequestId.incrementAndGet();
 			ftdcTraderApi.ReqOrderAction(inputOrderActionField, nRequestID);
-			log.info(
-					"Send ReqOrderAction OK -> nRequestID==[{}], OrderRef==[{}], OrderActionRef==[{}], "
-							+ "BrokerID==[{}], InvestorID==[{}], InstrumentID==[{}]",
-					nRequestID, inputOrderActionField.getOrderRef(), inputOrderActionField.getOrderActionRef(),
-					inputOrderActionField.getBrokerID(), inputOrderActionField.getInvestorID(),
-					inputOrderActionField.getInstrumentID());
+			return nRequestID;
 		} else {
 			log.error("Trader error :: TraderApi is not login");
+			return -1;
 		}
 	}
 
@@ -262,54 +429,77 @@ public final class FtdcGateway implements Closeable {
 	 * 查询订单
 	 * 
 	 * @param exchangeId
+	 * @return nRequestID, 发送失败时返回CTP的负数返回码
 	 */
-	public final void ReqQryOrder(String exchangeId) {
+	@Override
+	public final int ReqQryOrder(String exchangeId) {
 		CThostFtdcQryOrderField qryOrderField = new CThostFtdcQryOrderField();
 		qryOrderField.setBrokerID(ftdcConfig.getBrokerId());
 		qryOrderField.setInvestorID(ftdcConfig.getInvestorId());
 		qryOrderField.setExchangeID(exchangeId);
-		int nRequestID = ++traderRequestId;
-		ftdcTraderApi.ReqQryOrder(qryOrderField, nRequestID);
+		int nRequestID = traderRequestId.incrementAndGet();
+		int ret = ftdcTraderApi.ReqQryOrder(qryOrderField, nRequestID);
+		if (ret != 0) {
+			log.error("Send ReqQryOrder failure -> nRequestID==[{}], ret==[{}]", nRequestID, ret);
+			return ret;
+		}
 		log.info("Send ReqQryOrder OK -> nRequestID==[{}], BrokerID==[{}], InvestorID==[{}], ExchangeID==[{}]",
 				nRequestID, qryOrderField.getBrokerID(), qryOrderField.getInvestorID(), qryOrderField.getExchangeID());
+		return nRequestID;
 	}
 
 	/**
 	 * 查询账户
+	 * 
+	 * @return nRequestID, 发送失败时返回CTP的负数返回码
 	 */
-	public final void ReqQryTradingAccount() {
+	@Override
+	public final int ReqQryTradingAccount() {
 		CThostFtdcQryTradingAccountField qryTradingAccountField = new CThostFtdcQryTradingAccountField();
 		qryTradingAccountField.setBrokerID(ftdcConfig.getBrokerId());
 		qryTradingAccountField.setAccountID(ftdcConfig.getAccountId());
 		qryTradingAccountField.setInvestorID(ftdcConfig.getInvestorId());
 		qryTradingAccountField.setCurrencyID(ftdcConfig.getCurrencyId());
-		int nRequestID = ++traderRequestId;
-		ftdcTraderApi.ReqQryTradingAccount(qryTradingAccountField, nRequestID);
+		int nRequestID = traderRequestId.incrementAndGet();
+		int ret = ftdcTraderApi.ReqQryTradingAccount(qryTradingAccountField, nRequestID);
+		if (ret != 0) {
+			log.error("Send ReqQryTradingAccount failure -> nRequestID==[{}], ret==[{}]", nRequestID, ret);
+			return ret;
+		}
 		log.info(
 				"Send ReqQryTradingAccount OK -> nRequestID==[{}], BrokerID==[{}], "
 						+ "AccountID==[{}], InvestorID==[{}], CurrencyID==[{}]",
 				nRequestID, qryTradingAccountField.getBrokerID(), qryTradingAccountField.getAccountID(),
 				qryTradingAccountField.getInvestorID(), qryTradingAccountField.getCurrencyID());
+		return nRequestID;
 	}
 
 	/**
+	 * 查询持仓
 	 * 
 	 * @param exchangeId
 	 * @param instrumentId
+	 * @return nRequestID, 发送失败时返回CTP的负数返回码
 	 */
-	public final void ReqQryInvestorPosition(String exchangeId, String instrumentId) {
+	@Override
+	public final int ReqQryInvestorPosition(String exchangeId, String instrumentId) {
 		CThostFtdcQryInvestorPositionField qryInvestorPositionField = new CThostFtdcQryInvestorPositionField();
 		qryInvestorPositionField.setBrokerID(ftdcConfig.getBrokerId());
 		qryInvestorPositionField.setInvestorID(ftdcConfig.getInvestorId());
 		qryInvestorPositionField.setExchangeID(exchangeId);
 		qryInvestorPositionField.setInstrumentID(instrumentId);
-		int nRequestID = ++traderRequestId;
-		ftdcTraderApi.ReqQryInvestorPosition(qryInvestorPositionField, nRequestID);
+		int nRequestID = traderRequestId.incrementAndGet();
+		int ret = ftdcTraderApi.ReqQryInvestorPosition(qryInvestorPositionField, nRequestID);
+		if (ret != 0) {
+			log.error("Send ReqQryInvestorPosition failure -> nRequestID==[{}], ret==[{}]", nRequestID, ret);
+			return ret;
+		}
 		log.info(
 				"Send ReqQryInvestorPosition OK -> nRequestID==[{}], BrokerID==[{}], "
 						+ "InvestorID==[{}], ExchangeID==[{}], InstrumentID==[{}]",
 				nRequestID, qryInvestorPositionField.getBrokerID(), qryInvestorPositionField.getInvestorID(),
 				qryInvestorPositionField.getExchangeID(), qryInvestorPositionField.getInstrumentID());
+		return nRequestID;
 	}
 
 	/**
@@ -322,7 +512,7 @@ public final class FtdcGateway implements Closeable {
 		qrySettlementInfoField.setTradingDay(ftdcConfig.getTradingDay());
 		qrySettlementInfoField.setAccountID(ftdcConfig.getAccountId());
 		qrySettlementInfoField.setCurrencyID(ftdcConfig.getCurrencyId());
-		int nRequestID = ++traderRequestId;
+		int nRequestID = traderRequestId.incrementAndGet();
 		ftdcTraderApi.ReqQrySettlementInfo(qrySettlementInfoField, nRequestID);
 		log.info("Send ReqQrySettlementInfo OK -> nRequestID==[{}]", nRequestID);
 	}
@@ -335,7 +525,7 @@ public final class FtdcGateway implements Closeable {
 	 */
 	public final void ReqQryInstrument(String exchangeId, String instrumentId) {
 		CThostFtdcQryInstrumentField qryInstrument = new CThostFtdcQryInstrumentField();
-		int nRequestID = ++traderRequestId;
+		int nRequestID = traderRequestId.incrementAndGet();
 		qryInstrument.setExchangeID(exchangeId);
 		qryInstrument.setInstrumentID(instrumentId);
 		ftdcTraderApi.ReqQryInstrument(qryInstrument, nRequestID);
@@ -343,6 +533,17 @@ public final class FtdcGateway implements Closeable {
 				qryInstrument.getExchangeID(), qryInstrument.getInstrumentID());
 	}
 
+	/**
+	 * 在回调线程中调用, 每个回调线程只绑定一次
+	 * 
+	 * @param cpu  小于0时不绑定
+	 * @param desc
+	 */
+	private void bindCallbackThread(int cpu, String desc) {
+		if (cpu >= 0 && boundCallbackThreads.add(Thread.currentThread()))
+			FtdcAffinity.bindCurrentThread(cpu, desc);
+	}
+
 	/**
 	 * 
 	 * FTDC错误消息处理, 行情接口与交易接口通用
@@ -370,14 +571,34 @@ public final class FtdcGateway implements Closeable {
 	 */
 	class FtdcMdHook extends FtdcErrorHook {
 
+		// 行情前置下标
+		private final int frontIndex;
+
+		// 当前前置独占的行情融合转换器, 未设置时为null
+		private final Function<CThostFtdcDepthMarketDataField, BasicMarketData> marketDataConverter;
+
+		FtdcMdHook(int frontIndex) {
+			this.frontIndex = frontIndex;
+			this.marketDataConverter = marketDataConverterSupplier == null ? null
+					: marketDataConverterSupplier.get();
+		}
+
 		/**
 		 * 行情前置断开回调
 		 */
 		void onMdFrontDisconnected() {
-			log.warn("FtdcMdHook onMdFrontDisconnected");
-			// 行情断开处理逻辑
-			isMdLogin = false;
-			rspQueue.enqueue(new FtdcRspMsg(new FtdcMdConnect(isMdLogin)));
+			log.warn("FtdcMdHook onMdFrontDisconnected -> front==[{}]", frontIndex);
+			// 行情断开处理逻辑, 全部前置断开时才发布断开
+			synchronized (mdFrontLogin) {
+				mdFrontLogin[frontIndex] = false;
+				boolean isAnyLogin = false;
+				for (boolean login : mdFrontLogin)
+					isAnyLogin |= login;
+				if (isMdLogin && !isAnyLogin) {
+					isMdLogin = false;
+					rspPublisher.publish(new FtdcRspMsg(new FtdcMdConnect(isMdLogin)));
+				}
+			}
 		}
 
 		/**
@@ -385,6 +606,9 @@ public final class FtdcGateway implements Closeable {
 		 */
 		void onMdFrontConnected() {
 			log.info("FtdcMdHook onMdFrontConnected");
+			// CTP回调线程由API创建, 在首个回调中绑定核心
+			bindCallbackThread(ftdcConfig.getMdCallbackCpu(), "FtdcMd-Callback");
+			bootstrapTracker.mark(Phase.MdConnected);
 			// this.isMdConnect = true;
 			CThostFtdcReqUserLoginField userLoginField = new CThostFtdcReqUserLoginField();
 			userLoginField.setBrokerID(ftdcConfig.getBrokerId());
@@ -392,8 +616,8 @@ public final class FtdcGateway implements Closeable {
 			userLoginField.setPassword(ftdcConfig.getPassword());
 			userLoginField.setClientIPAddress(ftdcConfig.getIpAddr());
 			userLoginField.setMacAddress(ftdcConfig.getMacAddr());
-			int nRequestID = ++mdRequestId;
-			ftdcMdApi.ReqUserLogin(userLoginField, nRequestID);
+			int nRequestID = mdRequestId.incrementAndGet();
+			ftdcMdApis[frontIndex].ReqUserLogin(userLoginField, nRequestID);
 			log.info("Send Md ReqUserLogin OK -> nRequestID==[{}]", nRequestID);
 		}
 
@@ -403,11 +627,27 @@ public final class FtdcGateway implements Closeable {
 		 * @param rspUserLogin
 		 */
 		void onMdRspUserLogin(CThostFtdcRspUserLoginField rspUserLoginField) {
-			log.info("FtdcMdHook onMdRspUserLogin -> FrontID==[{}], SessionID==[{}], TradingDay==[{}]",
-					rspUserLoginField.getFrontID(), rspUserLoginField.getSessionID(),
+			log.info("FtdcMdHook onMdRspUserLogin -> front==[{}], FrontID==[{}], SessionID==[{}], TradingDay==[{}]",
+					frontIndex, rspUserLoginField.getFrontID(), rspUserLoginField.getSessionID(),
 					rspUserLoginField.getTradingDay());
-			isMdLogin = true;
-			rspQueue.enqueue(new FtdcRspMsg(new FtdcMdConnect(isMdLogin)));
+			bootstrapTracker.mark(Phase.MdLogin);
+			synchronized (mdFrontLogin) {
+				mdFrontLogin[frontIndex] = true;
+				if (isMdLogin) {
+					// 其他前置已登录, 补充订阅已订阅的合约
+					String[] instruments = subscribedInstruments.toArray(new String[0]);
+					if (instruments.length > 0)
+						subscribeInChunks(frontIndex, instruments);
+				} else {
+					// 首次登录时订阅启动时配置的合约, 重连后由Adaptor重新订阅
+					String[] instruments = ftdcConfig.getBootstrapInstruments();
+					if (instruments != null && instruments.length > 0
+							&& bootstrapTracker.getElapsedMillis(Phase.MdSubscribed) < 0)
+						subscribeInChunks(frontIndex, instruments);
+					isMdLogin = true;
+					rspPublisher.publish(new FtdcRspMsg(new FtdcMdConnect(isMdLogin)));
+				}
+			}
 		}
 
 		/**
@@ -416,22 +656,46 @@ public final class FtdcGateway implements Closeable {
 		 * @param specificInstrument
 		 */
 		void onRspSubMarketData(CThostFtdcSpecificInstrumentField specificInstrumentField) {
-			log.info("FtdcMdHook onRspSubMarketData -> InstrumentCode==[{}]",
-					specificInstrumentField.getInstrumentID());
+			String instrumentId = specificInstrumentField.getInstrumentID();
+			log.info("FtdcMdHook onRspSubMarketData -> InstrumentCode==[{}]", instrumentId);
+			bootstrapTracker.onSubscribed(instrumentId);
 		}
 
 		private CThostFtdcDepthMarketDataConverter depthMarketDataConverter = new CThostFtdcDepthMarketDataConverter();
 
+		// 复用行情对象时使用的预分配消息环, 容量为队列容量的两倍
+		// 合并行情时消息的持有时间不受队列容量限制, 不能复用
+		private final FtdcDepthMarketDataRing depthMarketDataRing = ftdcConfig.isReuseMarketData()
+				&& !ftdcConfig.isConflateMarketData()
+				? new FtdcDepthMarketDataRing(ftdcConfig.getRspQueueCapacity() * 2)
+				: null;
+
 		/**
 		 * 行情推送回调
 		 * 
 		 * @param depthMarketData
 		 */
 		void onRtnDepthMarketData(CThostFtdcDepthMarketDataField depthMarketDataField) {
-			log.debug("Gateway onRtnDepthMarketData -> InstrumentID == [{}], UpdateTime==[{}], UpdateMillisec==[{}]",
+			if (log.isDebugEnabled())
+				log.debug("Gateway onRtnDepthMarketData -> InstrumentID == [{}], UpdateTime==[{}], UpdateMillisec==[{}]",
+						depthMarketDataField.getInstrumentID(), depthMarketDataField.getUpdateTime(),
+						depthMarketDataField.getUpdateMillisec());
+			// 多前置时只发布首次到达的行情
+			if (mdDeduplicator != null && !mdDeduplicator.isFirstArrival(frontIndex,
 					depthMarketDataField.getInstrumentID(), depthMarketDataField.getUpdateTime(),
-					depthMarketDataField.getUpdateMillisec());
-			rspQueue.enqueue(new FtdcRspMsg(depthMarketDataConverter.apply(depthMarketDataField)));
+					depthMarketDataField.getUpdateMillisec(), depthMarketDataField.getVolume()))
+				return;
+			if (marketDataConverter != null) {
+				// 跳过FtdcDepthMarketData中间对象
+				rspPublisher.publish(new FtdcRspMsg(marketDataConverter.apply(depthMarketDataField)));
+			} else if (depthMarketDataRing != null) {
+				// 写入预分配的消息, 不产生新对象
+				FtdcRspMsg rspMsg = depthMarketDataRing.next();
+				depthMarketDataConverter.apply(depthMarketDataField, rspMsg.getFtdcDepthMarketData());
+				rspPublisher.publish(rspMsg);
+			} else {
+				rspPublisher.publish(new FtdcRspMsg(depthMarketDataConverter.apply(depthMarketDataField)));
+			}
 		}
 
 	}
@@ -451,7 +715,7 @@ public final class FtdcGateway implements Closeable {
 			isTraderLogin = false;
 			isAuthenticate = false;
 			// 交易前置断开处理
-			rspQueue.enqueue(
+			rspPublisher.publish(
 					new FtdcRspMsg(new FtdcTraderConnect(isTraderLogin).setFrontID(frontID).setSessionID(sessionID)));
 		}
 
@@ -460,6 +724,9 @@ public final class FtdcGateway implements Closeable {
 		 */
 		void onTraderFrontConnected() {
 			log.info("FtdcTraderHook onTraderFrontConnected");
+			// CTP回调线程由API创建, 在首个回调中绑定核心
+			bindCallbackThread(ftdcConfig.getTraderCallbackCpu(), "FtdcTrader-Callback");
+			bootstrapTracker.mark(Phase.TraderConnected);
 			if (StringUtil.nonEmpty(ftdcConfig.getAuthCode()) && !isAuthenticate) {
 				// 发送认证请求
 				CThostFtdcReqAuthenticateField authenticateField = new CThostFtdcReqAuthenticateField();
@@ -467,7 +734,7 @@ public final class FtdcGateway implements Closeable {
 				authenticateField.setUserID(ftdcConfig.getUserId());
 				authenticateField.setBrokerID(ftdcConfig.getBrokerId());
 				authenticateField.setAuthCode(ftdcConfig.getAuthCode());
-				int nRequestID = ++traderRequestId;
+				int nRequestID = traderRequestId.incrementAndGet();
 				ftdcTraderApi.ReqAuthenticate(authenticateField, nRequestID);
 				log.info(
 						"Send ReqAuthenticate OK -> nRequestID==[{}], BrokerID==[{}], UserID==[{}], AppID==[{}], AuthCode==[{}]",
@@ -486,13 +753,14 @@ public final class FtdcGateway implements Closeable {
 		 */
 		void onRspAuthenticate(CThostFtdcRspAuthenticateField rspAuthenticateField) {
 			isAuthenticate = true;
+			bootstrapTracker.mark(Phase.TraderAuthenticated);
 			CThostFtdcReqUserLoginField reqUserLoginField = new CThostFtdcReqUserLoginField();
 			reqUserLoginField.setBrokerID(ftdcConfig.getBrokerId());
 			reqUserLoginField.setUserID(ftdcConfig.getUserId());
 			reqUserLoginField.setPassword(ftdcConfig.getPassword());
 //			reqUserLoginField.setClientIPAddress(ftdcConfig.getIpAddr());
 //			reqUserLoginField.setMacAddress(ftdcConfig.getMacAddr());
-			int nRequestID = ++traderRequestId;
+			int nRequestID = traderRequestId.incrementAndGet();
 			ftdcTraderApi.ReqUserLogin(reqUserLoginField, nRequestID);
 			log.info("Send Trader ReqUserLogin OK -> nRequestID == {}", nRequestID);
 		}
@@ -504,37 +772,50 @@ public final class FtdcGateway implements Closeable {
 		 */
 		void onTraderRspUserLogin(CThostFtdcRspUserLoginField rspUserLoginField) {
 			log.info(
-					"FtdcTraderHook onTraderRspUserLogin -> Brokerid==[{}], UserID==[{}], LoginTime==[{}], MaxOrderRef==[{}]",
+					"FtdcTraderHook onTraderRspUserLogin -> Brokerid==[{}], UserID==[{}], LoginTime==[{}], MaxOrderRef==[{}], TradingDay==[{}]",
 					rspUserLoginField.getBrokerID(), rspUserLoginField.getUserID(), rspUserLoginField.getLoginTime(),
-					rspUserLoginField.getMaxOrderRef());
+					rspUserLoginField.getMaxOrderRef(), rspUserLoginField.getTradingDay());
 			frontID = rspUserLoginField.getFrontID();
 			sessionID = rspUserLoginField.getSessionID();
 			isTraderLogin = true;
-			rspQueue.enqueue(
-					new FtdcRspMsg(new FtdcTraderConnect(isTraderLogin).setFrontID(frontID).setSessionID(sessionID)));
+			bootstrapTracker.mark(Phase.TraderLogin);
+			rspPublisher.publish(
+					new FtdcRspMsg(new FtdcTraderConnect(isTraderLogin).setFrontID(frontID).setSessionID(sessionID)
+							.setMaxOrderRef(rspUserLoginField.getMaxOrderRef())
+							.setTradingDay(rspUserLoginField.getTradingDay())));
 		}
 
 		// 转换为FtdcInputOrder
 		private CThostFtdcInputOrderConverter ftdcInputOrderConverter = new CThostFtdcInputOrderConverter();
 
 		/**
-		 * 报单回调
+		 * 报单回调, 只返回给报单的会话, 消息携带请求ID
 		 * 
 		 * @param inputOrderField
+		 * @param rspInfoField
+		 * @param nRequestID
 		 */
-		void onRspOrderInsert(CThostFtdcInputOrderField inputOrderField) {
+		void onRspOrderInsert(CThostFtdcInputOrderField inputOrderField, CThostFtdcRspInfoField rspInfoField,
+				int nRequestID) {
 			log.info("FtdcTraderHook onRspOrderInsert -> OrderRef==[{}]", inputOrderField.getOrderRef());
-			rspQueue.enqueue(new FtdcRspMsg(ftdcInputOrderConverter.apply(inputOrderField)));
+			FtdcInputOrder inputOrder = ftdcInputOrderConverter.apply(inputOrderField);
+			if (rspInfoField != null)
+				inputOrder.setErrorID(rspInfoField.getErrorID()).setErrorMsg(rspInfoField.getErrorMsg());
+			rspPublisher.publish(new FtdcRspMsg(inputOrder).setRequestId(nRequestID));
 		}
 
 		/**
-		 * 报单错误回调
+		 * 报单错误回调, 推送给同一账户的全部会话, 消息的请求ID为0
 		 * 
 		 * @param inputOrderField
+		 * @param rspInfoField
 		 */
-		void onErrRtnOrderInsert(CThostFtdcInputOrderField inputOrderField) {
+		void onErrRtnOrderInsert(CThostFtdcInputOrderField inputOrderField, CThostFtdcRspInfoField rspInfoField) {
 			log.info("FtdcTraderHook onErrRtnOrderInsert -> OrderRef==[{}]", inputOrderField.getOrderRef());
-			rspQueue.enqueue(new FtdcRspMsg(ftdcInputOrderConverter.apply(inputOrderField)));
+			FtdcInputOrder inputOrder = ftdcInputOrderConverter.apply(inputOrderField);
+			if (rspInfoField != null)
+				inputOrder.setErrorID(rspInfoField.getErrorID()).setErrorMsg(rspInfoField.getErrorMsg());
+			rspPublisher.publish(new FtdcRspMsg(inputOrder));
 		}
 
 		// 转换为FtdcOrder
@@ -546,13 +827,8 @@ public final class FtdcGateway implements Closeable {
 		 * @param orderField
 		 */
 		void onRtnOrder(CThostFtdcOrderField orderField) {
-			log.info(
-					"FtdcTraderHook onRtnOrder -> AccountID==[{}], OrderRef==[{}], OrderSysID==[{}], InstrumentID==[{}], "
-							+ "OrderStatus==[{}], Direction==[{}], VolumeTotalOriginal==[{}], LimitPrice==[{}]",
-					orderField.getAccountID(), orderField.getOrderRef(), orderField.getOrderSysID(),
-					orderField.getInstrumentID(), orderField.getOrderStatus(), orderField.getDirection(),
-					orderField.getVolumeTotalOriginal(), orderField.getLimitPrice());
-			rspQueue.enqueue(new FtdcRspMsg(ftdcOrderConverter.apply(orderField), true));
+			// 不在回调线程中读取JNI字段打印日志, 转换后的FtdcOrder由FtdcAdaptor写入FtdcEventLog
+			rspPublisher.publish(new FtdcRspMsg(ftdcOrderConverter.apply(orderField), true));
 		}
 
 		/**
@@ -560,10 +836,21 @@ public final class FtdcGateway implements Closeable {
 		 * @param orderField
 		 * @param isLast
 		 */
-		void onRspQryOrder(CThostFtdcOrderField orderField, boolean isLast) {
+		void onRspQryOrder(CThostFtdcOrderField orderField, int nRequestID, boolean isLast) {
 			log.info("FtdcTraderHook onRspQryOrder -> AccountID==[{}], OrderRef==[{}], isLast==[{}]",
 					orderField.getAccountID(), orderField.getOrderRef(), isLast);
-			rspQueue.enqueue(new FtdcRspMsg(ftdcOrderConverter.apply(orderField), isLast));
+			rspPublisher.publish(new FtdcRspMsg(ftdcOrderConverter.apply(orderField), isLast).setRequestId(nRequestID));
+		}
+
+		/**
+		 * 查询没有返回数据或返回错误时, 发布只携带请求ID的最后一条消息
+		 * 
+		 * @param rspType
+		 * @param nRequestID
+		 */
+		void onRspQryEmpty(RspType rspType, int nRequestID) {
+			log.info("FtdcTraderHook onRspQryEmpty -> RspType==[{}], nRequestID==[{}]", rspType, nRequestID);
+			rspPublisher.publish(FtdcRspMsg.emptyOf(rspType, nRequestID));
 		}
 
 		// 转换为FtdcTrade
@@ -575,27 +862,29 @@ public final class FtdcGateway implements Closeable {
 		 * @param tradeField
 		 */
 		void onRtnTrade(CThostFtdcTradeField tradeField) {
-			log.info(
-					"FtdcTraderHook onRtnTrade -> OrderRef==[{}], OrderSysID==[{}], InstrumentID==[{}], "
-							+ "Direction==[{}], Price==[{}], Volume==[{}]",
-					tradeField.getOrderRef(), tradeField.getOrderSysID(), tradeField.getInstrumentID(),
-					tradeField.getDirection(), tradeField.getPrice(), tradeField.getVolume());
-			rspQueue.enqueue(new FtdcRspMsg(ftdcTradeConverter.apply(tradeField)));
+			// 不在回调线程中读取JNI字段打印日志, 转换后的FtdcTrade由FtdcAdaptor写入FtdcEventLog
+			rspPublisher.publish(new FtdcRspMsg(ftdcTradeConverter.apply(tradeField)));
 		}
 
 		private CThostFtdcInputOrderActionConverter ftdcInputOrderActionConverter = new CThostFtdcInputOrderActionConverter();
 
 		/**
-		 * 撤单错误回调: 1
+		 * 撤单错误回调: 1, 消息携带请求ID
 		 * 
 		 * @param inputOrderActionField
+		 * @param rspInfoField
+		 * @param nRequestID
 		 */
-		void onRspOrderAction(CThostFtdcInputOrderActionField inputOrderActionField) {
+		void onRspOrderAction(CThostFtdcInputOrderActionField inputOrderActionField,
+				CThostFtdcRspInfoField rspInfoField, int nRequestID) {
 			log.info(
 					"FtdcTraderHook onRspOrderAction -> OrderRef==[{}], OrderSysID==[{}], OrderActionRef==[{}], InstrumentID==[{}]",
 					inputOrderActionField.getOrderRef(), inputOrderActionField.getOrderSysID(),
 					inputOrderActionField.getOrderActionRef(), inputOrderActionField.getInstrumentID());
-			rspQueue.enqueue(new FtdcRspMsg(ftdcInputOrderActionConverter.apply(inputOrderActionField)));
+			FtdcInputOrderAction inputOrderAction = ftdcInputOrderActionConverter.apply(inputOrderActionField);
+			if (rspInfoField != null)
+				inputOrderAction.setErrorID(rspInfoField.getErrorID()).setErrorMsg(rspInfoField.getErrorMsg());
+			rspPublisher.publish(new FtdcRspMsg(inputOrderAction).setRequestId(nRequestID));
 		}
 
 		private CThostFtdcOrderActionConverter ftdcOrderActionConverter = new CThostFtdcOrderActionConverter();
@@ -604,29 +893,36 @@ public final class FtdcGateway implements Closeable {
 		 * 撤单错误回调: 2
 		 * 
 		 * @param orderActionField
+		 * @param rspInfoField
 		 */
-		void onErrRtnOrderAction(CThostFtdcOrderActionField orderActionField) {
+		void onErrRtnOrderAction(CThostFtdcOrderActionField orderActionField, CThostFtdcRspInfoField rspInfoField) {
 			log.info(
 					"FtdcTraderHook onErrRtnOrderAction -> OrderRef==[{}], OrderSysID==[{}], OrderActionRef==[{}], InstrumentID==[{}]",
 					orderActionField.getOrderRef(), orderActionField.getOrderSysID(),
 					orderActionField.getOrderActionRef(), orderActionField.getInstrumentID());
-			rspQueue.enqueue(new FtdcRspMsg(ftdcOrderActionConverter.apply(orderActionField)));
+			FtdcOrderAction orderAction = ftdcOrderActionConverter.apply(orderActionField);
+			if (rspInfoField != null)
+				orderAction.setErrorID(rspInfoField.getErrorID()).setErrorMsg(rspInfoField.getErrorMsg());
+			rspPublisher.publish(new FtdcRspMsg(orderAction));
 		}
 
+		private CThostFtdcTradingAccountConverter tradingAccountConverter = new CThostFtdcTradingAccountConverter();
+
 		/**
 		 * 
 		 * @param tradingAccountField
+		 * @param nRequestID
 		 * @param isLast
 		 */
-		void onQryTradingAccount(CThostFtdcTradingAccountField tradingAccountField, boolean isLast) {
+		void onQryTradingAccount(CThostFtdcTradingAccountField tradingAccountField, int nRequestID, boolean isLast) {
 			log.info(
 					"FtdcTraderHook onQryTradingAccount -> AccountID==[{}], Balance==[{}], "
 							+ "Available==[{}], Credit==[{}], WithdrawQuota==[{}], isLast==[{}]",
 					tradingAccountField.getAccountID(), tradingAccountField.getBalance(),
 					tradingAccountField.getAvailable(), tradingAccountField.getCredit(),
 					tradingAccountField.getWithdrawQuota(), isLast);
-			// TODO Inbound
-
+			rspPublisher.publish(
+					new FtdcRspMsg(tradingAccountConverter.apply(tradingAccountField), isLast).setRequestId(nRequestID));
 		}
 
 		private CThostFtdcInvestorPositionConverter investorPositionConverter = new CThostFtdcInvestorPositionConverter();
@@ -634,15 +930,18 @@ public final class FtdcGateway implements Closeable {
 		/**
 		 * 
 		 * @param investorPositionField
+		 * @param nRequestID
 		 * @param isLast
 		 */
-		void onRspQryInvestorPosition(CThostFtdcInvestorPositionField investorPositionField, boolean isLast) {
+		void onRspQryInvestorPosition(CThostFtdcInvestorPositionField investorPositionField, int nRequestID,
+				boolean isLast) {
 			log.info(
 					"FtdcTraderHook onRspQryInvestorPosition -> InvestorID==[{}], ExchangeID==[{}], "
 							+ "InstrumentID==[{}], Position==[{}], isLast==[{}]",
 					investorPositionField.getInvestorID(), investorPositionField.getExchangeID(),
 					investorPositionField.getInstrumentID(), investorPositionField.getPosition(), isLast);
-			rspQueue.enqueue(new FtdcRspMsg(investorPositionConverter.apply(investorPositionField), isLast));
+			rspPublisher.publish(new FtdcRspMsg(investorPositionConverter.apply(investorPositionField), isLast)
+					.setRequestId(nRequestID));
 		}
 
 	}
@@ -651,8 +950,14 @@ public final class FtdcGateway implements Closeable {
 	public void close() throws IOException {
 		Threads.startNewThread("FtdcTraderApi-Release", ftdcTraderApi::Release);
 		Threads.sleep(500);
-		Threads.startNewThread("FtdcMdApi-Release", ftdcMdApi::Release);
-		Threads.sleep(500);
+		if (mdDeduplicator != null)
+			mdDeduplicator.logStats(mdAddrs);
+		for (CThostFtdcMdApi ftdcMdApi : ftdcMdApis) {
+			if (ftdcMdApi != null) {
+				Threads.startNewThread("FtdcMdApi-Release", ftdcMdApi::Release);
+				Threads.sleep(500);
+			}
+		}
 	}
 
 }
\ No newline at end of file
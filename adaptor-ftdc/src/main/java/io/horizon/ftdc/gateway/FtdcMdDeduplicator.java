@@ -0,0 +1,200 @@
+package io.horizon.ftdc.gateway;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+
+import io.mercury.common.log.CommonLoggerFactory;
+
+/**
+ * 多行情前置的行情去重<br>
+ * 每个合约只保留(UpdateTime, UpdateMillisec, Volume)首次到达的行情, 其他前置的相同行情和已过时的行情被丢弃<br>
+ *
+ * 行情键为交易日内单调递增的long: 以16点为起点的毫秒数左移32位, 低32位为成交量,
+ * 每个合约只保存最近一次接受的键, 比较一次即可判断是否重复<br>
+ * 键回退超过4小时视为进入新的交易日, 重新开始<br>
+ *
+ * 同时统计每个前置的首达次数, 领先其他前置的时间, 以及落后的时间, 用于淘汰较慢的前置
+ *
+ * @author yellow013
+ */
+@ThreadSafe
+public final class FtdcMdDeduplicator {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcMdDeduplicator.class);
+
+	// 交易日起点, 与夜盘开始一致
+	private static final int TradingDayBeginSeconds = 16 * 3600;
+
+	private static final int SecondsPerDay = 86400;
+
+	// 键回退超过此时间视为新的交易日
+	private static final long NewTradingDayThreshold = (4 * 3600 * 1000L) << 32;
+
+	private final int frontCount;
+
+	private final ConcurrentHashMap<String, InstrumentState> states = new ConcurrentHashMap<>();
+
+	// 以下统计按前置下标记录
+	private final LongAdder[] firstCount;
+
+	private final LongAdder[] duplicateCount;
+
+	private final LongAdder[] staleCount;
+
+	// 首达行情领先其他前置的时间总和
+	private final LongAdder[] leadNanos;
+
+	private final LongAdder[] leadCount;
+
+	// 重复行情落后首达前置的时间总和
+	private final LongAdder[] lagNanos;
+
+	/**
+	 *
+	 * @param frontCount 行情前置数量
+	 */
+	public FtdcMdDeduplicator(int frontCount) {
+		if (frontCount < 1)
+			throw new IllegalArgumentException("frontCount must be greater than 0");
+		this.frontCount = frontCount;
+		this.firstCount = newAdders(frontCount);
+		this.duplicateCount = newAdders(frontCount);
+		this.staleCount = newAdders(frontCount);
+		this.leadNanos = newAdders(frontCount);
+		this.leadCount = newAdders(frontCount);
+		this.lagNanos = newAdders(frontCount);
+	}
+
+	private static LongAdder[] newAdders(int count) {
+		LongAdder[] adders = new LongAdder[count];
+		for (int i = 0; i < count; i++)
+			adders[i] = new LongAdder();
+		return adders;
+	}
+
+	/**
+	 * 判断行情是否为首次到达, 在各前置的回调线程中调用
+	 *
+	 * @param frontIndex     前置下标
+	 * @param instrumentId
+	 * @param updateTime     [HH:mm:ss]
+	 * @param updateMillisec
+	 * @param volume
+	 * @return 首次到达时返回true, 重复或过时的行情返回false
+	 */
+	public boolean isFirstArrival(int frontIndex, @Nonnull String instrumentId, @Nonnull String updateTime,
+			int updateMillisec, int volume) {
+		final long key = toKey(updateTime, updateMillisec, volume);
+		final long now = System.nanoTime();
+		InstrumentState state = states.get(instrumentId);
+		if (state == null)
+			state = states.computeIfAbsent(instrumentId, id -> new InstrumentState());
+		synchronized (state) {
+			if (key > state.lastKey || state.lastKey - key > NewTradingDayThreshold) {
+				state.lastKey = key;
+				state.firstNanos = now;
+				state.firstFront = frontIndex;
+				firstCount[frontIndex].increment();
+				return true;
+			}
+			if (key == state.lastKey) {
+				duplicateCount[frontIndex].increment();
+				if (frontIndex != state.firstFront) {
+					long lead = now - state.firstNanos;
+					leadNanos[state.firstFront].add(lead);
+					leadCount[state.firstFront].increment();
+					lagNanos[frontIndex].add(lead);
+				}
+			} else {
+				// 已被更新的行情取代
+				staleCount[frontIndex].increment();
+			}
+			return false;
+		}
+	}
+
+	/**
+	 *
+	 * @param updateTime
+	 * @param updateMillisec
+	 * @param volume
+	 * @return
+	 */
+	static long toKey(String updateTime, int updateMillisec, int volume) {
+		int secondOfDay = parse2(updateTime, 0) * 3600 + parse2(updateTime, 3) * 60 + parse2(updateTime, 6);
+		int tradingSecond = (secondOfDay - TradingDayBeginSeconds + SecondsPerDay) % SecondsPerDay;
+		long tradingMillis = tradingSecond * 1000L + updateMillisec;
+		return (tradingMillis << 32) | (volume & 0xFFFFFFFFL);
+	}
+
+	private static int parse2(String str, int offset) {
+		return (str.charAt(offset) - '0') * 10 + (str.charAt(offset + 1) - '0');
+	}
+
+	/**
+	 * 前置首达次数
+	 *
+	 * @param frontIndex
+	 * @return
+	 */
+	public long getFirstCount(int frontIndex) {
+		return firstCount[frontIndex].sum();
+	}
+
+	/**
+	 * 前置作为首达前置时平均领先其他前置的纳秒数
+	 *
+	 * @param frontIndex
+	 * @return
+	 */
+	public long getAverageLeadNanos(int frontIndex) {
+		long count = leadCount[frontIndex].sum();
+		return count == 0 ? 0L : leadNanos[frontIndex].sum() / count;
+	}
+
+	/**
+	 * 前置的行情平均落后首达前置的纳秒数
+	 *
+	 * @param frontIndex
+	 * @return
+	 */
+	public long getAverageLagNanos(int frontIndex) {
+		long count = duplicateCount[frontIndex].sum();
+		return count == 0 ? 0L : lagNanos[frontIndex].sum() / count;
+	}
+
+	/**
+	 * 输出各前置统计
+	 *
+	 * @param frontAddrs 前置地址, 下标与frontIndex一致
+	 */
+	public void logStats(String[] frontAddrs) {
+		for (int i = 0; i < frontCount; i++) {
+			long first = firstCount[i].sum();
+			long duplicate = duplicateCount[i].sum();
+			long total = first + duplicate + staleCount[i].sum();
+			log.info(
+					"Md front [{}] -> {}, first==[{}], duplicate==[{}], stale==[{}], firstRatio==[{}], "
+							+ "avgLead==[{}us], avgLag==[{}us]",
+					i, frontAddrs == null || i >= frontAddrs.length ? "" : frontAddrs[i], first, duplicate,
+					staleCount[i].sum(), total == 0 ? 0.0D : (double) first / total,
+					getAverageLeadNanos(i) / 1000.0D, getAverageLagNanos(i) / 1000.0D);
+		}
+	}
+
+	private static final class InstrumentState {
+
+		private long lastKey = -1L;
+
+		private long firstNanos;
+
+		private int firstFront;
+
+	}
+
+}
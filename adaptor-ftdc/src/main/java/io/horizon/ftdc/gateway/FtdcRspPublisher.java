@@ -0,0 +1,21 @@
+package io.horizon.ftdc.gateway;
+
+import javax.annotation.Nonnull;
+
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+
+/**
+ * FtdcGateway回调消息的发布接口, 在CTP回调线程中调用
+ * 
+ * @author yellow013
+ */
+@FunctionalInterface
+public interface FtdcRspPublisher {
+
+	/**
+	 * 
+	 * @param rspMsg
+	 */
+	void publish(@Nonnull FtdcRspMsg rspMsg);
+
+}
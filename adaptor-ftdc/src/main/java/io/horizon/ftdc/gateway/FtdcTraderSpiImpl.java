@@ -19,6 +19,7 @@ import ctp.thostapi.CThostFtdcTraderSpi;
 import ctp.thostapi.CThostFtdcTradingAccountField;
 import ctp.thostapi.CThostFtdcUserLogoutField;
 import io.horizon.ftdc.gateway.FtdcGateway.FtdcTraderHook;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg.RspType;
 import io.mercury.common.log.CommonLoggerFactory;
 
 public final class FtdcTraderSpiImpl extends CThostFtdcTraderSpi {
@@ -86,25 +87,25 @@ public final class FtdcTraderSpiImpl extends CThostFtdcTraderSpi {
 	public void OnRspQryOrder(CThostFtdcOrderField pOrder, CThostFtdcRspInfoField pRspInfo, int nRequestID,
 			boolean bIsLast) {
 		log.info("TraderSpiImpl :: OnRspQryOrder, nRequestID==[{}], bIsLast==[{}]", nRequestID, bIsLast);
-		if (!hasError("TraderSpi :: OnRspQryOrder", pRspInfo)) {
-			if (pOrder != null)
-				hook.onRspQryOrder(pOrder, bIsLast);
-			else
-				log.error("TraderSpiImpl :: OnRspQryOrder return null");
-
-		}
+		if (!hasError("TraderSpi :: OnRspQryOrder", pRspInfo) && pOrder != null)
+			hook.onRspQryOrder(pOrder, nRequestID, bIsLast);
+		else if (bIsLast)
+			// 没有数据或发生错误时仍需结束本次查询
+			hook.onRspQryEmpty(RspType.FtdcOrder, nRequestID);
+		else
+			log.error("TraderSpiImpl :: OnRspQryOrder return null");
 	}
 
 	@Override
 	public void OnRspQryTradingAccount(CThostFtdcTradingAccountField pTradingAccount, CThostFtdcRspInfoField pRspInfo,
 			int nRequestID, boolean bIsLast) {
 		log.info("TraderSpiImpl :: OnRspQryTradingAccount, nRequestID==[{}], bIsLast==[{}]", nRequestID, bIsLast);
-		if (!hasError("TraderSpi :: OnRspQryTradingAccount", pRspInfo)) {
-			if (pTradingAccount != null)
-				hook.onQryTradingAccount(pTradingAccount, bIsLast);
-			else
-				log.error("TraderSpiImpl :: OnRspQryTradingAccount return null");
-		}
+		if (!hasError("TraderSpi :: OnRspQryTradingAccount", pRspInfo) && pTradingAccount != null)
+			hook.onQryTradingAccount(pTradingAccount, nRequestID, bIsLast);
+		else if (bIsLast)
+			hook.onRspQryEmpty(RspType.FtdcTradingAccount, nRequestID);
+		else
+			log.error("TraderSpiImpl :: OnRspQryTradingAccount return null");
 	}
 
 	@Override
@@ -113,7 +114,9 @@ public final class FtdcTraderSpiImpl extends CThostFtdcTraderSpi {
 		log.info("TraderSpiImpl :: OnRspQryInvestorPosition, nRequestID==[{}], bIsLast==[{}]", nRequestID, bIsLast);
 		hasError("TraderSpi :: OnRspQryInvestorPosition", pRspInfo);
 		if (pInvestorPosition != null) {
-			hook.onRspQryInvestorPosition(pInvestorPosition, bIsLast);
+			hook.onRspQryInvestorPosition(pInvestorPosition, nRequestID, bIsLast);
+		} else if (bIsLast) {
+			hook.onRspQryEmpty(RspType.FtdcInvestorPosition, nRequestID);
 		} else {
 			log.error("TraderSpiImpl :: OnRspQryInvestorPosition return null");
 		}
@@ -174,12 +177,12 @@ public final class FtdcTraderSpiImpl extends CThostFtdcTraderSpi {
 	public void OnRspOrderInsert(CThostFtdcInputOrderField pInputOrder, CThostFtdcRspInfoField pRspInfo, int nRequestID,
 			boolean bIsLast) {
 		log.info("TraderSpiImpl :: OnRspOrderInsert, nRequestID==[{}], bIsLast==[{}]", nRequestID, bIsLast);
-		if (!hasError("SPI :: OnRspOrderInsert", pRspInfo)) {
-			if (pInputOrder != null)
-				hook.onRspOrderInsert(pInputOrder);
-			else
-				log.error("TraderSpiImpl :: OnRspOrderInsert return null");
-		}
+		// 只在出错时回调, 错误信息随报单一起传递
+		hasError("SPI :: OnRspOrderInsert", pRspInfo);
+		if (pInputOrder != null)
+			hook.onRspOrderInsert(pInputOrder, pRspInfo, nRequestID);
+		else
+			log.error("TraderSpiImpl :: OnRspOrderInsert return null");
 	}
 
 	/**
@@ -188,12 +191,12 @@ public final class FtdcTraderSpiImpl extends CThostFtdcTraderSpi {
 	@Override
 	public void OnErrRtnOrderInsert(CThostFtdcInputOrderField pInputOrder, CThostFtdcRspInfoField pRspInfo) {
 		log.info("TraderSpiImpl :: OnErrRtnOrderInsert");
-		if (!hasError("TraderSpi :: OnErrRtnOrderInsert", pRspInfo)) {
-			if (pInputOrder != null)
-				hook.onErrRtnOrderInsert(pInputOrder);
-			else
-				log.error("TraderSpiImpl :: OnErrRtnOrderInsert return null");
-		}
+		// 只在出错时回调, 错误信息随报单一起传递
+		hasError("TraderSpi :: OnErrRtnOrderInsert", pRspInfo);
+		if (pInputOrder != null)
+			hook.onErrRtnOrderInsert(pInputOrder, pRspInfo);
+		else
+			log.error("TraderSpiImpl :: OnErrRtnOrderInsert return null");
 	}
 
 	/**
@@ -203,12 +206,12 @@ public final class FtdcTraderSpiImpl extends CThostFtdcTraderSpi {
 	public void OnRspOrderAction(CThostFtdcInputOrderActionField pInputOrderAction, CThostFtdcRspInfoField pRspInfo,
 			int nRequestID, boolean bIsLast) {
 		log.info("TraderSpiImpl :: OnRspOrderAction, nRequestID==[{}], bIsLast==[{}]", nRequestID, bIsLast);
-		if (!hasError("TraderSpi :: OnRspOrderAction", pRspInfo)) {
-			if (pInputOrderAction != null)
-				hook.onRspOrderAction(pInputOrderAction);
-			else
-				log.error("TraderSpiImpl :: OnRspOrderAction return null");
-		}
+		// 只在出错时回调, 错误信息随报单一起传递
+		hasError("TraderSpi :: OnRspOrderAction", pRspInfo);
+		if (pInputOrderAction != null)
+			hook.onRspOrderAction(pInputOrderAction, pRspInfo, nRequestID);
+		else
+			log.error("TraderSpiImpl :: OnRspOrderAction return null");
 	}
 
 	/**
@@ -217,12 +220,12 @@ public final class FtdcTraderSpiImpl extends CThostFtdcTraderSpi {
 	@Override
 	public void OnErrRtnOrderAction(CThostFtdcOrderActionField pOrderAction, CThostFtdcRspInfoField pRspInfo) {
 		log.info("TraderSpiImpl :: OnErrRtnOrderAction");
-		if (!hasError("TraderSpi :: OnErrRtnOrderAction", pRspInfo)) {
-			if (pOrderAction != null)
-				hook.onErrRtnOrderAction(pOrderAction);
-			else
-				log.error("TraderSpiImpl :: OnErrRtnOrderAction return null");
-		}
+		// 只在出错时回调, 错误信息随报单一起传递
+		hasError("TraderSpi :: OnErrRtnOrderAction", pRspInfo);
+		if (pOrderAction != null)
+			hook.onErrRtnOrderAction(pOrderAction, pRspInfo);
+		else
+			log.error("TraderSpiImpl :: OnErrRtnOrderAction return null");
 	}
 
 	/**
@@ -9,7 +9,18 @@ public final class CThostFtdcDepthMarketDataConverter implements Function<CThost
 
 	@Override
 	public FtdcDepthMarketData apply(CThostFtdcDepthMarketDataField field) {
-		return new FtdcDepthMarketData()
+		return apply(field, new FtdcDepthMarketData());
+	}
+
+	/**
+	 * 将行情写入已有的对象, 用于复用预分配的行情记录
+	 * 
+	 * @param field
+	 * @param target
+	 * @return
+	 */
+	public FtdcDepthMarketData apply(CThostFtdcDepthMarketDataField field, FtdcDepthMarketData target) {
+		return target
 				
 				.setTradingDay(field.getTradingDay())
 				
@@ -0,0 +1,526 @@
+package io.horizon.ftdc.gateway.eventlog;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+
+import io.horizon.ftdc.gateway.msg.rsp.FtdcOrder;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTrade;
+import io.horizon.trader.order.OrderReport;
+import io.horizon.trader.order.attr.OrdStatus;
+import io.horizon.trader.order.attr.TrdAction;
+import io.horizon.trader.order.attr.TrdDirection;
+import io.mercury.common.log.CommonLoggerFactory;
+import io.mercury.common.util.Assertor;
+
+/**
+ * 报单链路事件日志<br>
+ * 报单, 撤单, 订单回报, 成交回报等事件以定长二进制记录写入内存映射文件中的环形缓冲区,
+ * 由后台渲染线程转换为文本日志, 写入线程不格式化字符串, 不分配对象<br>
+ *
+ * 文件头: int magic, int slotSize, int slotCount<br>
+ * 记录: long stamp(序号+1), long epochMillis, byte eventType, 事件字段<br>
+ * 进程中断后可使用FtdcEventLogRenderer离线渲染文件中的记录<br>
+ *
+ * 环形缓冲区写满时新事件改为同步渲染并计数, 不阻塞写入线程, 也不丢失记录<br>
+ * 未attach时事件直接同步渲染为INFO日志, 与原有日志行为一致
+ *
+ * @author yellow013
+ */
+public final class FtdcEventLog implements Closeable {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcEventLog.class);
+
+	static final int Magic = 0x46544556;
+
+	static final int HeaderSize = 12;
+
+	static final int SlotSize = 256;
+
+	// 记录头: long stamp, long epochMillis, byte eventType
+	static final int RecordHeaderSize = 17;
+
+	// 字符串字段最大长度, 超出部分截断
+	static final int MaxStringLength = 31;
+
+	// 事件类型
+	static final byte EventReqOrderInsert = 1;
+	static final byte EventReqOrderAction = 2;
+	static final byte EventInputOrder = 3;
+	static final byte EventRtnOrder = 4;
+	static final byte EventRtnTrade = 5;
+	static final byte EventOrderReport = 6;
+
+	private static volatile FtdcEventLog Current;
+
+	// 未attach时同步渲染使用的缓冲区
+	private static final ThreadLocal<ByteBuffer> DirectSlot = ThreadLocal
+			.withInitial(() -> ByteBuffer.allocate(SlotSize));
+
+	private static final ThreadLocal<StringBuilder> DirectText = ThreadLocal
+			.withInitial(() -> new StringBuilder(SlotSize));
+
+	private final File file;
+
+	private final MappedByteBuffer buffer;
+
+	private final int slotCount;
+
+	private final int mask;
+
+	// 下一个写入序号
+	private final AtomicLong sequence = new AtomicLong();
+
+	// 每个槽位已发布的序号, 写入完成后以lazySet发布
+	private final AtomicLongArray published;
+
+	// 已渲染的序号
+	private volatile long renderedSequence;
+
+	// 缓冲区已满时同步渲染的事件数量
+	private final LongAdder overflowCount = new LongAdder();
+
+	private final Thread renderThread;
+
+	private volatile boolean running = true;
+
+	private FtdcEventLog(File file, int slotCount) throws IOException {
+		this.file = file;
+		this.slotCount = slotCount;
+		this.mask = slotCount - 1;
+		this.published = new AtomicLongArray(slotCount);
+		for (int i = 0; i < slotCount; i++)
+			published.set(i, -1L);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+			this.buffer = channel.map(MapMode.READ_WRITE, 0, HeaderSize + (long) slotCount * SlotSize);
+		}
+		buffer.putInt(0, Magic);
+		buffer.putInt(4, SlotSize);
+		buffer.putInt(8, slotCount);
+		this.renderThread = new Thread(this::renderLoop, "FtdcEventLog-Render");
+		renderThread.setDaemon(true);
+		renderThread.start();
+	}
+
+	/**
+	 * 挂载事件日志文件并启动渲染线程
+	 *
+	 * @param file      事件日志文件, 已有记录时先重命名为[文件名.最后修改时间]
+	 * @param slotCount 环形缓冲区记录数量, 必须为2的幂
+	 * @return
+	 * @throws IOException
+	 */
+	public static synchronized FtdcEventLog attach(@Nonnull File file, int slotCount) throws IOException {
+		Assertor.nonNull(file, "file");
+		if (slotCount < 2 || Integer.bitCount(slotCount) != 1)
+			throw new IllegalArgumentException("slotCount must be a power of 2");
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists() && !parent.mkdirs())
+			throw new IOException("Cannot create directory -> " + parent);
+		if (Current != null)
+			Current.close();
+		rotate(file);
+		Current = new FtdcEventLog(file, slotCount);
+		log.info("FtdcEventLog attach file -> {}, slotCount==[{}]", file.getAbsolutePath(), slotCount);
+		return Current;
+	}
+
+	private static final DateTimeFormatter RotateSuffix = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+	/**
+	 * 文件已有记录时按最后修改时间重命名保留, 不覆盖上次运行的记录
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	private static void rotate(File file) throws IOException {
+		if (!file.exists() || file.length() == 0)
+			return;
+		String suffix = LocalDateTime.ofInstant(Instant.ofEpochMilli(file.lastModified()), ZoneId.systemDefault())
+				.format(RotateSuffix);
+		File rotated = new File(file.getAbsoluteFile().getParentFile(), file.getName() + "." + suffix);
+		for (int i = 1; rotated.exists(); i++)
+			rotated = new File(file.getAbsoluteFile().getParentFile(), file.getName() + "." + suffix + "-" + i);
+		if (!file.renameTo(rotated))
+			throw new IOException("Cannot rotate " + file.getAbsolutePath() + " -> " + rotated.getAbsolutePath());
+		log.info("FtdcEventLog rotate file -> {}", rotated.getAbsolutePath());
+	}
+
+	/**
+	 * 报单请求, 使用发送前的Java侧数值, 不读取CTP请求结构
+	 */
+	public static void reqOrderInsert(int nRequestID, int orderRef, long ordSysId, String instrumentCode,
+			int offerQty, long offerPrice) {
+		final FtdcEventLog eventLog = Current;
+		final long seq = eventLog == null ? -1L : eventLog.claim();
+		final ByteBuffer buf = bufferOf(eventLog, seq);
+		int index = begin(buf, offsetOf(eventLog, seq), EventReqOrderInsert);
+		buf.putInt(index, nRequestID);
+		buf.putInt(index + 4, orderRef);
+		buf.putLong(index + 8, ordSysId);
+		index = putString(buf, index + 16, instrumentCode);
+		buf.putInt(index, offerQty);
+		buf.putLong(index + 4, offerPrice);
+		commit(eventLog, seq);
+	}
+
+	/**
+	 * 撤单请求, 使用发送前的Java侧数值, 不读取CTP请求结构
+	 */
+	public static void reqOrderAction(int nRequestID, int orderRef, int orderActionRef, long ordSysId,
+			String instrumentCode) {
+		final FtdcEventLog eventLog = Current;
+		final long seq = eventLog == null ? -1L : eventLog.claim();
+		final ByteBuffer buf = bufferOf(eventLog, seq);
+		int index = begin(buf, offsetOf(eventLog, seq), EventReqOrderAction);
+		buf.putInt(index, nRequestID);
+		buf.putInt(index + 4, orderRef);
+		buf.putInt(index + 8, orderActionRef);
+		buf.putLong(index + 12, ordSysId);
+		putString(buf, index + 20, instrumentCode);
+		commit(eventLog, seq);
+	}
+
+	/**
+	 * 系统订单转换为CThostFtdcInputOrderField, 其余字段为固定值
+	 */
+	public static void inputOrder(long ordSysId, String exchangeId, String instrumentId, String combOffsetFlag,
+			char direction, double limitPrice, int volumeTotalOriginal) {
+		final FtdcEventLog eventLog = Current;
+		final long seq = eventLog == null ? -1L : eventLog.claim();
+		final ByteBuffer buf = bufferOf(eventLog, seq);
+		int index = begin(buf, offsetOf(eventLog, seq), EventInputOrder);
+		buf.putLong(index, ordSysId);
+		index = putString(buf, index + 8, exchangeId);
+		index = putString(buf, index, instrumentId);
+		index = putString(buf, index, combOffsetFlag);
+		buf.putChar(index, direction);
+		buf.putDouble(index + 2, limitPrice);
+		buf.putInt(index + 10, volumeTotalOriginal);
+		commit(eventLog, seq);
+	}
+
+	/**
+	 * 报单回报
+	 */
+	public static void rtnOrder(@Nonnull FtdcOrder ftdcOrder) {
+		final FtdcEventLog eventLog = Current;
+		final long seq = eventLog == null ? -1L : eventLog.claim();
+		final ByteBuffer buf = bufferOf(eventLog, seq);
+		int index = begin(buf, offsetOf(eventLog, seq), EventRtnOrder);
+		index = putString(buf, index, ftdcOrder.getInstrumentID());
+		index = putString(buf, index, ftdcOrder.getInvestorID());
+		index = putString(buf, index, ftdcOrder.getOrderRef());
+		index = putString(buf, index, ftdcOrder.getOrderSysID());
+		buf.putDouble(index, ftdcOrder.getLimitPrice());
+		buf.putInt(index + 8, ftdcOrder.getVolumeTotalOriginal());
+		buf.putInt(index + 12, ftdcOrder.getVolumeTraded());
+		buf.putChar(index + 16, ftdcOrder.getOrderStatus());
+		commit(eventLog, seq);
+	}
+
+	/**
+	 * 成交回报
+	 */
+	public static void rtnTrade(@Nonnull FtdcTrade ftdcTrade) {
+		final FtdcEventLog eventLog = Current;
+		final long seq = eventLog == null ? -1L : eventLog.claim();
+		final ByteBuffer buf = bufferOf(eventLog, seq);
+		int index = begin(buf, offsetOf(eventLog, seq), EventRtnTrade);
+		index = putString(buf, index, ftdcTrade.getInstrumentID());
+		index = putString(buf, index, ftdcTrade.getInvestorID());
+		index = putString(buf, index, ftdcTrade.getOrderRef());
+		index = putString(buf, index, ftdcTrade.getTradeID());
+		buf.putDouble(index, ftdcTrade.getPrice());
+		buf.putInt(index + 8, ftdcTrade.getVolume());
+		buf.putChar(index + 12, ftdcTrade.getDirection());
+		buf.putChar(index + 14, ftdcTrade.getOffsetFlag());
+		commit(eventLog, seq);
+	}
+
+	/**
+	 * 回报转换结果
+	 */
+	public static void orderReport(@Nonnull OrderReport report) {
+		final FtdcEventLog eventLog = Current;
+		final long seq = eventLog == null ? -1L : eventLog.claim();
+		final ByteBuffer buf = bufferOf(eventLog, seq);
+		int index = begin(buf, offsetOf(eventLog, seq), EventOrderReport);
+		buf.putLong(index, report.getOrdSysId());
+		index = putString(buf, index + 8, report.getOrderRef());
+		index = putString(buf, index,
+				report.getInstrument() == null ? null : report.getInstrument().getInstrumentCode());
+		buf.put(index, ordinalOf(report.getOrdStatus()));
+		buf.put(index + 1, ordinalOf(report.getDirection()));
+		buf.put(index + 2, ordinalOf(report.getAction()));
+		buf.putInt(index + 3, report.getOfferQty());
+		buf.putInt(index + 7, report.getFilledQty());
+		buf.putLong(index + 11, report.getOfferPrice());
+		buf.putLong(index + 19, report.getTradePrice());
+		commit(eventLog, seq);
+	}
+
+	private static byte ordinalOf(Enum<?> e) {
+		return e == null ? -1 : (byte) e.ordinal();
+	}
+
+	/**
+	 * 申请写入序号, 已关闭或缓冲区已满时返回-1
+	 */
+	private long claim() {
+		long seq;
+		do {
+			if (!running)
+				return -1L;
+			seq = sequence.get();
+			if (seq - renderedSequence >= slotCount) {
+				overflowCount.increment();
+				return -1L;
+			}
+		} while (!sequence.compareAndSet(seq, seq + 1));
+		return seq;
+	}
+
+	private static ByteBuffer bufferOf(FtdcEventLog eventLog, long seq) {
+		return seq < 0 ? DirectSlot.get() : eventLog.buffer;
+	}
+
+	private static int offsetOf(FtdcEventLog eventLog, long seq) {
+		return seq < 0 ? 0 : HeaderSize + (int) (seq & eventLog.mask) * SlotSize;
+	}
+
+	private static int begin(ByteBuffer buf, int offset, byte eventType) {
+		buf.putLong(offset + 8, System.currentTimeMillis());
+		buf.put(offset + 16, eventType);
+		return offset + RecordHeaderSize;
+	}
+
+	private static void commit(FtdcEventLog eventLog, long seq) {
+		if (seq < 0) {
+			// 未attach或缓冲区已满时同步渲染
+			StringBuilder text = DirectText.get();
+			text.setLength(0);
+			render(DirectSlot.get(), 0, text);
+			log.info("{}", text);
+			return;
+		}
+		int slot = (int) (seq & eventLog.mask);
+		eventLog.buffer.putLong(HeaderSize + slot * SlotSize, seq + 1);
+		eventLog.published.lazySet(slot, seq);
+	}
+
+	/**
+	 * 写入长度前缀的ASCII字符串
+	 */
+	private static int putString(ByteBuffer buf, int index, CharSequence str) {
+		if (str == null) {
+			buf.put(index, (byte) -1);
+			return index + 1;
+		}
+		int len = Math.min(str.length(), MaxStringLength);
+		buf.put(index, (byte) len);
+		for (int i = 0; i < len; i++)
+			buf.put(index + 1 + i, (byte) str.charAt(i));
+		return index + 1 + len;
+	}
+
+	private static int getString(ByteBuffer buf, int index, StringBuilder text) {
+		byte len = buf.get(index);
+		if (len < 0) {
+			text.append("null");
+			return index + 1;
+		}
+		for (int i = 0; i < len; i++)
+			text.append((char) buf.get(index + 1 + i));
+		return index + 1 + len;
+	}
+
+	/**
+	 * 渲染一条记录, 与原有日志的内容一致
+	 *
+	 * @param buf
+	 * @param offset 记录起始位置
+	 * @param text
+	 */
+	static void render(ByteBuffer buf, int offset, StringBuilder text) {
+		text.append("epochMillis==[").append(buf.getLong(offset + 8)).append("] ");
+		int index = offset + RecordHeaderSize;
+		switch (buf.get(offset + 16)) {
+		case EventReqOrderInsert:
+			text.append("Send ReqOrderInsert OK -> nRequestID==[").append(buf.getInt(index));
+			text.append("], OrderRef==[").append(buf.getInt(index + 4));
+			text.append("], ordSysId==[").append(buf.getLong(index + 8));
+			text.append("], instrumentCode==[");
+			index = getString(buf, index + 16, text);
+			text.append("], offerQty==[").append(buf.getInt(index));
+			text.append("], offerPrice==[").append(buf.getLong(index + 4)).append(']');
+			break;
+		case EventReqOrderAction:
+			text.append("Send ReqOrderAction OK -> nRequestID==[").append(buf.getInt(index));
+			text.append("], OrderRef==[").append(buf.getInt(index + 4));
+			text.append("], OrderActionRef==[").append(buf.getInt(index + 8));
+			text.append("], ordSysId==[").append(buf.getLong(index + 12));
+			text.append("], instrumentCode==[");
+			getString(buf, index + 20, text);
+			text.append(']');
+			break;
+		case EventInputOrder:
+			text.append("Set CThostFtdcInputOrderField -> ordSysId==[").append(buf.getLong(index));
+			text.append("], ExchangeID==[");
+			index = getString(buf, index + 8, text);
+			text.append("], InstrumentID==[");
+			index = getString(buf, index, text);
+			text.append("], OrderPriceType==[LimitPrice], CombOffsetFlag==[");
+			index = getString(buf, index, text);
+			text.append("], CombHedgeFlag==[Speculation], Direction==[").append(buf.getChar(index));
+			text.append("], LimitPrice==[").append(buf.getDouble(index + 2));
+			text.append("], VolumeTotalOriginal==[").append(buf.getInt(index + 10));
+			text.append("], TimeCondition==[GFD], VolumeCondition==[AV], MinVolume==[1], "
+					+ "ContingentCondition==[Immediately], StopPrice==[0.0], ForceCloseReason==[NotForceClose], "
+					+ "IsAutoSuspend==[0]");
+			break;
+		case EventRtnOrder:
+			text.append("Buffer Queue in FtdcOrder, InstrumentID==[");
+			index = getString(buf, index, text);
+			text.append("], InvestorID==[");
+			index = getString(buf, index, text);
+			text.append("], OrderRef==[");
+			index = getString(buf, index, text);
+			text.append("], OrderSysID==[");
+			index = getString(buf, index, text);
+			text.append("], LimitPrice==[").append(buf.getDouble(index));
+			text.append("], VolumeTotalOriginal==[").append(buf.getInt(index + 8));
+			text.append("], VolumeTraded==[").append(buf.getInt(index + 12));
+			text.append("], OrderStatus==[").append(buf.getChar(index + 16)).append(']');
+			break;
+		case EventRtnTrade:
+			text.append("Buffer Queue in FtdcTrade, InstrumentID==[");
+			index = getString(buf, index, text);
+			text.append("], InvestorID==[");
+			index = getString(buf, index, text);
+			text.append("], OrderRef==[");
+			index = getString(buf, index, text);
+			text.append("], TradeID==[");
+			index = getString(buf, index, text);
+			text.append("], Price==[").append(buf.getDouble(index));
+			text.append("], Volume==[").append(buf.getInt(index + 8));
+			text.append("], Direction==[").append(buf.getChar(index + 12));
+			text.append("], OffsetFlag==[").append(buf.getChar(index + 14)).append(']');
+			break;
+		case EventOrderReport:
+			text.append("Conversion function return OrderReport -> ordSysId==[").append(buf.getLong(index));
+			text.append("], orderRef==[");
+			index = getString(buf, index + 8, text);
+			text.append("], instrumentCode==[");
+			index = getString(buf, index, text);
+			text.append("], ordStatus==[").append(nameOf(OrdStatusNames, buf.get(index)));
+			text.append("], direction==[").append(nameOf(DirectionNames, buf.get(index + 1)));
+			text.append("], action==[").append(nameOf(ActionNames, buf.get(index + 2)));
+			text.append("], offerQty==[").append(buf.getInt(index + 3));
+			text.append("], filledQty==[").append(buf.getInt(index + 7));
+			text.append("], offerPrice==[").append(buf.getLong(index + 11));
+			text.append("], tradePrice==[").append(buf.getLong(index + 19)).append(']');
+			break;
+		default:
+			text.append("Unknown event type -> ").append(buf.get(offset + 16));
+			break;
+		}
+	}
+
+	private static final String[] OrdStatusNames = names(OrdStatus.values());
+
+	private static final String[] DirectionNames = names(TrdDirection.values());
+
+	private static final String[] ActionNames = names(TrdAction.values());
+
+	private static String[] names(Enum<?>[] values) {
+		String[] names = new String[values.length];
+		for (int i = 0; i < values.length; i++)
+			names[i] = values[i].name();
+		return names;
+	}
+
+	private static String nameOf(String[] names, byte ordinal) {
+		return ordinal < 0 || ordinal >= names.length ? "null" : names[ordinal];
+	}
+
+	private void renderLoop() {
+		final StringBuilder text = new StringBuilder(SlotSize);
+		long next = 0L;
+		long reportedOverflow = 0L;
+		while (true) {
+			int slot = (int) (next & mask);
+			if (published.get(slot) == next) {
+				text.setLength(0);
+				text.append("seq==[").append(next).append("] ");
+				render(buffer, HeaderSize + slot * SlotSize, text);
+				log.info("{}", text);
+				renderedSequence = ++next;
+				continue;
+			}
+			long overflow = overflowCount.sum();
+			if (overflow != reportedOverflow) {
+				log.warn("FtdcEventLog ring buffer full, synchronously rendered==[{}]", overflow);
+				reportedOverflow = overflow;
+			}
+			// 已停止且全部渲染完成后退出
+			if (!running && next == sequence.get())
+				break;
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * 缓冲区已满时同步渲染的事件数量
+	 *
+	 * @return
+	 */
+	public long getOverflowCount() {
+		return overflowCount.sum();
+	}
+
+	/**
+	 * 停止写入, 等待渲染线程输出剩余记录
+	 */
+	@Override
+	public void close() {
+		synchronized (FtdcEventLog.class) {
+			if (Current == this)
+				Current = null;
+		}
+		if (!running)
+			return;
+		running = false;
+		try {
+			renderThread.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		buffer.force();
+		log.info("FtdcEventLog closed, file -> {}, events==[{}], overflow==[{}]", file.getAbsolutePath(),
+				sequence.get(), overflowCount.sum());
+	}
+
+}
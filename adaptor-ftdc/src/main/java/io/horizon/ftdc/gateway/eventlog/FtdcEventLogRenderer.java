@@ -0,0 +1,74 @@
+package io.horizon.ftdc.gateway.eventlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 离线渲染FtdcEventLog文件<br>
+ * 按序号顺序输出文件中全部有效记录, 用于进程中断后查看渲染线程尚未输出的事件
+ *
+ * @author yellow013
+ */
+public final class FtdcEventLogRenderer {
+
+	private FtdcEventLogRenderer() {
+	}
+
+	/**
+	 * 渲染文件中的全部记录
+	 *
+	 * @param file
+	 * @param consumer 每条记录的文本
+	 * @return 记录数量
+	 * @throws IOException
+	 */
+	public static int render(@Nonnull File file, @Nonnull Consumer<String> consumer) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.capacity() < FtdcEventLog.HeaderSize || buffer.getInt(0) != FtdcEventLog.Magic)
+				throw new IOException("Not a FtdcEventLog file -> " + file);
+			int slotSize = buffer.getInt(4);
+			int slotCount = buffer.getInt(8);
+			// 收集有效记录的序号和位置, 按序号排序
+			long[] entries = new long[slotCount];
+			int count = 0;
+			for (int slot = 0; slot < slotCount; slot++) {
+				int offset = FtdcEventLog.HeaderSize + slot * slotSize;
+				long stamp = buffer.getLong(offset);
+				if (stamp > 0)
+					// 环形缓冲区中的序号都在slotCount范围内, 高位存放序号, 低位存放槽位
+					entries[count++] = ((stamp - 1) << 32) | slot;
+			}
+			Arrays.sort(entries, 0, count);
+			StringBuilder text = new StringBuilder(slotSize);
+			for (int i = 0; i < count; i++) {
+				int slot = (int) entries[i];
+				text.setLength(0);
+				text.append("seq==[").append(entries[i] >>> 32).append("] ");
+				FtdcEventLog.render(buffer, FtdcEventLog.HeaderSize + slot * slotSize, text);
+				consumer.accept(text.toString());
+			}
+			return count;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: FtdcEventLogRenderer <event log file>");
+			System.exit(1);
+		}
+		PrintStream out = System.out;
+		int count = render(new File(args[0]), out::println);
+		out.println("Rendered records -> " + count);
+	}
+
+}
@@ -0,0 +1,107 @@
+package io.horizon.ftdc.gateway.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+
+import io.horizon.ftdc.gateway.FtdcRspPublisher;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsgCodec;
+import io.mercury.common.log.CommonLoggerFactory;
+import io.mercury.common.util.Assertor;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptAppender;
+
+/**
+ * 记录回调消息的FtdcRspPublisher装饰器<br>
+ * 在CTP回调线程中将每条FtdcRspMsg以FtdcRspMsgCodec编码后追加到Chronicle Queue, 再交给下游发布<br>
+ * 每条记录为 [long epochMillis][编码后的消息], 回放时可按原始时间间隔重放<br>
+ * 写入失败只记录错误并计数, 不影响消息发布
+ * 
+ * @author yellow013
+ */
+public final class FtdcJournalPublisher implements FtdcRspPublisher, Closeable {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcJournalPublisher.class);
+
+	// 单条消息编码缓冲区大小
+	static final int MaxRecordSize = 8192;
+
+	private final ChronicleQueue queue;
+
+	private final FtdcRspPublisher delegate;
+
+	// 每个回调线程使用独立的编码缓冲区
+	private final ThreadLocal<ByteBuffer> encodeBuffer = ThreadLocal
+			.withInitial(() -> ByteBuffer.allocate(MaxRecordSize));
+
+	private final LongAdder journaledCount = new LongAdder();
+
+	private final LongAdder failureCount = new LongAdder();
+
+	/**
+	 * 
+	 * @param journalDir Chronicle Queue目录
+	 * @param delegate   下游发布者
+	 */
+	public FtdcJournalPublisher(@Nonnull File journalDir, @Nonnull FtdcRspPublisher delegate) {
+		Assertor.nonNull(journalDir, "journalDir");
+		Assertor.nonNull(delegate, "delegate");
+		this.queue = ChronicleQueue.singleBuilder(journalDir).build();
+		this.delegate = delegate;
+		log.info("FtdcJournalPublisher journal dir -> {}", journalDir.getAbsolutePath());
+	}
+
+	@Override
+	public void publish(FtdcRspMsg msg) {
+		journal(msg);
+		delegate.publish(msg);
+	}
+
+	private void journal(FtdcRspMsg msg) {
+		try {
+			ByteBuffer buffer = encodeBuffer.get();
+			buffer.clear();
+			buffer.putLong(System.currentTimeMillis());
+			FtdcRspMsgCodec.encode(msg, buffer);
+			final int length = buffer.position();
+			final byte[] array = buffer.array();
+			// acquireAppender返回当前线程的appender
+			ExcerptAppender appender = queue.acquireAppender();
+			appender.writeBytes(bytes -> bytes.write(array, 0, length));
+			journaledCount.increment();
+		} catch (Exception e) {
+			failureCount.increment();
+			log.error("FtdcJournalPublisher journal [{}] exception -> {}", msg.getRspType(), e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 已记录的消息数量
+	 * 
+	 * @return
+	 */
+	public long getJournaledCount() {
+		return journaledCount.sum();
+	}
+
+	/**
+	 * 记录失败的消息数量
+	 * 
+	 * @return
+	 */
+	public long getFailureCount() {
+		return failureCount.sum();
+	}
+
+	@Override
+	public void close() {
+		queue.close();
+	}
+
+}
@@ -0,0 +1,92 @@
+package io.horizon.ftdc.gateway.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsgCodec;
+import io.mercury.common.log.CommonLoggerFactory;
+import io.mercury.common.util.Assertor;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptTailer;
+
+/**
+ * 回放FtdcJournalPublisher记录的回调消息<br>
+ * speed为回放倍速, 例如10表示按原始时间间隔的1/10回放, 小于等于0时不等待, 以最快速度回放
+ * 
+ * @author yellow013
+ */
+public final class FtdcJournalReplayer implements Closeable {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcJournalReplayer.class);
+
+	private final ChronicleQueue queue;
+
+	private final ByteBuffer decodeBuffer = ByteBuffer.allocate(FtdcJournalPublisher.MaxRecordSize);
+
+	/**
+	 * 
+	 * @param journalDir Chronicle Queue目录
+	 */
+	public FtdcJournalReplayer(@Nonnull File journalDir) {
+		Assertor.nonNull(journalDir, "journalDir");
+		this.queue = ChronicleQueue.singleBuilder(journalDir).readOnly(true).build();
+	}
+
+	/**
+	 * 从头回放全部记录
+	 * 
+	 * @param processor 消息处理函数, 通常为FtdcAdaptor的回调消息处理函数
+	 * @param speed     回放倍速
+	 * @return 回放的消息数量
+	 * @throws IllegalStateException 记录不是当前FtdcRspMsgCodec版本编码
+	 */
+	public long replay(@Nonnull Consumer<FtdcRspMsg> processor, double speed) {
+		Assertor.nonNull(processor, "processor");
+		final ExcerptTailer tailer = queue.createTailer().toStart();
+		long firstMillis = -1L;
+		final long startNanos = System.nanoTime();
+		long count = 0L;
+		for (;;) {
+			decodeBuffer.clear();
+			boolean isRead = tailer.readBytes(bytes -> {
+				int length = (int) Math.min(bytes.readRemaining(), decodeBuffer.capacity());
+				bytes.read(decodeBuffer.array(), 0, length);
+				decodeBuffer.limit(length);
+			});
+			if (!isRead)
+				break;
+			long epochMillis = decodeBuffer.getLong();
+			FtdcRspMsg msg = FtdcRspMsgCodec.decode(decodeBuffer);
+			if (speed > 0) {
+				if (firstMillis < 0)
+					firstMillis = epochMillis;
+				// 按倍速等待到记录的相对时间
+				long targetNanos = startNanos
+						+ (long) (TimeUnit.MILLISECONDS.toNanos(epochMillis - firstMillis) / speed);
+				long waitNanos = targetNanos - System.nanoTime();
+				if (waitNanos > 0)
+					LockSupport.parkNanos(waitNanos);
+			}
+			processor.accept(msg);
+			count++;
+		}
+		log.info("FtdcJournalReplayer replay finished, count==[{}], elapsed millis==[{}]", count,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+		return count;
+	}
+
+	@Override
+	public void close() {
+		queue.close();
+	}
+
+}
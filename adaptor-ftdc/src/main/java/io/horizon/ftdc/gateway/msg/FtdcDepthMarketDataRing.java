@@ -0,0 +1,49 @@
+package io.horizon.ftdc.gateway.msg;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import io.horizon.ftdc.gateway.msg.rsp.FtdcDepthMarketData;
+
+/**
+ * 预分配的行情消息环, 由行情回调线程单线程写入<br>
+ * 环的大小必须大于回调消息队列容量与消费线程正在处理的消息数之和, 否则会覆盖尚未处理的行情
+ * 
+ * @author yellow013
+ */
+@NotThreadSafe
+public final class FtdcDepthMarketDataRing {
+
+	private final FtdcRspMsg[] slots;
+
+	private final int mask;
+
+	private long sequence;
+
+	/**
+	 * 
+	 * @param minSize 最小容量, 实际容量为不小于minSize的2的幂
+	 */
+	public FtdcDepthMarketDataRing(int minSize) {
+		int size = 2;
+		while (size < minSize)
+			size <<= 1;
+		this.slots = new FtdcRspMsg[size];
+		this.mask = size - 1;
+		for (int i = 0; i < size; i++)
+			slots[i] = new FtdcRspMsg(new FtdcDepthMarketData());
+	}
+
+	/**
+	 * 获取下一个可写入的消息
+	 * 
+	 * @return
+	 */
+	public FtdcRspMsg next() {
+		return slots[(int) (sequence++ & mask)];
+	}
+
+	public int size() {
+		return slots.length;
+	}
+
+}
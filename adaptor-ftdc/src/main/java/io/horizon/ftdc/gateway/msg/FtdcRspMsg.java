@@ -9,6 +9,8 @@ import io.horizon.ftdc.gateway.msg.rsp.FtdcOrder;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcOrderAction;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcTrade;
 import io.horizon.ftdc.gateway.msg.rsp.FtdcTraderConnect;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTradingAccount;
+import io.horizon.market.data.impl.BasicMarketData;
 import lombok.Getter;
 
 @Getter
@@ -25,6 +27,9 @@ public final class FtdcRspMsg {
 	// 返回行情
 	private FtdcDepthMarketData ftdcDepthMarketData;
 
+	// 回调线程中已转换完成的行情
+	private BasicMarketData marketData;
+
 	// 返回持仓
 	private FtdcInvestorPosition ftdcInvestorPosition;
 
@@ -43,9 +48,18 @@ public final class FtdcRspMsg {
 	// 返回撤单错误
 	private FtdcOrderAction ftdcOrderAction;
 
+	// 返回资金账户
+	private FtdcTradingAccount ftdcTradingAccount;
+
 	// 是否最后一条
 	private boolean isLast = true;
 
+	// 查询请求ID, 推送消息为0
+	private int requestId;
+
+	// 回调线程发布消息时的System.nanoTime(), 未启用延迟统计时为0
+	private long spiNanos;
+
 	public FtdcRspMsg(FtdcTraderConnect ftdcTraderConnect) {
 		this.rspType = RspType.FtdcTraderConnect;
 		this.ftdcTraderConnect = ftdcTraderConnect;
@@ -61,6 +75,11 @@ public final class FtdcRspMsg {
 		this.ftdcDepthMarketData = ftdcDepthMarketData;
 	}
 
+	public FtdcRspMsg(BasicMarketData marketData) {
+		this.rspType = RspType.MarketData;
+		this.marketData = marketData;
+	}
+
 	public FtdcRspMsg(FtdcInvestorPosition ftdcInvestorPosition, boolean isLast) {
 		this.rspType = RspType.FtdcInvestorPosition;
 		this.ftdcInvestorPosition = ftdcInvestorPosition;
@@ -93,9 +112,68 @@ public final class FtdcRspMsg {
 		this.ftdcOrderAction = ftdcOrderAction;
 	}
 
+	public FtdcRspMsg(FtdcTradingAccount ftdcTradingAccount, boolean isLast) {
+		this.rspType = RspType.FtdcTradingAccount;
+		this.ftdcTradingAccount = ftdcTradingAccount;
+		this.isLast = isLast;
+	}
+
+	private FtdcRspMsg(RspType rspType) {
+		this.rspType = rspType;
+	}
+
+	/**
+	 * 没有返回数据或返回错误的查询, 只携带请求ID和isLast
+	 * 
+	 * @param rspType
+	 * @param requestId
+	 * @return
+	 */
+	public static FtdcRspMsg emptyOf(RspType rspType, int requestId) {
+		return new FtdcRspMsg(rspType).setRequestId(requestId);
+	}
+
+	/**
+	 * 
+	 * @param requestId
+	 * @return
+	 */
+	public FtdcRspMsg setRequestId(int requestId) {
+		this.requestId = requestId;
+		return this;
+	}
+
+	/**
+	 * 
+	 * @param spiNanos
+	 * @return
+	 */
+	public FtdcRspMsg setSpiNanos(long spiNanos) {
+		this.spiNanos = spiNanos;
+		return this;
+	}
+
+	/**
+	 * 是否为不携带数据的查询结果
+	 * 
+	 * @return
+	 */
+	public boolean isEmpty() {
+		switch (rspType) {
+		case FtdcInvestorPosition:
+			return ftdcInvestorPosition == null;
+		case FtdcOrder:
+			return ftdcOrder == null;
+		case FtdcTradingAccount:
+			return ftdcTradingAccount == null;
+		default:
+			return false;
+		}
+	}
+
 	public static enum RspType {
-		FtdcDepthMarketData, FtdcTraderConnect, FtdcMdConnect, FtdcInvestorPosition, FtdcOrder, FtdcTrade,
-		FtdcInputOrder, FtdcInputOrderAction, FtdcOrderAction, Other;
+		FtdcDepthMarketData, MarketData, FtdcTraderConnect, FtdcMdConnect, FtdcInvestorPosition, FtdcOrder, FtdcTrade,
+		FtdcInputOrder, FtdcInputOrderAction, FtdcOrderAction, FtdcTradingAccount, Other;
 	}
 
 }
@@ -0,0 +1,998 @@
+package io.horizon.ftdc.gateway.msg;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnull;
+
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg.RspType;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcDepthMarketData;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInputOrder;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInputOrderAction;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInvestorPosition;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcMdConnect;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcOrder;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcOrderAction;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTrade;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTraderConnect;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTradingAccount;
+import io.horizon.market.data.impl.BasicMarketData;
+import io.horizon.market.instrument.Instrument;
+import io.horizon.market.instrument.InstrumentKeeper;
+
+/**
+ * FtdcRspMsg二进制编解码<br>
+ * 消息头为Magic, Version, 类型, isLast, requestId和是否有消息体<br>
+ * 消息体由每个类型的编解码函数按字段声明顺序逐个写入, 不使用反射和装箱<br>
+ * BasicMarketData写入instrumentId, 解码时通过InstrumentKeeper还原Instrument<br>
+ * 
+ * 消息字段增删或调整顺序时, 必须同步修改对应的编解码函数并递增Version,
+ * 旧版本的记录在解码时直接报错, 不会按新字段错位读取
+ * 
+ * @author yellow013
+ */
+public final class FtdcRspMsgCodec {
+
+	private FtdcRspMsgCodec() {
+	}
+
+	// 不会与旧格式首字节(RspType序号)冲突
+	public static final byte Magic = (byte) 0xFD;
+
+	public static final byte Version = 2;
+
+	/**
+	 * 
+	 * @param rspMsg
+	 * @param buffer
+	 * @throws java.nio.BufferOverflowException 缓冲区空间不足
+	 */
+	public static void encode(@Nonnull FtdcRspMsg rspMsg, @Nonnull ByteBuffer buffer) {
+		buffer.put(Magic);
+		buffer.put(Version);
+		buffer.put((byte) rspMsg.getRspType().ordinal());
+		buffer.put(rspMsg.isLast() ? (byte) 1 : (byte) 0);
+		buffer.putInt(rspMsg.getRequestId());
+		switch (rspMsg.getRspType()) {
+		case FtdcTraderConnect:
+			if (hasPayload(rspMsg.getFtdcTraderConnect(), buffer))
+				encodeTraderConnect(rspMsg.getFtdcTraderConnect(), buffer);
+			break;
+		case FtdcMdConnect:
+			if (hasPayload(rspMsg.getFtdcMdConnect(), buffer))
+				encodeMdConnect(rspMsg.getFtdcMdConnect(), buffer);
+			break;
+		case FtdcDepthMarketData:
+			if (hasPayload(rspMsg.getFtdcDepthMarketData(), buffer))
+				encodeDepthMarketData(rspMsg.getFtdcDepthMarketData(), buffer);
+			break;
+		case MarketData:
+			if (hasPayload(rspMsg.getMarketData(), buffer))
+				encodeMarketData(rspMsg.getMarketData(), buffer);
+			break;
+		case FtdcInvestorPosition:
+			if (hasPayload(rspMsg.getFtdcInvestorPosition(), buffer))
+				encodeInvestorPosition(rspMsg.getFtdcInvestorPosition(), buffer);
+			break;
+		case FtdcOrder:
+			if (hasPayload(rspMsg.getFtdcOrder(), buffer))
+				encodeOrder(rspMsg.getFtdcOrder(), buffer);
+			break;
+		case FtdcTrade:
+			if (hasPayload(rspMsg.getFtdcTrade(), buffer))
+				encodeTrade(rspMsg.getFtdcTrade(), buffer);
+			break;
+		case FtdcInputOrder:
+			if (hasPayload(rspMsg.getFtdcInputOrder(), buffer))
+				encodeInputOrder(rspMsg.getFtdcInputOrder(), buffer);
+			break;
+		case FtdcInputOrderAction:
+			if (hasPayload(rspMsg.getFtdcInputOrderAction(), buffer))
+				encodeInputOrderAction(rspMsg.getFtdcInputOrderAction(), buffer);
+			break;
+		case FtdcOrderAction:
+			if (hasPayload(rspMsg.getFtdcOrderAction(), buffer))
+				encodeOrderAction(rspMsg.getFtdcOrderAction(), buffer);
+			break;
+		case FtdcTradingAccount:
+			if (hasPayload(rspMsg.getFtdcTradingAccount(), buffer))
+				encodeTradingAccount(rspMsg.getFtdcTradingAccount(), buffer);
+			break;
+		default:
+			throw new IllegalStateException("Unsupported RspType -> " + rspMsg.getRspType());
+		}
+	}
+
+	private static boolean hasPayload(Object payload, ByteBuffer buffer) {
+		buffer.put(payload == null ? (byte) 0 : (byte) 1);
+		return payload != null;
+	}
+
+	/**
+	 * 
+	 * @param buffer
+	 * @return
+	 * @throws IllegalStateException 记录不是当前版本编码
+	 */
+	public static FtdcRspMsg decode(@Nonnull ByteBuffer buffer) {
+		byte magic = buffer.get();
+		byte version = buffer.get();
+		if (magic != Magic || version != Version)
+			throw new IllegalStateException("Unsupported FtdcRspMsgCodec version, magic==[" + magic + "], version==["
+					+ version + "], current version==[" + Version + "]");
+		RspType rspType = RspType.values()[buffer.get()];
+		boolean isLast = buffer.get() == 1;
+		int requestId = buffer.getInt();
+		if (buffer.get() == 0)
+			return FtdcRspMsg.emptyOf(rspType, requestId);
+		return decodePayload(rspType, isLast, buffer).setRequestId(requestId);
+	}
+
+	private static FtdcRspMsg decodePayload(RspType rspType, boolean isLast, ByteBuffer buffer) {
+		switch (rspType) {
+		case FtdcTraderConnect:
+			return new FtdcRspMsg(decodeTraderConnect(buffer));
+		case FtdcMdConnect:
+			return new FtdcRspMsg(decodeMdConnect(buffer));
+		case FtdcDepthMarketData:
+			return new FtdcRspMsg(decodeDepthMarketData(buffer));
+		case MarketData:
+			return new FtdcRspMsg(decodeMarketData(buffer));
+		case FtdcInvestorPosition:
+			return new FtdcRspMsg(decodeInvestorPosition(buffer), isLast);
+		case FtdcOrder:
+			return new FtdcRspMsg(decodeOrder(buffer), isLast);
+		case FtdcTrade:
+			return new FtdcRspMsg(decodeTrade(buffer));
+		case FtdcInputOrder:
+			return new FtdcRspMsg(decodeInputOrder(buffer));
+		case FtdcInputOrderAction:
+			return new FtdcRspMsg(decodeInputOrderAction(buffer));
+		case FtdcOrderAction:
+			return new FtdcRspMsg(decodeOrderAction(buffer));
+		case FtdcTradingAccount:
+			return new FtdcRspMsg(decodeTradingAccount(buffer), isLast);
+		default:
+			throw new IllegalStateException("Unsupported RspType -> " + rspType);
+		}
+	}
+
+	private static void putString(ByteBuffer buffer, String value) {
+		if (value == null) {
+			buffer.putShort((short) -1);
+		} else {
+			byte[] bytes = value.getBytes(UTF_8);
+			buffer.putShort((short) bytes.length);
+			buffer.put(bytes);
+		}
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		short length = buffer.getShort();
+		if (length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	private static void encodeMarketData(BasicMarketData marketData, ByteBuffer buffer) {
+		buffer.putInt(marketData.getInstrumentId());
+		buffer.putLong(marketData.getEpochMillis());
+		buffer.putLong(marketData.getLastPrice());
+		buffer.putInt(marketData.getVolume());
+		buffer.putLong(marketData.getTurnover());
+		buffer.putLong(marketData.getBidPrice1());
+		buffer.putInt(marketData.getBidVolume1());
+		buffer.putLong(marketData.getBidPrice2());
+		buffer.putInt(marketData.getBidVolume2());
+		buffer.putLong(marketData.getBidPrice3());
+		buffer.putInt(marketData.getBidVolume3());
+		buffer.putLong(marketData.getBidPrice4());
+		buffer.putInt(marketData.getBidVolume4());
+		buffer.putLong(marketData.getBidPrice5());
+		buffer.putInt(marketData.getBidVolume5());
+		buffer.putLong(marketData.getBidPrice6());
+		buffer.putInt(marketData.getBidVolume6());
+		buffer.putLong(marketData.getBidPrice7());
+		buffer.putInt(marketData.getBidVolume7());
+		buffer.putLong(marketData.getBidPrice8());
+		buffer.putInt(marketData.getBidVolume8());
+		buffer.putLong(marketData.getBidPrice9());
+		buffer.putInt(marketData.getBidVolume9());
+		buffer.putLong(marketData.getBidPrice10());
+		buffer.putInt(marketData.getBidVolume10());
+		buffer.putLong(marketData.getAskPrice1());
+		buffer.putInt(marketData.getAskVolume1());
+		buffer.putLong(marketData.getAskPrice2());
+		buffer.putInt(marketData.getAskVolume2());
+		buffer.putLong(marketData.getAskPrice3());
+		buffer.putInt(marketData.getAskVolume3());
+		buffer.putLong(marketData.getAskPrice4());
+		buffer.putInt(marketData.getAskVolume4());
+		buffer.putLong(marketData.getAskPrice5());
+		buffer.putInt(marketData.getAskVolume5());
+		buffer.putLong(marketData.getAskPrice6());
+		buffer.putInt(marketData.getAskVolume6());
+		buffer.putLong(marketData.getAskPrice7());
+		buffer.putInt(marketData.getAskVolume7());
+		buffer.putLong(marketData.getAskPrice8());
+		buffer.putInt(marketData.getAskVolume8());
+		buffer.putLong(marketData.getAskPrice9());
+		buffer.putInt(marketData.getAskVolume9());
+		buffer.putLong(marketData.getAskPrice10());
+		buffer.putInt(marketData.getAskVolume10());
+	}
+
+	private static BasicMarketData decodeMarketData(ByteBuffer buffer) {
+		Instrument instrument = InstrumentKeeper.getInstrument(buffer.getInt());
+		BasicMarketData marketData = new BasicMarketData(instrument, buffer.getLong());
+		marketData.setLastPrice(buffer.getLong());
+		marketData.setVolume(buffer.getInt());
+		marketData.setTurnover(buffer.getLong());
+		marketData.setBidPrice1(buffer.getLong());
+		marketData.setBidVolume1(buffer.getInt());
+		marketData.setBidPrice2(buffer.getLong());
+		marketData.setBidVolume2(buffer.getInt());
+		marketData.setBidPrice3(buffer.getLong());
+		marketData.setBidVolume3(buffer.getInt());
+		marketData.setBidPrice4(buffer.getLong());
+		marketData.setBidVolume4(buffer.getInt());
+		marketData.setBidPrice5(buffer.getLong());
+		marketData.setBidVolume5(buffer.getInt());
+		marketData.setBidPrice6(buffer.getLong());
+		marketData.setBidVolume6(buffer.getInt());
+		marketData.setBidPrice7(buffer.getLong());
+		marketData.setBidVolume7(buffer.getInt());
+		marketData.setBidPrice8(buffer.getLong());
+		marketData.setBidVolume8(buffer.getInt());
+		marketData.setBidPrice9(buffer.getLong());
+		marketData.setBidVolume9(buffer.getInt());
+		marketData.setBidPrice10(buffer.getLong());
+		marketData.setBidVolume10(buffer.getInt());
+		marketData.setAskPrice1(buffer.getLong());
+		marketData.setAskVolume1(buffer.getInt());
+		marketData.setAskPrice2(buffer.getLong());
+		marketData.setAskVolume2(buffer.getInt());
+		marketData.setAskPrice3(buffer.getLong());
+		marketData.setAskVolume3(buffer.getInt());
+		marketData.setAskPrice4(buffer.getLong());
+		marketData.setAskVolume4(buffer.getInt());
+		marketData.setAskPrice5(buffer.getLong());
+		marketData.setAskVolume5(buffer.getInt());
+		marketData.setAskPrice6(buffer.getLong());
+		marketData.setAskVolume6(buffer.getInt());
+		marketData.setAskPrice7(buffer.getLong());
+		marketData.setAskVolume7(buffer.getInt());
+		marketData.setAskPrice8(buffer.getLong());
+		marketData.setAskVolume8(buffer.getInt());
+		marketData.setAskPrice9(buffer.getLong());
+		marketData.setAskVolume9(buffer.getInt());
+		marketData.setAskPrice10(buffer.getLong());
+		marketData.setAskVolume10(buffer.getInt());
+		return marketData;
+	}
+
+	private static void encodeTraderConnect(FtdcTraderConnect traderConnect, ByteBuffer buffer) {
+		buffer.put(traderConnect.isAvailable() ? (byte) 1 : (byte) 0);
+		buffer.putInt(traderConnect.getFrontID());
+		buffer.putInt(traderConnect.getSessionID());
+		putString(buffer, traderConnect.getMaxOrderRef());
+		putString(buffer, traderConnect.getTradingDay());
+	}
+
+	private static FtdcTraderConnect decodeTraderConnect(ByteBuffer buffer) {
+		FtdcTraderConnect traderConnect = new FtdcTraderConnect(buffer.get() == 1);
+		traderConnect.setFrontID(buffer.getInt());
+		traderConnect.setSessionID(buffer.getInt());
+		traderConnect.setMaxOrderRef(getString(buffer));
+		traderConnect.setTradingDay(getString(buffer));
+		return traderConnect;
+	}
+
+	private static void encodeMdConnect(FtdcMdConnect mdConnect, ByteBuffer buffer) {
+		buffer.put(mdConnect.isAvailable() ? (byte) 1 : (byte) 0);
+	}
+
+	private static FtdcMdConnect decodeMdConnect(ByteBuffer buffer) {
+		return new FtdcMdConnect(buffer.get() == 1);
+	}
+
+	private static void encodeDepthMarketData(FtdcDepthMarketData depthMarketData, ByteBuffer buffer) {
+		putString(buffer, depthMarketData.getTradingDay());
+		putString(buffer, depthMarketData.getInstrumentID());
+		putString(buffer, depthMarketData.getExchangeID());
+		putString(buffer, depthMarketData.getExchangeInstID());
+		buffer.putDouble(depthMarketData.getLastPrice());
+		buffer.putDouble(depthMarketData.getPreSettlementPrice());
+		buffer.putDouble(depthMarketData.getPreClosePrice());
+		buffer.putDouble(depthMarketData.getPreOpenInterest());
+		buffer.putDouble(depthMarketData.getOpenPrice());
+		buffer.putDouble(depthMarketData.getHighestPrice());
+		buffer.putDouble(depthMarketData.getLowestPrice());
+		buffer.putInt(depthMarketData.getVolume());
+		buffer.putDouble(depthMarketData.getTurnover());
+		buffer.putDouble(depthMarketData.getOpenInterest());
+		buffer.putDouble(depthMarketData.getClosePrice());
+		buffer.putDouble(depthMarketData.getSettlementPrice());
+		buffer.putDouble(depthMarketData.getUpperLimitPrice());
+		buffer.putDouble(depthMarketData.getLowerLimitPrice());
+		buffer.putDouble(depthMarketData.getPreDelta());
+		buffer.putDouble(depthMarketData.getCurrDelta());
+		buffer.putDouble(depthMarketData.getBidPrice1());
+		buffer.putInt(depthMarketData.getBidVolume1());
+		buffer.putDouble(depthMarketData.getAskPrice1());
+		buffer.putInt(depthMarketData.getAskVolume1());
+		buffer.putDouble(depthMarketData.getBidPrice2());
+		buffer.putInt(depthMarketData.getBidVolume2());
+		buffer.putDouble(depthMarketData.getAskPrice2());
+		buffer.putInt(depthMarketData.getAskVolume2());
+		buffer.putDouble(depthMarketData.getBidPrice3());
+		buffer.putInt(depthMarketData.getBidVolume3());
+		buffer.putDouble(depthMarketData.getAskPrice3());
+		buffer.putInt(depthMarketData.getAskVolume3());
+		buffer.putDouble(depthMarketData.getBidPrice4());
+		buffer.putInt(depthMarketData.getBidVolume4());
+		buffer.putDouble(depthMarketData.getAskPrice4());
+		buffer.putInt(depthMarketData.getAskVolume4());
+		buffer.putDouble(depthMarketData.getBidPrice5());
+		buffer.putInt(depthMarketData.getBidVolume5());
+		buffer.putDouble(depthMarketData.getAskPrice5());
+		buffer.putInt(depthMarketData.getAskVolume5());
+		buffer.putDouble(depthMarketData.getAveragePrice());
+		putString(buffer, depthMarketData.getUpdateTime());
+		buffer.putInt(depthMarketData.getUpdateMillisec());
+		putString(buffer, depthMarketData.getActionDay());
+	}
+
+	private static FtdcDepthMarketData decodeDepthMarketData(ByteBuffer buffer) {
+		FtdcDepthMarketData depthMarketData = new FtdcDepthMarketData();
+		depthMarketData.setTradingDay(getString(buffer));
+		depthMarketData.setInstrumentID(getString(buffer));
+		depthMarketData.setExchangeID(getString(buffer));
+		depthMarketData.setExchangeInstID(getString(buffer));
+		depthMarketData.setLastPrice(buffer.getDouble());
+		depthMarketData.setPreSettlementPrice(buffer.getDouble());
+		depthMarketData.setPreClosePrice(buffer.getDouble());
+		depthMarketData.setPreOpenInterest(buffer.getDouble());
+		depthMarketData.setOpenPrice(buffer.getDouble());
+		depthMarketData.setHighestPrice(buffer.getDouble());
+		depthMarketData.setLowestPrice(buffer.getDouble());
+		depthMarketData.setVolume(buffer.getInt());
+		depthMarketData.setTurnover(buffer.getDouble());
+		depthMarketData.setOpenInterest(buffer.getDouble());
+		depthMarketData.setClosePrice(buffer.getDouble());
+		depthMarketData.setSettlementPrice(buffer.getDouble());
+		depthMarketData.setUpperLimitPrice(buffer.getDouble());
+		depthMarketData.setLowerLimitPrice(buffer.getDouble());
+		depthMarketData.setPreDelta(buffer.getDouble());
+		depthMarketData.setCurrDelta(buffer.getDouble());
+		depthMarketData.setBidPrice1(buffer.getDouble());
+		depthMarketData.setBidVolume1(buffer.getInt());
+		depthMarketData.setAskPrice1(buffer.getDouble());
+		depthMarketData.setAskVolume1(buffer.getInt());
+		depthMarketData.setBidPrice2(buffer.getDouble());
+		depthMarketData.setBidVolume2(buffer.getInt());
+		depthMarketData.setAskPrice2(buffer.getDouble());
+		depthMarketData.setAskVolume2(buffer.getInt());
+		depthMarketData.setBidPrice3(buffer.getDouble());
+		depthMarketData.setBidVolume3(buffer.getInt());
+		depthMarketData.setAskPrice3(buffer.getDouble());
+		depthMarketData.setAskVolume3(buffer.getInt());
+		depthMarketData.setBidPrice4(buffer.getDouble());
+		depthMarketData.setBidVolume4(buffer.getInt());
+		depthMarketData.setAskPrice4(buffer.getDouble());
+		depthMarketData.setAskVolume4(buffer.getInt());
+		depthMarketData.setBidPrice5(buffer.getDouble());
+		depthMarketData.setBidVolume5(buffer.getInt());
+		depthMarketData.setAskPrice5(buffer.getDouble());
+		depthMarketData.setAskVolume5(buffer.getInt());
+		depthMarketData.setAveragePrice(buffer.getDouble());
+		depthMarketData.setUpdateTime(getString(buffer));
+		depthMarketData.setUpdateMillisec(buffer.getInt());
+		depthMarketData.setActionDay(getString(buffer));
+		return depthMarketData;
+	}
+
+	private static void encodeInvestorPosition(FtdcInvestorPosition investorPosition, ByteBuffer buffer) {
+		putString(buffer, investorPosition.getInstrumentID());
+		putString(buffer, investorPosition.getBrokerID());
+		putString(buffer, investorPosition.getInvestorID());
+		buffer.putChar(investorPosition.getPosiDirection());
+		buffer.putChar(investorPosition.getHedgeFlag());
+		buffer.putChar(investorPosition.getPositionDate());
+		buffer.putInt(investorPosition.getYdPosition());
+		buffer.putInt(investorPosition.getPosition());
+		buffer.putInt(investorPosition.getLongFrozen());
+		buffer.putInt(investorPosition.getShortFrozen());
+		buffer.putDouble(investorPosition.getLongFrozenAmount());
+		buffer.putDouble(investorPosition.getShortFrozenAmount());
+		buffer.putInt(investorPosition.getOpenVolume());
+		buffer.putInt(investorPosition.getCloseVolume());
+		buffer.putDouble(investorPosition.getOpenAmount());
+		buffer.putDouble(investorPosition.getCloseAmount());
+		buffer.putDouble(investorPosition.getPositionCost());
+		buffer.putDouble(investorPosition.getPreMargin());
+		buffer.putDouble(investorPosition.getUseMargin());
+		buffer.putDouble(investorPosition.getFrozenMargin());
+		buffer.putDouble(investorPosition.getFrozenCash());
+		buffer.putDouble(investorPosition.getFrozenCommission());
+		buffer.putDouble(investorPosition.getCashIn());
+		buffer.putDouble(investorPosition.getCommission());
+		buffer.putDouble(investorPosition.getCloseProfit());
+		buffer.putDouble(investorPosition.getPositionProfit());
+		buffer.putDouble(investorPosition.getPreSettlementPrice());
+		buffer.putDouble(investorPosition.getSettlementPrice());
+		putString(buffer, investorPosition.getTradingDay());
+		buffer.putInt(investorPosition.getSettlementID());
+		buffer.putDouble(investorPosition.getOpenCost());
+		buffer.putDouble(investorPosition.getExchangeMargin());
+		buffer.putInt(investorPosition.getCombPosition());
+		buffer.putInt(investorPosition.getCombLongFrozen());
+		buffer.putInt(investorPosition.getCombShortFrozen());
+		buffer.putDouble(investorPosition.getCloseProfitByDate());
+		buffer.putDouble(investorPosition.getCloseProfitByTrade());
+		buffer.putInt(investorPosition.getTodayPosition());
+		buffer.putDouble(investorPosition.getMarginRateByMoney());
+		buffer.putDouble(investorPosition.getMarginRateByVolume());
+		buffer.putInt(investorPosition.getStrikeFrozen());
+		buffer.putDouble(investorPosition.getStrikeFrozenAmount());
+		buffer.putInt(investorPosition.getAbandonFrozen());
+		putString(buffer, investorPosition.getExchangeID());
+		buffer.putInt(investorPosition.getYdStrikeFrozen());
+		putString(buffer, investorPosition.getInvestUnitID());
+		buffer.putDouble(investorPosition.getPositionCostOffset());
+	}
+
+	private static FtdcInvestorPosition decodeInvestorPosition(ByteBuffer buffer) {
+		FtdcInvestorPosition investorPosition = new FtdcInvestorPosition();
+		investorPosition.setInstrumentID(getString(buffer));
+		investorPosition.setBrokerID(getString(buffer));
+		investorPosition.setInvestorID(getString(buffer));
+		investorPosition.setPosiDirection(buffer.getChar());
+		investorPosition.setHedgeFlag(buffer.getChar());
+		investorPosition.setPositionDate(buffer.getChar());
+		investorPosition.setYdPosition(buffer.getInt());
+		investorPosition.setPosition(buffer.getInt());
+		investorPosition.setLongFrozen(buffer.getInt());
+		investorPosition.setShortFrozen(buffer.getInt());
+		investorPosition.setLongFrozenAmount(buffer.getDouble());
+		investorPosition.setShortFrozenAmount(buffer.getDouble());
+		investorPosition.setOpenVolume(buffer.getInt());
+		investorPosition.setCloseVolume(buffer.getInt());
+		investorPosition.setOpenAmount(buffer.getDouble());
+		investorPosition.setCloseAmount(buffer.getDouble());
+		investorPosition.setPositionCost(buffer.getDouble());
+		investorPosition.setPreMargin(buffer.getDouble());
+		investorPosition.setUseMargin(buffer.getDouble());
+		investorPosition.setFrozenMargin(buffer.getDouble());
+		investorPosition.setFrozenCash(buffer.getDouble());
+		investorPosition.setFrozenCommission(buffer.getDouble());
+		investorPosition.setCashIn(buffer.getDouble());
+		investorPosition.setCommission(buffer.getDouble());
+		investorPosition.setCloseProfit(buffer.getDouble());
+		investorPosition.setPositionProfit(buffer.getDouble());
+		investorPosition.setPreSettlementPrice(buffer.getDouble());
+		investorPosition.setSettlementPrice(buffer.getDouble());
+		investorPosition.setTradingDay(getString(buffer));
+		investorPosition.setSettlementID(buffer.getInt());
+		investorPosition.setOpenCost(buffer.getDouble());
+		investorPosition.setExchangeMargin(buffer.getDouble());
+		investorPosition.setCombPosition(buffer.getInt());
+		investorPosition.setCombLongFrozen(buffer.getInt());
+		investorPosition.setCombShortFrozen(buffer.getInt());
+		investorPosition.setCloseProfitByDate(buffer.getDouble());
+		investorPosition.setCloseProfitByTrade(buffer.getDouble());
+		investorPosition.setTodayPosition(buffer.getInt());
+		investorPosition.setMarginRateByMoney(buffer.getDouble());
+		investorPosition.setMarginRateByVolume(buffer.getDouble());
+		investorPosition.setStrikeFrozen(buffer.getInt());
+		investorPosition.setStrikeFrozenAmount(buffer.getDouble());
+		investorPosition.setAbandonFrozen(buffer.getInt());
+		investorPosition.setExchangeID(getString(buffer));
+		investorPosition.setYdStrikeFrozen(buffer.getInt());
+		investorPosition.setInvestUnitID(getString(buffer));
+		investorPosition.setPositionCostOffset(buffer.getDouble());
+		return investorPosition;
+	}
+
+	private static void encodeOrder(FtdcOrder order, ByteBuffer buffer) {
+		putString(buffer, order.getBrokerID());
+		putString(buffer, order.getInvestorID());
+		putString(buffer, order.getInstrumentID());
+		putString(buffer, order.getOrderRef());
+		putString(buffer, order.getUserID());
+		buffer.putChar(order.getOrderPriceType());
+		buffer.putChar(order.getDirection());
+		putString(buffer, order.getCombOffsetFlag());
+		putString(buffer, order.getCombHedgeFlag());
+		buffer.putDouble(order.getLimitPrice());
+		buffer.putInt(order.getVolumeTotalOriginal());
+		buffer.putChar(order.getTimeCondition());
+		putString(buffer, order.getGTDDate());
+		buffer.putChar(order.getVolumeCondition());
+		buffer.putInt(order.getMinVolume());
+		buffer.putChar(order.getContingentCondition());
+		buffer.putDouble(order.getStopPrice());
+		buffer.putChar(order.getForceCloseReason());
+		buffer.putInt(order.getIsAutoSuspend());
+		putString(buffer, order.getBusinessUnit());
+		buffer.putInt(order.getRequestID());
+		putString(buffer, order.getOrderLocalID());
+		putString(buffer, order.getExchangeID());
+		putString(buffer, order.getParticipantID());
+		putString(buffer, order.getClientID());
+		putString(buffer, order.getExchangeInstID());
+		putString(buffer, order.getTraderID());
+		buffer.putInt(order.getInstallID());
+		buffer.putChar(order.getOrderSubmitStatus());
+		buffer.putInt(order.getNotifySequence());
+		putString(buffer, order.getTradingDay());
+		buffer.putInt(order.getSettlementID());
+		putString(buffer, order.getOrderSysID());
+		buffer.putChar(order.getOrderSource());
+		buffer.putChar(order.getOrderStatus());
+		buffer.putChar(order.getOrderType());
+		buffer.putInt(order.getVolumeTraded());
+		buffer.putInt(order.getVolumeTotal());
+		putString(buffer, order.getInsertDate());
+		putString(buffer, order.getInsertTime());
+		putString(buffer, order.getActiveTime());
+		putString(buffer, order.getSuspendTime());
+		putString(buffer, order.getUpdateTime());
+		putString(buffer, order.getCancelTime());
+		putString(buffer, order.getActiveTraderID());
+		putString(buffer, order.getClearingPartID());
+		buffer.putInt(order.getSequenceNo());
+		buffer.putInt(order.getFrontID());
+		buffer.putInt(order.getSessionID());
+		putString(buffer, order.getUserProductInfo());
+		putString(buffer, order.getStatusMsg());
+		buffer.putInt(order.getUserForceClose());
+		putString(buffer, order.getActiveUserID());
+		buffer.putInt(order.getBrokerOrderSeq());
+		putString(buffer, order.getRelativeOrderSysID());
+		buffer.putInt(order.getZCETotalTradedVolume());
+		buffer.putInt(order.getIsSwapOrder());
+		putString(buffer, order.getBranchID());
+		putString(buffer, order.getInvestUnitID());
+		putString(buffer, order.getAccountID());
+		putString(buffer, order.getCurrencyID());
+		putString(buffer, order.getIPAddress());
+		putString(buffer, order.getMacAddress());
+	}
+
+	private static FtdcOrder decodeOrder(ByteBuffer buffer) {
+		FtdcOrder order = new FtdcOrder();
+		order.setBrokerID(getString(buffer));
+		order.setInvestorID(getString(buffer));
+		order.setInstrumentID(getString(buffer));
+		order.setOrderRef(getString(buffer));
+		order.setUserID(getString(buffer));
+		order.setOrderPriceType(buffer.getChar());
+		order.setDirection(buffer.getChar());
+		order.setCombOffsetFlag(getString(buffer));
+		order.setCombHedgeFlag(getString(buffer));
+		order.setLimitPrice(buffer.getDouble());
+		order.setVolumeTotalOriginal(buffer.getInt());
+		order.setTimeCondition(buffer.getChar());
+		order.setGTDDate(getString(buffer));
+		order.setVolumeCondition(buffer.getChar());
+		order.setMinVolume(buffer.getInt());
+		order.setContingentCondition(buffer.getChar());
+		order.setStopPrice(buffer.getDouble());
+		order.setForceCloseReason(buffer.getChar());
+		order.setIsAutoSuspend(buffer.getInt());
+		order.setBusinessUnit(getString(buffer));
+		order.setRequestID(buffer.getInt());
+		order.setOrderLocalID(getString(buffer));
+		order.setExchangeID(getString(buffer));
+		order.setParticipantID(getString(buffer));
+		order.setClientID(getString(buffer));
+		order.setExchangeInstID(getString(buffer));
+		order.setTraderID(getString(buffer));
+		order.setInstallID(buffer.getInt());
+		order.setOrderSubmitStatus(buffer.getChar());
+		order.setNotifySequence(buffer.getInt());
+		order.setTradingDay(getString(buffer));
+		order.setSettlementID(buffer.getInt());
+		order.setOrderSysID(getString(buffer));
+		order.setOrderSource(buffer.getChar());
+		order.setOrderStatus(buffer.getChar());
+		order.setOrderType(buffer.getChar());
+		order.setVolumeTraded(buffer.getInt());
+		order.setVolumeTotal(buffer.getInt());
+		order.setInsertDate(getString(buffer));
+		order.setInsertTime(getString(buffer));
+		order.setActiveTime(getString(buffer));
+		order.setSuspendTime(getString(buffer));
+		order.setUpdateTime(getString(buffer));
+		order.setCancelTime(getString(buffer));
+		order.setActiveTraderID(getString(buffer));
+		order.setClearingPartID(getString(buffer));
+		order.setSequenceNo(buffer.getInt());
+		order.setFrontID(buffer.getInt());
+		order.setSessionID(buffer.getInt());
+		order.setUserProductInfo(getString(buffer));
+		order.setStatusMsg(getString(buffer));
+		order.setUserForceClose(buffer.getInt());
+		order.setActiveUserID(getString(buffer));
+		order.setBrokerOrderSeq(buffer.getInt());
+		order.setRelativeOrderSysID(getString(buffer));
+		order.setZCETotalTradedVolume(buffer.getInt());
+		order.setIsSwapOrder(buffer.getInt());
+		order.setBranchID(getString(buffer));
+		order.setInvestUnitID(getString(buffer));
+		order.setAccountID(getString(buffer));
+		order.setCurrencyID(getString(buffer));
+		order.setIPAddress(getString(buffer));
+		order.setMacAddress(getString(buffer));
+		return order;
+	}
+
+	private static void encodeTrade(FtdcTrade trade, ByteBuffer buffer) {
+		putString(buffer, trade.getBrokerID());
+		putString(buffer, trade.getInvestorID());
+		putString(buffer, trade.getInstrumentID());
+		putString(buffer, trade.getOrderRef());
+		putString(buffer, trade.getUserID());
+		putString(buffer, trade.getExchangeID());
+		putString(buffer, trade.getTradeID());
+		buffer.putChar(trade.getDirection());
+		putString(buffer, trade.getOrderSysID());
+		putString(buffer, trade.getParticipantID());
+		putString(buffer, trade.getClientID());
+		buffer.putChar(trade.getTradingRole());
+		putString(buffer, trade.getExchangeInstID());
+		buffer.putChar(trade.getOffsetFlag());
+		buffer.putChar(trade.getHedgeFlag());
+		buffer.putDouble(trade.getPrice());
+		buffer.putInt(trade.getVolume());
+		putString(buffer, trade.getTradeDate());
+		putString(buffer, trade.getTradeTime());
+		buffer.putChar(trade.getTradeType());
+		buffer.putChar(trade.getPriceSource());
+		putString(buffer, trade.getTraderID());
+		putString(buffer, trade.getOrderLocalID());
+		putString(buffer, trade.getClearingPartID());
+		putString(buffer, trade.getBusinessUnit());
+		buffer.putInt(trade.getSequenceNo());
+		putString(buffer, trade.getTradingDay());
+		buffer.putInt(trade.getSettlementID());
+		buffer.putInt(trade.getBrokerOrderSeq());
+		buffer.putChar(trade.getTradeSource());
+		putString(buffer, trade.getInvestUnitID());
+	}
+
+	private static FtdcTrade decodeTrade(ByteBuffer buffer) {
+		FtdcTrade trade = new FtdcTrade();
+		trade.setBrokerID(getString(buffer));
+		trade.setInvestorID(getString(buffer));
+		trade.setInstrumentID(getString(buffer));
+		trade.setOrderRef(getString(buffer));
+		trade.setUserID(getString(buffer));
+		trade.setExchangeID(getString(buffer));
+		trade.setTradeID(getString(buffer));
+		trade.setDirection(buffer.getChar());
+		trade.setOrderSysID(getString(buffer));
+		trade.setParticipantID(getString(buffer));
+		trade.setClientID(getString(buffer));
+		trade.setTradingRole(buffer.getChar());
+		trade.setExchangeInstID(getString(buffer));
+		trade.setOffsetFlag(buffer.getChar());
+		trade.setHedgeFlag(buffer.getChar());
+		trade.setPrice(buffer.getDouble());
+		trade.setVolume(buffer.getInt());
+		trade.setTradeDate(getString(buffer));
+		trade.setTradeTime(getString(buffer));
+		trade.setTradeType(buffer.getChar());
+		trade.setPriceSource(buffer.getChar());
+		trade.setTraderID(getString(buffer));
+		trade.setOrderLocalID(getString(buffer));
+		trade.setClearingPartID(getString(buffer));
+		trade.setBusinessUnit(getString(buffer));
+		trade.setSequenceNo(buffer.getInt());
+		trade.setTradingDay(getString(buffer));
+		trade.setSettlementID(buffer.getInt());
+		trade.setBrokerOrderSeq(buffer.getInt());
+		trade.setTradeSource(buffer.getChar());
+		trade.setInvestUnitID(getString(buffer));
+		return trade;
+	}
+
+	private static void encodeInputOrder(FtdcInputOrder inputOrder, ByteBuffer buffer) {
+		putString(buffer, inputOrder.getBrokerID());
+		putString(buffer, inputOrder.getInvestorID());
+		putString(buffer, inputOrder.getInstrumentID());
+		putString(buffer, inputOrder.getOrderRef());
+		putString(buffer, inputOrder.getUserID());
+		buffer.putChar(inputOrder.getOrderPriceType());
+		buffer.putChar(inputOrder.getDirection());
+		putString(buffer, inputOrder.getCombOffsetFlag());
+		putString(buffer, inputOrder.getCombHedgeFlag());
+		buffer.putDouble(inputOrder.getLimitPrice());
+		buffer.putInt(inputOrder.getVolumeTotalOriginal());
+		buffer.putChar(inputOrder.getTimeCondition());
+		putString(buffer, inputOrder.getGTDDate());
+		buffer.putChar(inputOrder.getVolumeCondition());
+		buffer.putInt(inputOrder.getMinVolume());
+		buffer.putChar(inputOrder.getContingentCondition());
+		buffer.putDouble(inputOrder.getStopPrice());
+		buffer.putChar(inputOrder.getForceCloseReason());
+		buffer.putInt(inputOrder.getIsAutoSuspend());
+		putString(buffer, inputOrder.getBusinessUnit());
+		buffer.putInt(inputOrder.getRequestID());
+		buffer.putInt(inputOrder.getUserForceClose());
+		buffer.putInt(inputOrder.getIsSwapOrder());
+		putString(buffer, inputOrder.getExchangeID());
+		putString(buffer, inputOrder.getInvestUnitID());
+		putString(buffer, inputOrder.getAccountID());
+		putString(buffer, inputOrder.getCurrencyID());
+		putString(buffer, inputOrder.getClientID());
+		putString(buffer, inputOrder.getIPAddress());
+		putString(buffer, inputOrder.getMacAddress());
+		buffer.putInt(inputOrder.getErrorID());
+		putString(buffer, inputOrder.getErrorMsg());
+	}
+
+	private static FtdcInputOrder decodeInputOrder(ByteBuffer buffer) {
+		FtdcInputOrder inputOrder = new FtdcInputOrder();
+		inputOrder.setBrokerID(getString(buffer));
+		inputOrder.setInvestorID(getString(buffer));
+		inputOrder.setInstrumentID(getString(buffer));
+		inputOrder.setOrderRef(getString(buffer));
+		inputOrder.setUserID(getString(buffer));
+		inputOrder.setOrderPriceType(buffer.getChar());
+		inputOrder.setDirection(buffer.getChar());
+		inputOrder.setCombOffsetFlag(getString(buffer));
+		inputOrder.setCombHedgeFlag(getString(buffer));
+		inputOrder.setLimitPrice(buffer.getDouble());
+		inputOrder.setVolumeTotalOriginal(buffer.getInt());
+		inputOrder.setTimeCondition(buffer.getChar());
+		inputOrder.setGTDDate(getString(buffer));
+		inputOrder.setVolumeCondition(buffer.getChar());
+		inputOrder.setMinVolume(buffer.getInt());
+		inputOrder.setContingentCondition(buffer.getChar());
+		inputOrder.setStopPrice(buffer.getDouble());
+		inputOrder.setForceCloseReason(buffer.getChar());
+		inputOrder.setIsAutoSuspend(buffer.getInt());
+		inputOrder.setBusinessUnit(getString(buffer));
+		inputOrder.setRequestID(buffer.getInt());
+		inputOrder.setUserForceClose(buffer.getInt());
+		inputOrder.setIsSwapOrder(buffer.getInt());
+		inputOrder.setExchangeID(getString(buffer));
+		inputOrder.setInvestUnitID(getString(buffer));
+		inputOrder.setAccountID(getString(buffer));
+		inputOrder.setCurrencyID(getString(buffer));
+		inputOrder.setClientID(getString(buffer));
+		inputOrder.setIPAddress(getString(buffer));
+		inputOrder.setMacAddress(getString(buffer));
+		inputOrder.setErrorID(buffer.getInt());
+		inputOrder.setErrorMsg(getString(buffer));
+		return inputOrder;
+	}
+
+	private static void encodeInputOrderAction(FtdcInputOrderAction inputOrderAction, ByteBuffer buffer) {
+		putString(buffer, inputOrderAction.getBrokerID());
+		putString(buffer, inputOrderAction.getInvestorID());
+		buffer.putInt(inputOrderAction.getOrderActionRef());
+		putString(buffer, inputOrderAction.getOrderRef());
+		buffer.putInt(inputOrderAction.getRequestID());
+		buffer.putInt(inputOrderAction.getFrontID());
+		buffer.putInt(inputOrderAction.getSessionID());
+		putString(buffer, inputOrderAction.getExchangeID());
+		putString(buffer, inputOrderAction.getOrderSysID());
+		buffer.putChar(inputOrderAction.getActionFlag());
+		buffer.putDouble(inputOrderAction.getLimitPrice());
+		buffer.putInt(inputOrderAction.getVolumeChange());
+		putString(buffer, inputOrderAction.getUserID());
+		putString(buffer, inputOrderAction.getInstrumentID());
+		putString(buffer, inputOrderAction.getInvestUnitID());
+		putString(buffer, inputOrderAction.getIPAddress());
+		putString(buffer, inputOrderAction.getMacAddress());
+		buffer.putInt(inputOrderAction.getErrorID());
+		putString(buffer, inputOrderAction.getErrorMsg());
+	}
+
+	private static FtdcInputOrderAction decodeInputOrderAction(ByteBuffer buffer) {
+		FtdcInputOrderAction inputOrderAction = new FtdcInputOrderAction();
+		inputOrderAction.setBrokerID(getString(buffer));
+		inputOrderAction.setInvestorID(getString(buffer));
+		inputOrderAction.setOrderActionRef(buffer.getInt());
+		inputOrderAction.setOrderRef(getString(buffer));
+		inputOrderAction.setRequestID(buffer.getInt());
+		inputOrderAction.setFrontID(buffer.getInt());
+		inputOrderAction.setSessionID(buffer.getInt());
+		inputOrderAction.setExchangeID(getString(buffer));
+		inputOrderAction.setOrderSysID(getString(buffer));
+		inputOrderAction.setActionFlag(buffer.getChar());
+		inputOrderAction.setLimitPrice(buffer.getDouble());
+		inputOrderAction.setVolumeChange(buffer.getInt());
+		inputOrderAction.setUserID(getString(buffer));
+		inputOrderAction.setInstrumentID(getString(buffer));
+		inputOrderAction.setInvestUnitID(getString(buffer));
+		inputOrderAction.setIPAddress(getString(buffer));
+		inputOrderAction.setMacAddress(getString(buffer));
+		inputOrderAction.setErrorID(buffer.getInt());
+		inputOrderAction.setErrorMsg(getString(buffer));
+		return inputOrderAction;
+	}
+
+	private static void encodeOrderAction(FtdcOrderAction orderAction, ByteBuffer buffer) {
+		putString(buffer, orderAction.getBrokerID());
+		putString(buffer, orderAction.getInvestorID());
+		buffer.putInt(orderAction.getOrderActionRef());
+		putString(buffer, orderAction.getOrderRef());
+		buffer.putInt(orderAction.getRequestID());
+		buffer.putInt(orderAction.getFrontID());
+		buffer.putInt(orderAction.getSessionID());
+		putString(buffer, orderAction.getExchangeID());
+		putString(buffer, orderAction.getOrderSysID());
+		buffer.putChar(orderAction.getActionFlag());
+		buffer.putDouble(orderAction.getLimitPrice());
+		buffer.putInt(orderAction.getVolumeChange());
+		putString(buffer, orderAction.getActionDate());
+		putString(buffer, orderAction.getActionTime());
+		putString(buffer, orderAction.getTraderID());
+		buffer.putInt(orderAction.getInstallID());
+		putString(buffer, orderAction.getOrderLocalID());
+		putString(buffer, orderAction.getActionLocalID());
+		putString(buffer, orderAction.getParticipantID());
+		putString(buffer, orderAction.getClientID());
+		putString(buffer, orderAction.getBusinessUnit());
+		buffer.putChar(orderAction.getOrderActionStatus());
+		putString(buffer, orderAction.getUserID());
+		putString(buffer, orderAction.getStatusMsg());
+		putString(buffer, orderAction.getInstrumentID());
+		putString(buffer, orderAction.getBranchID());
+		putString(buffer, orderAction.getInvestUnitID());
+		putString(buffer, orderAction.getIPAddress());
+		putString(buffer, orderAction.getMacAddress());
+		buffer.putInt(orderAction.getErrorID());
+		putString(buffer, orderAction.getErrorMsg());
+	}
+
+	private static FtdcOrderAction decodeOrderAction(ByteBuffer buffer) {
+		FtdcOrderAction orderAction = new FtdcOrderAction();
+		orderAction.setBrokerID(getString(buffer));
+		orderAction.setInvestorID(getString(buffer));
+		orderAction.setOrderActionRef(buffer.getInt());
+		orderAction.setOrderRef(getString(buffer));
+		orderAction.setRequestID(buffer.getInt());
+		orderAction.setFrontID(buffer.getInt());
+		orderAction.setSessionID(buffer.getInt());
+		orderAction.setExchangeID(getString(buffer));
+		orderAction.setOrderSysID(getString(buffer));
+		orderAction.setActionFlag(buffer.getChar());
+		orderAction.setLimitPrice(buffer.getDouble());
+		orderAction.setVolumeChange(buffer.getInt());
+		orderAction.setActionDate(getString(buffer));
+		orderAction.setActionTime(getString(buffer));
+		orderAction.setTraderID(getString(buffer));
+		orderAction.setInstallID(buffer.getInt());
+		orderAction.setOrderLocalID(getString(buffer));
+		orderAction.setActionLocalID(getString(buffer));
+		orderAction.setParticipantID(getString(buffer));
+		orderAction.setClientID(getString(buffer));
+		orderAction.setBusinessUnit(getString(buffer));
+		orderAction.setOrderActionStatus(buffer.getChar());
+		orderAction.setUserID(getString(buffer));
+		orderAction.setStatusMsg(getString(buffer));
+		orderAction.setInstrumentID(getString(buffer));
+		orderAction.setBranchID(getString(buffer));
+		orderAction.setInvestUnitID(getString(buffer));
+		orderAction.setIPAddress(getString(buffer));
+		orderAction.setMacAddress(getString(buffer));
+		orderAction.setErrorID(buffer.getInt());
+		orderAction.setErrorMsg(getString(buffer));
+		return orderAction;
+	}
+
+	private static void encodeTradingAccount(FtdcTradingAccount tradingAccount, ByteBuffer buffer) {
+		putString(buffer, tradingAccount.getBrokerID());
+		putString(buffer, tradingAccount.getAccountID());
+		buffer.putDouble(tradingAccount.getPreMortgage());
+		buffer.putDouble(tradingAccount.getPreCredit());
+		buffer.putDouble(tradingAccount.getPreDeposit());
+		buffer.putDouble(tradingAccount.getPreBalance());
+		buffer.putDouble(tradingAccount.getPreMargin());
+		buffer.putDouble(tradingAccount.getInterestBase());
+		buffer.putDouble(tradingAccount.getInterest());
+		buffer.putDouble(tradingAccount.getDeposit());
+		buffer.putDouble(tradingAccount.getWithdraw());
+		buffer.putDouble(tradingAccount.getFrozenMargin());
+		buffer.putDouble(tradingAccount.getFrozenCash());
+		buffer.putDouble(tradingAccount.getFrozenCommission());
+		buffer.putDouble(tradingAccount.getCurrMargin());
+		buffer.putDouble(tradingAccount.getCashIn());
+		buffer.putDouble(tradingAccount.getCommission());
+		buffer.putDouble(tradingAccount.getCloseProfit());
+		buffer.putDouble(tradingAccount.getPositionProfit());
+		buffer.putDouble(tradingAccount.getBalance());
+		buffer.putDouble(tradingAccount.getAvailable());
+		buffer.putDouble(tradingAccount.getWithdrawQuota());
+		buffer.putDouble(tradingAccount.getReserve());
+		putString(buffer, tradingAccount.getTradingDay());
+		buffer.putInt(tradingAccount.getSettlementID());
+		buffer.putDouble(tradingAccount.getCredit());
+		buffer.putDouble(tradingAccount.getMortgage());
+		buffer.putDouble(tradingAccount.getExchangeMargin());
+		buffer.putDouble(tradingAccount.getDeliveryMargin());
+		buffer.putDouble(tradingAccount.getExchangeDeliveryMargin());
+		buffer.putDouble(tradingAccount.getReserveBalance());
+		putString(buffer, tradingAccount.getCurrencyID());
+		buffer.putDouble(tradingAccount.getPreFundMortgageIn());
+		buffer.putDouble(tradingAccount.getPreFundMortgageOut());
+		buffer.putDouble(tradingAccount.getFundMortgageIn());
+		buffer.putDouble(tradingAccount.getFundMortgageOut());
+		buffer.putDouble(tradingAccount.getFundMortgageAvailable());
+		buffer.putDouble(tradingAccount.getMortgageableFund());
+		buffer.putDouble(tradingAccount.getSpecProductMargin());
+		buffer.putDouble(tradingAccount.getSpecProductFrozenMargin());
+		buffer.putDouble(tradingAccount.getSpecProductCommission());
+		buffer.putDouble(tradingAccount.getSpecProductFrozenCommission());
+		buffer.putDouble(tradingAccount.getSpecProductPositionProfit());
+		buffer.putDouble(tradingAccount.getSpecProductCloseProfit());
+		buffer.putDouble(tradingAccount.getSpecProductPositionProfitByAlg());
+		buffer.putDouble(tradingAccount.getSpecProductExchangeMargin());
+		buffer.putChar(tradingAccount.getBizType());
+		buffer.putDouble(tradingAccount.getFrozenSwap());
+		buffer.putDouble(tradingAccount.getRemainSwap());
+	}
+
+	private static FtdcTradingAccount decodeTradingAccount(ByteBuffer buffer) {
+		FtdcTradingAccount tradingAccount = new FtdcTradingAccount();
+		tradingAccount.setBrokerID(getString(buffer));
+		tradingAccount.setAccountID(getString(buffer));
+		tradingAccount.setPreMortgage(buffer.getDouble());
+		tradingAccount.setPreCredit(buffer.getDouble());
+		tradingAccount.setPreDeposit(buffer.getDouble());
+		tradingAccount.setPreBalance(buffer.getDouble());
+		tradingAccount.setPreMargin(buffer.getDouble());
+		tradingAccount.setInterestBase(buffer.getDouble());
+		tradingAccount.setInterest(buffer.getDouble());
+		tradingAccount.setDeposit(buffer.getDouble());
+		tradingAccount.setWithdraw(buffer.getDouble());
+		tradingAccount.setFrozenMargin(buffer.getDouble());
+		tradingAccount.setFrozenCash(buffer.getDouble());
+		tradingAccount.setFrozenCommission(buffer.getDouble());
+		tradingAccount.setCurrMargin(buffer.getDouble());
+		tradingAccount.setCashIn(buffer.getDouble());
+		tradingAccount.setCommission(buffer.getDouble());
+		tradingAccount.setCloseProfit(buffer.getDouble());
+		tradingAccount.setPositionProfit(buffer.getDouble());
+		tradingAccount.setBalance(buffer.getDouble());
+		tradingAccount.setAvailable(buffer.getDouble());
+		tradingAccount.setWithdrawQuota(buffer.getDouble());
+		tradingAccount.setReserve(buffer.getDouble());
+		tradingAccount.setTradingDay(getString(buffer));
+		tradingAccount.setSettlementID(buffer.getInt());
+		tradingAccount.setCredit(buffer.getDouble());
+		tradingAccount.setMortgage(buffer.getDouble());
+		tradingAccount.setExchangeMargin(buffer.getDouble());
+		tradingAccount.setDeliveryMargin(buffer.getDouble());
+		tradingAccount.setExchangeDeliveryMargin(buffer.getDouble());
+		tradingAccount.setReserveBalance(buffer.getDouble());
+		tradingAccount.setCurrencyID(getString(buffer));
+		tradingAccount.setPreFundMortgageIn(buffer.getDouble());
+		tradingAccount.setPreFundMortgageOut(buffer.getDouble());
+		tradingAccount.setFundMortgageIn(buffer.getDouble());
+		tradingAccount.setFundMortgageOut(buffer.getDouble());
+		tradingAccount.setFundMortgageAvailable(buffer.getDouble());
+		tradingAccount.setMortgageableFund(buffer.getDouble());
+		tradingAccount.setSpecProductMargin(buffer.getDouble());
+		tradingAccount.setSpecProductFrozenMargin(buffer.getDouble());
+		tradingAccount.setSpecProductCommission(buffer.getDouble());
+		tradingAccount.setSpecProductFrozenCommission(buffer.getDouble());
+		tradingAccount.setSpecProductPositionProfit(buffer.getDouble());
+		tradingAccount.setSpecProductCloseProfit(buffer.getDouble());
+		tradingAccount.setSpecProductPositionProfitByAlg(buffer.getDouble());
+		tradingAccount.setSpecProductExchangeMargin(buffer.getDouble());
+		tradingAccount.setBizType(buffer.getChar());
+		tradingAccount.setFrozenSwap(buffer.getDouble());
+		tradingAccount.setRemainSwap(buffer.getDouble());
+		return tradingAccount;
+	}
+
+}
@@ -60,4 +60,10 @@ public final class FtdcInputOrderAction {
 	/// MAC地址
 	private String MacAddress;
 
+	/// 错误代码
+	private int ErrorID;
+
+	/// 错误信息
+	private String ErrorMsg;
+
 }
@@ -0,0 +1,87 @@
+package io.horizon.ftdc.gateway.queue;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.jctools.queues.MpscUnboundedArrayQueue;
+
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+
+/**
+ * 按合约合并的行情缓冲区, 每个合约只保留最新一笔行情<br>
+ * 写入方永不阻塞, 被覆盖的行情计入conflatedCount<br>
+ * 每个合约在脏合约队列中最多出现一次, 消费者落后时遍历一次脏合约即可追上最新状态
+ * 
+ * @author yellow013
+ */
+public final class FtdcConflatingMdBuffer {
+
+	// InstrumentID -> 合约最新行情
+	private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>(1024);
+
+	// 有未消费行情的合约, 元素数量不超过合约数量
+	private final MpscUnboundedArrayQueue<Slot> dirtySlots = new MpscUnboundedArrayQueue<>(1024);
+
+	// 被合并的行情数量
+	private final LongAdder conflatedCount = new LongAdder();
+
+	private static final class Slot {
+		private final AtomicReference<FtdcRspMsg> latest = new AtomicReference<>();
+	}
+
+	/**
+	 * 写入行情, 不阻塞
+	 * 
+	 * @param instrumentId
+	 * @param rspMsg
+	 */
+	public void offer(@Nonnull String instrumentId, @Nonnull FtdcRspMsg rspMsg) {
+		Slot slot = slots.get(instrumentId);
+		if (slot == null)
+			slot = slots.computeIfAbsent(instrumentId, key -> new Slot());
+		// 由空变为非空时加入脏合约队列, 否则覆盖尚未消费的行情
+		if (slot.latest.getAndSet(rspMsg) == null)
+			dirtySlots.offer(slot);
+		else
+			conflatedCount.increment();
+	}
+
+	/**
+	 * 取出下一个脏合约的最新行情
+	 * 
+	 * @return 没有待处理行情时返回null
+	 */
+	@Nullable
+	public FtdcRspMsg poll() {
+		Slot slot;
+		while ((slot = dirtySlots.poll()) != null) {
+			FtdcRspMsg rspMsg = slot.latest.getAndSet(null);
+			if (rspMsg != null)
+				return rspMsg;
+		}
+		return null;
+	}
+
+	/**
+	 * 待处理的合约数量
+	 * 
+	 * @return
+	 */
+	public int getDirtyCount() {
+		return dirtySlots.size();
+	}
+
+	/**
+	 * 被合并的行情数量
+	 * 
+	 * @return
+	 */
+	public long getConflatedCount() {
+		return conflatedCount.sum();
+	}
+
+}
@@ -0,0 +1,198 @@
+package io.horizon.ftdc.gateway.queue;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.List;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.slf4j.Logger;
+
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsgCodec;
+import io.mercury.common.log.CommonLoggerFactory;
+
+/**
+ * 交易通道的溢出段, 先进先出, 不丢弃消息<br>
+ * 指定文件时先写入内存映射文件, 文件写满后继续写入堆内队列<br>
+ * 读取顺序为文件在前, 堆内队列在后, 堆内队列非空时新消息只写入堆内队列<br>
+ * 
+ * 编码在写入方线程的锁外完成, 锁内只复制字节或移动对象引用<br>
+ * 读取方在锁内认领一段记录, 在锁外解码, 再回到锁内释放已读取的范围<br>
+ * 除encode和decodeClaimed外, 所有方法都需要在外部锁内调用
+ * 
+ * @author yellow013
+ */
+@NotThreadSafe
+final class FtdcOverflowSegment implements Closeable {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcOverflowSegment.class);
+
+	// 写入方线程的编码缓冲区
+	private static final ThreadLocal<ByteBuffer> EncodeBuffer = ThreadLocal
+			.withInitial(() -> ByteBuffer.allocate(8192));
+
+	// 堆内队列
+	private final ArrayDeque<FtdcRspMsg> heap = new ArrayDeque<>(1024);
+
+	// 内存映射文件, 未指定文件时为null
+	private final MappedByteBuffer mapped;
+
+	private final FileChannel channel;
+
+	// 以下字段在外部锁内读写, decodeClaimed只由读取方线程在认领后访问readPosition和claimedPosition
+	private int readPosition;
+
+	private int writePosition;
+
+	// 已认领但尚未释放的文件范围终点
+	private int claimedPosition;
+
+	// 写入文件的消息数量
+	private volatile long fileSpillCount;
+
+	/**
+	 * 
+	 * @param file 溢出文件, 为null时只使用堆内队列
+	 * @param size 文件大小
+	 * @throws IOException
+	 */
+	FtdcOverflowSegment(@Nullable File file, int size) throws IOException {
+		if (file != null) {
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			this.mapped = channel.map(MapMode.READ_WRITE, 0, size);
+			log.info("FtdcOverflowSegment mapped file -> {}, size -> {}", file.getAbsolutePath(), size);
+		} else {
+			this.channel = null;
+			this.mapped = null;
+		}
+	}
+
+	/**
+	 * 在锁外调用, 编码结果写入当前线程的缓冲区
+	 * 
+	 * @param rspMsg
+	 * @return 编码完成的缓冲区, 未使用文件时返回null
+	 */
+	@Nullable
+	ByteBuffer encode(FtdcRspMsg rspMsg) {
+		if (mapped == null)
+			return null;
+		ByteBuffer buffer = EncodeBuffer.get();
+		for (;;) {
+			try {
+				buffer.clear();
+				FtdcRspMsgCodec.encode(rspMsg, buffer);
+				buffer.flip();
+				return buffer;
+			} catch (BufferOverflowException e) {
+				buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+				EncodeBuffer.set(buffer);
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @param rspMsg
+	 * @param encoded encode的返回值
+	 */
+	void append(FtdcRspMsg rspMsg, @Nullable ByteBuffer encoded) {
+		if (encoded != null && heap.isEmpty() && appendToFile(encoded))
+			return;
+		heap.addLast(rspMsg);
+	}
+
+	private boolean appendToFile(ByteBuffer encoded) {
+		int length = encoded.remaining();
+		if (writePosition + Integer.BYTES + length > mapped.capacity())
+			return false;
+		ByteBuffer target = mapped.duplicate();
+		target.position(writePosition);
+		target.putInt(length);
+		target.put(encoded);
+		writePosition += Integer.BYTES + length;
+		fileSpillCount++;
+		return true;
+	}
+
+	/**
+	 * 认领最多maxCount条消息, 文件中的记录只认领范围, 由decodeClaimed在锁外解码<br>
+	 * 文件中没有未读记录时从堆内队列取出消息放入list
+	 * 
+	 * @param list
+	 * @param maxCount
+	 */
+	void claim(List<FtdcRspMsg> list, int maxCount) {
+		int position = readPosition;
+		int count = 0;
+		while (count < maxCount && position < writePosition) {
+			position += Integer.BYTES + mapped.getInt(position);
+			count++;
+		}
+		this.claimedPosition = position;
+		if (count > 0)
+			return;
+		FtdcRspMsg rspMsg;
+		while (count < maxCount && (rspMsg = heap.pollFirst()) != null) {
+			list.add(rspMsg);
+			count++;
+		}
+	}
+
+	/**
+	 * 在锁外由读取方线程调用, 解码已认领的文件记录并按顺序放入list<br>
+	 * 写入方只会在已认领范围之后写入, 锁的获取和释放保证已认领范围内的数据可见
+	 * 
+	 * @param list
+	 */
+	void decodeClaimed(List<FtdcRspMsg> list) {
+		int position = readPosition;
+		while (position < claimedPosition) {
+			int length = mapped.getInt(position);
+			ByteBuffer record = mapped.duplicate();
+			record.position(position + Integer.BYTES);
+			record.limit(position + Integer.BYTES + length);
+			list.add(FtdcRspMsgCodec.decode(record.slice()));
+			position += Integer.BYTES + length;
+		}
+	}
+
+	/**
+	 * 释放已认领的文件范围
+	 */
+	void release() {
+		this.readPosition = claimedPosition;
+		if (readPosition == writePosition) {
+			// 文件已读完, 从头开始复用
+			this.readPosition = 0;
+			this.writePosition = 0;
+			this.claimedPosition = 0;
+		}
+	}
+
+	boolean isEmpty() {
+		return readPosition == writePosition && heap.isEmpty();
+	}
+
+	long getFileSpillCount() {
+		return fileSpillCount;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (channel != null)
+			channel.close();
+	}
+
+}
@@ -0,0 +1,363 @@
+package io.horizon.ftdc.gateway.queue;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.jctools.queues.MpscArrayQueue;
+import org.slf4j.Logger;
+
+import io.horizon.ftdc.gateway.FtdcAffinity;
+import io.horizon.ftdc.gateway.FtdcRspPublisher;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.mercury.common.log.CommonLoggerFactory;
+import io.mercury.common.thread.Threads;
+import io.mercury.common.util.Assertor;
+
+/**
+ * 按优先级分离的回调消息通道<br>
+ * 交易通道: 连接事件, 报单回报, 成交回报, 查询结果<br>
+ * 行情通道: 行情推送<br>
+ * 单一消费线程每处理一条行情前先清空交易通道, 保证成交回报不会排在大量行情之后<br>
+ * 启用行情合并时, 行情通道替换为按合约合并的缓冲区<br>
+ * 
+ * 写入方(CTP回调线程)永不等待消费线程:<br>
+ * 交易通道写满后进入溢出段, 溢出期间新消息全部写入溢出段以保证顺序, 交易消息不会被丢弃<br>
+ * 行情通道写满后丢弃行情并计数<br>
+ * 
+ * 消费线程空闲时按FtdcWaitStrategy等待, 可绑定到指定核心
+ * 
+ * @author yellow013
+ */
+public final class FtdcPriorityLanes implements FtdcRspPublisher, Closeable {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcPriorityLanes.class);
+
+	// 交易通道
+	private final MpscArrayQueue<FtdcRspMsg> tradeLane;
+
+	// 行情通道
+	private final MpscArrayQueue<FtdcRspMsg> mdLane;
+
+	// 行情合并缓冲区, 未启用时为null
+	private final FtdcConflatingMdBuffer conflatingMdBuffer;
+
+	// 交易通道溢出段, 除编码和解码外仅在持有spillLock时访问
+	private final FtdcOverflowSegment overflow;
+
+	private final Object spillLock = new Object();
+
+	// 是否处于溢出状态
+	private volatile boolean isSpilling;
+
+	// 每次从溢出段取出的消息数量
+	private static final int SpillBatchSize = 256;
+
+	// 消费线程使用的溢出消息批次
+	private final List<FtdcRspMsg> spillBatch = new ArrayList<>(SpillBatchSize);
+
+	// 进入溢出段的交易消息数量
+	private final LongAdder spillCount = new LongAdder();
+
+	// 发生溢出的次数
+	private final LongAdder spillEventCount = new LongAdder();
+
+	// 丢弃的行情数量
+	private final LongAdder droppedMdCount = new LongAdder();
+
+	// 消息处理器
+	private final Consumer<FtdcRspMsg> processor;
+
+	private final String name;
+
+	// 空闲等待策略
+	private FtdcWaitStrategy waitStrategy = FtdcWaitStrategy.Yield;
+
+	// 消费线程绑定的核心, 小于0时不绑定
+	private int consumerCpu = -1;
+
+	private volatile boolean isRunning;
+
+	/**
+	 * 
+	 * @param name
+	 * @param tradeLaneCapacity
+	 * @param mdLaneCapacity
+	 * @param processor
+	 */
+	public FtdcPriorityLanes(@Nonnull String name, int tradeLaneCapacity, int mdLaneCapacity,
+			@Nonnull Consumer<FtdcRspMsg> processor) {
+		this(name, tradeLaneCapacity, mdLaneCapacity, false, null, 0, processor);
+	}
+
+	/**
+	 * 
+	 * @param name
+	 * @param tradeLaneCapacity
+	 * @param mdLaneCapacity
+	 * @param conflateMarketData
+	 * @param spillFile          溢出文件, 为null时溢出段只使用堆内存
+	 * @param spillFileSize
+	 * @param processor
+	 */
+	public FtdcPriorityLanes(@Nonnull String name, int tradeLaneCapacity, int mdLaneCapacity,
+			boolean conflateMarketData, @Nullable File spillFile, int spillFileSize,
+			@Nonnull Consumer<FtdcRspMsg> processor) {
+		Assertor.nonEmpty(name, "name");
+		Assertor.nonNull(processor, "processor");
+		this.name = name;
+		this.tradeLane = new MpscArrayQueue<>(tradeLaneCapacity);
+		this.mdLane = conflateMarketData ? null : new MpscArrayQueue<>(mdLaneCapacity);
+		this.conflatingMdBuffer = conflateMarketData ? new FtdcConflatingMdBuffer() : null;
+		this.overflow = newOverflowSegment(spillFile, spillFileSize);
+		this.processor = processor;
+	}
+
+	private FtdcOverflowSegment newOverflowSegment(File spillFile, int spillFileSize) {
+		try {
+			return new FtdcOverflowSegment(spillFile, spillFileSize);
+		} catch (IOException e) {
+			// 文件不可用时只使用堆内存, 不影响交易消息
+			log.error("FtdcPriorityLanes -> {} unable to map spill file, use heap only -> {}", name, e.getMessage(),
+					e);
+			try {
+				return new FtdcOverflowSegment(null, 0);
+			} catch (IOException e2) {
+				throw new IllegalStateException(e2);
+			}
+		}
+	}
+
+	/**
+	 * 设置空闲等待策略, 在start之前调用
+	 * 
+	 * @param waitStrategy
+	 * @return
+	 */
+	public FtdcPriorityLanes setWaitStrategy(@Nonnull FtdcWaitStrategy waitStrategy) {
+		Assertor.nonNull(waitStrategy, "waitStrategy");
+		this.waitStrategy = waitStrategy;
+		return this;
+	}
+
+	/**
+	 * 设置消费线程绑定的核心, 在start之前调用
+	 * 
+	 * @param consumerCpu 小于0时不绑定
+	 * @return
+	 */
+	public FtdcPriorityLanes setConsumerCpu(int consumerCpu) {
+		this.consumerCpu = consumerCpu;
+		return this;
+	}
+
+	/**
+	 * 启动消费线程
+	 * 
+	 * @return
+	 */
+	public FtdcPriorityLanes start() {
+		if (!isRunning) {
+			this.isRunning = true;
+			Threads.startNewMaxPriorityThread(name, this::consume);
+			log.info("FtdcPriorityLanes -> {} started, waitStrategy==[{}], consumerCpu==[{}]", name, waitStrategy,
+					consumerCpu);
+		}
+		return this;
+	}
+
+	@Override
+	public void publish(@Nonnull FtdcRspMsg rspMsg) {
+		final MpscArrayQueue<FtdcRspMsg> lane;
+		switch (rspMsg.getRspType()) {
+		case FtdcDepthMarketData:
+			if (conflatingMdBuffer != null) {
+				conflatingMdBuffer.offer(rspMsg.getFtdcDepthMarketData().getInstrumentID(), rspMsg);
+				return;
+			}
+			lane = mdLane;
+			break;
+		case MarketData:
+			if (conflatingMdBuffer != null) {
+				conflatingMdBuffer.offer(rspMsg.getMarketData().getInstrumentCode(), rspMsg);
+				return;
+			}
+			lane = mdLane;
+			break;
+		default:
+			publishTrade(rspMsg);
+			return;
+		}
+		if (!lane.offer(rspMsg))
+			droppedMdCount.increment();
+	}
+
+	private void publishTrade(FtdcRspMsg rspMsg) {
+		if (!isSpilling && tradeLane.offer(rspMsg))
+			return;
+		// 在锁外完成编码, 锁内只复制字节
+		ByteBuffer encoded = overflow.encode(rspMsg);
+		synchronized (spillLock) {
+			if (!isSpilling && tradeLane.offer(rspMsg))
+				return;
+			if (!isSpilling) {
+				this.isSpilling = true;
+				spillEventCount.increment();
+			}
+			overflow.append(rspMsg, encoded);
+			spillCount.increment();
+		}
+	}
+
+	private FtdcRspMsg pollMarketData() {
+		return conflatingMdBuffer != null ? conflatingMdBuffer.poll() : mdLane.poll();
+	}
+
+	private void consume() {
+		FtdcAffinity.bindCurrentThread(consumerCpu, "FtdcPriorityLanes-Consumer");
+		final FtdcWaitStrategy waitStrategy = this.waitStrategy;
+		int idleCount = 0;
+		while (isRunning) {
+			boolean isIdle = true;
+			// 优先处理全部交易消息
+			if (drainTrade())
+				isIdle = false;
+			FtdcRspMsg rspMsg;
+			// 每次只处理一条行情, 然后重新检查交易通道
+			if ((rspMsg = pollMarketData()) != null) {
+				process(rspMsg);
+				isIdle = false;
+			}
+			if (isIdle)
+				idleCount = waitStrategy.idle(idleCount);
+			else
+				idleCount = 0;
+		}
+		log.info("FtdcPriorityLanes -> {} stopped", name);
+	}
+
+	/**
+	 * 处理交易通道和溢出段中的消息
+	 * 
+	 * @return 是否处理了消息
+	 */
+	private boolean drainTrade() {
+		boolean processed = false;
+		FtdcRspMsg rspMsg;
+		while ((rspMsg = tradeLane.poll()) != null) {
+			process(rspMsg);
+			processed = true;
+		}
+		if (isSpilling) {
+			// 锁内只认领记录范围, 解码在锁外完成, 写入方不会等待解码
+			synchronized (spillLock) {
+				overflow.claim(spillBatch, SpillBatchSize);
+			}
+			overflow.decodeClaimed(spillBatch);
+			// 溢出开始前已写入交易通道的消息先于溢出段处理
+			while ((rspMsg = tradeLane.poll()) != null)
+				process(rspMsg);
+			for (int i = 0; i < spillBatch.size(); i++)
+				process(spillBatch.get(i));
+			spillBatch.clear();
+			synchronized (spillLock) {
+				overflow.release();
+				// 溢出段处理完成后恢复写入交易通道
+				if (overflow.isEmpty())
+					this.isSpilling = false;
+			}
+			processed = true;
+		}
+		return processed;
+	}
+
+	private void process(FtdcRspMsg rspMsg) {
+		try {
+			processor.accept(rspMsg);
+		} catch (Exception e) {
+			log.error("FtdcPriorityLanes -> {} process exception -> {}", name, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 交易通道当前深度
+	 * 
+	 * @return
+	 */
+	public int getTradeLaneDepth() {
+		return tradeLane.size();
+	}
+
+	/**
+	 * 行情通道当前深度, 启用行情合并时为待处理的合约数量
+	 * 
+	 * @return
+	 */
+	public int getMdLaneDepth() {
+		return conflatingMdBuffer != null ? conflatingMdBuffer.getDirtyCount() : mdLane.size();
+	}
+
+	/**
+	 * 被合并的行情数量, 未启用行情合并时返回0
+	 * 
+	 * @return
+	 */
+	public long getConflatedCount() {
+		return conflatingMdBuffer != null ? conflatingMdBuffer.getConflatedCount() : 0L;
+	}
+
+	/**
+	 * 进入溢出段的交易消息数量
+	 * 
+	 * @return
+	 */
+	public long getSpillCount() {
+		return spillCount.sum();
+	}
+
+	/**
+	 * 发生溢出的次数
+	 * 
+	 * @return
+	 */
+	public long getSpillEventCount() {
+		return spillEventCount.sum();
+	}
+
+	/**
+	 * 写入溢出文件的交易消息数量
+	 * 
+	 * @return
+	 */
+	public long getFileSpillCount() {
+		return overflow.getFileSpillCount();
+	}
+
+	/**
+	 * 行情通道已满时丢弃的行情数量
+	 * 
+	 * @return
+	 */
+	public long getDroppedMdCount() {
+		return droppedMdCount.sum();
+	}
+
+	@Override
+	public void close() {
+		this.isRunning = false;
+		try {
+			overflow.close();
+		} catch (IOException e) {
+			log.error("FtdcPriorityLanes -> {} close overflow exception -> {}", name, e.getMessage(), e);
+		}
+	}
+
+}
@@ -0,0 +1,139 @@
+package io.horizon.ftdc.gateway.queue;
+
+import java.io.Closeable;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import org.jctools.queues.MpscArrayQueue;
+import org.slf4j.Logger;
+
+import io.horizon.ftdc.gateway.FtdcAffinity;
+import io.horizon.ftdc.gateway.FtdcRspPublisher;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.mercury.common.log.CommonLoggerFactory;
+import io.mercury.common.thread.Threads;
+import io.mercury.common.util.Assertor;
+
+/**
+ * 单一回调消息队列<br>
+ * 全部回调消息按到达顺序进入同一队列, 不区分交易和行情, 队列写满时写入方让出CPU直到有空位, 消息不会被丢弃<br>
+ * 消费线程空闲时按FtdcWaitStrategy等待, 可绑定到指定核心
+ *
+ * @author yellow013
+ */
+public final class FtdcRspQueue implements FtdcRspPublisher, Closeable {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcRspQueue.class);
+
+	private final MpscArrayQueue<FtdcRspMsg> queue;
+
+	// 消息处理器
+	private final Consumer<FtdcRspMsg> processor;
+
+	private final String name;
+
+	// 空闲等待策略
+	private FtdcWaitStrategy waitStrategy = FtdcWaitStrategy.Yield;
+
+	// 消费线程绑定的核心, 小于0时不绑定
+	private int consumerCpu = -1;
+
+	private volatile boolean isRunning;
+
+	/**
+	 * 
+	 * @param name
+	 * @param capacity
+	 * @param processor
+	 */
+	public FtdcRspQueue(@Nonnull String name, int capacity, @Nonnull Consumer<FtdcRspMsg> processor) {
+		Assertor.nonEmpty(name, "name");
+		Assertor.nonNull(processor, "processor");
+		this.name = name;
+		this.queue = new MpscArrayQueue<>(capacity);
+		this.processor = processor;
+	}
+
+	/**
+	 * 设置空闲等待策略, 在start之前调用
+	 * 
+	 * @param waitStrategy
+	 * @return
+	 */
+	public FtdcRspQueue setWaitStrategy(@Nonnull FtdcWaitStrategy waitStrategy) {
+		Assertor.nonNull(waitStrategy, "waitStrategy");
+		this.waitStrategy = waitStrategy;
+		return this;
+	}
+
+	/**
+	 * 设置消费线程绑定的核心, 在start之前调用
+	 * 
+	 * @param consumerCpu 小于0时不绑定
+	 * @return
+	 */
+	public FtdcRspQueue setConsumerCpu(int consumerCpu) {
+		this.consumerCpu = consumerCpu;
+		return this;
+	}
+
+	/**
+	 * 启动消费线程
+	 * 
+	 * @return
+	 */
+	public FtdcRspQueue start() {
+		if (!isRunning) {
+			this.isRunning = true;
+			Threads.startNewMaxPriorityThread(name, this::consume);
+			log.info("FtdcRspQueue -> {} started, waitStrategy==[{}], consumerCpu==[{}]", name, waitStrategy,
+					consumerCpu);
+		}
+		return this;
+	}
+
+	@Override
+	public void publish(@Nonnull FtdcRspMsg rspMsg) {
+		while (!queue.offer(rspMsg)) {
+			if (!isRunning)
+				return;
+			Thread.yield();
+		}
+	}
+
+	private void consume() {
+		FtdcAffinity.bindCurrentThread(consumerCpu, "FtdcRspQueue-Consumer");
+		final FtdcWaitStrategy waitStrategy = this.waitStrategy;
+		int idleCount = 0;
+		while (isRunning) {
+			FtdcRspMsg rspMsg = queue.poll();
+			if (rspMsg != null) {
+				try {
+					processor.accept(rspMsg);
+				} catch (Exception e) {
+					log.error("FtdcRspQueue -> {} process exception -> {}", name, e.getMessage(), e);
+				}
+				idleCount = 0;
+			} else {
+				idleCount = waitStrategy.idle(idleCount);
+			}
+		}
+		log.info("FtdcRspQueue -> {} stopped", name);
+	}
+
+	/**
+	 * 队列当前深度
+	 * 
+	 * @return
+	 */
+	public int getDepth() {
+		return queue.size();
+	}
+
+	@Override
+	public void close() {
+		this.isRunning = false;
+	}
+
+}
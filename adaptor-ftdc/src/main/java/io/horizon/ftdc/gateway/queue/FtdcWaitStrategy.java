@@ -0,0 +1,76 @@
+package io.horizon.ftdc.gateway.queue;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 消费线程空闲时的等待策略<br>
+ * BusySpin延迟最低但独占一个核心, Park占用CPU最少但唤醒延迟在数十微秒,
+ * Adaptive先自旋, 再让出, 最后以递增的时间休眠
+ *
+ * @author yellow013
+ */
+public enum FtdcWaitStrategy {
+
+	// 忙等
+	BusySpin {
+		@Override
+		public int idle(int idleCount) {
+			return idleCount + 1;
+		}
+	},
+
+	// Thread.yield
+	Yield {
+		@Override
+		public int idle(int idleCount) {
+			Thread.yield();
+			return idleCount + 1;
+		}
+	},
+
+	// LockSupport.parkNanos
+	Park {
+		@Override
+		public int idle(int idleCount) {
+			LockSupport.parkNanos(MinParkNanos);
+			return idleCount + 1;
+		}
+	},
+
+	// 自旋 -> 让出 -> 递增休眠
+	Adaptive {
+		@Override
+		public int idle(int idleCount) {
+			if (idleCount < SpinCount) {
+				// 自旋
+			} else if (idleCount < SpinCount + YieldCount) {
+				Thread.yield();
+			} else {
+				int shift = Math.min(idleCount - SpinCount - YieldCount, MaxParkShift);
+				LockSupport.parkNanos(MinParkNanos << shift);
+			}
+			// 达到最长休眠后不再增加
+			return Math.min(idleCount + 1, SpinCount + YieldCount + MaxParkShift);
+		}
+	},
+
+	;
+
+	private static final int SpinCount = 100;
+
+	private static final int YieldCount = 100;
+
+	private static final long MinParkNanos = 1000L;
+
+	// 最长休眠 MinParkNanos << 10, 约1毫秒
+	private static final int MaxParkShift = 10;
+
+	/**
+	 * 空闲一次
+	 *
+	 * @param idleCount 连续空闲次数, 处理消息后由调用方重置为0
+	 * @return 新的连续空闲次数
+	 */
+	public abstract int idle(int idleCount);
+
+}
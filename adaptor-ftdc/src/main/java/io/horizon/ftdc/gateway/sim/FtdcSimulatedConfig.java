@@ -0,0 +1,57 @@
+package io.horizon.ftdc.gateway.sim;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * 模拟前置配置
+ * 
+ * @author yellow013
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+public final class FtdcSimulatedConfig {
+
+	// 每个已订阅合约每秒产生的行情数量, 为0时不产生行情
+	private int ticksPerSecond = 10;
+
+	// 报单处理方式
+	private OrderBehavior orderBehavior = OrderBehavior.Fill;
+
+	// 每组回报发出前的模拟延迟
+	private long callbackDelayMicros = 0L;
+
+	// 行情起始价格
+	private double initialPrice = 4000.0D;
+
+	// 行情价格变动单位
+	private double priceTick = 1.0D;
+
+	// 行情交易所代码
+	private String exchangeId = "";
+
+	// 账户初始资金
+	private double initialBalance = 1_000_000.0D;
+
+	/**
+	 * 模拟前置对报单的处理方式
+	 */
+	public static enum OrderBehavior {
+
+		// 报单被接受并挂单
+		Accept,
+
+		// 报单被接受并全部成交
+		Fill,
+
+		// 报单被接受并部分成交, 剩余数量挂单
+		PartialFill,
+
+		// 报单被CTP拒绝
+		Reject,
+
+	}
+
+}
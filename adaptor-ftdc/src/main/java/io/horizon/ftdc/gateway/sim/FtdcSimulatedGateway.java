@@ -0,0 +1,445 @@
+package io.horizon.ftdc.gateway.sim;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+
+import io.horizon.ftdc.adaptor.consts.FtdcDirection;
+import io.horizon.ftdc.adaptor.consts.FtdcHedgeFlag;
+import io.horizon.ftdc.adaptor.consts.FtdcOffsetFlag;
+import io.horizon.ftdc.adaptor.consts.FtdcOrderStatusType;
+import io.horizon.ftdc.adaptor.consts.FtdcPosiDirection;
+import io.horizon.ftdc.gateway.AbstractFtdcGateway;
+import io.horizon.ftdc.gateway.FtdcBootstrapTracker.Phase;
+import io.horizon.ftdc.gateway.FtdcConfig;
+import io.horizon.ftdc.gateway.FtdcRspPublisher;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg.RspType;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcDepthMarketData;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInputOrder;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInputOrderAction;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInvestorPosition;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcMdConnect;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcOrder;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcOrderAction;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTrade;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTraderConnect;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTradingAccount;
+import io.horizon.market.instrument.Instrument;
+import io.horizon.trader.order.ChildOrder;
+import io.horizon.trader.order.Order;
+import io.horizon.trader.order.attr.TrdDirection;
+import io.mercury.common.log.CommonLoggerFactory;
+import io.mercury.common.util.Assertor;
+
+/**
+ * 进程内模拟CTP前置, 不依赖CTP动态库<br>
+ * 行情线程按配置的频率为已订阅合约产生随机游走行情<br>
+ * 交易线程按CTP的回调顺序发布报单回报:<br>
+ * 接受: RtnOrder(Unknown) -> RtnOrder(NoTradeQueueing)<br>
+ * 成交: 接受 -> RtnOrder(AllTraded) -> RtnTrade<br>
+ * 部分成交: 接受 -> RtnOrder(PartTradedQueueing) -> RtnTrade<br>
+ * 拒绝: RspOrderInsert -> ErrRtnOrderInsert<br>
+ * 撤单: RtnOrder(Canceled), 订单不存在时为RspOrderAction -> ErrRtnOrderAction<br>
+ * Rsp消息携带请求ID, ErrRtn推送的请求ID为0<br>
+ *
+ * 交易线程为单线程, 订单状态只在交易线程中访问
+ *
+ * @author yellow013
+ */
+public final class FtdcSimulatedGateway extends AbstractFtdcGateway {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcSimulatedGateway.class);
+
+	private static final DateTimeFormatter DateFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+	private static final DateTimeFormatter TimeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+	private final FtdcSimulatedConfig simulatedConfig;
+
+	// 行情线程
+	private final ScheduledExecutorService mdExecutor;
+
+	// 交易线程, 模拟CTP的单一回调线程
+	private final ExecutorService traderExecutor;
+
+	private final AtomicBoolean isStarted = new AtomicBoolean(false);
+
+	// 已订阅合约
+	private final Set<String> subscribedInstruments = ConcurrentHashMap.newKeySet();
+
+	// 以下字段只在行情线程中访问
+	private final Map<String, SimQuote> quotes = new HashMap<>();
+
+	// 以下字段只在交易线程中访问
+	private final Map<String, SimOrder> liveOrders = new LinkedHashMap<>();
+
+	// 合约持仓, [0]为多头, [1]为空头
+	private final Map<String, int[]> positions = new LinkedHashMap<>();
+
+	private int orderSysIdSeq;
+
+	private int tradeIdSeq;
+
+	private final AtomicInteger requestId = new AtomicInteger(0);
+
+	private final int frontId = 1;
+
+	private final int sessionId = ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE);
+
+	public FtdcSimulatedGateway(@Nonnull String gatewayId, @Nonnull FtdcConfig ftdcConfig,
+			@Nonnull FtdcRspPublisher rspPublisher) {
+		super(gatewayId, ftdcConfig, rspPublisher);
+		Assertor.nonNull(ftdcConfig.getSimulatedConfig(), "simulatedConfig");
+		this.simulatedConfig = ftdcConfig.getSimulatedConfig();
+		this.mdExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> newThread(runnable, "-md"));
+		this.traderExecutor = Executors.newSingleThreadExecutor(runnable -> newThread(runnable, "-trader"));
+	}
+
+	private Thread newThread(Runnable runnable, String suffix) {
+		Thread thread = new Thread(runnable, gatewayId + suffix);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	@Override
+	public void bootstrap() {
+		if (isStarted.compareAndSet(false, true)) {
+			bootstrapTracker.start();
+			log.info("FtdcSimulatedGateway -> {} bootstrap, frontId==[{}], sessionId==[{}]", gatewayId, frontId,
+					sessionId);
+			traderExecutor.execute(() -> {
+				bootstrapTracker.mark(Phase.TraderConnected);
+				bootstrapTracker.mark(Phase.TraderLogin);
+				rspPublisher.publish(new FtdcRspMsg(new FtdcTraderConnect(true).setFrontID(frontId)
+						.setSessionID(sessionId).setMaxOrderRef("0")
+						.setTradingDay(LocalDateTime.now().format(DateFormatter))));
+				bootstrapTracker.mark(Phase.MdConnected);
+				bootstrapTracker.mark(Phase.MdLogin);
+				if (ftdcConfig.getBootstrapInstruments() != null)
+					SubscribeMarketData(ftdcConfig.getBootstrapInstruments());
+				rspPublisher.publish(new FtdcRspMsg(new FtdcMdConnect(true)));
+			});
+			int ticksPerSecond = simulatedConfig.getTicksPerSecond();
+			if (ticksPerSecond > 0) {
+				long periodNanos = Math.max(1L, TimeUnit.SECONDS.toNanos(1) / ticksPerSecond);
+				mdExecutor.scheduleAtFixedRate(this::publishTicks, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+	@Override
+	public void SubscribeMarketData(@Nonnull String... instruements) {
+		for (String instrumentId : instruements) {
+			subscribedInstruments.add(instrumentId);
+			// 模拟OnRspSubMarketData
+			bootstrapTracker.onSubscribed(instrumentId);
+		}
+		log.info("FtdcSimulatedGateway SubscribeMarketData -> count==[{}]", instruements.length);
+	}
+
+	/**
+	 * 仅在行情线程中调用
+	 */
+	private void publishTicks() {
+		if (subscribedInstruments.isEmpty())
+			return;
+		LocalDateTime now = LocalDateTime.now();
+		String date = now.format(DateFormatter);
+		String time = now.format(TimeFormatter);
+		int millisec = now.getNano() / 1_000_000;
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (String instrumentId : subscribedInstruments) {
+			SimQuote quote = quotes.computeIfAbsent(instrumentId,
+					key -> new SimQuote(simulatedConfig.getInitialPrice()));
+			// 价格随机游走
+			quote.lastPrice += (random.nextInt(3) - 1) * simulatedConfig.getPriceTick();
+			int volume = random.nextInt(1, 10);
+			quote.volume += volume;
+			quote.turnover += volume * quote.lastPrice;
+			FtdcDepthMarketData depth = new FtdcDepthMarketData().setTradingDay(date).setActionDay(date)
+					.setUpdateTime(time).setUpdateMillisec(millisec).setInstrumentID(instrumentId)
+					.setExchangeID(simulatedConfig.getExchangeId()).setLastPrice(quote.lastPrice)
+					.setVolume(quote.volume).setTurnover(quote.turnover)
+					.setBidPrice1(quote.lastPrice - simulatedConfig.getPriceTick())
+					.setBidVolume1(random.nextInt(1, 100))
+					.setAskPrice1(quote.lastPrice + simulatedConfig.getPriceTick())
+					.setAskVolume1(random.nextInt(1, 100));
+			rspPublisher.publish(new FtdcRspMsg(depth));
+		}
+	}
+
+	@Override
+	public int ReqOrderInsert(@Nonnull Order order, @Nonnull IntSupplier orderRefSupplier) {
+		Instrument instrument = order.getInstrument();
+		FtdcInputOrder inputOrder = new FtdcInputOrder().setBrokerID(ftdcConfig.getBrokerId())
+				.setInvestorID(ftdcConfig.getInvestorId()).setUserID(ftdcConfig.getUserId())
+				.setExchangeID(instrument.getExchangeCode()).setInstrumentID(instrument.getInstrumentCode())
+				.setDirection(order.getDirection() == TrdDirection.Long ? FtdcDirection.Buy : FtdcDirection.Sell)
+				.setCombOffsetFlag(offsetFlagOf(order)).setCombHedgeFlag(FtdcHedgeFlag.SpeculationString)
+				.setLimitPrice(instrument.getPriceMultiplier().toDouble(order.getPrice().getOfferPrice()))
+				.setVolumeTotalOriginal(order.getQty().getOfferQty());
+		// 与FtdcGateway一致, 在报单发送锁内分配OrderRef并进入模拟前置队列
+		synchronized (insertLock) {
+			int orderRef = orderRefSupplier.getAsInt();
+			ReqOrderInsert(inputOrder.setOrderRef(Integer.toString(orderRef)));
+			return orderRef;
+		}
+	}
+
+	private static String offsetFlagOf(Order order) {
+		if (!(order instanceof ChildOrder))
+			return FtdcOffsetFlag.OpenString;
+		switch (((ChildOrder) order).getAction()) {
+		case Close:
+			return FtdcOffsetFlag.CloseString;
+		case CloseToday:
+			return FtdcOffsetFlag.CloseTodayString;
+		case CloseYesterday:
+			return FtdcOffsetFlag.CloseYesterdayString;
+		default:
+			return FtdcOffsetFlag.OpenString;
+		}
+	}
+
+	/**
+	 * 使用FtdcInputOrder报单
+	 *
+	 * @param inputOrder
+	 */
+	public void ReqOrderInsert(@Nonnull FtdcInputOrder inputOrder) {
+		// 与CTP前置一致, 报单按进入发送锁的顺序到达
+		synchronized (insertLock) {
+			traderExecutor.execute(() -> {
+				delay();
+				if (simulatedConfig.getOrderBehavior() == FtdcSimulatedConfig.OrderBehavior.Reject) {
+					// CTP拒绝报单, 与CTP一致依次回调RspOrderInsert和ErrRtnOrderInsert
+					inputOrder.setErrorID(31).setErrorMsg("CTP:资金不足");
+					rspPublisher.publish(new FtdcRspMsg(inputOrder).setRequestId(requestId.incrementAndGet()));
+					rspPublisher.publish(new FtdcRspMsg(inputOrder));
+					return;
+				}
+				SimOrder order = new SimOrder(inputOrder);
+				rspPublisher.publish(new FtdcRspMsg(toFtdcOrder(order), true));
+				order.orderSysId = Integer.toString(++orderSysIdSeq);
+				order.status = FtdcOrderStatusType.NoTradeQueueing;
+				rspPublisher.publish(new FtdcRspMsg(toFtdcOrder(order), true));
+				switch (simulatedConfig.getOrderBehavior()) {
+				case Fill:
+					delay();
+					fill(order, inputOrder.getVolumeTotalOriginal());
+					break;
+				case PartialFill:
+					delay();
+					fill(order, Math.max(1, inputOrder.getVolumeTotalOriginal() / 2));
+					break;
+				default:
+					break;
+				}
+				if (order.isLive())
+					liveOrders.put(inputOrder.getOrderRef(), order);
+			});
+		}
+	}
+
+	private void fill(SimOrder order, int volume) {
+		order.volumeTraded += volume;
+		order.status = order.volumeTraded >= order.input.getVolumeTotalOriginal() ? FtdcOrderStatusType.AllTraded
+				: FtdcOrderStatusType.PartTradedQueueing;
+		rspPublisher.publish(new FtdcRspMsg(toFtdcOrder(order), true));
+		FtdcInputOrder input = order.input;
+		char offsetFlag = input.getCombOffsetFlag().charAt(0);
+		rspPublisher.publish(new FtdcRspMsg(new FtdcTrade().setBrokerID(input.getBrokerID())
+				.setInvestorID(input.getInvestorID()).setUserID(input.getUserID())
+				.setExchangeID(input.getExchangeID()).setInstrumentID(input.getInstrumentID())
+				.setOrderRef(input.getOrderRef()).setOrderSysID(order.orderSysId)
+				.setTradeID(Integer.toString(++tradeIdSeq)).setDirection(input.getDirection())
+				.setOffsetFlag(offsetFlag).setHedgeFlag(input.getCombHedgeFlag().charAt(0))
+				.setPrice(input.getLimitPrice()).setVolume(volume)));
+		// 更新持仓
+		int[] position = positions.computeIfAbsent(input.getInstrumentID(), key -> new int[2]);
+		boolean isBuy = input.getDirection() == FtdcDirection.Buy;
+		if (offsetFlag == FtdcOffsetFlag.Open)
+			position[isBuy ? 0 : 1] += volume;
+		else
+			position[isBuy ? 1 : 0] -= volume;
+	}
+
+	@Override
+	public void ReqOrderAction(@Nonnull Order order, int frontId, int sessionId, int orderRef,
+			int orderActionRef) {
+		ReqOrderAction(Integer.toString(orderRef), orderActionRef);
+	}
+
+	/**
+	 * 按OrderRef撤单
+	 *
+	 * @param orderRef
+	 * @param orderActionRef
+	 */
+	public void ReqOrderAction(@Nonnull String orderRef, int orderActionRef) {
+		traderExecutor.execute(() -> {
+			delay();
+			SimOrder order = liveOrders.remove(orderRef);
+			if (order == null) {
+				// 订单不存在或已完成, 与CTP一致依次回调RspOrderAction和ErrRtnOrderAction
+				rspPublisher.publish(new FtdcRspMsg(new FtdcInputOrderAction().setBrokerID(ftdcConfig.getBrokerId())
+						.setInvestorID(ftdcConfig.getInvestorId()).setOrderRef(orderRef)
+						.setOrderActionRef(orderActionRef).setFrontID(frontId).setSessionID(sessionId)
+						.setErrorID(25).setErrorMsg("CTP:撤单找不到相应报单")).setRequestId(requestId.incrementAndGet()));
+				rspPublisher.publish(new FtdcRspMsg(new FtdcOrderAction().setBrokerID(ftdcConfig.getBrokerId())
+						.setInvestorID(ftdcConfig.getInvestorId()).setUserID(ftdcConfig.getUserId())
+						.setOrderRef(orderRef).setOrderActionRef(orderActionRef).setFrontID(frontId)
+						.setSessionID(sessionId).setErrorID(25).setErrorMsg("CTP:撤单找不到相应报单")));
+				return;
+			}
+			order.status = FtdcOrderStatusType.Canceled;
+			rspPublisher.publish(new FtdcRspMsg(toFtdcOrder(order), true));
+		});
+	}
+
+	@Override
+	public int ReqQryOrder(String exchangeId) {
+		final int nRequestID = requestId.incrementAndGet();
+		traderExecutor.execute(() -> {
+			delay();
+			List<SimOrder> orders = new ArrayList<>();
+			for (SimOrder order : liveOrders.values())
+				if (exchangeId == null || exchangeId.isEmpty() || exchangeId.equals(order.input.getExchangeID()))
+					orders.add(order);
+			if (orders.isEmpty()) {
+				rspPublisher.publish(FtdcRspMsg.emptyOf(RspType.FtdcOrder, nRequestID));
+				return;
+			}
+			for (int i = 0; i < orders.size(); i++)
+				rspPublisher.publish(new FtdcRspMsg(toFtdcOrder(orders.get(i)), i == orders.size() - 1)
+						.setRequestId(nRequestID));
+		});
+		return nRequestID;
+	}
+
+	@Override
+	public int ReqQryTradingAccount() {
+		final int nRequestID = requestId.incrementAndGet();
+		traderExecutor.execute(() -> {
+			delay();
+			double balance = simulatedConfig.getInitialBalance();
+			rspPublisher.publish(new FtdcRspMsg(new FtdcTradingAccount().setBrokerID(ftdcConfig.getBrokerId())
+					.setAccountID(ftdcConfig.getAccountId()).setPreBalance(balance).setBalance(balance)
+					.setAvailable(balance), true).setRequestId(nRequestID));
+		});
+		return nRequestID;
+	}
+
+	@Override
+	public int ReqQryInvestorPosition(String exchangeId, String instrumentId) {
+		final int nRequestID = requestId.incrementAndGet();
+		traderExecutor.execute(() -> {
+			delay();
+			List<FtdcInvestorPosition> rows = new ArrayList<>();
+			positions.forEach((instrument, position) -> {
+				if (instrumentId != null && !instrumentId.isEmpty() && !instrumentId.equals(instrument))
+					return;
+				if (position[0] > 0)
+					rows.add(newPosition(instrument, FtdcPosiDirection.Long, position[0]));
+				if (position[1] > 0)
+					rows.add(newPosition(instrument, FtdcPosiDirection.Short, position[1]));
+			});
+			if (rows.isEmpty()) {
+				rspPublisher.publish(FtdcRspMsg.emptyOf(RspType.FtdcInvestorPosition, nRequestID));
+				return;
+			}
+			for (int i = 0; i < rows.size(); i++)
+				rspPublisher.publish(new FtdcRspMsg(rows.get(i), i == rows.size() - 1).setRequestId(nRequestID));
+		});
+		return nRequestID;
+	}
+
+	private FtdcInvestorPosition newPosition(String instrumentId, char posiDirection, int qty) {
+		return new FtdcInvestorPosition().setBrokerID(ftdcConfig.getBrokerId())
+				.setInvestorID(ftdcConfig.getInvestorId()).setInstrumentID(instrumentId)
+				.setPosiDirection(posiDirection).setPosition(qty).setTodayPosition(qty);
+	}
+
+	/**
+	 * 每次回报生成新的FtdcOrder, 已发布的对象不会再被修改
+	 *
+	 * @param order
+	 * @return
+	 */
+	private FtdcOrder toFtdcOrder(SimOrder order) {
+		FtdcInputOrder input = order.input;
+		return new FtdcOrder().setBrokerID(input.getBrokerID()).setInvestorID(input.getInvestorID())
+				.setUserID(input.getUserID()).setExchangeID(input.getExchangeID())
+				.setInstrumentID(input.getInstrumentID()).setOrderRef(input.getOrderRef())
+				.setDirection(input.getDirection()).setCombOffsetFlag(input.getCombOffsetFlag())
+				.setCombHedgeFlag(input.getCombHedgeFlag()).setLimitPrice(input.getLimitPrice())
+				.setVolumeTotalOriginal(input.getVolumeTotalOriginal()).setOrderSysID(order.orderSysId)
+				.setOrderStatus(order.status).setVolumeTraded(order.volumeTraded)
+				.setVolumeTotal(input.getVolumeTotalOriginal() - order.volumeTraded).setFrontID(frontId)
+				.setSessionID(sessionId);
+	}
+
+	private void delay() {
+		long delayMicros = simulatedConfig.getCallbackDelayMicros();
+		if (delayMicros > 0)
+			LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(delayMicros));
+	}
+
+	@Override
+	public void close() throws IOException {
+		mdExecutor.shutdownNow();
+		traderExecutor.shutdownNow();
+		log.info("FtdcSimulatedGateway -> {} closed", gatewayId);
+	}
+
+	private static final class SimQuote {
+
+		private double lastPrice;
+		private int volume;
+		private double turnover;
+
+		private SimQuote(double lastPrice) {
+			this.lastPrice = lastPrice;
+		}
+
+	}
+
+	private static final class SimOrder {
+
+		private final FtdcInputOrder input;
+		private String orderSysId = "";
+		private char status = FtdcOrderStatusType.Unknown;
+		private int volumeTraded;
+
+		private SimOrder(FtdcInputOrder input) {
+			this.input = input;
+		}
+
+		private boolean isLive() {
+			return status == FtdcOrderStatusType.NoTradeQueueing || status == FtdcOrderStatusType.PartTradedQueueing;
+		}
+
+	}
+
+}
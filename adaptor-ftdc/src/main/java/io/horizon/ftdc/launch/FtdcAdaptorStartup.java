@@ -1,21 +1,50 @@
 package io.horizon.ftdc.launch;
 
-import static java.lang.System.currentTimeMillis;
-
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-
-import com.rabbitmq.client.MessageProperties;
-
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+
+import io.horizon.ftdc.adaptor.FtdcAdaptor;
+import io.horizon.ftdc.adaptor.FtdcAdaptorParamKey;
+import io.horizon.ftdc.gateway.FtdcConfig;
+import io.horizon.ftdc.launch.FtdcZmqModule.Encoding;
+import io.horizon.market.data.impl.BasicMarketData;
+import io.horizon.market.handler.MarketDataHandler;
+import io.horizon.market.handler.MarketDataHandler.MarketDataLogger;
+import io.horizon.market.instrument.Instrument;
+import io.horizon.market.instrument.InstrumentKeeper;
+import io.horizon.market.instrument.spec.ChinaFuturesSymbol;
+import io.horizon.trader.account.Account;
+import io.horizon.trader.account.AccountKeeper;
+import io.horizon.trader.account.SubAccount;
+import io.horizon.trader.adaptor.Adaptor.AdaptorStartupException;
+import io.horizon.trader.handler.AdaptorEventHandler.AdaptorEventLogger;
 import io.mercury.common.datetime.pattern.spec.DateTimePattern;
 import io.mercury.common.log.CommonLogConfigurator;
 import io.mercury.common.log.CommonLogConfigurator.LogLevel;
+import io.mercury.common.log.CommonLoggerFactory;
 import io.mercury.common.util.Assertor;
-import io.mercury.common.util.PropertiesUtil;
-import io.mercury.transport.rabbitmq.configurator.RabbitConnection;
-import io.mercury.transport.rabbitmq.configurator.RabbitPublisherCfg;
-import io.mercury.transport.rabbitmq.declare.ExchangeDefinition;
 
+/**
+ * 启动FtdcAdaptor, 订单回报通过FtdcRabbitModule发布到RabbitMQ<br>
+ * 参数: [配置文件] [RabbitMQ地址] [端口] [用户名] [密码] [行情ZeroMQ端点(可选)]<br>
+ * 配置文件的键为FtdcAdaptorParamKey的参数名, 回报发布到默认exchange, 队列名为[order.账户]和[trade.账户],
+ * 启动时声明为持久化队列<br>
+ * 指定行情端点时行情以Avro编码通过FtdcZmqModule发布, 否则只记录日志
+ *
+ * @author yellow013
+ */
 public final class FtdcAdaptorStartup {
 
 	static {
@@ -24,32 +53,108 @@ public final class FtdcAdaptorStartup {
 		CommonLogConfigurator.setFolder(DateTimePattern.YYYYMMDD_HHMMSS.now());
 	}
 
-	public static void main(String[] args) {
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcAdaptorStartup.class);
 
-		Assertor.requiredLength(args, 1, "input args");
+	// 回报批量大小
+	private static final int BatchSize = 64;
 
-		final String propFile = args[0];
+	// 批次未满时的最长等待时间
+	private static final long LingerMillis = 5L;
 
-		File file = new File(propFile);
-
-		try {
-			PropertiesUtil.loadProperties(file);
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+	public static void main(String[] args)
+			throws IOException, TimeoutException, InterruptedException, AdaptorStartupException {
 
-		RabbitConnection connection = RabbitConnection
-				.configuration(args[0], Integer.parseInt(args[1]), args[2], args[3]).build();
+		Assertor.requiredLength(args, 5, "input args");
 
-		ExchangeDefinition exchange = ExchangeDefinition.fanout("");
-
-		RabbitPublisherCfg configurator = RabbitPublisherCfg.configuration(connection, exchange)
-				.setMsgPropsSupplier(() -> MessageProperties.PERSISTENT_BASIC.builder()
-						.correlationId(Long.toString(currentTimeMillis())).build())
-				.build();
-
-		System.out.println(configurator);
+		Properties props = new Properties();
+		try (InputStream in = new FileInputStream(new File(args[0]))) {
+			props.load(in);
+		}
+		FtdcConfig ftdcConfig = newFtdcConfig(props);
+
+		// 内部账户ID, 未配置时为1
+		Account account = new Account(Integer.parseInt(props.getProperty("horizonAccountId", "1")),
+				ftdcConfig.getBrokerId(), ftdcConfig.getInvestorId());
+		AccountKeeper.initialize(new SubAccount(1, account));
+		List<Instrument> instruments = new ArrayList<>();
+		for (ChinaFuturesSymbol symbol : ChinaFuturesSymbol.values())
+			symbol.getInstruments().each(instruments::add);
+		InstrumentKeeper.initialize(instruments.toArray(new Instrument[instruments.size()]));
+
+		ConnectionFactory factory = new ConnectionFactory();
+		factory.setHost(args[1]);
+		factory.setPort(Integer.parseInt(args[2]));
+		factory.setUsername(args[3]);
+		factory.setPassword(args[4]);
+		// 连接断开后自动恢复, 未确认的回报由FtdcRabbitBatchSink重新发布
+		factory.setAutomaticRecoveryEnabled(true);
+		Connection connection = factory.newConnection("ftdc-" + ftdcConfig.getUserId());
+
+		FtdcRabbitModule rabbitModule = FtdcRabbitModule.newBatchModule(connection, "", ftdcConfig.getAccountId(),
+				BatchSize, LingerMillis);
+
+		FtdcZmqModule zmqModule = args.length > 5 ? new FtdcZmqModule(args[5], 100000, Encoding.Avro) : null;
+		MarketDataHandler<BasicMarketData> marketDataHandler = zmqModule != null ? zmqModule
+				: new MarketDataLogger<>(log);
+
+		FtdcAdaptor adaptor = new FtdcAdaptor(account, ftdcConfig, marketDataHandler, rabbitModule,
+				new AdaptorEventLogger(log));
+
+		CountDownLatch shutdown = new CountDownLatch(1);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			// 先关闭Adaptor, 再发送剩余回报, 最后关闭连接
+			try {
+				adaptor.close();
+			} catch (IOException e) {
+				log.error("FtdcAdaptor close exception -> {}", e.getMessage(), e);
+			}
+			if (zmqModule != null)
+				zmqModule.close();
+			rabbitModule.close();
+			try {
+				connection.close();
+			} catch (IOException e) {
+				log.error("RabbitMQ connection close exception -> {}", e.getMessage(), e);
+			}
+			shutdown.countDown();
+		}, "ftdc-shutdown"));
+
+		if (!adaptor.startup())
+			log.warn("FtdcAdaptor startup incomplete, waiting for reconnect");
+		shutdown.await();
+	}
 
+	/**
+	 *
+	 * @param props
+	 * @return
+	 */
+	private static FtdcConfig newFtdcConfig(Properties props) {
+		return new FtdcConfig()
+				// 交易服务器地址
+				.setTraderAddr(props.getProperty(FtdcAdaptorParamKey.TraderAddr.getParamName()))
+				// 行情服务器地址
+				.setMdAddr(props.getProperty(FtdcAdaptorParamKey.MdAddr.getParamName()))
+				// 应用ID
+				.setAppId(props.getProperty(FtdcAdaptorParamKey.AppId.getParamName()))
+				// 经纪商ID
+				.setBrokerId(props.getProperty(FtdcAdaptorParamKey.BrokerId.getParamName()))
+				// 投资者ID
+				.setInvestorId(props.getProperty(FtdcAdaptorParamKey.InvestorId.getParamName()))
+				// 账号ID
+				.setAccountId(props.getProperty(FtdcAdaptorParamKey.AccountId.getParamName()))
+				// 用户ID
+				.setUserId(props.getProperty(FtdcAdaptorParamKey.UserId.getParamName()))
+				// 密码
+				.setPassword(props.getProperty(FtdcAdaptorParamKey.Password.getParamName()))
+				// 认证码
+				.setAuthCode(props.getProperty(FtdcAdaptorParamKey.AuthCode.getParamName()))
+				// 客户端IP地址
+				.setIpAddr(props.getProperty(FtdcAdaptorParamKey.IpAddr.getParamName()))
+				// 客户端MAC地址
+				.setMacAddr(props.getProperty(FtdcAdaptorParamKey.MacAddr.getParamName()))
+				// 结算货币
+				.setCurrencyId(props.getProperty(FtdcAdaptorParamKey.CurrencyId.getParamName()));
 	}
 
 }
@@ -0,0 +1,261 @@
+package io.horizon.ftdc.launch;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import javax.annotation.Nonnull;
+
+import io.horizon.market.data.impl.BasicMarketData;
+import io.horizon.market.instrument.Instrument;
+import io.horizon.market.instrument.InstrumentKeeper;
+import io.horizon.trader.order.OrderReport;
+import io.horizon.trader.order.attr.OrdStatus;
+import io.horizon.trader.order.attr.OrdType;
+import io.horizon.trader.order.attr.TrdAction;
+import io.horizon.trader.order.attr.TrdDirection;
+
+/**
+ * 定长二进制编码, 用于跨进程发布行情和订单回报<br>
+ * 所有字段按固定偏移量读写, 字节序为LITTLE_ENDIAN, 订阅方可以不创建对象直接读取单个字段<br>
+ * 枚举按ordinal编码, 发布方与订阅方需要使用相同版本的trader-api<br>
+ * sendNanos为发布时的System.nanoTime(), 只在同一台机器上用于计算延迟
+ *
+ * <pre>
+ * MarketData(161字节):
+ * [0]type [1]instrumentId [5]epochMillis [13]sendNanos [21]lastPrice [29]volume [33]turnover
+ * [41]bidPrice1..5/bidVolume1..5 [101]askPrice1..5/askVolume1..5
+ *
+ * OrderReport(104字节):
+ * [0]type [1]sendNanos [9]ordSysId [17]epochMillis [25]instrumentId [29]ordType [30]ordStatus
+ * [31]direction [32]action [33]offerQty [37]filledQty [41]offerPrice [49]tradePrice
+ * [57]orderRef(13) [70]brokerUniqueId(21) [91]investorId(13)
+ * </pre>
+ *
+ * @author yellow013
+ */
+public final class FtdcBinaryCodec {
+
+	private FtdcBinaryCodec() {
+	}
+
+	public static final ByteOrder Order = ByteOrder.LITTLE_ENDIAN;
+
+	public static final byte TypeMarketData = 1;
+
+	public static final byte TypeOrderReport = 2;
+
+	public static final int MarketDataSize = 161;
+
+	public static final int OrderReportSize = 104;
+
+	private static final int Levels = 5;
+
+	// 每档价格与数量
+	private static final int LevelSize = 12;
+
+	private static final int BidOffset = 41;
+
+	private static final int AskOffset = BidOffset + Levels * LevelSize;
+
+	// 与CTP对应字段长度一致, 不含结尾的0
+	private static final int OrderRefLength = 13;
+
+	private static final int BrokerUniqueIdLength = 21;
+
+	private static final int InvestorIdLength = 13;
+
+	/**
+	 *
+	 * @param size
+	 * @return 使用LITTLE_ENDIAN的堆内缓冲区
+	 */
+	public static ByteBuffer allocate(int size) {
+		return ByteBuffer.allocate(size).order(Order);
+	}
+
+	/**
+	 *
+	 * @param bytes
+	 * @return 使用LITTLE_ENDIAN包装的缓冲区
+	 */
+	public static ByteBuffer wrap(byte[] bytes) {
+		return ByteBuffer.wrap(bytes).order(Order);
+	}
+
+	/**
+	 * 使用绝对位置写入, 不改变buffer的position
+	 *
+	 * @param marketData
+	 * @param sendNanos
+	 * @param buffer     容量不小于MarketDataSize, 字节序为LITTLE_ENDIAN
+	 */
+	public static void encodeMarketData(@Nonnull BasicMarketData marketData, long sendNanos,
+			@Nonnull ByteBuffer buffer) {
+		buffer.put(0, TypeMarketData);
+		buffer.putInt(1, marketData.getInstrumentId());
+		buffer.putLong(5, marketData.getEpochMillis());
+		buffer.putLong(13, sendNanos);
+		buffer.putLong(21, marketData.getLastPrice());
+		buffer.putInt(29, marketData.getVolume());
+		buffer.putLong(33, marketData.getTurnover());
+		putLevel(buffer, BidOffset, 0, marketData.getBidPrice1(), marketData.getBidVolume1());
+		putLevel(buffer, BidOffset, 1, marketData.getBidPrice2(), marketData.getBidVolume2());
+		putLevel(buffer, BidOffset, 2, marketData.getBidPrice3(), marketData.getBidVolume3());
+		putLevel(buffer, BidOffset, 3, marketData.getBidPrice4(), marketData.getBidVolume4());
+		putLevel(buffer, BidOffset, 4, marketData.getBidPrice5(), marketData.getBidVolume5());
+		putLevel(buffer, AskOffset, 0, marketData.getAskPrice1(), marketData.getAskVolume1());
+		putLevel(buffer, AskOffset, 1, marketData.getAskPrice2(), marketData.getAskVolume2());
+		putLevel(buffer, AskOffset, 2, marketData.getAskPrice3(), marketData.getAskVolume3());
+		putLevel(buffer, AskOffset, 3, marketData.getAskPrice4(), marketData.getAskVolume4());
+		putLevel(buffer, AskOffset, 4, marketData.getAskPrice5(), marketData.getAskVolume5());
+	}
+
+	private static void putLevel(ByteBuffer buffer, int sideOffset, int level, long price, int volume) {
+		int offset = sideOffset + level * LevelSize;
+		buffer.putLong(offset, price);
+		buffer.putInt(offset + 8, volume);
+	}
+
+	/**
+	 * 合约需要已在InstrumentKeeper中初始化
+	 *
+	 * @param buffer
+	 * @return
+	 */
+	public static BasicMarketData decodeMarketData(@Nonnull ByteBuffer buffer) {
+		Instrument instrument = InstrumentKeeper.getInstrument(buffer.getInt(1));
+		BasicMarketData marketData = new BasicMarketData(instrument, buffer.getLong(5))
+				.setLastPrice(buffer.getLong(21)).setVolume(buffer.getInt(29)).setTurnover(buffer.getLong(33));
+		marketData.setBidPrice1(bidPrice(buffer, 0)).setBidVolume1(bidVolume(buffer, 0));
+		marketData.setBidPrice2(bidPrice(buffer, 1)).setBidVolume2(bidVolume(buffer, 1));
+		marketData.setBidPrice3(bidPrice(buffer, 2)).setBidVolume3(bidVolume(buffer, 2));
+		marketData.setBidPrice4(bidPrice(buffer, 3)).setBidVolume4(bidVolume(buffer, 3));
+		marketData.setBidPrice5(bidPrice(buffer, 4)).setBidVolume5(bidVolume(buffer, 4));
+		marketData.setAskPrice1(askPrice(buffer, 0)).setAskVolume1(askVolume(buffer, 0));
+		marketData.setAskPrice2(askPrice(buffer, 1)).setAskVolume2(askVolume(buffer, 1));
+		marketData.setAskPrice3(askPrice(buffer, 2)).setAskVolume3(askVolume(buffer, 2));
+		marketData.setAskPrice4(askPrice(buffer, 3)).setAskVolume4(askVolume(buffer, 3));
+		marketData.setAskPrice5(askPrice(buffer, 4)).setAskVolume5(askVolume(buffer, 4));
+		return marketData;
+	}
+
+	public static byte getType(@Nonnull ByteBuffer buffer) {
+		return buffer.get(0);
+	}
+
+	public static int getInstrumentId(@Nonnull ByteBuffer buffer) {
+		return buffer.get(0) == TypeMarketData ? buffer.getInt(1) : buffer.getInt(25);
+	}
+
+	public static long getSendNanos(@Nonnull ByteBuffer buffer) {
+		return buffer.get(0) == TypeMarketData ? buffer.getLong(13) : buffer.getLong(1);
+	}
+
+	public static long getLastPrice(@Nonnull ByteBuffer buffer) {
+		return buffer.getLong(21);
+	}
+
+	public static int getVolume(@Nonnull ByteBuffer buffer) {
+		return buffer.getInt(29);
+	}
+
+	/**
+	 *
+	 * @param buffer
+	 * @param level  从0开始
+	 * @return
+	 */
+	public static long bidPrice(@Nonnull ByteBuffer buffer, int level) {
+		return buffer.getLong(BidOffset + level * LevelSize);
+	}
+
+	public static int bidVolume(@Nonnull ByteBuffer buffer, int level) {
+		return buffer.getInt(BidOffset + level * LevelSize + 8);
+	}
+
+	public static long askPrice(@Nonnull ByteBuffer buffer, int level) {
+		return buffer.getLong(AskOffset + level * LevelSize);
+	}
+
+	public static int askVolume(@Nonnull ByteBuffer buffer, int level) {
+		return buffer.getInt(AskOffset + level * LevelSize + 8);
+	}
+
+	/**
+	 * 使用绝对位置写入, 不改变buffer的position
+	 *
+	 * @param report
+	 * @param sendNanos
+	 * @param buffer    容量不小于OrderReportSize, 字节序为LITTLE_ENDIAN
+	 */
+	public static void encodeOrderReport(@Nonnull OrderReport report, long sendNanos, @Nonnull ByteBuffer buffer) {
+		buffer.put(0, TypeOrderReport);
+		buffer.putLong(1, sendNanos);
+		buffer.putLong(9, report.getOrdSysId());
+		buffer.putLong(17, report.getEpochMillis());
+		buffer.putInt(25, report.getInstrument() == null ? -1 : report.getInstrument().getInstrumentId());
+		buffer.put(29, ordinal(report.getOrdType()));
+		buffer.put(30, ordinal(report.getOrdStatus()));
+		buffer.put(31, ordinal(report.getDirection()));
+		buffer.put(32, ordinal(report.getAction()));
+		buffer.putInt(33, report.getOfferQty());
+		buffer.putInt(37, report.getFilledQty());
+		buffer.putLong(41, report.getOfferPrice());
+		buffer.putLong(49, report.getTradePrice());
+		putAscii(buffer, 57, report.getOrderRef(), OrderRefLength);
+		putAscii(buffer, 70, report.getBrokerUniqueId(), BrokerUniqueIdLength);
+		putAscii(buffer, 91, report.getInvestorId(), InvestorIdLength);
+	}
+
+	/**
+	 * 合约需要已在InstrumentKeeper中初始化, offerTime与lastUpdateTime不在编码范围内
+	 *
+	 * @param buffer
+	 * @return
+	 */
+	public static OrderReport decodeOrderReport(@Nonnull ByteBuffer buffer) {
+		int instrumentId = buffer.getInt(25);
+		return new OrderReport(buffer.getLong(9)).setEpochMillis(buffer.getLong(17))
+				.setInstrument(instrumentId < 0 ? null : InstrumentKeeper.getInstrument(instrumentId))
+				.setOrdType(valueOf(OrdType.values(), buffer.get(29)))
+				.setOrdStatus(valueOf(OrdStatus.values(), buffer.get(30)))
+				.setDirection(valueOf(TrdDirection.values(), buffer.get(31)))
+				.setAction(valueOf(TrdAction.values(), buffer.get(32))).setOfferQty(buffer.getInt(33))
+				.setFilledQty(buffer.getInt(37)).setOfferPrice(buffer.getLong(41)).setTradePrice(buffer.getLong(49))
+				.setOrderRef(getAscii(buffer, 57, OrderRefLength))
+				.setBrokerUniqueId(getAscii(buffer, 70, BrokerUniqueIdLength))
+				.setInvestorId(getAscii(buffer, 91, InvestorIdLength));
+	}
+
+	private static byte ordinal(Enum<?> e) {
+		return e == null ? -1 : (byte) e.ordinal();
+	}
+
+	private static <E extends Enum<E>> E valueOf(E[] values, byte ordinal) {
+		return ordinal < 0 || ordinal >= values.length ? null : values[ordinal];
+	}
+
+	/**
+	 * 超出长度的部分被截断, 不足部分补0
+	 */
+	private static void putAscii(ByteBuffer buffer, int offset, String str, int length) {
+		int len = str == null ? 0 : Math.min(str.length(), length);
+		for (int i = 0; i < len; i++)
+			buffer.put(offset + i, (byte) str.charAt(i));
+		for (int i = len; i < length; i++)
+			buffer.put(offset + i, (byte) 0);
+	}
+
+	private static String getAscii(ByteBuffer buffer, int offset, int length) {
+		int len = 0;
+		while (len < length && buffer.get(offset + len) != 0)
+			len++;
+		if (len == 0)
+			return null;
+		char[] chars = new char[len];
+		for (int i = 0; i < len; i++)
+			chars[i] = (char) buffer.get(offset + i);
+		return new String(chars);
+	}
+
+}
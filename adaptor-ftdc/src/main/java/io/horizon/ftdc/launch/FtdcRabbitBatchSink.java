@@ -0,0 +1,376 @@
+package io.horizon.ftdc.launch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ShutdownSignalException;
+
+import io.mercury.common.log.CommonLoggerFactory;
+import io.mercury.common.util.Assertor;
+
+/**
+ * 批量发布到RabbitMQ的FtdcReportSink<br>
+ * 每个Sink独占一个Channel和一个发送线程, 记录先进入缓冲队列, 达到batchSize条或等待lingerMillis后
+ * 将多条定长记录拼接为一条消息发布, 消息头[count]为记录数量<br>
+ *
+ * Channel开启publisher confirms, 未确认的批次按发布序号保存, 收到ack后移除, 收到nack或发布失败后重新发布<br>
+ * 未确认批次数量以maxUnconfirmed为窗口, 窗口已满时发送线程只等待最早的批次被确认, 不等待全部确认<br>
+ *
+ * 启动时声明名称为routingKey的持久化队列, exchange非默认exchange时以routingKey绑定;
+ * 消息以mandatory发布, 无法路由被退回的批次同样重新发布<br>
+ * Channel关闭时全部未确认批次进入重发队列并归还窗口, Channel恢复后由发送线程重新发布
+ *
+ * @author yellow013
+ */
+@ThreadSafe
+public final class FtdcRabbitBatchSink implements FtdcReportSink {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcRabbitBatchSink.class);
+
+	public static final String CountHeader = "count";
+
+	// 发布序号, 用于匹配被退回的批次
+	public static final String SeqHeader = "seq";
+
+	// 关闭时等待发送和确认的最长时间
+	private static final long CloseTimeoutNanos = TimeUnit.SECONDS.toNanos(5);
+
+	private final String exchange;
+
+	private final String routingKey;
+
+	private final int recordSize;
+
+	private final int batchSize;
+
+	private final long lingerNanos;
+
+	private final Channel channel;
+
+	private final AMQP.BasicProperties props;
+
+	private final ArrayBlockingQueue<byte[]> queue;
+
+	// 未确认的批次, key为发布序号
+	private final ConcurrentSkipListMap<Long, byte[]> unconfirmed = new ConcurrentSkipListMap<>();
+
+	// 被nack或发布失败的批次, 由发送线程重新发布
+	private final ConcurrentLinkedQueue<byte[]> retries = new ConcurrentLinkedQueue<>();
+
+	// 未确认批次的发送窗口, 发布前获取, 确认后释放
+	private final Semaphore window;
+
+	private final AtomicLong confirmedCount = new AtomicLong();
+
+	private final AtomicLong nackedCount = new AtomicLong();
+
+	private final AtomicLong returnedCount = new AtomicLong();
+
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	private final Thread sendThread;
+
+	private volatile boolean isClosed;
+
+	private volatile long closeDeadline;
+
+	/**
+	 *
+	 * @param connection
+	 * @param exchange
+	 * @param routingKey
+	 * @param recordSize     每条记录的字节数
+	 * @param batchSize      每条消息包含的最多记录数量
+	 * @param lingerMillis   首条记录进入缓冲后最多等待的时间
+	 * @param maxUnconfirmed 最多未确认的批次数量
+	 * @param persistent     是否使用持久化消息
+	 * @throws IOException
+	 */
+	public FtdcRabbitBatchSink(@Nonnull Connection connection, @Nonnull String exchange, @Nonnull String routingKey,
+			int recordSize, int batchSize, long lingerMillis, int maxUnconfirmed, boolean persistent)
+			throws IOException {
+		Assertor.nonNull(connection, "connection");
+		Assertor.nonNull(exchange, "exchange");
+		Assertor.nonNull(routingKey, "routingKey");
+		if (recordSize < 1 || batchSize < 1 || maxUnconfirmed < 1)
+			throw new IllegalArgumentException("recordSize, batchSize and maxUnconfirmed must be greater than 0");
+		this.exchange = exchange;
+		this.routingKey = routingKey;
+		this.recordSize = recordSize;
+		this.batchSize = batchSize;
+		this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, lingerMillis));
+		this.window = new Semaphore(maxUnconfirmed);
+		this.queue = new ArrayBlockingQueue<>(Math.max(batchSize * maxUnconfirmed, 1024));
+		this.props = new AMQP.BasicProperties.Builder().contentType("application/octet-stream")
+				.deliveryMode(persistent ? 2 : 1).build();
+		this.channel = connection.createChannel();
+		// 默认exchange按队列名路由, 其他exchange需要绑定
+		channel.queueDeclare(routingKey, true, false, false, null);
+		if (!exchange.isEmpty())
+			channel.queueBind(routingKey, exchange, routingKey);
+		channel.confirmSelect();
+		channel.addConfirmListener(new ConfirmListener() {
+
+			@Override
+			public void handleAck(long deliveryTag, boolean multiple) {
+				confirmedCount.addAndGet(remove(deliveryTag, multiple, null));
+			}
+
+			@Override
+			public void handleNack(long deliveryTag, boolean multiple) {
+				long records = remove(deliveryTag, multiple, retries);
+				nackedCount.addAndGet(records);
+				log.warn("FtdcRabbitBatchSink nacked -> routingKey==[{}], deliveryTag==[{}], records==[{}]",
+						routingKey, deliveryTag, records);
+			}
+
+		});
+		// 退回先于确认到达, 退回时移除批次, 随后的ack不再重复计数
+		channel.addReturnListener((replyCode, replyText, ex, key, properties, body) -> {
+			Object seqNo = properties.getHeaders() == null ? null : properties.getHeaders().get(SeqHeader);
+			if (seqNo instanceof Number && remove(((Number) seqNo).longValue(), false, retries) > 0) {
+				returnedCount.incrementAndGet();
+				log.warn("FtdcRabbitBatchSink returned -> routingKey==[{}], replyCode==[{}], replyText==[{}]",
+						routingKey, replyCode, replyText);
+			}
+		});
+		channel.addShutdownListener(this::requeueUnconfirmed);
+		this.sendThread = new Thread(this::sendLoop, "FtdcRabbitBatchSink-" + routingKey);
+		sendThread.setDaemon(true);
+		sendThread.start();
+		log.info("FtdcRabbitBatchSink started -> exchange==[{}], routingKey==[{}], batchSize==[{}], "
+				+ "lingerMillis==[{}], persistent==[{}]", exchange, routingKey, batchSize, lingerMillis, persistent);
+	}
+
+	/**
+	 * 在Connection的回调线程中调用
+	 *
+	 * @return 移除的记录数量
+	 */
+	private long remove(long deliveryTag, boolean multiple, ConcurrentLinkedQueue<byte[]> retry) {
+		long records = 0L;
+		int batches = 0;
+		if (multiple) {
+			ConcurrentNavigableMap<Long, byte[]> head = unconfirmed.headMap(deliveryTag, true);
+			for (Long seqNo : head.keySet()) {
+				// 与发布失败时的移除互斥, 每个批次只释放一次窗口
+				byte[] body = head.remove(seqNo);
+				if (body == null)
+					continue;
+				records += body.length / recordSize;
+				batches++;
+				if (retry != null)
+					retry.offer(body);
+			}
+		} else {
+			byte[] body = unconfirmed.remove(deliveryTag);
+			if (body != null) {
+				records = body.length / recordSize;
+				batches = 1;
+				if (retry != null)
+					retry.offer(body);
+			}
+		}
+		window.release(batches);
+		return records;
+	}
+
+	/**
+	 * Channel关闭后不会再收到确认, 全部未确认批次进入重发队列并归还窗口<br>
+	 * Channel恢复后发布序号重新开始, 旧序号也必须清除
+	 */
+	private void requeueUnconfirmed(ShutdownSignalException cause) {
+		int batches = 0;
+		for (Long seqNo : unconfirmed.keySet()) {
+			byte[] body = unconfirmed.remove(seqNo);
+			if (body == null)
+				continue;
+			retries.offer(body);
+			batches++;
+		}
+		window.release(batches);
+		if (batches > 0)
+			log.warn("FtdcRabbitBatchSink channel shutdown -> routingKey==[{}], requeued==[{}], cause -> {}",
+					routingKey, batches, cause.getMessage());
+	}
+
+	@Override
+	public boolean publish(@Nonnull byte[] record) {
+		if (record.length != recordSize)
+			throw new IllegalArgumentException("record length must be " + recordSize);
+		if (isClosed || !queue.offer(record)) {
+			if (rejectedCount.incrementAndGet() % 10000 == 1)
+				log.warn("FtdcRabbitBatchSink rejected -> routingKey==[{}], isClosed==[{}], rejectedCount==[{}]",
+						routingKey, isClosed, rejectedCount.get());
+			return false;
+		}
+		return true;
+	}
+
+	private void sendLoop() {
+		List<byte[]> batch = new ArrayList<>(batchSize);
+		while (isRunning()) {
+			try {
+				byte[] retry;
+				while ((retry = retries.poll()) != null)
+					send(retry);
+				byte[] first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null)
+					continue;
+				batch.add(first);
+				long deadline = System.nanoTime() + lingerNanos;
+				while (batch.size() < batchSize) {
+					queue.drainTo(batch, batchSize - batch.size());
+					long remaining = deadline - System.nanoTime();
+					if (batch.size() >= batchSize || remaining <= 0 || isClosed)
+						break;
+					byte[] next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+					if (next == null)
+						break;
+					batch.add(next);
+				}
+				send(concat(batch));
+			} catch (InterruptedException e) {
+				log.warn("FtdcRabbitBatchSink send thread interrupted -> routingKey==[{}]", routingKey);
+				Thread.currentThread().interrupt();
+				return;
+			} catch (Exception e) {
+				log.error("FtdcRabbitBatchSink send exception -> routingKey==[{}], records==[{}], message -> {}",
+						routingKey, batch.size(), e.getMessage(), e);
+				// 发布失败的批次已进入重发队列, 等待Channel恢复后再重试
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+			} finally {
+				batch.clear();
+			}
+		}
+		if (!queue.isEmpty() || !retries.isEmpty() || !unconfirmed.isEmpty())
+			log.error("FtdcRabbitBatchSink send thread exit with unsent records -> routingKey==[{}], queued==[{}], "
+					+ "retryBatches==[{}], unconfirmedBatches==[{}]", routingKey, queue.size(), retries.size(),
+					unconfirmed.size());
+	}
+
+	/**
+	 * 关闭后继续发送缓冲和重发队列中的批次并等待确认, 直到全部完成、超时或Channel不可用
+	 */
+	private boolean isRunning() {
+		if (!isClosed)
+			return true;
+		if (queue.isEmpty() && retries.isEmpty() && unconfirmed.isEmpty())
+			return false;
+		return channel.isOpen() && System.nanoTime() < closeDeadline;
+	}
+
+	private byte[] concat(List<byte[]> batch) {
+		byte[] body = new byte[batch.size() * recordSize];
+		for (int i = 0; i < batch.size(); i++)
+			System.arraycopy(batch.get(i), 0, body, i * recordSize, recordSize);
+		return body;
+	}
+
+	/**
+	 * 在发送线程中调用, 发布失败时批次进入重发队列
+	 */
+	private void send(byte[] body) throws IOException, InterruptedException {
+		// 窗口已满时只等待最早的批次被确认
+		long waitStart = System.nanoTime();
+		while (!window.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+			if (!isRunning()) {
+				retries.offer(body);
+				return;
+			}
+			if (System.nanoTime() - waitStart > TimeUnit.SECONDS.toNanos(5)) {
+				log.warn("FtdcRabbitBatchSink wait for confirms timeout -> routingKey==[{}], unconfirmed==[{}]",
+						routingKey, unconfirmed.size());
+				waitStart = System.nanoTime();
+			}
+		}
+		long seqNo = channel.getNextPublishSeqNo();
+		Map<String, Object> headers = new HashMap<>(4);
+		headers.put(CountHeader, body.length / recordSize);
+		headers.put(SeqHeader, seqNo);
+		AMQP.BasicProperties batchProps = props.builder().headers(Collections.unmodifiableMap(headers)).build();
+		unconfirmed.put(seqNo, body);
+		try {
+			channel.basicPublish(exchange, routingKey, true, batchProps, body);
+		} catch (IOException | RuntimeException e) {
+			// 未发出的批次不会收到确认, 移除后释放窗口并重新发布
+			if (unconfirmed.remove(seqNo) != null) {
+				window.release();
+				retries.offer(body);
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public long getConfirmedCount() {
+		return confirmedCount.get();
+	}
+
+	public long getNackedCount() {
+		return nackedCount.get();
+	}
+
+	public long getReturnedCount() {
+		return returnedCount.get();
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	/**
+	 * 
+	 * @return 未确认的批次数量
+	 */
+	public int getUnconfirmedCount() {
+		return unconfirmed.size();
+	}
+
+	/**
+	 * 发送缓冲和重发队列中的批次并等待确认后关闭Channel, 不关闭Connection
+	 */
+	@Override
+	public void close() {
+		if (isClosed)
+			return;
+		this.closeDeadline = System.nanoTime() + CloseTimeoutNanos;
+		this.isClosed = true;
+		try {
+			sendThread.join(TimeUnit.NANOSECONDS.toMillis(CloseTimeoutNanos) + 1000L);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			channel.close();
+		} catch (IOException | TimeoutException e) {
+			log.error("FtdcRabbitBatchSink close channel exception -> {}", e.getMessage(), e);
+		}
+		log.info("FtdcRabbitBatchSink closed -> routingKey==[{}], confirmed==[{}], nacked==[{}], returned==[{}], "
+				+ "rejected==[{}], unconfirmedBatches==[{}], retryBatches==[{}]", routingKey, confirmedCount.get(),
+				nackedCount.get(), returnedCount.get(), rejectedCount.get(), unconfirmed.size(), retries.size());
+	}
+
+}
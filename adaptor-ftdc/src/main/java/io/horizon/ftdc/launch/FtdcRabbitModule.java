@@ -1,16 +1,92 @@
 package io.horizon.ftdc.launch;
 
-public class FtdcRabbitModule implements Runnable {
+import java.io.Closeable;
+import java.io.IOException;
 
-	
-	
-	public FtdcRabbitModule() {
-		
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+
+import com.rabbitmq.client.Connection;
+
+import io.horizon.trader.handler.OrderReportHandler;
+import io.horizon.trader.order.OrderReport;
+import io.horizon.trader.order.attr.OrdStatus;
+import io.mercury.common.log.CommonLoggerFactory;
+import io.mercury.common.util.Assertor;
+
+/**
+ * 通过RabbitMQ分发订单回报和成交回报<br>
+ * 回报使用FtdcBinaryCodec编码为定长记录, 全部回报进入订单通道, 成交回报同时进入成交通道<br>
+ * 每笔成交只以OnRtnTrade转换的回报进入成交通道, 部分成交和全部成交的订单回报不进入, 避免同一成交发送两次<br>
+ * 每条消息包含多条记录, 消费方按FtdcBinaryCodec.OrderReportSize切分
+ *
+ * @author yellow013
+ */
+public final class FtdcRabbitModule implements OrderReportHandler, Closeable {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcRabbitModule.class);
+
+	private final FtdcReportSink orderSink;
+
+	private final FtdcReportSink tradeSink;
+
+	/**
+	 *
+	 * @param orderSink 订单回报通道
+	 * @param tradeSink 成交回报通道, 可以为null
+	 */
+	public FtdcRabbitModule(@Nonnull FtdcReportSink orderSink, FtdcReportSink tradeSink) {
+		Assertor.nonNull(orderSink, "orderSink");
+		this.orderSink = orderSink;
+		this.tradeSink = tradeSink;
+	}
+
+	/**
+	 * 在exchange上创建订单与成交两个批量通道, routingKey分别为[order.账户]和[trade.账户]<br>
+	 * 同名持久化队列由FtdcRabbitBatchSink声明, 非默认exchange时以routingKey绑定
+	 *
+	 * @param connection
+	 * @param exchange
+	 * @param accountId
+	 * @param batchSize
+	 * @param lingerMillis
+	 * @return
+	 * @throws IOException
+	 */
+	public static FtdcRabbitModule newBatchModule(@Nonnull Connection connection, @Nonnull String exchange,
+			@Nonnull String accountId, int batchSize, long lingerMillis) throws IOException {
+		return new FtdcRabbitModule(
+				new FtdcRabbitBatchSink(connection, exchange, "order." + accountId, FtdcBinaryCodec.OrderReportSize,
+						batchSize, lingerMillis, 256, true),
+				new FtdcRabbitBatchSink(connection, exchange, "trade." + accountId, FtdcBinaryCodec.OrderReportSize,
+						batchSize, lingerMillis, 256, true));
 	}
 
 	@Override
-	public void run() {
+	public void onOrderReport(@Nonnull OrderReport report) {
+		// 记录交给Sink后由发送线程读取, 每条回报使用新的数组
+		byte[] record = new byte[FtdcBinaryCodec.OrderReportSize];
+		FtdcBinaryCodec.encodeOrderReport(report, System.nanoTime(), FtdcBinaryCodec.wrap(record));
+		if (!orderSink.publish(record))
+			log.warn("FtdcRabbitModule order sink rejected -> ordSysId==[{}]", report.getOrdSysId());
+		if (tradeSink != null && isTrade(report) && !tradeSink.publish(record))
+			log.warn("FtdcRabbitModule trade sink rejected -> ordSysId==[{}]", report.getOrdSysId());
+	}
 
+	/**
+	 * FromFtdcTrade转换的成交回报状态为Unprovided, 以成交数量区分<br>
+	 * OnRtnOrder转换的PartiallyFilled/Filled回报与OnRtnTrade对应同一笔成交, 不作为成交回报
+	 */
+	private static boolean isTrade(OrderReport report) {
+		return report.getOrdStatus() == OrdStatus.Unprovided && report.getFilledQty() > 0;
+	}
+
+	@Override
+	public void close() {
+		orderSink.close();
+		if (tradeSink != null)
+			tradeSink.close();
 	}
 
 }
@@ -0,0 +1,32 @@
+package io.horizon.ftdc.launch;
+
+import java.io.Closeable;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 定长记录的发布通道<br>
+ * 实现可以在调用线程之外合并批量发送, 调用方交出记录后不能再修改
+ *
+ * @author yellow013
+ */
+public interface FtdcReportSink extends Closeable {
+
+	/**
+	 * 发布一条记录
+	 *
+	 * @param record
+	 * @return 通道已关闭或缓冲区已满时返回false
+	 */
+	boolean publish(@Nonnull byte[] record);
+
+	/**
+	 * 
+	 * @return 已被接收方确认的记录数量
+	 */
+	long getConfirmedCount();
+
+	@Override
+	void close();
+
+}
@@ -1,18 +1,191 @@
 package io.horizon.ftdc.launch;
 
-import io.mercury.transport.zmq.ZmqPublisher;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 
-public class FtdcZmqModule implements Runnable {
+import javax.annotation.Nonnull;
 
-	ZmqPublisher<String> publisher;
+import org.slf4j.Logger;
+import org.zeromq.SocketType;
+import org.zeromq.ZContext;
+import org.zeromq.ZMQ;
 
-	public FtdcZmqModule() {
+import io.horizon.ftdc.avro.FtdcAvroCodec;
+import io.horizon.market.data.impl.BasicMarketData;
+import io.horizon.market.handler.MarketDataHandler;
+import io.horizon.trader.handler.OrderReportHandler;
+import io.horizon.trader.order.OrderReport;
+import io.mercury.common.log.CommonLoggerFactory;
+import io.mercury.common.util.Assertor;
 
+/**
+ * 通过ZeroMQ PUB发布行情和订单回报<br>
+ * 每条消息包含两帧: 主题和消息体, 消息体默认使用FtdcBinaryCodec定长编码, 也可以使用FtdcAvroCodec编码<br>
+ * 主题为[md/合约代码]或[or/合约代码], 订阅方可以按前缀过滤, 如[md/]订阅全部行情, [md/rb]订阅全部螺纹钢合约<br>
+ *
+ * 可以直接作为FtdcAdaptor的MarketDataHandler和OrderReportHandler, 或在已有Handler中调用<br>
+ * ZeroMQ Socket不是线程安全的, 发布方法在this上同步<br>
+ * PUB Socket发送不会阻塞, 订阅方的接收队列达到高水位时整条消息被ZeroMQ静默丢弃, 发布方无法得知,
+ * publishedCount只统计交给ZeroMQ的消息数量, 丢弃情况需要由订阅方按数量或序号判断
+ *
+ * @author yellow013
+ */
+public final class FtdcZmqModule
+		implements MarketDataHandler<BasicMarketData>, OrderReportHandler, Closeable {
+
+	private static final Logger log = CommonLoggerFactory.getLogger(FtdcZmqModule.class);
+
+	public static final String MarketDataTopicPrefix = "md/";
+
+	public static final String OrderReportTopicPrefix = "or/";
+
+	/**
+	 * 消息体编码
+	 */
+	public static enum Encoding {
+		/**
+		 * FtdcBinaryCodec定长编码, 包含发送时间
+		 */
+		Binary,
+		/**
+		 * FtdcAvroCodec编码, 按avro/*.avsc解码, 不包含发送时间
+		 */
+		Avro,
+	}
+
+	private final String endpoint;
+
+	private final Encoding encoding;
+
+	private final ZContext context;
+
+	private final ZMQ.Socket socket;
+
+	// 以下字段在this上同步访问
+	private final byte[] mdBytes = new byte[FtdcBinaryCodec.MarketDataSize];
+
+	private final ByteBuffer mdBuffer = FtdcBinaryCodec.wrap(mdBytes);
+
+	private final byte[] reportBytes = new byte[FtdcBinaryCodec.OrderReportSize];
+
+	private final ByteBuffer reportBuffer = FtdcBinaryCodec.wrap(reportBytes);
+
+	// 按合约代码缓存主题
+	private final Map<String, byte[]> mdTopics = new HashMap<>();
+
+	private final Map<String, byte[]> reportTopics = new HashMap<>();
+
+	private long publishedCount;
+
+	private volatile boolean isClosed;
+
+	/**
+	 *
+	 * @param endpoint 如[ipc:///tmp/ftdc-md]或[tcp://127.0.0.1:5551]
+	 */
+	public FtdcZmqModule(@Nonnull String endpoint) {
+		this(endpoint, 100000);
+	}
+
+	/**
+	 *
+	 * @param endpoint
+	 * @param sndHwm   发送高水位, 单位为消息数量
+	 */
+	public FtdcZmqModule(@Nonnull String endpoint, int sndHwm) {
+		this(endpoint, sndHwm, Encoding.Binary);
+	}
+
+	/**
+	 *
+	 * @param endpoint
+	 * @param sndHwm   发送高水位, 单位为消息数量
+	 * @param encoding 消息体编码
+	 */
+	public FtdcZmqModule(@Nonnull String endpoint, int sndHwm, @Nonnull Encoding encoding) {
+		Assertor.nonEmpty(endpoint, "endpoint");
+		Assertor.nonNull(encoding, "encoding");
+		this.endpoint = endpoint;
+		this.encoding = encoding;
+		this.context = new ZContext();
+		this.socket = context.createSocket(SocketType.PUB);
+		socket.setSndHWM(sndHwm);
+		socket.setLinger(0);
+		socket.bind(endpoint);
+		log.info("FtdcZmqModule bind -> endpoint==[{}], sndHwm==[{}], encoding==[{}]", endpoint, sndHwm, encoding);
 	}
 
 	@Override
-	public void run() {
+	public synchronized void onMarketData(@Nonnull BasicMarketData marketData) {
+		if (isClosed)
+			return;
+		byte[] topic = topic(mdTopics, MarketDataTopicPrefix, marketData.getInstrumentCode());
+		if (encoding == Encoding.Avro) {
+			send(topic, FtdcAvroCodec.encode(marketData));
+		} else {
+			FtdcBinaryCodec.encodeMarketData(marketData, System.nanoTime(), mdBuffer);
+			send(topic, mdBytes);
+		}
+	}
+
+	@Override
+	public synchronized void onOrderReport(@Nonnull OrderReport report) {
+		if (isClosed)
+			return;
+		byte[] topic = topic(reportTopics, OrderReportTopicPrefix,
+				report.getInstrument() == null ? "" : report.getInstrument().getInstrumentCode());
+		if (encoding == Encoding.Avro) {
+			send(topic, FtdcAvroCodec.encode(report));
+		} else {
+			FtdcBinaryCodec.encodeOrderReport(report, System.nanoTime(), reportBuffer);
+			send(topic, reportBytes);
+		}
+	}
+
+	private static byte[] topic(Map<String, byte[]> topics, String prefix, String instrumentCode) {
+		byte[] topic = topics.get(instrumentCode);
+		if (topic == null) {
+			topic = (prefix + instrumentCode).getBytes(StandardCharsets.US_ASCII);
+			topics.put(instrumentCode, topic);
+		}
+		return topic;
+	}
 
+	/**
+	 * 在this上同步调用, Socket发送时复制数据, 缓冲区可以立即复用<br>
+	 * 多帧消息由ZeroMQ整体投递或整体丢弃; 主题帧发出后消息体帧必须发送, 否则未完成的消息会与下一条消息拼接
+	 */
+	private void send(byte[] topic, byte[] body) {
+		// PUB Socket在高水位时丢弃而不阻塞, 不使用DONTWAIT
+		socket.sendMore(topic);
+		if (socket.send(body, 0))
+			publishedCount++;
+		else
+			log.error("FtdcZmqModule send failure -> endpoint==[{}], errno==[{}]", endpoint, socket.errno());
+	}
+
+	public synchronized long getPublishedCount() {
+		return publishedCount;
+	}
+
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	public Encoding getEncoding() {
+		return encoding;
+	}
+
+	@Override
+	public synchronized void close() {
+		if (isClosed)
+			return;
+		this.isClosed = true;
+		log.info("FtdcZmqModule close -> endpoint==[{}], publishedCount==[{}]", endpoint, publishedCount);
+		context.close();
 	}
 
 }
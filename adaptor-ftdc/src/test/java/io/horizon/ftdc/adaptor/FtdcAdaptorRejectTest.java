@@ -0,0 +1,74 @@
+package io.horizon.ftdc.adaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.horizon.ftdc.gateway.FtdcConfig;
+import io.horizon.ftdc.gateway.sim.FtdcSimulatedConfig;
+import io.horizon.ftdc.gateway.sim.FtdcSimulatedConfig.OrderBehavior;
+import io.horizon.market.instrument.Instrument;
+import io.horizon.market.instrument.InstrumentKeeper;
+import io.horizon.market.instrument.spec.ChinaFutures;
+import io.horizon.market.instrument.spec.ChinaFuturesSymbol;
+import io.horizon.trader.account.Account;
+import io.horizon.trader.account.SubAccount;
+import io.horizon.trader.order.ChildOrder;
+import io.horizon.trader.order.OrderReport;
+import io.horizon.trader.order.attr.OrdStatus;
+import io.horizon.trader.order.attr.OrdType;
+import io.horizon.trader.order.attr.TrdAction;
+import io.horizon.trader.order.attr.TrdDirection;
+
+public class FtdcAdaptorRejectTest {
+
+	private final LinkedBlockingQueue<OrderReport> reports = new LinkedBlockingQueue<>();
+
+	private OrderReport next() throws InterruptedException {
+		OrderReport report = reports.poll(5, TimeUnit.SECONDS);
+		assertNotNull(report);
+		return report;
+	}
+
+	@Test
+	public void testRejectReportedOnce() throws Exception {
+		if (!InstrumentKeeper.isInitialized())
+			InstrumentKeeper.initialize(new ChinaFutures(ChinaFuturesSymbol.RB, 2110));
+		Instrument instrument = InstrumentKeeper.getInstrument("rb2110");
+		Account account = new Account(1, "9999", "000001");
+		FtdcConfig config = new FtdcConfig().setBrokerId("9999").setInvestorId("000001").setAccountId("000001")
+				.setUserId("000001").setSimulatedConfig(
+						new FtdcSimulatedConfig().setTicksPerSecond(0).setOrderBehavior(OrderBehavior.Reject));
+		try (FtdcAdaptor adaptor = new FtdcAdaptor(account, config, marketData -> {
+		}, reports::offer, event -> {
+		})) {
+			adaptor.startupAsync().get(10, TimeUnit.SECONDS);
+			ChildOrder order = ChildOrder.newOrder(() -> 9101L, 1, new SubAccount(1, account), account, instrument, 2,
+					instrument.getPriceMultiplier().toLong(5120.0D), OrdType.Limit, TrdDirection.Long,
+					TrdAction.Open);
+
+			// 模拟前置依次回调RspOrderInsert和ErrRtnOrderInsert, 只产生一条拒绝回报
+			assertTrue(adaptor.newOredr(account, order));
+			OrderReport rejected = next();
+			assertEquals(9101L, rejected.getOrdSysId());
+			assertEquals(OrdStatus.NewRejected, rejected.getOrdStatus());
+			assertEquals(31, rejected.getErrorId());
+			assertNull(reports.poll(500, TimeUnit.MILLISECONDS));
+
+			// 模拟前置依次回调RspOrderAction和ErrRtnOrderAction, 只产生一条撤单拒绝回报
+			assertTrue(adaptor.cancelOrder(account, order));
+			OrderReport cancelRejected = next();
+			assertEquals(9101L, cancelRejected.getOrdSysId());
+			assertEquals(OrdStatus.CancelRejected, cancelRejected.getOrdStatus());
+			assertEquals(25, cancelRejected.getErrorId());
+			assertNull(reports.poll(500, TimeUnit.MILLISECONDS));
+		}
+	}
+
+}
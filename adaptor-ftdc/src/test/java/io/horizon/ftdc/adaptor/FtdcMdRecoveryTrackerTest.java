@@ -0,0 +1,30 @@
+package io.horizon.ftdc.adaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FtdcMdRecoveryTrackerTest {
+
+	@Test
+	public void testRecovery() {
+		FtdcMdRecoveryTracker tracker = new FtdcMdRecoveryTracker();
+		tracker.onTick("rb2110", 100);
+		tracker.onTick("ag2112", 50);
+		assertEquals(-1L, tracker.getLastDarkMillis("rb2110"));
+		tracker.onDisconnected();
+		tracker.onReconnected();
+		assertEquals(-1L, tracker.getLastRecoveryMillis());
+		tracker.onTick("rb2110", 130);
+		assertEquals(30, tracker.getLastVolumeGap("rb2110"));
+		assertTrue(tracker.getLastDarkMillis("rb2110") >= 0L);
+		assertEquals(-1L, tracker.getLastRecoveryMillis());
+		// 成交量变小视为新的交易日
+		tracker.onTick("ag2112", 20);
+		assertEquals(20, tracker.getLastVolumeGap("ag2112"));
+		assertTrue(tracker.getLastRecoveryMillis() >= 0L);
+		assertEquals(1, tracker.getDisconnectCount());
+	}
+
+}
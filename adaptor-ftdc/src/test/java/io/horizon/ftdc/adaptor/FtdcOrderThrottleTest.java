@@ -0,0 +1,53 @@
+package io.horizon.ftdc.adaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class FtdcOrderThrottleTest {
+
+	@Test
+	public void testCancelFirst() throws InterruptedException {
+		List<String> sent = new CopyOnWriteArrayList<>();
+		try (FtdcOrderThrottle throttle = new FtdcOrderThrottle("throttle-test", 2.0D,
+				Collections.singletonMap("SHFE", 10.0D))) {
+			assertTrue(throttle.submitInsert(1L, "SHFE", () -> sent.add("insert-1")));
+			assertTrue(throttle.submitInsert(2L, "SHFE", () -> sent.add("insert-2")));
+			assertEquals(1.0D, throttle.getFrontUtilisation(), 0.05D);
+			// 令牌用完后排队, 撤单优先于报单
+			assertFalse(throttle.submitInsert(3L, "SHFE", () -> sent.add("insert-3")));
+			assertFalse(throttle.submitInsert(4L, "SHFE", () -> sent.add("insert-4")));
+			assertFalse(throttle.submitCancel(1L, "SHFE", () -> sent.add("cancel-1")));
+			assertTrue(throttle.cancelQueuedInsert(4L));
+			assertEquals(1, throttle.getQueuedInsertCount());
+			assertEquals(1, throttle.getQueuedCancelCount());
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+			while (sent.size() < 4 && System.nanoTime() < deadline)
+				Thread.sleep(10);
+		}
+		assertEquals(4, sent.size());
+		assertEquals("cancel-1", sent.get(2));
+		assertEquals("insert-3", sent.get(3));
+	}
+
+	@Test
+	public void testExchangeLimit() {
+		try (FtdcOrderThrottle throttle = new FtdcOrderThrottle("throttle-test", 100.0D,
+				Collections.singletonMap("CFFEX", 1.0D))) {
+			assertTrue(throttle.submitInsert(1L, "CFFEX", () -> {
+			}));
+			// 前置令牌充足, 交易所令牌用完后排队
+			assertFalse(throttle.submitInsert(2L, "CFFEX", () -> {
+			}));
+			assertEquals(1.0D, throttle.getExchangeUtilisation("CFFEX"), 0.05D);
+		}
+	}
+
+}
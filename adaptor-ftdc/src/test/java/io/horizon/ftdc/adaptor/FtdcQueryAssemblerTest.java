@@ -0,0 +1,63 @@
+package io.horizon.ftdc.adaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.horizon.ftdc.adaptor.consts.FtdcPosiDirection;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg.RspType;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInvestorPosition;
+import io.horizon.trader.adaptor.bean.PositionsReport;
+
+public class FtdcQueryAssemblerTest {
+
+	private static FtdcRspMsg newPosition(int requestId, String instrumentId, char direction, int qty,
+			boolean isLast) {
+		return new FtdcRspMsg(new FtdcInvestorPosition().setInstrumentID(instrumentId).setPosiDirection(direction)
+				.setPosition(qty), isLast).setRequestId(requestId);
+	}
+
+	@Test
+	public void test() {
+		List<PositionsReport> received = new ArrayList<>();
+		int[] dispatched = new int[1];
+		FtdcQueryAssembler assembler = new FtdcQueryAssembler(1, order -> null, report -> {
+		}, reports -> {
+			dispatched[0]++;
+			received.addAll(reports);
+		});
+
+		assertTrue(assembler.assemble(newPosition(5, "rb2110", FtdcPosiDirection.Long, 3, false)));
+		assertTrue(assembler.assemble(newPosition(5, "rb2110", FtdcPosiDirection.Short, 1, false)));
+		assertEquals(1, assembler.getAssemblingCount());
+		assertTrue(received.isEmpty());
+		assertTrue(assembler.assemble(newPosition(5, "ag2112", FtdcPosiDirection.Short, 2, true)));
+		// 收到最后一条回报后按合约合并为净持仓
+		assertEquals(0, assembler.getAssemblingCount());
+		assertEquals(1, dispatched[0]);
+		assertEquals(2, received.size());
+		for (PositionsReport report : received) {
+			if (report.getInstrumentCode().equals("rb2110"))
+				assertEquals(2, report.getCurrentQty());
+			else
+				assertEquals(-2, report.getCurrentQty());
+		}
+
+		// 没有持仓时仍会分发空列表
+		received.clear();
+		assertTrue(assembler.assemble(FtdcRspMsg.emptyOf(RspType.FtdcInvestorPosition, 6)));
+		assertEquals(2, dispatched[0]);
+		assertTrue(received.isEmpty());
+		assertEquals(0, assembler.getAssemblingCount());
+
+		// 推送消息不由组装器处理
+		assertFalse(assembler.assemble(newPosition(0, "rb2110", FtdcPosiDirection.Long, 1, true)));
+	}
+
+}
@@ -0,0 +1,139 @@
+package io.horizon.ftdc.adaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class FtdcQuerySchedulerTest {
+
+	private static void assertFailedWith(CompletableFuture<Void> future, Class<?> cause) throws Exception {
+		try {
+			future.get(3, TimeUnit.SECONDS);
+			fail("query should fail");
+		} catch (ExecutionException e) {
+			assertTrue(cause.isInstance(e.getCause()));
+		}
+	}
+
+	@Test
+	public void testMerge() throws Exception {
+		AtomicInteger sendCount = new AtomicInteger();
+		CountDownLatch blockerSent = new CountDownLatch(1);
+		try (FtdcQueryScheduler scheduler = new FtdcQueryScheduler("query-test", 100.0D, 5000L)) {
+			// 在途查询未结束时后续查询保持等待
+			CompletableFuture<Void> blocker = scheduler.submit("Account", () -> {
+				blockerSent.countDown();
+				return 1;
+			});
+			assertTrue(blockerSent.await(3, TimeUnit.SECONDS));
+			CompletableFuture<Void> first = scheduler.submit("Order:SHFE", () -> {
+				sendCount.incrementAndGet();
+				scheduler.onLastResponse(2);
+				return 2;
+			});
+			CompletableFuture<Void> second = scheduler.submit("Order:SHFE", () -> {
+				sendCount.incrementAndGet();
+				return 3;
+			});
+			assertSame(first, second);
+			assertEquals(1, scheduler.getPendingCount());
+			scheduler.onLastResponse(1);
+			blocker.get(3, TimeUnit.SECONDS);
+			first.get(3, TimeUnit.SECONDS);
+			assertEquals(1, sendCount.get());
+			assertEquals(0, scheduler.getPendingCount());
+		}
+	}
+
+	@Test
+	public void testPermitInterval() throws Exception {
+		List<Long> sendTimes = new CopyOnWriteArrayList<>();
+		AtomicInteger requestId = new AtomicInteger();
+		try (FtdcQueryScheduler scheduler = new FtdcQueryScheduler("query-test", 10.0D, 5000L)) {
+			CompletableFuture<?>[] futures = new CompletableFuture<?>[3];
+			for (int i = 0; i < futures.length; i++) {
+				futures[i] = scheduler.submit("Position:" + i, () -> {
+					sendTimes.add(System.nanoTime());
+					int id = requestId.incrementAndGet();
+					// 回报立即结束, 下一个查询只受令牌间隔限制
+					scheduler.onLastResponse(id);
+					return id;
+				});
+			}
+			CompletableFuture.allOf(futures).get(3, TimeUnit.SECONDS);
+		}
+		assertEquals(3, sendTimes.size());
+		for (int i = 1; i < sendTimes.size(); i++)
+			assertTrue(sendTimes.get(i) - sendTimes.get(i - 1) >= TimeUnit.MILLISECONDS.toNanos(90));
+	}
+
+	@Test
+	public void testRetryWhenThrottled() throws Exception {
+		AtomicInteger sendCount = new AtomicInteger();
+		try (FtdcQueryScheduler scheduler = new FtdcQueryScheduler("query-test", 20.0D, 5000L)) {
+			// 前两次分别返回每秒请求超限和未处理请求超限, 第三次发送成功
+			CompletableFuture<Void> future = scheduler.submit("Account", () -> {
+				switch (sendCount.incrementAndGet()) {
+				case 1:
+					return -3;
+				case 2:
+					return -2;
+				default:
+					scheduler.onLastResponse(8);
+					return 8;
+				}
+			});
+			future.get(3, TimeUnit.SECONDS);
+			assertEquals(3, sendCount.get());
+			// 其他失败不重试
+			CompletableFuture<Void> failed = scheduler.submit("Order:SHFE", () -> -1);
+			assertFailedWith(failed, IllegalStateException.class);
+		}
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		try (FtdcQueryScheduler scheduler = new FtdcQueryScheduler("query-test", 100.0D, 100L)) {
+			CompletableFuture<Void> timeout = scheduler.submit("Order:SHFE", () -> 1);
+			CompletableFuture<Void> next = scheduler.submit("Order:DCE", () -> {
+				scheduler.onLastResponse(2);
+				return 2;
+			});
+			assertFailedWith(timeout, TimeoutException.class);
+			// 超时后继续发送下一个查询, 迟到的回报被忽略
+			next.get(3, TimeUnit.SECONDS);
+			scheduler.onLastResponse(1);
+		}
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		CountDownLatch sent = new CountDownLatch(1);
+		FtdcQueryScheduler scheduler = new FtdcQueryScheduler("query-test", 100.0D, 5000L);
+		CompletableFuture<Void> inFlight = scheduler.submit("Account", () -> {
+			sent.countDown();
+			return 1;
+		});
+		assertTrue(sent.await(3, TimeUnit.SECONDS));
+		CompletableFuture<Void> pending = scheduler.submit("Order:SHFE", () -> 2);
+		scheduler.close();
+		// 在途查询和等待中的查询都在关闭时结束
+		assertFailedWith(inFlight, IllegalStateException.class);
+		assertFailedWith(pending, IllegalStateException.class);
+		scheduler.onLastResponse(1);
+		assertTrue(scheduler.submit("Account", () -> 3).isCompletedExceptionally());
+	}
+
+}
@@ -0,0 +1,68 @@
+package io.horizon.ftdc.adaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import io.horizon.ftdc.exception.OrderRefNotFoundException;
+
+public class OrderRefKeeperTest {
+
+	@Test
+	public void testParseOrderRef() {
+		assertEquals(123, OrderRefKeeper.parseOrderRef("123"));
+		assertEquals(123, OrderRefKeeper.parseOrderRef("         123"));
+		assertEquals(-1, OrderRefKeeper.parseOrderRef(""));
+		assertEquals(-1, OrderRefKeeper.parseOrderRef("12a"));
+		assertEquals(-1, OrderRefKeeper.parseOrderRef("99999999999"));
+	}
+
+	@Test
+	public void testAttach() throws IOException, OrderRefNotFoundException {
+		File file = File.createTempFile("order-ref", ".mmap");
+		file.deleteOnExit();
+		OrderRefKeeper.onTraderLogin(20210611, 1, 1001);
+		assertEquals(0, OrderRefKeeper.attach(file, 20210611, 16));
+		OrderRefKeeper.put(101, 9001L);
+		// 重新登录后的新会话
+		OrderRefKeeper.onTraderLogin(20210611, 2, 2002);
+		OrderRefKeeper.put("102", 9002L);
+		assertEquals(9002L, OrderRefKeeper.getOrdSysId(" 102"));
+		assertEquals("101", OrderRefKeeper.getOrderRef(9001L));
+		assertEquals(102, OrderRefKeeper.getMaxOrderRef());
+		// 撤单使用报单时的会话
+		long session = OrderRefKeeper.getSession(9001L);
+		assertEquals(1, OrderRefKeeper.frontIdOf(session));
+		assertEquals(1001, OrderRefKeeper.sessionIdOf(session));
+		session = OrderRefKeeper.getSession(9002L);
+		assertEquals(2, OrderRefKeeper.frontIdOf(session));
+		assertEquals(2002, OrderRefKeeper.sessionIdOf(session));
+		// 按报单时的会话区分其他会话的推送
+		assertTrue(OrderRefKeeper.isOwnOrder("101", 1, 1001));
+		assertTrue(OrderRefKeeper.isOwnOrder("  102", 2, 2002));
+		assertFalse(OrderRefKeeper.isOwnOrder("101", 2, 2002));
+		assertFalse(OrderRefKeeper.isOwnOrder("103", 2, 2002));
+		// 同一交易日已挂载时不重复读取
+		assertEquals(2, OrderRefKeeper.attach(file, 20210611, 16));
+
+		// 交易日变化时清空映射和文件
+		OrderRefKeeper.onTraderLogin(20210614, 1, 3003);
+		assertEquals(0, OrderRefKeeper.attach(file, 20210614, 16));
+		assertEquals(0, OrderRefKeeper.getMaxOrderRef());
+		assertThrows(OrderRefNotFoundException.class, () -> OrderRefKeeper.getOrderRef(9001L));
+		assertThrows(OrderRefNotFoundException.class, () -> OrderRefKeeper.getSession(9002L));
+	}
+
+	@Test
+	public void testAttachWithoutTradingDay() {
+		assertThrows(IllegalArgumentException.class,
+				() -> OrderRefKeeper.attach(new File("order-ref-invalid.mmap"), 0, 16));
+	}
+
+}
@@ -0,0 +1,85 @@
+package io.horizon.ftdc.adaptor.converter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ctp.thostapi.CThostFtdcDepthMarketDataField;
+import io.horizon.ftdc.gateway.FtdcGateway;
+import io.horizon.ftdc.gateway.converter.CThostFtdcDepthMarketDataConverter;
+import io.horizon.market.data.impl.BasicMarketData;
+import io.horizon.market.instrument.InstrumentKeeper;
+import io.horizon.market.instrument.spec.ChinaFutures;
+import io.horizon.market.instrument.spec.ChinaFuturesSymbol;
+
+/**
+ * 对比两段式行情转换与融合转换器
+ * 
+ * @author yellow013
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DepthMarketDataConverterBenchmark {
+
+	private final CThostFtdcDepthMarketDataConverter depthMarketDataConverter = new CThostFtdcDepthMarketDataConverter();
+
+	private final FromFtdcDepthMarketData fromFtdcDepthMarketData = new FromFtdcDepthMarketData();
+
+	private final FromCThostFtdcDepthMarketData fromCThostFtdcDepthMarketData = new FromCThostFtdcDepthMarketData();
+
+	private CThostFtdcDepthMarketDataField field;
+
+	@Setup
+	public void setup() throws ClassNotFoundException {
+		// 初始化FtdcGateway以加载本地库
+		Class.forName(FtdcGateway.class.getName());
+		if (!InstrumentKeeper.isInitialized())
+			InstrumentKeeper.initialize(new ChinaFutures(ChinaFuturesSymbol.RB, 2110));
+		field = new CThostFtdcDepthMarketDataField();
+		field.setTradingDay("20210903");
+		field.setActionDay("20210903");
+		field.setInstrumentID("rb2110");
+		field.setExchangeID("SHFE");
+		field.setUpdateTime("10:15:30");
+		field.setUpdateMillisec(500);
+		field.setLastPrice(5521.0);
+		field.setVolume(120345);
+		field.setTurnover(6645123450.0);
+		field.setBidPrice1(5520.0);
+		field.setBidVolume1(12);
+		field.setAskPrice1(5521.0);
+		field.setAskVolume1(33);
+	}
+
+	@Benchmark
+	public BasicMarketData twoStage() {
+		return fromFtdcDepthMarketData.apply(depthMarketDataConverter.apply(field));
+	}
+
+	@Benchmark
+	public BasicMarketData fused() {
+		return fromCThostFtdcDepthMarketData.apply(field);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(DepthMarketDataConverterBenchmark.class.getSimpleName())
+				.addProfiler("gc").build()).run();
+	}
+
+}
@@ -0,0 +1,55 @@
+package io.horizon.ftdc.adaptor.converter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.Test;
+
+public class FtdcTimeParserTest {
+
+	@Test
+	public void testToEpochMillis() {
+		assertEquals(1622725201000L, FtdcTimeParser.toEpochMillis("20210603", "21:00:01"));
+		// 使用缓存的日期
+		assertEquals(1622649600000L, FtdcTimeParser.toEpochMillis("20210603", "00:00:00"));
+		assertEquals(0L, FtdcTimeParser.toEpochMillis("2021060", "21:00:01"));
+		assertEquals(0L, FtdcTimeParser.toEpochMillis("20210603", "21:0a:01"));
+		assertEquals(0L, FtdcTimeParser.toEpochMillis("20211303", "21:00:01"));
+	}
+
+	@Test
+	public void testToEpochDay() {
+		for (LocalDate date = LocalDate.of(1999, 12, 1); date.getYear() < 2033; date = date.plusDays(17))
+			assertEquals(date.toEpochDay(),
+					FtdcTimeParser.toEpochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+	}
+
+	@Test
+	public void testToNaturalDate() {
+		// 2021-08-02为周一, 大商所周五夜盘的日期为周一
+		assertEquals("20210730", FtdcTimeParser.toNaturalDate("20210802", "21:00:01", "20210802", true));
+		// 周六凌晨
+		assertEquals("20210731", FtdcTimeParser.toNaturalDate("20210802", "01:00:00", "20210802", true));
+		assertEquals("20210803", FtdcTimeParser.toNaturalDate("20210804", "21:00:01", "20210804", true));
+		assertEquals("20210831", FtdcTimeParser.toNaturalDate("20210901", "22:30:00", "20210901", true));
+		// 周中零点之后日期与自然日一致
+		assertEquals("20210804", FtdcTimeParser.toNaturalDate("20210804", "01:00:00", "20210804", true));
+		// 日盘
+		assertEquals("20210802", FtdcTimeParser.toNaturalDate("20210802", "10:00:00", "20210802", true));
+		// 其他交易所日期已是自然日
+		assertEquals("20210803", FtdcTimeParser.toNaturalDate("20210803", "21:00:01", "20210804", true));
+		assertEquals("20210802", FtdcTimeParser.toNaturalDate("20210802", "21:00:01", "20210802", false));
+		assertEquals(LocalDateTime.of(2021, 7, 30, 21, 0, 1).toInstant(ZoneOffset.ofHours(8)).toEpochMilli(),
+				FtdcTimeParser.toEpochMillis(
+						FtdcTimeParser.toNaturalDate("20210802", "21:00:01", "20210802", true), "21:00:01"));
+	}
+
+	@Test
+	public void testToDigits() {
+		assertEquals("20210603210001", FtdcTimeParser.toDigits("20210603", "21:00:01"));
+	}
+
+}
@@ -0,0 +1,105 @@
+package io.horizon.ftdc.adaptor.converter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ctp.thostapi.CThostFtdcInputOrderActionField;
+import ctp.thostapi.CThostFtdcInputOrderField;
+import io.horizon.ftdc.gateway.FtdcConfig;
+import io.horizon.ftdc.gateway.FtdcGateway;
+import io.horizon.market.instrument.Instrument;
+import io.horizon.market.instrument.InstrumentKeeper;
+import io.horizon.market.instrument.spec.ChinaFutures;
+import io.horizon.market.instrument.spec.ChinaFuturesSymbol;
+import io.horizon.trader.order.ChildOrder;
+import io.horizon.trader.order.attr.OrdPrice;
+import io.horizon.trader.order.attr.OrdQty;
+import io.horizon.trader.order.attr.TrdAction;
+import io.horizon.trader.order.attr.TrdDirection;
+
+/**
+ * 对比每笔报单创建请求结构与使用模板
+ *
+ * @author yellow013
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InputOrderTemplateBenchmark {
+
+	private ToCThostFtdcInputOrder toCThostFtdcInputOrder;
+
+	private ToCThostFtdcInputOrderAction toCThostFtdcInputOrderAction;
+
+	private ChildOrder order;
+
+	private int orderRef;
+
+	@Setup
+	public void setup() throws ClassNotFoundException {
+		// 初始化FtdcGateway以加载本地库
+		Class.forName(FtdcGateway.class.getName());
+		Instrument instrument = new ChinaFutures(ChinaFuturesSymbol.RB, 2110);
+		if (!InstrumentKeeper.isInitialized())
+			InstrumentKeeper.initialize(instrument);
+		FtdcConfig config = new FtdcConfig().setBrokerId("9999").setInvestorId("000001").setAccountId("000001")
+				.setUserId("000001").setIpAddr("127.0.0.1").setMacAddr("00:00:00:00:00:00");
+		toCThostFtdcInputOrder = new ToCThostFtdcInputOrder(config);
+		toCThostFtdcInputOrderAction = new ToCThostFtdcInputOrderAction(config);
+		order = ChildOrder.newExternalOrder(1L, 1, instrument, OrdQty.withOffer(2),
+				OrdPrice.withOffer(instrument.getPriceMultiplier().toLong(5120.0D)), TrdDirection.Long, TrdAction.Open);
+	}
+
+	@Benchmark
+	public CThostFtdcInputOrderField insertNewField() {
+		CThostFtdcInputOrderField field = toCThostFtdcInputOrder.apply(order);
+		field.setOrderRef(Integer.toString(++orderRef));
+		return field;
+	}
+
+	@Benchmark
+	public CThostFtdcInputOrderField insertTemplate() {
+		CThostFtdcInputOrderField template = toCThostFtdcInputOrder.getTemplate(order);
+		synchronized (template) {
+			return toCThostFtdcInputOrder.fillTemplate(template, order, ++orderRef);
+		}
+	}
+
+	@Benchmark
+	public CThostFtdcInputOrderActionField actionNewField() {
+		CThostFtdcInputOrderActionField field = toCThostFtdcInputOrderAction.apply(order);
+		field.setOrderRef(Integer.toString(++orderRef));
+		field.setOrderActionRef(orderRef);
+		return field;
+	}
+
+	@Benchmark
+	public CThostFtdcInputOrderActionField actionTemplate() {
+		CThostFtdcInputOrderActionField template = toCThostFtdcInputOrderAction.getTemplate(order);
+		synchronized (template) {
+			return toCThostFtdcInputOrderAction.fillTemplate(template, order, 1, 1, ++orderRef, orderRef);
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(InputOrderTemplateBenchmark.class.getSimpleName())
+				.addProfiler("gc").build()).run();
+	}
+
+}
@@ -0,0 +1,55 @@
+package io.horizon.ftdc.adaptor.converter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.Test;
+
+public class TickTimeDecoderTest {
+
+	private static final ZoneOffset CST = ZoneOffset.ofHours(8);
+
+	private final TickTimeDecoder decoder = new TickTimeDecoder();
+
+	private static long expected(int year, int month, int day, int hour, int minute, int second, int millis) {
+		return LocalDateTime.of(year, month, day, hour, minute, second, millis * 1000000).toInstant(CST)
+				.toEpochMilli();
+	}
+
+	@Test
+	public void testDaySession() {
+		assertEquals(expected(2021, 9, 3, 10, 15, 30, 500),
+				decoder.toEpochMillis("20210903", "20210903", "10:15:30", 500, CST, false));
+		assertEquals(expected(2021, 9, 3, 14, 59, 59, 0),
+				decoder.toEpochMillis("20210903", "20210903", "14:59:59", 0, CST, true));
+	}
+
+	@Test
+	public void testNightSession() {
+		// 周五夜盘, 非大商所ActionDay为自然日
+		assertEquals(expected(2021, 9, 3, 21, 0, 1, 0),
+				decoder.toEpochMillis("20210903", "20210906", "21:00:01", 0, CST, false));
+		// 大商所周五夜盘, ActionDay填写为周一
+		assertEquals(expected(2021, 9, 3, 21, 0, 1, 0),
+				decoder.toEpochMillis("20210906", "20210906", "21:00:01", 0, CST, true));
+		// 大商所周六凌晨
+		assertEquals(expected(2021, 9, 4, 1, 30, 0, 500),
+				decoder.toEpochMillis("20210906", "20210906", "01:30:00", 500, CST, true));
+		// 大商所周二夜盘
+		assertEquals(expected(2021, 9, 7, 22, 59, 59, 500),
+				decoder.toEpochMillis("20210908", "20210908", "22:59:59", 500, CST, true));
+		// 大商所周三凌晨
+		assertEquals(expected(2021, 9, 8, 0, 30, 0, 0),
+				decoder.toEpochMillis("20210908", "20210908", "00:30:00", 0, CST, true));
+	}
+
+	@Test
+	public void testEpochDay() {
+		assertEquals(0L, TickTimeDecoder.epochDay(1970, 1, 1));
+		assertEquals(java.time.LocalDate.of(2024, 2, 29).toEpochDay(), TickTimeDecoder.epochDay(2024, 2, 29));
+		assertEquals(0, TickTimeDecoder.dayOfWeek(java.time.LocalDate.of(2021, 9, 6).toEpochDay()));
+	}
+
+}
@@ -0,0 +1,64 @@
+package io.horizon.ftdc.avro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import io.horizon.trader.adaptor.AdaptorEvent;
+import io.horizon.trader.adaptor.AdaptorEvent.AdaptorStatus;
+import io.horizon.trader.order.OrderReport;
+import io.horizon.trader.order.attr.OrdStatus;
+import io.horizon.trader.order.attr.OrdType;
+import io.horizon.trader.order.attr.TrdAction;
+import io.horizon.trader.order.attr.TrdDirection;
+
+public class FtdcAvroCodecTest {
+
+	@Test
+	public void testOrderReport() {
+		OrderReport report = new OrderReport(8L).setEpochMillis(1622700000000L).setInvestorId("000001")
+				.setOrdType(OrdType.Limit).setOrdStatus(OrdStatus.PartiallyFilled).setOrderRef("100001")
+				.setDirection(TrdDirection.Short).setAction(TrdAction.CloseToday).setOfferQty(5).setFilledQty(2)
+				.setOfferPrice(51200L).setTradePrice(51190L).setOfferTime("21:00:01").setOfferEpochMillis(1622725201000L);
+		OrderReport decoded = FtdcAvroCodec.decodeOrderReport(FtdcAvroCodec.encode(report));
+		assertEquals(8L, decoded.getOrdSysId());
+		assertEquals(1622700000000L, decoded.getEpochMillis());
+		assertEquals("000001", decoded.getInvestorId());
+		assertEquals(OrdType.Limit, decoded.getOrdType());
+		assertEquals(OrdStatus.PartiallyFilled, decoded.getOrdStatus());
+		assertEquals("100001", decoded.getOrderRef());
+		assertNull(decoded.getBrokerUniqueId());
+		assertNull(decoded.getInstrument());
+		assertEquals(TrdDirection.Short, decoded.getDirection());
+		assertEquals(TrdAction.CloseToday, decoded.getAction());
+		assertEquals(5, decoded.getOfferQty());
+		assertEquals(2, decoded.getFilledQty());
+		assertEquals(51190L, decoded.getTradePrice());
+		assertEquals("21:00:01", decoded.getOfferTime());
+		assertNull(decoded.getLastUpdateTime());
+		assertEquals(1622725201000L, decoded.getOfferEpochMillis());
+		assertEquals(0L, decoded.getLastUpdateEpochMillis());
+		assertEquals(0, decoded.getErrorId());
+		assertNull(decoded.getErrorMsg());
+	}
+
+	@Test
+	public void testRejectedOrderReport() {
+		OrderReport report = new OrderReport(9L).setOrdStatus(OrdStatus.NewRejected).setOrderRef("100002")
+				.setErrorId(31).setErrorMsg("CTP:资金不足");
+		OrderReport decoded = FtdcAvroCodec.decodeOrderReport(FtdcAvroCodec.encode(report));
+		assertEquals(OrdStatus.NewRejected, decoded.getOrdStatus());
+		assertEquals(31, decoded.getErrorId());
+		assertEquals("CTP:资金不足", decoded.getErrorMsg());
+	}
+
+	@Test
+	public void testAdaptorEvent() {
+		AdaptorEvent decoded = FtdcAvroCodec
+				.decodeAdaptorEvent(FtdcAvroCodec.encode(new AdaptorEvent("FTDC-000001", AdaptorStatus.TraderEnable)));
+		assertEquals("FTDC-000001", decoded.getAdaptorId());
+		assertEquals(AdaptorStatus.TraderEnable, decoded.getStatus());
+	}
+
+}
@@ -0,0 +1,48 @@
+package io.horizon.ftdc.gateway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.horizon.ftdc.gateway.FtdcBootstrapTracker.Phase;
+
+public class FtdcBootstrapTrackerTest {
+
+	@Test
+	public void testReadiness() {
+		FtdcBootstrapTracker tracker = new FtdcBootstrapTracker("tracker-test");
+		// 未开始时不记录
+		tracker.mark(Phase.MdConnected);
+		assertEquals(-1L, tracker.getElapsedMillis(Phase.MdConnected));
+		tracker.start();
+		tracker.mark(Phase.TraderConnected);
+		tracker.mark(Phase.TraderLogin);
+		assertTrue(tracker.getElapsedMillis(Phase.TraderLogin) >= 0L);
+		assertFalse(tracker.getReadiness().isDone());
+		tracker.mark(Phase.MdLogin);
+		assertTrue(tracker.getReadiness().isDone());
+	}
+
+	@Test
+	public void testMdSubscribed() {
+		FtdcBootstrapTracker tracker = new FtdcBootstrapTracker("tracker-test");
+		tracker.expectSubscription("rb2110", "hc2110");
+		tracker.start();
+		tracker.mark(Phase.TraderLogin);
+		tracker.mark(Phase.MdLogin);
+		// 行情登录后仍需等待全部订阅应答
+		assertFalse(tracker.getReadiness().isDone());
+		assertEquals(-1L, tracker.getElapsedMillis(Phase.MdSubscribed));
+		tracker.onSubscribed("rb2110");
+		// 未请求的合约不影响订阅阶段
+		tracker.onSubscribed("ag2112");
+		assertFalse(tracker.getReadiness().isDone());
+		assertEquals(1, tracker.getPendingSubscriptions().size());
+		tracker.onSubscribed("hc2110");
+		assertTrue(tracker.getElapsedMillis(Phase.MdSubscribed) >= 0L);
+		assertTrue(tracker.getReadiness().isDone());
+	}
+
+}
@@ -0,0 +1,29 @@
+package io.horizon.ftdc.gateway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FtdcMdDeduplicatorTest {
+
+	@Test
+	public void testFirstArrival() {
+		FtdcMdDeduplicator deduplicator = new FtdcMdDeduplicator(2);
+		assertTrue(deduplicator.isFirstArrival(0, "rb2110", "21:00:01", 500, 100));
+		// 其他前置的相同行情
+		assertFalse(deduplicator.isFirstArrival(1, "rb2110", "21:00:01", 500, 100));
+		assertTrue(deduplicator.isFirstArrival(1, "rb2110", "21:00:02", 0, 120));
+		// 过时行情
+		assertFalse(deduplicator.isFirstArrival(0, "rb2110", "21:00:01", 500, 100));
+		// 夜盘跨零点和日盘仍然递增
+		assertTrue(deduplicator.isFirstArrival(0, "rb2110", "00:30:00", 0, 200));
+		assertTrue(deduplicator.isFirstArrival(0, "rb2110", "09:00:00", 0, 300));
+		// 新的交易日
+		assertTrue(deduplicator.isFirstArrival(0, "rb2110", "21:00:00", 500, 10));
+		assertEquals(4, deduplicator.getFirstCount(0));
+		assertEquals(1, deduplicator.getFirstCount(1));
+	}
+
+}
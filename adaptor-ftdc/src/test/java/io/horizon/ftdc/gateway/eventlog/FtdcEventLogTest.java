@@ -0,0 +1,72 @@
+package io.horizon.ftdc.gateway.eventlog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.horizon.ftdc.gateway.msg.rsp.FtdcOrder;
+
+public class FtdcEventLogTest {
+
+	@Test
+	public void testRenderOffline() throws IOException {
+		File file = File.createTempFile("ftdc-event", ".log");
+		file.deleteOnExit();
+		FtdcEventLog eventLog = FtdcEventLog.attach(file, 16);
+		FtdcEventLog.reqOrderInsert(1, 101, 9001L, "rb2110", 2, 51200L);
+		FtdcEventLog.reqOrderAction(2, 101, 102, 9001L, "rb2110");
+		FtdcEventLog.rtnOrder(new FtdcOrder().setInstrumentID("rb2110").setInvestorID("000001").setOrderRef("101")
+				.setOrderSysID("  123456").setLimitPrice(5120.0D).setVolumeTotalOriginal(2).setOrderStatus('3'));
+		eventLog.close();
+
+		List<String> lines = new ArrayList<>();
+		assertEquals(3, FtdcEventLogRenderer.render(file, lines::add));
+		assertTrue(lines.get(0).startsWith("seq==[0]"));
+		assertTrue(lines.get(0).contains("Send ReqOrderInsert OK -> nRequestID==[1], OrderRef==[101]"));
+		assertTrue(lines.get(0).contains("ordSysId==[9001], instrumentCode==[rb2110], offerQty==[2], offerPrice==[51200]"));
+		assertTrue(lines.get(1).contains("OrderRef==[101], OrderActionRef==[102], ordSysId==[9001]"));
+		assertTrue(lines.get(2).contains("OrderSysID==[  123456]"));
+	}
+
+	@Test
+	public void testRingWrapAround() throws IOException {
+		File file = File.createTempFile("ftdc-event", ".log");
+		file.deleteOnExit();
+		FtdcEventLog eventLog = FtdcEventLog.attach(file, 4);
+		for (int i = 0; i < 64; i++)
+			FtdcEventLog.reqOrderInsert(i, i, i, "rb2110", 1, 51200L);
+		eventLog.close();
+		List<String> lines = new ArrayList<>();
+		// 文件中只保留最后写入的记录
+		int count = FtdcEventLogRenderer.render(file, lines::add);
+		assertTrue(count > 0 && count <= 4);
+	}
+
+	@Test
+	public void testRotateOnAttach() throws IOException {
+		File file = File.createTempFile("ftdc-event", ".log");
+		file.deleteOnExit();
+		FtdcEventLog eventLog = FtdcEventLog.attach(file, 16);
+		FtdcEventLog.reqOrderInsert(1, 101, 9001L, "rb2110", 2, 51200L);
+		eventLog.close();
+
+		// 重新attach时保留上次的记录
+		eventLog = FtdcEventLog.attach(file, 16);
+		eventLog.close();
+		File[] rotated = file.getAbsoluteFile().getParentFile()
+				.listFiles((dir, name) -> name.startsWith(file.getName() + "."));
+		assertEquals(1, rotated.length);
+		rotated[0].deleteOnExit();
+		List<String> lines = new ArrayList<>();
+		assertEquals(1, FtdcEventLogRenderer.render(rotated[0], lines::add));
+		assertTrue(lines.get(0).contains("nRequestID==[1], OrderRef==[101]"));
+		assertEquals(0, FtdcEventLogRenderer.render(file, lines::add));
+	}
+
+}
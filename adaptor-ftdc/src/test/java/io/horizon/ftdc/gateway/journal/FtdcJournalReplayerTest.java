@@ -0,0 +1,121 @@
+package io.horizon.ftdc.gateway.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg.RspType;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsgCodec;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcDepthMarketData;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInputOrder;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcOrder;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTrade;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTraderConnect;
+
+public class FtdcJournalReplayerTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		File journalDir = Files.createTempDirectory("ftdc-journal").toFile();
+		try {
+			List<FtdcRspMsg> published = new ArrayList<>();
+			try (FtdcJournalPublisher publisher = new FtdcJournalPublisher(journalDir, published::add)) {
+				publisher.publish(new FtdcRspMsg(new FtdcTraderConnect(true).setFrontID(1).setSessionID(-12345)
+						.setMaxOrderRef("100").setTradingDay("20210804")));
+				publisher.publish(new FtdcRspMsg(new FtdcDepthMarketData().setInstrumentID("rb2110")
+						.setTradingDay("20210804").setLastPrice(5120.0).setVolume(300).setBidPrice1(5119.0)
+						.setBidVolume1(7).setAskPrice5(5125.0).setAskVolume5(9).setUpdateTime("21:00:01")
+						.setUpdateMillisec(500)));
+				publisher.publish(new FtdcRspMsg(new FtdcOrder().setInstrumentID("rb2110").setOrderRef("101")
+						.setOrderSysID("  123456").setOrderStatus('0').setDirection('0').setLimitPrice(5120.0)
+						.setVolumeTraded(2).setFrontID(1).setSessionID(-12345).setStatusMsg("全部成交"), true));
+				publisher.publish(new FtdcRspMsg(new FtdcTrade().setInstrumentID("rb2110").setOrderRef("101")
+						.setTradeID("T1").setPrice(5120.0).setVolume(2).setTradeDate("20210804")));
+				publisher.publish(new FtdcRspMsg(new FtdcInputOrder().setOrderRef("102").setErrorID(22)
+						.setErrorMsg(null)));
+				publisher.publish(FtdcRspMsg.emptyOf(RspType.FtdcTradingAccount, 7));
+				assertEquals(6, publisher.getJournaledCount());
+				assertEquals(0, publisher.getFailureCount());
+			}
+			assertEquals(6, published.size());
+
+			List<FtdcRspMsg> replayed = new ArrayList<>();
+			try (FtdcJournalReplayer replayer = new FtdcJournalReplayer(journalDir)) {
+				assertEquals(6, replayer.replay(replayed::add, 0));
+			}
+			assertEquals(6, replayed.size());
+
+			FtdcTraderConnect traderConnect = replayed.get(0).getFtdcTraderConnect();
+			assertTrue(traderConnect.isAvailable());
+			assertEquals(1, traderConnect.getFrontID());
+			assertEquals(-12345, traderConnect.getSessionID());
+			assertEquals("100", traderConnect.getMaxOrderRef());
+			assertEquals("20210804", traderConnect.getTradingDay());
+
+			FtdcDepthMarketData depthMarketData = replayed.get(1).getFtdcDepthMarketData();
+			assertEquals("rb2110", depthMarketData.getInstrumentID());
+			assertEquals(5120.0, depthMarketData.getLastPrice(), 0.0);
+			assertEquals(300, depthMarketData.getVolume());
+			assertEquals(5119.0, depthMarketData.getBidPrice1(), 0.0);
+			assertEquals(7, depthMarketData.getBidVolume1());
+			assertEquals(5125.0, depthMarketData.getAskPrice5(), 0.0);
+			assertEquals(9, depthMarketData.getAskVolume5());
+			assertEquals("21:00:01", depthMarketData.getUpdateTime());
+			assertEquals(500, depthMarketData.getUpdateMillisec());
+			assertNull(depthMarketData.getActionDay());
+
+			FtdcRspMsg orderMsg = replayed.get(2);
+			assertTrue(orderMsg.isLast());
+			FtdcOrder order = orderMsg.getFtdcOrder();
+			assertEquals("101", order.getOrderRef());
+			assertEquals("  123456", order.getOrderSysID());
+			assertEquals('0', order.getOrderStatus());
+			assertEquals(2, order.getVolumeTraded());
+			assertEquals(-12345, order.getSessionID());
+			assertEquals("全部成交", order.getStatusMsg());
+
+			FtdcTrade trade = replayed.get(3).getFtdcTrade();
+			assertEquals("T1", trade.getTradeID());
+			assertEquals(5120.0, trade.getPrice(), 0.0);
+			assertEquals(2, trade.getVolume());
+			assertEquals("20210804", trade.getTradeDate());
+
+			FtdcInputOrder inputOrder = replayed.get(4).getFtdcInputOrder();
+			assertEquals("102", inputOrder.getOrderRef());
+			assertEquals(22, inputOrder.getErrorID());
+			assertNull(inputOrder.getErrorMsg());
+
+			FtdcRspMsg empty = replayed.get(5);
+			assertEquals(RspType.FtdcTradingAccount, empty.getRspType());
+			assertEquals(7, empty.getRequestId());
+			assertNull(empty.getFtdcTradingAccount());
+		} finally {
+			File[] files = journalDir.listFiles();
+			if (files != null)
+				for (File file : files)
+					file.delete();
+			journalDir.delete();
+		}
+	}
+
+	@Test
+	public void testRejectUnversionedRecord() {
+		// 旧格式记录以RspType序号开头, 没有Magic和Version
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		buffer.put((byte) RspType.FtdcTrade.ordinal()).put((byte) 0).putInt(0).put((byte) 1);
+		buffer.flip();
+		assertThrows(IllegalStateException.class, () -> FtdcRspMsgCodec.decode(buffer));
+	}
+
+}
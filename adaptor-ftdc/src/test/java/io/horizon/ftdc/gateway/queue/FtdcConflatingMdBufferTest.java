@@ -0,0 +1,40 @@
+package io.horizon.ftdc.gateway.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcDepthMarketData;
+
+public class FtdcConflatingMdBufferTest {
+
+	private static FtdcRspMsg newMsg(String instrumentId, int volume) {
+		return new FtdcRspMsg(new FtdcDepthMarketData().setInstrumentID(instrumentId).setVolume(volume));
+	}
+
+	@Test
+	public void test() {
+		FtdcConflatingMdBuffer buffer = new FtdcConflatingMdBuffer();
+		buffer.offer("rb2110", newMsg("rb2110", 1));
+		buffer.offer("ag2112", newMsg("ag2112", 1));
+		FtdcRspMsg latest = newMsg("rb2110", 3);
+		buffer.offer("rb2110", newMsg("rb2110", 2));
+		buffer.offer("rb2110", latest);
+
+		assertEquals(2, buffer.getDirtyCount());
+		assertEquals(2L, buffer.getConflatedCount());
+		// 每个合约只处理一次最新行情
+		assertSame(latest, buffer.poll());
+		assertEquals("ag2112", buffer.poll().getFtdcDepthMarketData().getInstrumentID());
+		assertNull(buffer.poll());
+
+		// 消费后重新写入
+		buffer.offer("rb2110", newMsg("rb2110", 4));
+		assertEquals(4, buffer.poll().getFtdcDepthMarketData().getVolume());
+		assertNull(buffer.poll());
+	}
+
+}
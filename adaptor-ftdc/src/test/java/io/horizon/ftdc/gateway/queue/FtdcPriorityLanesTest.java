@@ -0,0 +1,88 @@
+package io.horizon.ftdc.gateway.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg.RspType;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTrade;
+
+public class FtdcPriorityLanesTest {
+
+	private static FtdcRspMsg newTrade(int seq) {
+		return new FtdcRspMsg(new FtdcTrade().setOrderRef(Integer.toString(seq)).setTradeID("T" + seq)
+				.setInstrumentID("rb2110").setPrice(5000.5 + seq).setVolume(seq));
+	}
+
+	private static void await(List<FtdcRspMsg> received, int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (received.size() < count && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+		assertEquals(count, received.size());
+	}
+
+	private static void assertTrades(List<FtdcRspMsg> received, int from, int to) {
+		for (int seq = from; seq < to; seq++) {
+			FtdcRspMsg rspMsg = received.get(seq);
+			assertEquals(RspType.FtdcTrade, rspMsg.getRspType());
+			FtdcTrade trade = rspMsg.getFtdcTrade();
+			assertEquals(Integer.toString(seq), trade.getOrderRef());
+			assertEquals("T" + seq, trade.getTradeID());
+			assertEquals("rb2110", trade.getInstrumentID());
+			assertEquals(5000.5 + seq, trade.getPrice(), 0.0);
+			assertEquals(seq, trade.getVolume());
+		}
+	}
+
+	@Test
+	public void testSpill() throws InterruptedException, IOException {
+		File spillFile = File.createTempFile("ftdc-spill", ".dat");
+		spillFile.deleteOnExit();
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<FtdcRspMsg> received = new CopyOnWriteArrayList<>();
+		// 溢出文件只能容纳一部分消息, 其余进入堆内队列
+		try (FtdcPriorityLanes lanes = new FtdcPriorityLanes("spill-test", 8, 8, false, spillFile, 16 * 1024,
+				rspMsg -> {
+					if (received.isEmpty()) {
+						blocked.countDown();
+						try {
+							release.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+					received.add(rspMsg);
+				})) {
+			lanes.start();
+			lanes.publish(newTrade(0));
+			assertTrue(blocked.await(5, TimeUnit.SECONDS));
+			// 消费线程阻塞期间写满交易通道并进入溢出段
+			for (int seq = 1; seq < 2000; seq++)
+				lanes.publish(newTrade(seq));
+			assertTrue(lanes.getSpillEventCount() == 1);
+			assertTrue(lanes.getFileSpillCount() > 0);
+			assertTrue(lanes.getSpillCount() > lanes.getFileSpillCount());
+
+			release.countDown();
+			await(received, 2000);
+			assertTrades(received, 0, 2000);
+
+			// 溢出段清空后恢复写入交易通道, 溢出文件从头复用
+			for (int seq = 2000; seq < 2100; seq++)
+				lanes.publish(newTrade(seq));
+			await(received, 2100);
+			assertTrades(received, 2000, 2100);
+		}
+	}
+
+}
@@ -0,0 +1,33 @@
+package io.horizon.ftdc.gateway.queue;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcTrade;
+
+public class FtdcRspQueueTest {
+
+	@Test
+	public void testNoDropWhenFull() throws InterruptedException {
+		List<FtdcRspMsg> received = new CopyOnWriteArrayList<>();
+		// 容量远小于消息数量, 写入方等待消费线程, 消息全部按顺序到达
+		try (FtdcRspQueue queue = new FtdcRspQueue("rsp-queue-test", 8, rspMsg -> {
+			received.add(rspMsg);
+		}).setWaitStrategy(FtdcWaitStrategy.Park).start()) {
+			for (int seq = 0; seq < 1000; seq++)
+				queue.publish(new FtdcRspMsg(new FtdcTrade().setOrderRef(Integer.toString(seq))));
+			long deadline = System.currentTimeMillis() + 10000;
+			while (received.size() < 1000 && System.currentTimeMillis() < deadline)
+				Thread.sleep(10);
+		}
+		assertEquals(1000, received.size());
+		for (int seq = 0; seq < 1000; seq++)
+			assertEquals(Integer.toString(seq), received.get(seq).getFtdcTrade().getOrderRef());
+	}
+
+}
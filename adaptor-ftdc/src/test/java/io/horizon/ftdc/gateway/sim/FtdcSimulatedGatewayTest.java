@@ -0,0 +1,72 @@
+package io.horizon.ftdc.gateway.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.horizon.ftdc.adaptor.consts.FtdcDirection;
+import io.horizon.ftdc.adaptor.consts.FtdcHedgeFlag;
+import io.horizon.ftdc.adaptor.consts.FtdcOffsetFlag;
+import io.horizon.ftdc.adaptor.consts.FtdcOrderStatusType;
+import io.horizon.ftdc.gateway.FtdcConfig;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg;
+import io.horizon.ftdc.gateway.msg.FtdcRspMsg.RspType;
+import io.horizon.ftdc.gateway.msg.rsp.FtdcInputOrder;
+
+public class FtdcSimulatedGatewayTest {
+
+	private final LinkedBlockingQueue<FtdcRspMsg> received = new LinkedBlockingQueue<>();
+
+	private FtdcRspMsg next() throws InterruptedException {
+		FtdcRspMsg msg = received.poll(5, TimeUnit.SECONDS);
+		assertTrue(msg != null);
+		return msg;
+	}
+
+	@Test
+	public void test() throws InterruptedException, IOException {
+		FtdcConfig config = new FtdcConfig().setBrokerId("9999").setInvestorId("000001").setUserId("000001")
+				.setSimulatedConfig(new FtdcSimulatedConfig().setTicksPerSecond(0));
+		try (FtdcSimulatedGateway gateway = new FtdcSimulatedGateway("sim-test", config, received::offer)) {
+			gateway.bootstrap();
+			assertEquals(RspType.FtdcTraderConnect, next().getRspType());
+			assertEquals(RspType.FtdcMdConnect, next().getRspType());
+
+			gateway.ReqOrderInsert(new FtdcInputOrder().setInstrumentID("rb2110").setExchangeID("SHFE")
+					.setOrderRef("1").setDirection(FtdcDirection.Buy).setCombOffsetFlag(FtdcOffsetFlag.OpenString)
+					.setCombHedgeFlag(FtdcHedgeFlag.SpeculationString).setLimitPrice(5000).setVolumeTotalOriginal(2));
+			// 报单回报顺序与CTP一致
+			assertEquals(FtdcOrderStatusType.Unknown, next().getFtdcOrder().getOrderStatus());
+			assertEquals(FtdcOrderStatusType.NoTradeQueueing, next().getFtdcOrder().getOrderStatus());
+			assertEquals(FtdcOrderStatusType.AllTraded, next().getFtdcOrder().getOrderStatus());
+			assertEquals(2, next().getFtdcTrade().getVolume());
+
+			int requestId = gateway.ReqQryInvestorPosition("SHFE", "rb2110");
+			FtdcRspMsg position = next();
+			assertEquals(requestId, position.getRequestId());
+			assertTrue(position.isLast());
+			assertEquals(2, position.getFtdcInvestorPosition().getPosition());
+
+			// 已完成的订单撤单失败, 携带CTP错误代码
+			gateway.ReqOrderAction("1", 1);
+			FtdcRspMsg action = next();
+			assertEquals(RspType.FtdcInputOrderAction, action.getRspType());
+			assertEquals("1", action.getFtdcInputOrderAction().getOrderRef());
+			assertEquals(25, action.getFtdcInputOrderAction().getErrorID());
+			assertTrue(action.getRequestId() > 0);
+			// 随后推送ErrRtnOrderAction
+			FtdcRspMsg errRtnAction = next();
+			assertEquals(RspType.FtdcOrderAction, errRtnAction.getRspType());
+			assertEquals("1", errRtnAction.getFtdcOrderAction().getOrderRef());
+			assertEquals(1, errRtnAction.getFtdcOrderAction().getOrderActionRef());
+			assertEquals(25, errRtnAction.getFtdcOrderAction().getErrorID());
+			assertEquals(0, errRtnAction.getRequestId());
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+package io.horizon.ftdc.launch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import io.horizon.market.data.impl.BasicMarketData;
+import io.horizon.market.instrument.Instrument;
+import io.horizon.market.instrument.spec.ChinaFutures;
+import io.horizon.market.instrument.spec.ChinaFuturesSymbol;
+import io.horizon.trader.order.OrderReport;
+import io.horizon.trader.order.attr.OrdStatus;
+import io.horizon.trader.order.attr.TrdAction;
+import io.horizon.trader.order.attr.TrdDirection;
+
+public class FtdcBinaryCodecTest {
+
+	@Test
+	public void testMarketData() {
+		Instrument instrument = new ChinaFutures(ChinaFuturesSymbol.RB, 2110);
+		BasicMarketData marketData = new BasicMarketData(instrument, 1622700000000L).setLastPrice(51200L)
+				.setVolume(300).setBidPrice1(51190L).setBidVolume1(7).setAskPrice5(51250L).setAskVolume5(9);
+		ByteBuffer buffer = FtdcBinaryCodec.allocate(FtdcBinaryCodec.MarketDataSize);
+		FtdcBinaryCodec.encodeMarketData(marketData, 123L, buffer);
+		assertEquals(FtdcBinaryCodec.TypeMarketData, FtdcBinaryCodec.getType(buffer));
+		assertEquals(instrument.getInstrumentId(), FtdcBinaryCodec.getInstrumentId(buffer));
+		assertEquals(123L, FtdcBinaryCodec.getSendNanos(buffer));
+		assertEquals(51200L, FtdcBinaryCodec.getLastPrice(buffer));
+		assertEquals(300, FtdcBinaryCodec.getVolume(buffer));
+		assertEquals(51190L, FtdcBinaryCodec.bidPrice(buffer, 0));
+		assertEquals(7, FtdcBinaryCodec.bidVolume(buffer, 0));
+		assertEquals(51250L, FtdcBinaryCodec.askPrice(buffer, 4));
+		assertEquals(9, FtdcBinaryCodec.askVolume(buffer, 4));
+	}
+
+	@Test
+	public void testOrderReport() {
+		OrderReport report = new OrderReport(8L).setEpochMillis(1622700000000L).setOrdStatus(OrdStatus.Filled)
+				.setDirection(TrdDirection.Long).setAction(TrdAction.Open).setOfferQty(2).setFilledQty(2)
+				.setOfferPrice(51200L).setTradePrice(51190L).setOrderRef("100001")
+				.setBrokerUniqueId("       12345").setInvestorId("000001");
+		ByteBuffer buffer = FtdcBinaryCodec.allocate(FtdcBinaryCodec.OrderReportSize);
+		FtdcBinaryCodec.encodeOrderReport(report, 456L, buffer);
+		assertEquals(456L, FtdcBinaryCodec.getSendNanos(buffer));
+		OrderReport decoded = FtdcBinaryCodec.decodeOrderReport(buffer);
+		assertEquals(8L, decoded.getOrdSysId());
+		assertEquals(OrdStatus.Filled, decoded.getOrdStatus());
+		assertEquals(TrdDirection.Long, decoded.getDirection());
+		assertEquals(TrdAction.Open, decoded.getAction());
+		assertNull(decoded.getOrdType());
+		assertNull(decoded.getInstrument());
+		assertEquals(2, decoded.getFilledQty());
+		assertEquals(51190L, decoded.getTradePrice());
+		assertEquals("100001", decoded.getOrderRef());
+		assertEquals("       12345", decoded.getBrokerUniqueId());
+		assertEquals("000001", decoded.getInvestorId());
+	}
+
+}
@@ -0,0 +1,72 @@
+package io.horizon.ftdc.launch;
+
+import java.util.concurrent.TimeUnit;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+import com.rabbitmq.client.MessageProperties;
+
+/**
+ * 对比逐条发布持久化消息并等待确认与FtdcRabbitBatchSink批量发布的吞吐量<br>
+ * 需要本地RabbitMQ, 参数: [host] [port] [username] [password] [count],
+ * 默认为[127.0.0.1] [5672] [guest] [guest] [100000]<br>
+ * 使用非持久化的临时队列绑定到默认交换机
+ *
+ * @author yellow013
+ */
+public final class FtdcRabbitBatchSinkBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		ConnectionFactory factory = new ConnectionFactory();
+		factory.setHost(args.length > 0 ? args[0] : "127.0.0.1");
+		factory.setPort(args.length > 1 ? Integer.parseInt(args[1]) : 5672);
+		factory.setUsername(args.length > 2 ? args[2] : "guest");
+		factory.setPassword(args.length > 3 ? args[3] : "guest");
+		int count = args.length > 4 ? Integer.parseInt(args[4]) : 100000;
+		byte[] record = new byte[FtdcBinaryCodec.OrderReportSize];
+
+		try (Connection connection = factory.newConnection()) {
+			// 与FtdcRabbitBatchSink声明的队列属性一致
+			String queue = "ftdc.benchmark";
+			try (Channel channel = connection.createChannel()) {
+				channel.queueDeclare(queue, true, false, false, null);
+			}
+
+			// 逐条发布, 每条等待确认
+			int unbatchedCount = Math.min(count, 10000);
+			try (Channel channel = connection.createChannel()) {
+				channel.confirmSelect();
+				long start = System.nanoTime();
+				for (int i = 0; i < unbatchedCount; i++) {
+					channel.basicPublish("", queue, MessageProperties.PERSISTENT_BASIC, record);
+					channel.waitForConfirmsOrDie(5000);
+				}
+				report("unbatched", unbatchedCount, System.nanoTime() - start);
+			}
+
+			// 批量发布, 异步确认
+			FtdcRabbitBatchSink sink = new FtdcRabbitBatchSink(connection, "", queue, FtdcBinaryCodec.OrderReportSize,
+					500, 2, 256, true);
+			long start = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				while (!sink.publish(record))
+					Thread.yield();
+			}
+			while (sink.getConfirmedCount() < count && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(60))
+				Thread.sleep(1);
+			report("batched", sink.getConfirmedCount(), System.nanoTime() - start);
+			sink.close();
+
+			try (Channel channel = connection.createChannel()) {
+				channel.queueDelete(queue);
+			}
+		}
+	}
+
+	private static void report(String name, long count, long nanos) {
+		System.out.printf("%s: records=%d, elapsed=%dms, rate=%.0f records/s%n", name, count,
+				TimeUnit.NANOSECONDS.toMillis(nanos), count * 1e9 / nanos);
+	}
+
+}
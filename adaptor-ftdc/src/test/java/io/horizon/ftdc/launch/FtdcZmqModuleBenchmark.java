@@ -0,0 +1,95 @@
+package io.horizon.ftdc.launch;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.zeromq.SocketType;
+import org.zeromq.ZContext;
+import org.zeromq.ZMQ;
+
+import io.horizon.market.data.impl.BasicMarketData;
+import io.horizon.market.instrument.Instrument;
+import io.horizon.market.instrument.spec.ChinaFutures;
+import io.horizon.market.instrument.spec.ChinaFuturesSymbol;
+
+/**
+ * 测量FtdcZmqModule在本机端点上的吞吐量和端到端延迟<br>
+ * 参数: [endpoint] [count] [ratePerSecond], 默认为[tcp://127.0.0.1:5551] [1000000] [0], 速率为0时不限速<br>
+ * 延迟为发布时的System.nanoTime()到订阅方收到消息的时间, 丢弃的消息不计入
+ *
+ * @author yellow013
+ */
+public final class FtdcZmqModuleBenchmark {
+
+	public static void main(String[] args) throws InterruptedException {
+		String endpoint = args.length > 0 ? args[0] : "tcp://127.0.0.1:5551";
+		int count = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+		int ratePerSecond = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+		Instrument instrument = new ChinaFutures(ChinaFuturesSymbol.RB, 2110);
+		BasicMarketData marketData = new BasicMarketData(instrument, System.currentTimeMillis()).setLastPrice(51200L)
+				.setBidPrice1(51190L).setBidVolume1(10).setAskPrice1(51210L).setAskVolume1(10);
+
+		Histogram histogram = new Histogram(TimeUnit.SECONDS.toNanos(10), 3);
+		CountDownLatch subscribed = new CountDownLatch(1);
+		CountDownLatch finished = new CountDownLatch(1);
+		long[] received = new long[1];
+
+		try (FtdcZmqModule module = new FtdcZmqModule(endpoint, count)) {
+			Thread subscriber = new Thread(() -> {
+				try (ZContext context = new ZContext()) {
+					ZMQ.Socket socket = context.createSocket(SocketType.SUB);
+					socket.setRcvHWM(count);
+					socket.setReceiveTimeOut(2000);
+					socket.connect(endpoint);
+					socket.subscribe(FtdcZmqModule.MarketDataTopicPrefix + "rb");
+					subscribed.countDown();
+					ByteBuffer buffer = FtdcBinaryCodec.allocate(FtdcBinaryCodec.MarketDataSize);
+					while (received[0] < count) {
+						if (socket.recv() == null)
+							break;
+						buffer.clear();
+						int len = socket.recvByteBuffer(buffer, 0);
+						long latency = System.nanoTime() - FtdcBinaryCodec.getSendNanos(buffer);
+						if (len == FtdcBinaryCodec.MarketDataSize)
+							histogram.recordValue(Math.min(latency, histogram.getHighestTrackableValue()));
+						received[0]++;
+					}
+				}
+				finished.countDown();
+			}, "zmq-benchmark-sub");
+			subscriber.start();
+			subscribed.await();
+			// 等待订阅生效
+			Thread.sleep(500);
+
+			long intervalNanos = ratePerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / ratePerSecond : 0L;
+			long start = System.nanoTime();
+			long next = start;
+			for (int i = 0; i < count; i++) {
+				if (intervalNanos > 0) {
+					while (System.nanoTime() < next)
+						;
+					next += intervalNanos;
+				}
+				marketData.setVolume(i);
+				module.onMarketData(marketData);
+			}
+			long publishNanos = System.nanoTime() - start;
+			finished.await();
+			long totalNanos = System.nanoTime() - start;
+
+			// 高水位丢弃对发布方不可见, 以发布与接收数量之差计算
+			System.out.printf("endpoint=%s, published=%d, dropped=%d, received=%d%n", endpoint,
+					module.getPublishedCount(), module.getPublishedCount() - received[0], received[0]);
+			System.out.printf("publish rate=%.0f msg/s, receive rate=%.0f msg/s%n",
+					count * 1e9 / publishNanos, received[0] * 1e9 / totalNanos);
+			System.out.printf("latency(us) p50=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+					histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+					histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+		}
+	}
+
+}
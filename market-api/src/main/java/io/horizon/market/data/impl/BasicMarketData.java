@@ -14,20 +14,18 @@ import io.horizon.market.data.MarketData;
 import io.horizon.market.instrument.Instrument;
 import io.mercury.common.datetime.EpochTime;
 import io.mercury.serialization.json.JsonWrapper;
-import lombok.RequiredArgsConstructor;
 
 /**
  * @author yellow013
  * @creation 2019年5月24日
  * @description 价格转换使用对应Instrument的价格乘数
  */
-@RequiredArgsConstructor
 public class BasicMarketData implements MarketData {
 
 	// Required
 	private final Instrument instrument;
-	// Required
-	private final long epochMillis;
+	// Required, 复用对象时可更新
+	private long epochMillis;
 
 	/** base info **/
 	private LocalDateTime datetime;
@@ -79,6 +77,16 @@ public class BasicMarketData implements MarketData {
 	private long askPrice10;
 	private int askVolume10;
 
+	/**
+	 * 
+	 * @param instrument
+	 * @param epochMillis
+	 */
+	public BasicMarketData(@Nonnull Instrument instrument, long epochMillis) {
+		this.instrument = instrument;
+		this.epochMillis = epochMillis;
+	}
+
 	/**
 	 * 
 	 * @param instrument
@@ -353,6 +361,17 @@ public class BasicMarketData implements MarketData {
 		return askVolume10;
 	}
 
+	/**
+	 * 更新时间戳并清除已缓存的时间对象, 仅供可复用的子类使用
+	 * 
+	 * @param epochMillis
+	 */
+	protected void updateEpochMillis(long epochMillis) {
+		this.epochMillis = epochMillis;
+		this.datetime = null;
+		this.zonedDateTime = null;
+	}
+
 	public BasicMarketData setLastPrice(long lastPrice) {
 		this.lastPrice = lastPrice;
 		return this;
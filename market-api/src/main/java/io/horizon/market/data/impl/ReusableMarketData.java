@@ -0,0 +1,38 @@
+package io.horizon.market.data.impl;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import io.horizon.market.instrument.Instrument;
+
+/**
+ * 可复用的行情对象, 每个Instrument持有一个实例<br>
+ * 以享元方式传递给MarketDataHandler, 只在回调期间有效, 需要保留时应自行复制
+ * 
+ * @author yellow013
+ */
+@NotThreadSafe
+public final class ReusableMarketData extends BasicMarketData {
+
+	public ReusableMarketData(@Nonnull Instrument instrument) {
+		super(instrument, 0L);
+	}
+
+	/**
+	 * 写入新的基础行情, 盘口价格和数量由调用方通过setter继续写入
+	 * 
+	 * @param epochMillis
+	 * @param lastPrice
+	 * @param volume
+	 * @param turnover
+	 * @return
+	 */
+	public ReusableMarketData reuse(long epochMillis, long lastPrice, int volume, long turnover) {
+		updateEpochMillis(epochMillis);
+		setLastPrice(lastPrice);
+		setVolume(volume);
+		setTurnover(turnover);
+		return this;
+	}
+
+}
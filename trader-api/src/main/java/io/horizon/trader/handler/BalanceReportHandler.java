@@ -0,0 +1,39 @@
+package io.horizon.trader.handler;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+
+import io.horizon.trader.adaptor.bean.BalanceReport;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 处理资金查询返回的账户权益
+ * 
+ * @author yellow013
+ */
+@FunctionalInterface
+public interface BalanceReportHandler {
+
+	void onBalanceReport(@Nonnull final BalanceReport report);
+
+	/**
+	 * Logger implements BalanceReportHandler
+	 * 
+	 * @author yellow013
+	 *
+	 */
+	@RequiredArgsConstructor
+	public static class BalanceReportLogger implements BalanceReportHandler {
+
+		private final Logger log;
+
+		@Override
+		public void onBalanceReport(final BalanceReport report) {
+			log.info("BalanceReportLogger -> investorId==[{}], balance==[{}]", report.getInvestorId(),
+					report.getBalance());
+		}
+
+	}
+
+}
@@ -1,5 +1,7 @@
 package io.horizon.trader.handler;
 
+import java.util.List;
+
 import javax.annotation.Nonnull;
 
 import org.slf4j.Logger;
@@ -12,6 +14,18 @@ public interface OrderReportHandler {
 
 	void onOrderReport(@Nonnull final OrderReport report);
 
+	/**
+	 * 处理一次订单查询返回的全部订单快照<br>
+	 * 列表可能被调用方复用, 只在回调期间有效<br>
+	 * 默认逐条调用onOrderReport
+	 * 
+	 * @param reports
+	 */
+	default void onOrderReports(@Nonnull final List<OrderReport> reports) {
+		for (int i = 0; i < reports.size(); i++)
+			onOrderReport(reports.get(i));
+	}
+
 	/**
 	 * Logger implements AdaptorEventHandler
 	 * 
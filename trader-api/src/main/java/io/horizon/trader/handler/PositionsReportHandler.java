@@ -0,0 +1,42 @@
+package io.horizon.trader.handler;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+
+import io.horizon.trader.adaptor.bean.PositionsReport;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 处理一次持仓查询返回的全部持仓<br>
+ * 列表可能被调用方复用, 只在回调期间有效
+ * 
+ * @author yellow013
+ */
+@FunctionalInterface
+public interface PositionsReportHandler {
+
+	void onPositionsReports(@Nonnull final List<PositionsReport> reports);
+
+	/**
+	 * Logger implements PositionsReportHandler
+	 * 
+	 * @author yellow013
+	 *
+	 */
+	@RequiredArgsConstructor
+	public static class PositionsReportLogger implements PositionsReportHandler {
+
+		private final Logger log;
+
+		@Override
+		public void onPositionsReports(final List<PositionsReport> reports) {
+			reports.forEach(report -> log.info("PositionsReportLogger -> instrumentCode==[{}], currentQty==[{}]",
+					report.getInstrumentCode(), report.getCurrentQty()));
+		}
+
+	}
+
+}
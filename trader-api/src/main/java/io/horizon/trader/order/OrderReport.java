@@ -139,6 +139,34 @@ public final class OrderReport implements Serial {
 	@Setter
 	private String lastUpdateTime;
 
+	/**
+	 * offer time, epoch millis
+	 */
+	@Getter
+	@Setter
+	private long offerEpochMillis;
+
+	/**
+	 * last update time, epoch millis
+	 */
+	@Getter
+	@Setter
+	private long lastUpdateEpochMillis;
+
+	/**
+	 * broker error id, 0 if no error
+	 */
+	@Getter
+	@Setter
+	private int errorId;
+
+	/**
+	 * broker error message
+	 */
+	@Getter
+	@Setter
+	private String errorMsg;
+
 	@Override
 	public String toString() {
 		return JsonWrapper.toJson(this);